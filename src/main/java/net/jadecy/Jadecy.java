@@ -24,9 +24,9 @@ import java.util.SortedMap;
 import java.util.SortedSet;
 import java.util.TreeMap;
 
-import net.jadecy.code.AbstractCodeData;
 import net.jadecy.code.CodeDataUtils;
 import net.jadecy.code.DerivedTreeComputer;
+import net.jadecy.code.FrozenCodeGraph;
 import net.jadecy.code.PackageData;
 import net.jadecy.graph.CyclesComputer;
 import net.jadecy.graph.InterfaceVertex;
@@ -79,13 +79,33 @@ import net.jadecy.utils.SortUtils;
  * instead of classes or packages depended on.
  * The filter parameter allows to confine computations to sub sets
  * of parsed data, without having to clear and re-parse each time.
+ * Instances can also be configured, through withMustUseFrozenGraph(...),
+ * to run computations on a FrozenCodeGraph snapshot of these graphs,
+ * which is faster to iterate over than PackageData trees, for example
+ * when doing many computations without modifying parsed data.
  * 
  * Caching:
- * No caching is done, because default package derivation is quite fast
- * (in the order of 50ms for a tree of thousands of packages and tens of
- * thousands of classes), it keeps code simple (even though it wouldn't be hard
- * to implement, using default package data mod count), and it avoids possible
- * noticeable memory leaks in case of multiple Jadecy instances creations.
+ * When only inverse dependencies are used, computations work on read-only
+ * views of parser's default package data (see InverseCodeData), which don't
+ * require any copy.
+ * When a retained class name filter other than NameFilters.any() is used,
+ * computations work on a copy of parser's default package data derived
+ * accordingly (with inverse dependencies if needed). Each instance keeps the
+ * last copy it derived, along with the mod count of parser's default package
+ * data at the time, and reuses it as long as this mod count does not change,
+ * so that many computations in a row (such as for DepUnit checks) only derive
+ * it once.
+ * When using a frozen graph, the last snapshot is cached the same way.
+ * This cache is per instance, and not shared among instances derived through
+ * withXXX methods, for it to be garbage collected along with the instance,
+ * and not to grow with each configuration used.
+ * 
+ * Cause tracking:
+ * Causes of packages dependencies in results (dependencies graphs, paths,
+ * and cycles) come from the causes sets of parser's default package data,
+ * so if it does not use CauseTracking.FULL, they are computed from classes
+ * dependencies (LAZY), or are empty (COUNT), unless computations work on
+ * a derived copy using inverse dependencies, which always has full causes.
  * 
  * Concurrency:
  * Jadecy computations can be executed concurrently with each other, but must
@@ -102,6 +122,44 @@ public class Jadecy {
      * trouble by using an empty collection as causes.
      */
     
+    //--------------------------------------------------------------------------
+    // PRIVATE CLASSES
+    //--------------------------------------------------------------------------
+    
+    /**
+     * A derived default package data, with what it was derived from.
+     */
+    private static class MyDerivedTree {
+        final PackageData sourceDefaultPackageData;
+        final long sourceModCount;
+        final PackageData derivedDefaultPackageData;
+        MyDerivedTree(
+                PackageData sourceDefaultPackageData,
+                long sourceModCount,
+                PackageData derivedDefaultPackageData) {
+            this.sourceDefaultPackageData = sourceDefaultPackageData;
+            this.sourceModCount = sourceModCount;
+            this.derivedDefaultPackageData = derivedDefaultPackageData;
+        }
+    }
+    
+    /**
+     * A frozen graph, with what it was frozen from.
+     */
+    private static class MyFrozenGraph {
+        final PackageData sourceDefaultPackageData;
+        final long sourceModCount;
+        final FrozenCodeGraph frozenGraph;
+        MyFrozenGraph(
+                PackageData sourceDefaultPackageData,
+                long sourceModCount,
+                FrozenCodeGraph frozenGraph) {
+            this.sourceDefaultPackageData = sourceDefaultPackageData;
+            this.sourceModCount = sourceModCount;
+            this.frozenGraph = frozenGraph;
+        }
+    }
+    
     //--------------------------------------------------------------------------
     // MEMBERS
     //--------------------------------------------------------------------------
@@ -126,6 +184,24 @@ public class Jadecy {
      */
     private final InterfaceNameFilter retainedClassNameFilter;
     
+    /**
+     * Last derived default package data, or null if none.
+     * Volatile since computations can be executed concurrently (in which
+     * case they might each derive the tree, which is harmless).
+     */
+    private volatile MyDerivedTree lastDerivedTree = null;
+    
+    /**
+     * If true, computations run on a snapshot of the graph to use.
+     */
+    private final boolean mustUseFrozenGraph;
+    
+    /**
+     * Last frozen graph, or null if none.
+     * Volatile for the same reason than lastDerivedTree.
+     */
+    private volatile MyFrozenGraph lastFrozenGraph = null;
+    
     //--------------------------------------------------------------------------
     // PUBLIC METHODS
     //--------------------------------------------------------------------------
@@ -171,9 +247,11 @@ public class Jadecy {
             //
             boolean mustUseInverseDeps,
             InterfaceNameFilter retainedClassNameFilter) {
-        this.parser = ArgsUtils.requireNonNull(parser);
-        this.mustUseInverseDeps = mustUseInverseDeps;
-        this.retainedClassNameFilter = ArgsUtils.requireNonNull(retainedClassNameFilter);
+        this(
+                parser,
+                mustUseInverseDeps,
+                retainedClassNameFilter,
+                false); // mustUseFrozenGraph
     }
     
     /*
@@ -195,7 +273,8 @@ public class Jadecy {
         return new Jadecy(
                 this.parser,
                 mustUseInverseDeps,
-                this.retainedClassNameFilter);
+                this.retainedClassNameFilter,
+                this.mustUseFrozenGraph);
     }
 
     /**
@@ -217,7 +296,34 @@ public class Jadecy {
         return new Jadecy(
                 this.parser,
                 this.mustUseInverseDeps,
-                retainedClassNameFilter);
+                retainedClassNameFilter,
+                this.mustUseFrozenGraph);
+    }
+    
+    /**
+     * Freezing takes time and memory, so it is only worth it when doing
+     * multiple computations in a row, or on large graphs.
+     * Also, cycles, shortest cycles and paths graph computations still copy
+     * the vertices they work on into their own work graphs, so they benefit
+     * less from a frozen graph than other computations.
+     * 
+     * @param mustUseFrozenGraph True if computations must run on a snapshot
+     *        of the graph to use (see FrozenCodeGraph), frozen on first
+     *        computation and again whenever parser's default package data
+     *        is modified, false if they must run on the graph itself.
+     * @return A new Jadecy instance with the specified configuration,
+     *         sharing the same parser than this one, or this instance
+     *         if it has the requested configuration.
+     */
+    public Jadecy withMustUseFrozenGraph(boolean mustUseFrozenGraph) {
+        if (mustUseFrozenGraph == this.mustUseFrozenGraph) {
+            return this;
+        }
+        return new Jadecy(
+                this.parser,
+                this.mustUseInverseDeps,
+                this.retainedClassNameFilter,
+                mustUseFrozenGraph);
     }
 
     /*
@@ -248,6 +354,14 @@ public class Jadecy {
         return this.retainedClassNameFilter;
     }
     
+    /**
+     * @return True if this instance runs computations on a frozen graph,
+     *         false otherwise.
+     */
+    public boolean getMustUseFrozenGraph() {
+        return this.mustUseFrozenGraph;
+    }
+    
     /*
      * Matches.
      */
@@ -279,8 +393,9 @@ public class Jadecy {
         
         final SortedMap<String,Long> byteSizeByName = new TreeMap<String,Long>();
         for (InterfaceVertex vertex : vertexColl) {
-            final AbstractCodeData vertexD = (AbstractCodeData) vertex;
-            byteSizeByName.put(vertexD.displayName(), vertexD.byteSize());
+            byteSizeByName.put(
+                    JdcVcpUtils.displayName(vertex),
+                    JdcVcpUtils.byteSize(vertex));
         }
         
         return byteSizeByName;
@@ -364,7 +479,7 @@ public class Jadecy {
      *         dependencies) of these dependencies, and values the sets of the
      *         causes for these successors (or predecessors), i.e. empty sets
      *         if elements are classes, and sets of class names if elements are
-     *         packages.
+     *         packages (empty with COUNT cause tracking, cf. class Javadoc).
      * @throws NullPointerException if any argument is null.
      */
     public List<SortedMap<String,SortedMap<String,SortedSet<String>>>> computeDepsGraph(
@@ -426,7 +541,8 @@ public class Jadecy {
      *         traversal.
      *         These maps only contain one key, which is the element reached
      *         on the path for the step of the map, and the value is the set
-     *         of causes of the dependency to the next element.
+     *         of causes of the dependency to the next element (empty for
+     *         classes, or with COUNT cause tracking, cf. class Javadoc).
      *         The causes set in last map is empty, as there is no next element.
      * @throws NullPointerException if any argument is null.
      */
@@ -498,7 +614,8 @@ public class Jadecy {
      *         which keys are their successors (or predecessors in case of
      *         inverse dependencies), and values the causes set of these
      *         successors (or predecessors), i.e. empty sets if elements are
-     *         classes, or sets of class names if elements are packages. 
+     *         classes, or sets of class names if elements are packages
+     *         (empty with COUNT cause tracking, cf. class Javadoc).
      * @throws NullPointerException if any argument is null.
      */
     public SortedMap<String,SortedMap<String,SortedSet<String>>> computePathsGraph(
@@ -730,41 +847,114 @@ public class Jadecy {
     // PRIVATE METHODS
     //--------------------------------------------------------------------------
     
+    private Jadecy(
+            InterfaceDepsParser parser,
+            //
+            boolean mustUseInverseDeps,
+            InterfaceNameFilter retainedClassNameFilter,
+            boolean mustUseFrozenGraph) {
+        this.parser = ArgsUtils.requireNonNull(parser);
+        this.mustUseInverseDeps = mustUseInverseDeps;
+        this.retainedClassNameFilter = ArgsUtils.requireNonNull(retainedClassNameFilter);
+        this.mustUseFrozenGraph = mustUseFrozenGraph;
+    }
+    
     /**
      * @return Default package data to use for computation, and for read only usage.
      */
     private PackageData computeDefaultPackageDataToUse() {
         
-        final PackageData defaultPackageDataToUse;
+        final PackageData defaultPackageData = this.parser.getDefaultPackageData();
         
-        if ((!this.mustUseInverseDeps)
-                && (this.retainedClassNameFilter == NameFilters.any())) {
-            // No need to derive.
-            defaultPackageDataToUse = this.parser.getDefaultPackageData();
-        } else {
-            defaultPackageDataToUse = DerivedTreeComputer.computeDerivedTree(
-                    this.parser.getDefaultPackageData(),
-                    this.mustUseInverseDeps,
-                    this.retainedClassNameFilter);
+        if (this.retainedClassNameFilter == NameFilters.any()) {
+            // No need to derive, inverse dependencies if any
+            // being handled with views.
+            return defaultPackageData;
         }
         
-        return defaultPackageDataToUse;
+        final long modCount = defaultPackageData.getSubtreeModCount();
+        
+        final MyDerivedTree lastDerivedTree = this.lastDerivedTree;
+        if ((lastDerivedTree != null)
+                && (lastDerivedTree.sourceDefaultPackageData == defaultPackageData)
+                && (lastDerivedTree.sourceModCount == modCount)) {
+            return lastDerivedTree.derivedDefaultPackageData;
+        }
+        
+        final PackageData derivedDefaultPackageData = DerivedTreeComputer.computeDerivedTree(
+                defaultPackageData,
+                this.mustUseInverseDeps,
+                this.retainedClassNameFilter);
+        this.lastDerivedTree = new MyDerivedTree(
+                defaultPackageData,
+                modCount,
+                derivedDefaultPackageData);
+        
+        return derivedDefaultPackageData;
     }
     
-    private static Collection<InterfaceVertex> computeVertexColl(
+    /**
+     * @param defaultPackageData Default package data to use, as returned
+     *        by computeDefaultPackageDataToUse().
+     */
+    private Collection<InterfaceVertex> computeVertexColl(
             PackageData defaultPackageData,
             ElemType elemType,
             InterfaceNameFilter nameFilter) {
+        // If the tree has been derived, dependencies have already been
+        // reversed if needed.
+        final boolean mustReverseDeps =
+                this.mustUseInverseDeps
+                && (this.retainedClassNameFilter == NameFilters.any());
         final Collection<InterfaceVertex> vertexColl;
-        if (elemType == ElemType.CLASS) {
+        if (this.mustUseFrozenGraph) {
+            final FrozenCodeGraph frozenGraph = this.computeFrozenGraph(
+                    defaultPackageData,
+                    mustReverseDeps);
+            if (elemType == ElemType.CLASS) {
+                vertexColl = frozenGraph.newClassVertexList(nameFilter);
+            } else {
+                vertexColl = frozenGraph.newPackageVertexList(nameFilter);
+            }
+        } else if (elemType == ElemType.CLASS) {
             vertexColl = CodeDataUtils.newClassDataList(
                     defaultPackageData,
-                    nameFilter);
+                    nameFilter,
+                    mustReverseDeps);
         } else {
             vertexColl = CodeDataUtils.newPackageDataList(
                     defaultPackageData,
-                    nameFilter);
+                    nameFilter,
+                    mustReverseDeps);
         }
         return vertexColl;
     }
+    
+    /**
+     * @return Snapshot of the specified default package data,
+     *         from cache if possible.
+     */
+    private FrozenCodeGraph computeFrozenGraph(
+            PackageData defaultPackageData,
+            boolean mustReverseDeps) {
+        
+        final long modCount = defaultPackageData.getSubtreeModCount();
+        
+        final MyFrozenGraph lastFrozenGraph = this.lastFrozenGraph;
+        if ((lastFrozenGraph != null)
+                && (lastFrozenGraph.sourceDefaultPackageData == defaultPackageData)
+                && (lastFrozenGraph.sourceModCount == modCount)) {
+            return lastFrozenGraph.frozenGraph;
+        }
+
+        final FrozenCodeGraph frozenGraph = FrozenCodeGraph.freeze(
+                defaultPackageData,
+                mustReverseDeps);
+        this.lastFrozenGraph = new MyFrozenGraph(
+                defaultPackageData,
+                modCount,
+                frozenGraph);
+        
+        return frozenGraph;
+    }
 }
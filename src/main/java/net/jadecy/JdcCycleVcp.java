@@ -16,12 +16,8 @@
 package net.jadecy;
 
 import java.util.ArrayList;
-import java.util.SortedSet;
 
-import net.jadecy.code.AbstractCodeData;
-import net.jadecy.code.ClassData;
 import net.jadecy.code.CodeDataUtils;
-import net.jadecy.code.PackageData;
 import net.jadecy.graph.CyclesUtils;
 import net.jadecy.graph.InterfaceVertex;
 import net.jadecy.graph.InterfaceVertexCollProcessor;
@@ -42,7 +38,7 @@ class JdcCycleVcp implements InterfaceVertexCollProcessor {
      * temps
      */
     
-    private final ArrayList<AbstractCodeData> tmpCycle = new ArrayList<AbstractCodeData>();
+    private final ArrayList<InterfaceVertex> tmpCycle = new ArrayList<InterfaceVertex>();
     
     //--------------------------------------------------------------------------
     // PUBLIC METHODS
@@ -62,7 +58,7 @@ class JdcCycleVcp implements InterfaceVertexCollProcessor {
     
     @Override
     public void processCollVertex(InterfaceVertex vertex) {
-        this.tmpCycle.add((AbstractCodeData) vertex);
+        this.tmpCycle.add(vertex);
     }
     
     @Override
@@ -73,7 +69,7 @@ class JdcCycleVcp implements InterfaceVertexCollProcessor {
             // Checking that even if merging nested classes,
             // in case used creates such dependencies programmatically
             // (as done in unit tests).
-            if (CodeDataUtils.haveSameTopLevelClass(this.tmpCycle)) {
+            if (CodeDataUtils.haveSameTopLevelClassVertex(this.tmpCycle)) {
                 // Ignoring cycle if only due to nested classes of a same
                 // top level class.
                 return false;
@@ -81,7 +77,7 @@ class JdcCycleVcp implements InterfaceVertexCollProcessor {
             
             final String[] names = new String[cycleSize];
             for (int i = 0; i < names.length; i++) {
-                names[i] = this.tmpCycle.get(i).displayName();
+                names[i] = JdcVcpUtils.displayName(this.tmpCycle.get(i));
             }
             
             // Need to normalize since cycles computers don't.
@@ -92,18 +88,16 @@ class JdcCycleVcp implements InterfaceVertexCollProcessor {
             final String[] names = new String[cycleSize];
             final String[][] causesArr = new String[cycleSize][];
             for (int i = 0; i < cycleSize; i++) {
-                final PackageData fromPackageData = (PackageData) this.tmpCycle.get(i);
-                names[i] = fromPackageData.displayName();
+                final InterfaceVertex fromPackage = this.tmpCycle.get(i);
+                names[i] = JdcVcpUtils.displayName(fromPackage);
 
-                final PackageData toPackageData;
+                final InterfaceVertex toPackage;
                 if (i < cycleSize-1) {
-                    toPackageData = (PackageData) this.tmpCycle.get(i+1);
+                    toPackage = this.tmpCycle.get(i+1);
                 } else {
-                    toPackageData = (PackageData) this.tmpCycle.get(0);
+                    toPackage = this.tmpCycle.get(0);
                 }
-                final SortedSet<ClassData> depCauses = fromPackageData.causeSetBySuccessor().get(toPackageData);
-
-                causesArr[i] = JdcVcpUtils.causesToStringArr(depCauses);
+                causesArr[i] = JdcVcpUtils.causesToStringArr(fromPackage, toPackage);
             }
 
             // Causes arrays are already sorted, due to coming out of sorted
@@ -19,7 +19,6 @@ import java.util.List;
 import java.util.SortedMap;
 import java.util.TreeMap;
 
-import net.jadecy.code.AbstractCodeData;
 import net.jadecy.graph.InterfaceVertex;
 import net.jadecy.graph.InterfaceVertexCollProcessor;
 
@@ -59,11 +58,12 @@ class JdcDepsStepsVcp implements  InterfaceVertexCollProcessor {
     
     @Override
     public void processCollVertex(InterfaceVertex vertex) {
-        final AbstractCodeData vertexD = (AbstractCodeData) vertex;
         
         final SortedMap<String,Long> byteSizeByDependency = this.byteSizeByDependencyList.get(this.byteSizeByDependencyList.size()-1);
         
-        final Long previous = byteSizeByDependency.put(vertexD.displayName(), vertexD.byteSize());
+        final Long previous = byteSizeByDependency.put(
+                JdcVcpUtils.displayName(vertex),
+                JdcVcpUtils.byteSize(vertex));
         if (previous != null) {
             // Each dependency must only appears once in a step
             // (and among all steps as well, but we don't bother
@@ -22,8 +22,6 @@ import java.util.SortedSet;
 import java.util.TreeMap;
 import java.util.TreeSet;
 
-import net.jadecy.code.AbstractCodeData;
-import net.jadecy.code.PackageData;
 import net.jadecy.graph.InterfaceVertex;
 import net.jadecy.graph.InterfaceVertexCollProcessor;
 
@@ -71,7 +69,7 @@ class JdcOneShortestPathVcp implements InterfaceVertexCollProcessor {
         final int dataCount = this.tmpVertexList.size();
         
         for (int i = 0; i < dataCount; i++) {
-            final AbstractCodeData fromData = (AbstractCodeData) this.tmpVertexList.get(i);
+            final InterfaceVertex fromVertex = this.tmpVertexList.get(i);
             
             // Map as ersatz of a Pair.
             final SortedMap<String,SortedSet<String>> depCausesByName = new TreeMap<String,SortedSet<String>>();
@@ -80,13 +78,14 @@ class JdcOneShortestPathVcp implements InterfaceVertexCollProcessor {
             if (this.elemType == ElemType.PACKAGE) {
                 final boolean isLast = (i == dataCount-1);
                 if (!isLast) {
-                    final PackageData fromPackageData = (PackageData) fromData;
-                    final PackageData toPackageData = (PackageData) this.tmpVertexList.get(i+1);
-                    JdcVcpUtils.addCausesInto(fromPackageData, toPackageData, depCauses);
+                    JdcVcpUtils.addCausesInto(
+                            fromVertex,
+                            this.tmpVertexList.get(i+1),
+                            depCauses);
                 }
             }
             
-            depCausesByName.put(fromData.displayName(), depCauses);
+            depCausesByName.put(JdcVcpUtils.displayName(fromVertex), depCauses);
             this.depCausesByNameList.add(depCausesByName);
         }
         
@@ -19,7 +19,6 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.SortedMap;
 
-import net.jadecy.code.AbstractCodeData;
 import net.jadecy.code.CodeDataUtils;
 import net.jadecy.graph.InterfaceVertex;
 import net.jadecy.graph.InterfaceVertexCollProcessor;
@@ -75,7 +74,7 @@ class JdcSccVcp implements InterfaceVertexCollProcessor {
             // Checking that even if merging nested classes,
             // in case used creates such dependencies programmatically
             // (as done in unit tests).
-            if (CodeDataUtils.haveSameTopLevelClass(sccDataList)) {
+            if (CodeDataUtils.haveSameTopLevelClassVertex(sccDataList)) {
                 // Ignoring SCCs if only due to nested classes of a same
                 // top level class.
                 return false;
@@ -83,8 +82,9 @@ class JdcSccVcp implements InterfaceVertexCollProcessor {
         }
         final ComparableTreeMap<String,Long> scc = new ComparableTreeMap<String,Long>();
         for (InterfaceVertex vertex : sccDataList) {
-            final AbstractCodeData vertexD = (AbstractCodeData) vertex;
-            final Object forCheck = scc.put(vertexD.displayName(), vertexD.byteSize());
+            final Object forCheck = scc.put(
+                    JdcVcpUtils.displayName(vertex),
+                    JdcVcpUtils.byteSize(vertex));
             if (forCheck != null) {
                 throw new AssertionError();
             }
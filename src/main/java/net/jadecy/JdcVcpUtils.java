@@ -22,9 +22,9 @@ import java.util.SortedSet;
 import java.util.TreeMap;
 import java.util.TreeSet;
 
-import net.jadecy.code.AbstractCodeData;
 import net.jadecy.code.ClassData;
-import net.jadecy.code.PackageData;
+import net.jadecy.code.CodeDataUtils;
+import net.jadecy.code.FrozenCodeGraph.FrozenVertex;
 import net.jadecy.graph.InterfaceVertex;
 
 /**
@@ -36,7 +36,44 @@ class JdcVcpUtils {
     // PUBLIC METHODS
     //--------------------------------------------------------------------------
     
-    public static String[] causesToStringArr(SortedSet<ClassData> depCauses) {
+    /**
+     * @param vertex A ClassData, a PackageData, an InverseCodeData,
+     *        or a FrozenVertex.
+     */
+    public static String displayName(InterfaceVertex vertex) {
+        if (vertex instanceof FrozenVertex) {
+            return ((FrozenVertex) vertex).displayName();
+        }
+        return CodeDataUtils.toCodeData(vertex).displayName();
+    }
+    
+    /**
+     * @param vertex A ClassData, a PackageData, an InverseCodeData,
+     *        or a FrozenVertex.
+     */
+    public static long byteSize(InterfaceVertex vertex) {
+        if (vertex instanceof FrozenVertex) {
+            return ((FrozenVertex) vertex).byteSize();
+        }
+        return CodeDataUtils.toCodeData(vertex).byteSize();
+    }
+    
+    /**
+     * @param fromPackage A PackageData, an InverseCodeData viewing one,
+     *        or a FrozenVertex for a package.
+     * @param toPackage Same type as fromPackage.
+     * @return Sorted display names of the causes of the dependency
+     *         from fromPackage to toPackage.
+     */
+    public static String[] causesToStringArr(
+            InterfaceVertex fromPackage,
+            InterfaceVertex toPackage) {
+        if (fromPackage instanceof FrozenVertex) {
+            // Class names are their display names.
+            return ((FrozenVertex) fromPackage).causeNamesForSuccessor((FrozenVertex) toPackage);
+        }
+        final SortedSet<ClassData> depCauses =
+                CodeDataUtils.getCauseSet(fromPackage, toPackage);
         final String[] causes = new String[depCauses.size()];
         int i = 0;
         for (ClassData depCause : depCauses) {
@@ -45,15 +82,18 @@ class JdcVcpUtils {
         return causes;
     }
 
+    /**
+     * @param fromPackage A PackageData, an InverseCodeData viewing one,
+     *        or a FrozenVertex for a package.
+     * @param toPackage Same type as fromPackage.
+     */
     public static void addCausesInto(
-            PackageData fromPackageData,
-            PackageData toPackageData,
+            InterfaceVertex fromPackage,
+            InterfaceVertex toPackage,
             Collection<String> causes) {
         // Causes names.
-        final SortedSet<ClassData> depCauses =
-                fromPackageData.causeSetBySuccessor().get(toPackageData);
-        for (ClassData depCause : depCauses) {
-            causes.add(depCause.displayName());
+        for (String depCause : causesToStringArr(fromPackage, toPackage)) {
+            causes.add(depCause);
         }
     }
 
@@ -69,24 +109,19 @@ class JdcVcpUtils {
             InterfaceVertex vertex,
             SortedMap<String,SortedMap<String,SortedSet<String>>> causesByDepByName) {
 
-        final AbstractCodeData vertexD = (AbstractCodeData) vertex;
-
         final SortedMap<String,SortedSet<String>> causesByDep =
                 new TreeMap<String,SortedSet<String>>();
         for (InterfaceVertex succ : vertex.successors()) {
-            final AbstractCodeData succD = (AbstractCodeData) succ;
             if (restrictionSet.contains(succ)) {
                 final SortedSet<String> causes = new TreeSet<String>();
                 if (elemType == ElemType.PACKAGE) {
-                    final PackageData fromPackageData = (PackageData) vertex;
-                    final PackageData toPackageData = (PackageData) succ;
-                    addCausesInto(fromPackageData, toPackageData, causes);
+                    addCausesInto(vertex, succ, causes);
                 }
-                causesByDep.put(succD.displayName(), causes);
+                causesByDep.put(displayName(succ), causes);
             }
         }
         final Object forCheck =
-                causesByDepByName.put(vertexD.displayName(), causesByDep);
+                causesByDepByName.put(displayName(vertex), causesByDep);
         if (forCheck != null) {
             throw new AssertionError();
         }
@@ -20,15 +20,20 @@ import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.PrintStream;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 
+import net.jadecy.ElemType;
 import net.jadecy.Jadecy;
 import net.jadecy.names.InterfaceNameFilter;
 import net.jadecy.names.NameFilters;
+import net.jadecy.parsing.FsDepsParser;
 import net.jadecy.parsing.FsDepsParserFactory;
 import net.jadecy.parsing.InterfaceDepsParser;
 import net.jadecy.parsing.InterfaceDepsParserFactory;
 import net.jadecy.parsing.ParsingFilters;
+import net.jadecy.parsing.ParsingStats;
 import net.jadecy.utils.ArgsUtils;
 
 /**
@@ -143,7 +148,8 @@ public class JadecyMain {
      * If returns null, prints proper error message before.
      * 
      * @return A new Jadecy with parsing done, or null if a file to parse was
-     *         not found.
+     *         not found, or if cache was required but is not supported by
+     *         the specified factory.
      */
     private static Jadecy newReadyJadecy(
             JdcmCommand command,
@@ -152,10 +158,42 @@ public class JadecyMain {
         
         final boolean mustMergeNestedClasses = !command.noMerge;
         
+        if (command.cacheDirPath != null) {
+            if (!(parserFactory instanceof FsDepsParserFactory)) {
+                stream.println(
+                        "ERROR: -cachedir option requires parser factory to be a "
+                                + FsDepsParserFactory.class.getSimpleName());
+                return null;
+            }
+            final FsDepsParserFactory fsParserFactory = (FsDepsParserFactory) parserFactory;
+            parserFactory = fsParserFactory.withConfig(
+                    fsParserFactory.getConfig().withCacheDir(
+                            new File(command.cacheDirPath)));
+        }
+        
         final InterfaceDepsParser parser = parserFactory.newInstance(
                 mustMergeNestedClasses,
                 command.apiOnly);
 
+        if (command.lazy) {
+            if (!(parser instanceof FsDepsParser)) {
+                stream.println(
+                        "ERROR: -lazy option requires parser to be a "
+                                + FsDepsParser.class.getSimpleName());
+                return null;
+            }
+        }
+        
+        if (command.parseStats) {
+            if (!(parser instanceof FsDepsParser)) {
+                stream.println(
+                        "ERROR: -parsestats option requires parser to be a "
+                                + FsDepsParser.class.getSimpleName());
+                return null;
+            }
+            ((FsDepsParser) parser).setParsingListener(new ParsingStats());
+        }
+        
         final boolean mustUseInverseDeps = command.compType.usesInverseDeps();
 
         // Since we only do one computation per parsing,
@@ -175,6 +213,33 @@ public class JadecyMain {
             filters = filters.withClassNameFilter(
                     NameFilters.matches(command.parseRegex));
         }
+        
+        if (command.lazy) {
+            final List<File> fileList = new ArrayList<File>();
+            for (String toParse : command.toParseList) {
+                final File file = new File(toParse);
+                if (!file.exists()) {
+                    stream.println(
+                            "ERROR: file to parse not found: "
+                                    + file.getAbsolutePath());
+                    return null;
+                }
+                fileList.add(file);
+            }
+            final String beginRegex;
+            if ((command.compType == JdcmCompType.DEPSOF)
+                    || (command.compType == JdcmCompType.GDEPSOF)) {
+                beginRegex = command.ofRegex;
+            } else {
+                beginRegex = command.beginRegex;
+            }
+            ((FsDepsParser) parser).accumulateReachableDependencies(
+                    fileList,
+                    filters,
+                    NameFilters.matches(beginRegex),
+                    (command.elemType == ElemType.PACKAGE));
+            return jdc;
+        }
 
         for (String toParse : command.toParseList) {
             final File file = new File(toParse);
@@ -221,6 +286,11 @@ public class JadecyMain {
             stream.println("args: " + Arrays.toString(args));
         }
 
+        if (cmd.parseStats) {
+            final FsDepsParser parser = (FsDepsParser) jdc.parser();
+            ((ParsingStats) parser.getParsingListener()).printSummary(stream);
+        }
+        
         final JdcmCompType compType = cmd.compType;
 
         if ((compType == JdcmCompType.DEPSOF)
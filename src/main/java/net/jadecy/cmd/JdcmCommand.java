@@ -49,6 +49,9 @@ class JdcmCommand {
     String endRegex = null;
     //
     boolean noMerge = false;
+    String cacheDirPath = null;
+    boolean lazy = false;
+    boolean parseStats = false;
     //
     ElemType elemType = ElemType.CLASS;
     boolean apiOnly = false;
@@ -94,6 +97,9 @@ class JdcmCommand {
                 + ", beginRegex = " + beginRegex
                 + ", endRegex = " + endRegex
                 + ", noMerge = " + noMerge
+                + ", cacheDirPath = " + cacheDirPath
+                + ", lazy = " + lazy
+                + ", parseStats = " + parseStats
                 + ", elemType = " + elemType
                 + ", apiOnly = " + apiOnly
                 + ", steps = " + steps
@@ -163,11 +169,25 @@ class JdcmCommand {
             stream.println("ERROR: -onlystats and -dotformat are incompatible");
             return null;
         }
+        
+        if (cmd.parseStats && cmd.dotFormat) {
+            stream.println("ERROR: -parsestats and -dotformat are incompatible");
+            return null;
+        }
 
         /*
          * 
          */
         
+        if (cmd.lazy
+                && (cmd.compType != JdcmCompType.DEPSOF)
+                && (cmd.compType != JdcmCompType.GDEPSOF)
+                && (cmd.compType != JdcmCompType.SPATH)
+                && (cmd.compType != JdcmCompType.PATHSG)) {
+            printErrorOptionIncompatibleWithComputation(cmd, "lazy", stream);
+            return null;
+        }
+        
         if ((cmd.intoRegex != null)
                 && (cmd.compType != JdcmCompType.DEPSOF)
                 && (cmd.compType != JdcmCompType.GDEPSOF)) {
@@ -315,8 +335,8 @@ class JdcmCommand {
         /*
          * Parsing options.
          */
-        appendLine(sb, "       [-regex <parseregex>] [-nomerge]");
-        appendLine(sb, "       [-packages] [-apionly]");
+        appendLine(sb, "       [-regex <parseregex>] [-nomerge] [-cachedir <dir_path>] [-lazy]");
+        appendLine(sb, "       [-parsestats] [-packages] [-apionly]");
         /*
          * Computations and their options.
          */
@@ -369,6 +389,19 @@ class JdcmCommand {
         appendLine(sb, "    -nomerge:");
         appendLine(sb, "        Does not identify nested classes with their top level class.");
         appendLine(sb, "        Allows to show more details, possibly at the cost of much noise.");
+        appendLine(sb, "    -cachedir <dir_path>:");
+        appendLine(sb, "        Directory where to cache jar files parsing results, created if needed.");
+        appendLine(sb, "        Jar files which size and last modification time did not change since");
+        appendLine(sb, "        they were cached are not parsed again.");
+        appendLine(sb, "    -lazy:");
+        appendLine(sb, "        Only parses classes reachable from classes (or packages) matching");
+        appendLine(sb, "        <ofregex> or <beginregex>, after indexing class files locations.");
+        appendLine(sb, "        Only for -depsof, -gdepsof, -spath and -pathsg.");
+        appendLine(sb, "    -parsestats:");
+        appendLine(sb, "        Outputs parsing stats after args: numbers of files and classes");
+        appendLine(sb, "        parsed, reused, skipped or duplicated, bytes read, and parsing times");
+        appendLine(sb, "        per file to parse, and of slowest jar files and class files.");
+        appendLine(sb, "        Incompatible with -dotformat option.");
         appendLine(sb, "    -apionly:");
         appendLine(sb, "        Only considers API dependencies, i.e. public or protected");
         appendLine(sb, "        fields and methods.");
@@ -577,6 +610,31 @@ class JdcmCommand {
             }
             command.noMerge = true;
             
+        } else if (option.equals("cachedir")) {
+            if (command.cacheDirPath != null) {
+                printErrorDuplication(option, stream);
+                return bad;
+            }
+            if (i >= args.length) {
+                printErrorNotEnoughArgs(option, 1, stream);
+                return bad;
+            }
+            command.cacheDirPath = args[i++];
+        
+        } else if (option.equals("lazy")) {
+            if (command.lazy) {
+                printErrorDuplication(option, stream);
+                return bad;
+            }
+            command.lazy = true;
+        
+        } else if (option.equals("parsestats")) {
+            if (command.parseStats) {
+                printErrorDuplication(option, stream);
+                return bad;
+            }
+            command.parseStats = true;
+            
         } else if (option.equals("apionly")) {
             if (command.apiOnly) {
                 printErrorDuplication(option, stream);
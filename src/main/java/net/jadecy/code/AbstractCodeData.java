@@ -253,6 +253,22 @@ public abstract class AbstractCodeData implements InterfaceVertex {
         }
     }
     
+    /**
+     * Reuses String instances of the specified symbol, which are already
+     * checked: no check is done.
+     * 
+     * @param parent Default package data, if the specified symbol
+     *        is for a class of default package, else the data of its package.
+     * @param classSymbol Must not be null.
+     */
+    AbstractCodeData(
+            AbstractCodeData parent,
+            ClassSymbol classSymbol) {
+        this.parent = parent;
+        this.fileNameNoExt = classSymbol.fileNameNoExt();
+        this.name = classSymbol.name();
+    }
+    
     /**
      * Adder, not setter, so that it also works when merging nested classes,
      * or for packages, or when deleting classes.
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2026 Jeff Hain
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.jadecy.code;
+
+/**
+ * How a tree of PackageData keeps track of the causes of packages
+ * dependencies, i.e. of the classes causing them.
+ * 
+ * Whatever the mode, packages dependencies themselves (successors and
+ * predecessors of packages) are always tracked, as well as the number
+ * of causes of each of them.
+ * Only FULL mode allows for inverse dependencies, since in other modes
+ * causes are not stored and could not be told apart from non-inverse
+ * dependencies causes.
+ */
+public enum CauseTracking {
+    /**
+     * Causes sets are stored and updated on each modification.
+     */
+    FULL,
+    /**
+     * Only the number of causes is stored, and causes sets returned by
+     * PackageData.causeSetBySuccessor() and causeSetByPredecessor() are empty.
+     * Useful when only packages dependencies matter.
+     */
+    COUNT,
+    /**
+     * Only the number of causes is stored, and causes sets returned by
+     * PackageData.causeSetBySuccessor() and causeSetByPredecessor() are
+     * computed from classes dependencies on each retrieval.
+     */
+    LAZY;
+}
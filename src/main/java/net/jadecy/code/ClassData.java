@@ -16,6 +16,7 @@
 package net.jadecy.code;
 
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
 import java.util.SortedMap;
@@ -24,6 +25,7 @@ import java.util.TreeMap;
 import java.util.TreeSet;
 
 import net.jadecy.utils.ArgsUtils;
+import net.jadecy.utils.SortedSetUtils;
 
 /**
  * Data corresponding to a class file.
@@ -93,6 +95,24 @@ public class ClassData extends AbstractCodeData {
     private SortedMap<String,Long> byteSizeByClassFileNameNoExtSet;
     private SortedMap<String,Long> byteSizeByClassFileNameNoExtSetUnmod = EMPTY_MAP_String_Long;
     
+    /**
+     * Only used in trees not using FULL cause tracking, for classes to be
+     * known as causes of packages dependencies in constant time.
+     * 
+     * Lazily initialized, and nullified when empty.
+     * 
+     * key = package, other than the one of this class, containing
+     * successors of this class.
+     * value = number of successors of this class in that package.
+     */
+    private Map<AbstractCodeData,Integer> successorCountByPackage;
+    
+    /**
+     * Same value for all classes of a tree, stored here not to have to
+     * retrieve it from parent on each lazy collection creation.
+     */
+    private final boolean mustUseCompactStorage;
+    
     //--------------------------------------------------------------------------
     // PUBLIC METHODS
     //--------------------------------------------------------------------------
@@ -102,6 +122,11 @@ public class ClassData extends AbstractCodeData {
      */
     @Override
     public Set<ClassData> successors() {
+        final SortedSet<ClassData> coll = this.successorSet;
+        if ((coll != null) && this.mustUseCompactStorage) {
+            // Not keeping the view, for lower memory overhead.
+            return Collections.unmodifiableSortedSet(coll);
+        }
         return this.successorSetUnmod;
     }
 
@@ -110,6 +135,11 @@ public class ClassData extends AbstractCodeData {
      */
     @Override
     public Set<ClassData> predecessors() {
+        final SortedSet<ClassData> coll = this.predecessorSet;
+        if ((coll != null) && this.mustUseCompactStorage) {
+            // Not keeping the view, for lower memory overhead.
+            return Collections.unmodifiableSortedSet(coll);
+        }
         return this.predecessorSetUnmod;
     }
     
@@ -137,6 +167,11 @@ public class ClassData extends AbstractCodeData {
      * @return An unmodifiable view of the internal set, or an empty unmodifiable set.
      */
     public Map<String,ClassData> nestedClassByFileNameNoExt() {
+        final SortedMap<String,ClassData> coll = this.nestedClassDataByFileNameNoExt;
+        if ((coll != null) && this.mustUseCompactStorage) {
+            // Not keeping the view, for lower memory overhead.
+            return Collections.unmodifiableSortedMap(coll);
+        }
         return this.nestedClassDataByFileNameNoExtUnmod;
     }
 
@@ -147,6 +182,11 @@ public class ClassData extends AbstractCodeData {
      * @return An unmodifiable view of the internal map, or an empty unmodifiable map.
      */
     public Map<String,Long> byteSizeByClassFileNameNoExt() {
+        final SortedMap<String,Long> coll = this.byteSizeByClassFileNameNoExtSet;
+        if ((coll != null) && this.mustUseCompactStorage) {
+            // Not keeping the view, for lower memory overhead.
+            return Collections.unmodifiableSortedMap(coll);
+        }
         return this.byteSizeByClassFileNameNoExtSetUnmod;
     }
 
@@ -162,6 +202,8 @@ public class ClassData extends AbstractCodeData {
      * @param classFileNameNoExt Must not be null.
      * @param outerClassData Null if not a nested class.
      * @param original For string reuse. Can be null.
+     * @param mustUseCompactStorage True if the tree uses compact storage
+     *        (cf. PackageData(boolean)), false otherwise.
      * @throws NullPointerException if parentPackage or classFileNameNoExt is null.
      * @throws IllegalArgumentException if parentPackage is a ClassData, or if
      *         classFileNameNoExt is empty or contains a dot, unless original
@@ -171,7 +213,8 @@ public class ClassData extends AbstractCodeData {
             AbstractCodeData parentPackage,
             String classFileNameNoExt,
             ClassData outerClassData,
-            ClassData original) {
+            ClassData original,
+            boolean mustUseCompactStorage) {
         super(
                 parentPackage,
                 classFileNameNoExt,
@@ -183,15 +226,35 @@ public class ClassData extends AbstractCodeData {
             throw new IllegalArgumentException();
         }
         this.outerClassData = outerClassData;
-        if (outerClassData != null) {
-            final SortedMap<String,ClassData> map = outerClassData.nestedClassByFileNameNoExt_internal();
-            final Object forCheck = map.put(classFileNameNoExt, this);
-            if (forCheck != null) {
-                // Map must be updated in case of class deletion,
-                // so that must never happen.
-                throw new AssertionError();
-            }
-        }
+        this.mustUseCompactStorage = mustUseCompactStorage;
+        this.addIntoOuterClassData();
+    }
+    
+    /**
+     * The created ClassData is added in this constructor as nested class into
+     * the specified outer class if any.
+     * 
+     * Reuses String instances of the specified symbol, and does no check.
+     * 
+     * @param parentPackage Default package data, if the specified symbol
+     *        is for a class of default package, else the data of its package.
+     *        Must not be a ClassData.
+     * @param classSymbol Symbol of the class.
+     * @param outerClassData Null if not a nested class.
+     * @param mustUseCompactStorage True if the tree uses compact storage
+     *        (cf. PackageData(boolean)), false otherwise.
+     */
+    ClassData(
+            AbstractCodeData parentPackage,
+            ClassSymbol classSymbol,
+            ClassData outerClassData,
+            boolean mustUseCompactStorage) {
+        super(
+                parentPackage,
+                classSymbol);
+        this.outerClassData = outerClassData;
+        this.mustUseCompactStorage = mustUseCompactStorage;
+        this.addIntoOuterClassData();
     }
 
     /**
@@ -200,9 +263,11 @@ public class ClassData extends AbstractCodeData {
     SortedSet<ClassData> successors_internal() {
         SortedSet<ClassData> coll = this.successorSet;
         if (coll == null) {
-            coll = new TreeSet<ClassData>();
+            coll = SortedSetUtils.newSortedSet(this.mustUseCompactStorage);
             this.successorSet = coll;
-            this.successorSetUnmod = Collections.unmodifiableSortedSet(coll);
+            if (!this.mustUseCompactStorage) {
+                this.successorSetUnmod = Collections.unmodifiableSortedSet(coll);
+            }
         }
         return coll;
     }
@@ -213,9 +278,11 @@ public class ClassData extends AbstractCodeData {
     SortedSet<ClassData> predecessors_internal() {
         SortedSet<ClassData> coll = this.predecessorSet;
         if (coll == null) {
-            coll = new TreeSet<ClassData>();
+            coll = SortedSetUtils.newSortedSet(this.mustUseCompactStorage);
             this.predecessorSet = coll;
-            this.predecessorSetUnmod = Collections.unmodifiableSortedSet(coll);
+            if (!this.mustUseCompactStorage) {
+                this.predecessorSetUnmod = Collections.unmodifiableSortedSet(coll);
+            }
         }
         return coll;
     }
@@ -228,7 +295,9 @@ public class ClassData extends AbstractCodeData {
         if (coll == null) {
             coll = new TreeMap<String,ClassData>();
             this.nestedClassDataByFileNameNoExt = coll;
-            this.nestedClassDataByFileNameNoExtUnmod = Collections.unmodifiableSortedMap(coll);
+            if (!this.mustUseCompactStorage) {
+                this.nestedClassDataByFileNameNoExtUnmod = Collections.unmodifiableSortedMap(coll);
+            }
         }
         return coll;
     }
@@ -240,6 +309,49 @@ public class ClassData extends AbstractCodeData {
         this.byteSizeByClassFileNameNoExt_internal().put(classFileNameNoExt, byteSize);
     }
     
+    /**
+     * Only for trees not using FULL cause tracking.
+     * 
+     * @param packageData Package of a successor added to or removed from
+     *        this class, other than the package of this class.
+     * @param toAdd 1 if a successor was added, -1 if it was removed.
+     * @return The number of successors of this class in the specified
+     *         package, after the addition.
+     */
+    int addToSuccessorCount(AbstractCodeData packageData, int toAdd) {
+        Map<AbstractCodeData,Integer> map = this.successorCountByPackage;
+        if (map == null) {
+            map = new HashMap<AbstractCodeData,Integer>();
+            this.successorCountByPackage = map;
+        }
+        final Integer count = map.get(packageData);
+        final int newCount = ((count != null) ? count.intValue() : 0) + toAdd;
+        if (newCount < 0) {
+            throw new AssertionError();
+        }
+        if (newCount == 0) {
+            map.remove(packageData);
+            if (map.isEmpty()) {
+                this.successorCountByPackage = null;
+            }
+        } else {
+            map.put(packageData, newCount);
+        }
+        return newCount;
+    }
+    
+    /**
+     * Only for trees not using FULL cause tracking.
+     * 
+     * @return True if this class has a successor in the specified package,
+     *         which must not be the package of this class, false otherwise.
+     */
+    boolean hasSuccessorIn(AbstractCodeData packageData) {
+        final Map<AbstractCodeData,Integer> map = this.successorCountByPackage;
+        return (map != null)
+                && map.containsKey(packageData);
+    }
+    
     void clearByteSizeByClassFileNameNoExt() {
         final SortedMap<String,Long> coll = this.byteSizeByClassFileNameNoExtSet;
         if (coll != null) {
@@ -256,12 +368,27 @@ public class ClassData extends AbstractCodeData {
     // PRIVATE METHODS
     //--------------------------------------------------------------------------
     
+    private void addIntoOuterClassData() {
+        final ClassData outerClassData = this.outerClassData;
+        if (outerClassData != null) {
+            final SortedMap<String,ClassData> map = outerClassData.nestedClassByFileNameNoExt_internal();
+            final Object forCheck = map.put(this.fileNameNoExt(), this);
+            if (forCheck != null) {
+                // Map must be updated in case of class deletion,
+                // so that must never happen.
+                throw new AssertionError();
+            }
+        }
+    }
+    
     private Map<String,Long> byteSizeByClassFileNameNoExt_internal() {
         SortedMap<String,Long> coll = this.byteSizeByClassFileNameNoExtSet;
         if (coll == null) {
             coll = new TreeMap<String,Long>();
             this.byteSizeByClassFileNameNoExtSet = coll;
-            this.byteSizeByClassFileNameNoExtSetUnmod = Collections.unmodifiableSortedMap(coll);
+            if (!this.mustUseCompactStorage) {
+                this.byteSizeByClassFileNameNoExtSetUnmod = Collections.unmodifiableSortedMap(coll);
+            }
         }
         return coll;
     }
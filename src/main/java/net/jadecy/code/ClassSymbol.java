@@ -0,0 +1,133 @@
+/*
+ * Copyright 2026 Jeff Hain
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.jadecy.code;
+
+/**
+ * Canonical entry of a ClassSymbolTable for a class name, holding parts of
+ * this name precomputed, so that they don't need to be computed again each
+ * time the class name is encountered.
+ * 
+ * Immutable.
+ */
+public final class ClassSymbol {
+    
+    //--------------------------------------------------------------------------
+    // MEMBERS
+    //--------------------------------------------------------------------------
+    
+    private final String name;
+    
+    /**
+     * Shared by symbols of a same package.
+     */
+    private final String packageName;
+    
+    /**
+     * Shared by symbols of a same package, not to be modified.
+     */
+    private final String[] dirNames;
+    
+    private final String fileNameNoExt;
+    
+    /**
+     * Null if top level class.
+     */
+    private final ClassSymbol outerClassSymbol;
+    
+    /**
+     * This instance if top level class.
+     */
+    private final ClassSymbol topLevelClassSymbol;
+    
+    //--------------------------------------------------------------------------
+    // PUBLIC METHODS
+    //--------------------------------------------------------------------------
+    
+    @Override
+    public String toString() {
+        return this.name;
+    }
+    
+    /**
+     * @return The class name, like "java.lang.Math".
+     */
+    public String name() {
+        return this.name;
+    }
+    
+    /**
+     * @return The package name, like "java.lang", or an empty string
+     *         for default package.
+     */
+    public String packageName() {
+        return this.packageName;
+    }
+    
+    /**
+     * @return The class file name no ext, like "Math" or "Map$Entry".
+     */
+    public String fileNameNoExt() {
+        return this.fileNameNoExt;
+    }
+    
+    /**
+     * @return Symbol of the surrounding class, or null if this symbol
+     *         is for a top level class.
+     */
+    public ClassSymbol outerClassSymbol() {
+        return this.outerClassSymbol;
+    }
+    
+    /**
+     * Top level class is computed as done by NameUtils.getTopLevelClassName(...).
+     * 
+     * @return Symbol of the top level class, which is this symbol
+     *         if it is for a top level class.
+     */
+    public ClassSymbol topLevelClassSymbol() {
+        return this.topLevelClassSymbol;
+    }
+    
+    //--------------------------------------------------------------------------
+    // PACKAGE-PRIVATE METHODS
+    //--------------------------------------------------------------------------
+    
+    /**
+     * @param topLevelClassSymbol Null if this symbol is for a top level class.
+     */
+    ClassSymbol(
+            String name,
+            String packageName,
+            String[] dirNames,
+            String fileNameNoExt,
+            ClassSymbol outerClassSymbol,
+            ClassSymbol topLevelClassSymbol) {
+        this.name = name;
+        this.packageName = packageName;
+        this.dirNames = dirNames;
+        this.fileNameNoExt = fileNameNoExt;
+        this.outerClassSymbol = outerClassSymbol;
+        this.topLevelClassSymbol = ((topLevelClassSymbol != null) ? topLevelClassSymbol : this);
+    }
+    
+    /**
+     * @return Package name split on dots, not to be modified.
+     *         Empty for default package.
+     */
+    String[] dirNames() {
+        return this.dirNames;
+    }
+}
@@ -0,0 +1,222 @@
+/*
+ * Copyright 2026 Jeff Hain
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.jadecy.code;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import net.jadecy.names.NameUtils;
+import net.jadecy.utils.ArgsUtils;
+
+/**
+ * Interning table of class names (with dots), which maps each distinct
+ * class name to a single ClassSymbol, holding canonical instances of the
+ * class name, its package name and directory names (shared by classes of
+ * a same package), and its file name no ext, as well as symbols for its
+ * outer and top level classes.
+ * 
+ * Allows for class names encountered many times, like when accumulating
+ * dependencies, to only be split once, and for data created with
+ * PackageData.getOrCreateClassDataForSymbol(...) to reuse these String
+ * instances.
+ * 
+ * Each PackageData tree holds a table, from which symbols of deleted classes
+ * are removed (cf. PackageData.getClassSymbolTable()).
+ * 
+ * Not thread-safe.
+ */
+public class ClassSymbolTable {
+    
+    //--------------------------------------------------------------------------
+    // PRIVATE CLASSES
+    //--------------------------------------------------------------------------
+    
+    private static class MyPackage {
+        final String name;
+        final String[] dirNames;
+        MyPackage(
+                String name,
+                String[] dirNames) {
+            this.name = name;
+            this.dirNames = dirNames;
+        }
+    }
+    
+    //--------------------------------------------------------------------------
+    // MEMBERS
+    //--------------------------------------------------------------------------
+    
+    private static final String[] EMPTY_DIR_NAMES = new String[0];
+    
+    private final Map<String,ClassSymbol> symbolByName = new HashMap<String,ClassSymbol>();
+    
+    private final Map<String,MyPackage> packageByName = new HashMap<String,MyPackage>();
+    
+    /**
+     * For directory names to be shared across packages.
+     */
+    private final Map<String,String> dirNameByDirName = new HashMap<String,String>();
+    
+    //--------------------------------------------------------------------------
+    // PUBLIC METHODS
+    //--------------------------------------------------------------------------
+    
+    public ClassSymbolTable() {
+    }
+    
+    /**
+     * @return The number of class names interned into this table
+     *         (including names of outer and top level classes).
+     */
+    public int size() {
+        return this.symbolByName.size();
+    }
+    
+    /**
+     * @param className A class name, like "java.lang.Math".
+     * @return The symbol for the specified class name, created if needed.
+     * @throws NullPointerException if the specified name is null.
+     * @throws IllegalArgumentException if name has dots in wrong places
+     *         or is empty.
+     */
+    public ClassSymbol intern(String className) {
+        ArgsUtils.requireNonNull(className);
+        final ClassSymbol symbol = this.symbolByName.get(className);
+        if (symbol != null) {
+            return symbol;
+        }
+        return this.newSymbol(className);
+    }
+    
+    /**
+     * @param className A class name, like "java.lang.Math".
+     * @return The symbol for the specified class name, or null if it has not
+     *         been interned into this table.
+     * @throws NullPointerException if the specified name is null.
+     */
+    public ClassSymbol getSymbol(String className) {
+        ArgsUtils.requireNonNull(className);
+        return this.symbolByName.get(className);
+    }
+    
+    /**
+     * Removes the symbol for the specified class name, if any.
+     * Symbols already retrieved remain valid, including symbols of nested
+     * classes referring to the removed one as outer or top level class symbol.
+     * 
+     * @param className A class name, like "java.lang.Math".
+     * @return True if a symbol was removed, false otherwise.
+     * @throws NullPointerException if the specified name is null.
+     */
+    public boolean remove(String className) {
+        ArgsUtils.requireNonNull(className);
+        return (this.symbolByName.remove(className) != null);
+    }
+    
+    /**
+     * Removes all symbols from this table.
+     * Symbols already retrieved remain valid.
+     */
+    public void clear() {
+        this.symbolByName.clear();
+        this.packageByName.clear();
+        this.dirNameByDirName.clear();
+    }
+    
+    //--------------------------------------------------------------------------
+    // PRIVATE METHODS
+    //--------------------------------------------------------------------------
+    
+    /**
+     * Creates symbols for outer and top level classes as well,
+     * if not already created.
+     */
+    private ClassSymbol newSymbol(String className) {
+        
+        // Also checks name validity.
+        final String[] parts = NameUtils.splitName(className);
+        
+        final String fileNameNoExt = parts[parts.length-1];
+        final MyPackage pkg = this.getOrCreatePackage(className, parts);
+        
+        final ClassSymbol outerClassSymbol;
+        final String outerClassFileNameNoExt = NameUtils.getOuterClassFileNameNoExt(fileNameNoExt);
+        if (outerClassFileNameNoExt != null) {
+            outerClassSymbol = this.intern(toClassName(pkg.name, outerClassFileNameNoExt));
+        } else {
+            outerClassSymbol = null;
+        }
+        
+        final ClassSymbol topLevelClassSymbol;
+        final String topLevelClassName = NameUtils.getTopLevelClassName(className);
+        if (topLevelClassName.length() != className.length()) {
+            topLevelClassSymbol = this.intern(topLevelClassName);
+        } else {
+            topLevelClassSymbol = null;
+        }
+        
+        final ClassSymbol symbol = new ClassSymbol(
+                className,
+                pkg.name,
+                pkg.dirNames,
+                fileNameNoExt,
+                outerClassSymbol,
+                topLevelClassSymbol);
+        this.symbolByName.put(className, symbol);
+        return symbol;
+    }
+    
+    /**
+     * @param parts Parts of the specified class name.
+     */
+    private MyPackage getOrCreatePackage(
+            String className,
+            String[] parts) {
+        final String packageName = NameUtils.getPackageName(className);
+        MyPackage pkg = this.packageByName.get(packageName);
+        if (pkg == null) {
+            final String[] dirNames;
+            if (parts.length == 1) {
+                dirNames = EMPTY_DIR_NAMES;
+            } else {
+                dirNames = new String[parts.length-1];
+                for (int i = 0; i < dirNames.length; i++) {
+                    final String dirName = parts[i];
+                    final String canonical = this.dirNameByDirName.get(dirName);
+                    if (canonical != null) {
+                        dirNames[i] = canonical;
+                    } else {
+                        this.dirNameByDirName.put(dirName, dirName);
+                        dirNames[i] = dirName;
+                    }
+                }
+            }
+            pkg = new MyPackage(packageName, dirNames);
+            this.packageByName.put(packageName, pkg);
+        }
+        return pkg;
+    }
+    
+    private static String toClassName(
+            String packageName,
+            String classFileNameNoExt) {
+        if (packageName.length() == 0) {
+            return classFileNameNoExt;
+        } else {
+            return packageName + "." + classFileNameNoExt;
+        }
+    }
+}
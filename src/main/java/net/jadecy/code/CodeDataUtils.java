@@ -18,7 +18,9 @@ package net.jadecy.code;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.SortedSet;
 
+import net.jadecy.code.FrozenCodeGraph.FrozenVertex;
 import net.jadecy.graph.InterfaceVertex;
 import net.jadecy.names.InterfaceNameFilter;
 import net.jadecy.names.NameFilters;
@@ -62,6 +64,39 @@ public class CodeDataUtils {
         return classDataColl;
     }
 
+    /**
+     * Classes are sorted first by package name,
+     * and within each package, by class name,
+     * according to String comparator.
+     * 
+     * @param packageData A package data. Must not be null.
+     * @param classNameFilter A name filter. Must not be null.
+     * @param mustReverseDeps If true, the returned list contains
+     *        InverseCodeData views of classes instead of the ClassData,
+     *        which allows to work on inverse dependencies without computing
+     *        a derived tree.
+     * @return A new list of ClassData, or of views of ClassData, found in the
+     *         subtree of the specified PackageData and which names match the
+     *         specified filter.
+     * @throws NullPointerException if the specified package data or name filter
+     *         is null.
+     */
+    public static List<InterfaceVertex> newClassDataList(
+            PackageData packageData,
+            InterfaceNameFilter classNameFilter,
+            boolean mustReverseDeps) {
+        
+        final List<InterfaceVertex> classDataColl = newClassDataList(
+                packageData,
+                classNameFilter);
+        
+        if (mustReverseDeps) {
+            toInverseViews(classDataColl);
+        }
+        
+        return classDataColl;
+    }
+    
     /**
      * Packages are sorted by name, according to String comparator.
      * 
@@ -89,6 +124,89 @@ public class CodeDataUtils {
         return packageDataColl;
     }
     
+    /**
+     * Packages are sorted by name, according to String comparator.
+     * 
+     * When reversing dependencies, packages which subtree contains no class,
+     * other than the specified one, are ignored, as they would not be present
+     * in a derived tree computed by DerivedTreeComputer.
+     * 
+     * @param packageData A package data. Must not be null.
+     * @param packageNameFilter A name filter. Must not be null.
+     * @param mustReverseDeps If true, the returned list contains
+     *        InverseCodeData views of packages instead of the PackageData,
+     *        which allows to work on inverse dependencies without computing
+     *        a derived tree.
+     * @return A new list of PackageData, or of views of PackageData, found in
+     *         the subtree of the specified PackageData and which names match
+     *         the specified filter.
+     * @throws NullPointerException if the specified package data or name filter
+     *         is null.
+     */
+    public static List<InterfaceVertex> newPackageDataList(
+            PackageData packageData,
+            InterfaceNameFilter packageNameFilter,
+            boolean mustReverseDeps) {
+        
+        final List<InterfaceVertex> packageDataColl = newPackageDataList(
+                packageData,
+                packageNameFilter);
+        
+        if (mustReverseDeps) {
+            int j = 0;
+            for (int i = 0; i < packageDataColl.size(); i++) {
+                final PackageData pd = (PackageData) packageDataColl.get(i);
+                if ((pd == packageData)
+                        || (pd.getSubtreeClassCount() != 0)) {
+                    packageDataColl.set(j++, pd);
+                }
+            }
+            packageDataColl.subList(j, packageDataColl.size()).clear();
+            
+            toInverseViews(packageDataColl);
+        }
+        
+        return packageDataColl;
+    }
+    
+    /*
+     * 
+     */
+    
+    /**
+     * @param vertex A ClassData, a PackageData, or an InverseCodeData.
+     * @return The specified data, or the data viewed by the specified view.
+     * @throws NullPointerException if the specified vertex is null.
+     * @throws ClassCastException if the specified vertex is of another type.
+     */
+    public static AbstractCodeData toCodeData(InterfaceVertex vertex) {
+        if (vertex instanceof InverseCodeData) {
+            return ((InverseCodeData) vertex).data();
+        }
+        return (AbstractCodeData) ArgsUtils.requireNonNull(vertex);
+    }
+    
+    /**
+     * @param fromPackage A PackageData, or an InverseCodeData viewing one.
+     * @param toPackage Same type as fromPackage.
+     * @return Causes of the dependency from fromPackage to toPackage,
+     *         in the graph they belong to, or null if there is no such
+     *         dependency.
+     * @throws NullPointerException if any argument is null.
+     * @throws ClassCastException if arguments are of other types.
+     */
+    public static SortedSet<ClassData> getCauseSet(
+            InterfaceVertex fromPackage,
+            InterfaceVertex toPackage) {
+        ArgsUtils.requireNonNull(toPackage);
+        if (fromPackage instanceof InverseCodeData) {
+            return ((InverseCodeData) fromPackage).causeSetForSuccessor(
+                    (InverseCodeData) toPackage);
+        }
+        return ((PackageData) fromPackage).causeSetBySuccessor().get(
+                (PackageData) toPackage);
+    }
+    
     /*
      * 
      */
@@ -99,10 +217,9 @@ public class CodeDataUtils {
      *         otherwise.
      * @throws NullPointerException if the specified collection is null.
      */
-    public static boolean haveSameTopLevelClass(Collection<? super ClassData> classDataColl) {
+    public static boolean haveSameTopLevelClass(Collection<ClassData> classDataColl) {
         ClassData refTopLevelCD = null;
-        for (Object _classData : classDataColl) {
-            final ClassData classData = (ClassData) _classData;
+        for (ClassData classData : classDataColl) {
             final ClassData topLevelCD = classData.topLevelClassData();
             if (refTopLevelCD == null) {
                 refTopLevelCD = topLevelCD;
@@ -115,6 +232,34 @@ public class CodeDataUtils {
         return true;
     }
     
+    /**
+     * Same as haveSameTopLevelClass(Collection), but for vertices of any
+     * of the graphs computations work on.
+     * 
+     * @param classVertexColl Collection of ClassData, of InverseCodeData
+     *        viewing ClassData, or of FrozenVertex for classes.
+     * @return True if the specified collection only contains vertices
+     *         for classes being or contained within a same top level class,
+     *         false otherwise.
+     * @throws NullPointerException if the specified collection is null.
+     * @throws IllegalArgumentException if the specified collection contains
+     *         other vertices.
+     */
+    public static boolean haveSameTopLevelClassVertex(Collection<? extends InterfaceVertex> classVertexColl) {
+        Object refTopLevel = null;
+        for (InterfaceVertex classVertex : classVertexColl) {
+            final Object topLevel = getTopLevelClassVertex(classVertex);
+            if (refTopLevel == null) {
+                refTopLevel = topLevel;
+            } else {
+                if (topLevel != refTopLevel) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+    
     //--------------------------------------------------------------------------
     // PRIVATE METHODS
     //--------------------------------------------------------------------------
@@ -122,6 +267,42 @@ public class CodeDataUtils {
     private CodeDataUtils() {
     }
     
+    /**
+     * @return The ClassData or FrozenVertex of the top level class
+     *         of the specified class vertex.
+     * @throws IllegalArgumentException if the specified vertex is not
+     *         for a class.
+     */
+    private static Object getTopLevelClassVertex(InterfaceVertex classVertex) {
+        if (classVertex instanceof FrozenVertex) {
+            final FrozenVertex frozenVertex = (FrozenVertex) classVertex;
+            if (frozenVertex.isClass()) {
+                return frozenVertex.topLevelClassVertex();
+            }
+        } else {
+            final Object data;
+            if (classVertex instanceof InverseCodeData) {
+                data = ((InverseCodeData) classVertex).data();
+            } else {
+                data = ArgsUtils.requireNonNull(classVertex);
+            }
+            if (data instanceof ClassData) {
+                return ((ClassData) data).topLevelClassData();
+            }
+        }
+        throw new IllegalArgumentException("not a class vertex: " + classVertex);
+    }
+    
+    /**
+     * @param dataList (in,out) List of data, which are replaced
+     *        with views of them.
+     */
+    private static void toInverseViews(List<InterfaceVertex> dataList) {
+        for (int i = 0; i < dataList.size(); i++) {
+            dataList.set(i, new InverseCodeData((AbstractCodeData) dataList.get(i)));
+        }
+    }
+    
     /*
      * 
      */
@@ -15,6 +15,7 @@
  */
 package net.jadecy.code;
 
+import java.util.HashMap;
 import java.util.Map;
 import java.util.SortedSet;
 
@@ -24,7 +25,13 @@ import net.jadecy.utils.ArgsUtils;
 
 /**
  * Computes a derived default package data, more precisely a deep copy with
- * eventually inverse dependencies and filtered classes.
+ * eventually inverse dependencies and filtered classes, or with nested classes
+ * merged into their top level classes.
+ * 
+ * Derived trees use the same storage (default or compact) and cause tracking
+ * as the tree they are derived from, except for trees with reversed
+ * dependencies, which always use FULL cause tracking since their dependencies
+ * are inverse.
  */
 public class DerivedTreeComputer {
 
@@ -69,7 +76,9 @@ public class DerivedTreeComputer {
             System.out.println("retainedClassNameFilter = " + retainedClassNameFilter);
         }
 
-        final PackageData derDefaultPackageData = new PackageData();
+        final PackageData derDefaultPackageData = new PackageData(
+                defaultPackageData.getMustUseCompactStorage(),
+                (mustReverseDeps ? CauseTracking.FULL : defaultPackageData.getCauseTracking()));
 
         computeDerivedSubtree(
                 defaultPackageData,
@@ -78,6 +87,43 @@ public class DerivedTreeComputer {
                 //
                 derDefaultPackageData,
                 derDefaultPackageData);
+        
+        return derDefaultPackageData;
+    }
+    
+    /**
+     * Computes the package data that would have been obtained by parsing
+     * with nested classes merged into their top level classes, from package
+     * data obtained by parsing without merging them, in time linear in the
+     * number of classes and dependencies, and without parsing again.
+     * 
+     * Nested classes are replaced with their top level classes, along with
+     * their byte sizes and dependencies, and dependencies between classes
+     * of a same top level class are dropped, as done when parsing.
+     * 
+     * @param defaultPackageData (in) Fully computed.
+     * @return A derived deep copy of the specified package data, with nested
+     *         classes merged into their top level classes.
+     * @throws NullPointerException if the specified package data is null.
+     * @throws IllegalArgumentException if the specified PackageData does not correspond
+     *         to default package, i.e. has a parent.
+     */
+    public static PackageData computeMergedNestedTree(PackageData defaultPackageData) {
+        
+        // Implicit null check.
+        if (defaultPackageData.parent() != null) {
+            throw new IllegalArgumentException();
+        }
+        
+        final PackageData derDefaultPackageData = new PackageData(
+                defaultPackageData.getMustUseCompactStorage(),
+                defaultPackageData.getCauseTracking());
+        
+        computeMergedNestedSubtree(
+                defaultPackageData,
+                //
+                derDefaultPackageData,
+                new HashMap<ClassData,ClassData>());
 
         return derDefaultPackageData;
     }
@@ -185,6 +231,106 @@ public class DerivedTreeComputer {
         }
     }
 
+    /**
+     * This method is recursive.
+     * 
+     * @param packageData (in)
+     * @param derDefaultPackageData (in,out)
+     * @param derTopLevelClassDataByTopLevelClassData (in,out) For each top level
+     *        class name not to be split more than once.
+     */
+    private static void computeMergedNestedSubtree(
+            PackageData packageData,
+            //
+            PackageData derDefaultPackageData,
+            Map<ClassData,ClassData> derTopLevelClassDataByTopLevelClassData) {
+        
+        for (ClassData childClassData : packageData.childClassDataByFileNameNoExt().values()) {
+            
+            final ClassData topLevelClassData = childClassData.topLevelClassData();
+            final ClassData derTopLevelClassData = ensureMergedClassData(
+                    derDefaultPackageData,
+                    topLevelClassData,
+                    derTopLevelClassDataByTopLevelClassData);
+            
+            for (Map.Entry<String,Long> entry : childClassData.byteSizeByClassFileNameNoExt().entrySet()) {
+                PackageData.setByteSizeForClassOrNested(
+                        derTopLevelClassData,
+                        entry.getKey(),
+                        entry.getValue());
+            }
+            
+            for (ClassData succClassData : childClassData.successors()) {
+                
+                final ClassData succTopLevelClassData = succClassData.topLevelClassData();
+                if (succTopLevelClassData == topLevelClassData) {
+                    // Making sure we don't loop with ourselves.
+                    continue;
+                }
+                
+                final ClassData derSuccTopLevelClassData = ensureMergedClassData(
+                        derDefaultPackageData,
+                        succTopLevelClassData,
+                        derTopLevelClassDataByTopLevelClassData);
+                
+                final PackageData succParent = (PackageData) succClassData.parent();
+                if (succParent == packageData) {
+                    PackageData.ensureDependency(
+                            derTopLevelClassData,
+                            derSuccTopLevelClassData);
+                } else if (packageData.getCauseTracking() != CauseTracking.FULL) {
+                    // No inverse dependency.
+                    PackageData.ensureDependency(
+                            derTopLevelClassData,
+                            derSuccTopLevelClassData);
+                } else {
+                    final SortedSet<ClassData> causeSet = packageData.causeSetBySuccessor().get(succParent);
+                    if (causeSet.contains(childClassData)) {
+                        final boolean asInverseDep = false;
+                        PackageData.ensureDependency(
+                                derTopLevelClassData,
+                                derSuccTopLevelClassData,
+                                asInverseDep);
+                    }
+                    if (causeSet.contains(succClassData)) {
+                        final boolean asInverseDep = true;
+                        PackageData.ensureDependency(
+                                derTopLevelClassData,
+                                derSuccTopLevelClassData,
+                                asInverseDep);
+                    }
+                }
+            }
+        }
+        
+        for (PackageData childPackageData : packageData.childPackageDataByDirName().values()) {
+            // Recursion.
+            computeMergedNestedSubtree(
+                    childPackageData,
+                    //
+                    derDefaultPackageData,
+                    derTopLevelClassDataByTopLevelClassData);
+        }
+    }
+    
+    /**
+     * @param topLevelClassData (in) A top level class data.
+     * @return The derived class data for the specified one, created if needed.
+     */
+    private static ClassData ensureMergedClassData(
+            PackageData derDefaultPackageData,
+            ClassData topLevelClassData,
+            Map<ClassData,ClassData> derTopLevelClassDataByTopLevelClassData) {
+        ClassData derTopLevelClassData = derTopLevelClassDataByTopLevelClassData.get(topLevelClassData);
+        if (derTopLevelClassData == null) {
+            derTopLevelClassData = derDefaultPackageData.getOrCreateClassData(
+                    topLevelClassData.name(),
+                    topLevelClassData);
+            derTopLevelClassDataByTopLevelClassData.put(topLevelClassData, derTopLevelClassData);
+        }
+        return derTopLevelClassData;
+    }
+    
     private static ClassData ensureDerivedClassData(
             PackageData derPackageData,
             String relativeClassName,
@@ -230,6 +376,16 @@ public class DerivedTreeComputer {
             if (!forCheck) {
                 throw new AssertionError();
             }
+        } else if (retParent.getCauseTracking() != CauseTracking.FULL) {
+            // No inverse dependency, so reversed dependencies are inverse.
+            final boolean asInverseDep = reverseDeps;
+            final boolean forCheck = PackageData.ensureDependency(
+                    derRetClass,
+                    derContClass,
+                    asInverseDep);
+            if (!forCheck) {
+                throw new AssertionError();
+            }
         } else {
             final SortedSet<ClassData> causeSet;
             if (reverseDeps) {
@@ -0,0 +1,729 @@
+/*
+ * Copyright 2026 Jeff Hain
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.jadecy.code;
+
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.SortedSet;
+
+import net.jadecy.graph.InterfaceVertex;
+import net.jadecy.names.InterfaceNameFilter;
+import net.jadecy.names.NameFilters;
+import net.jadecy.names.NameUtils;
+import net.jadecy.utils.ArgsUtils;
+
+/**
+ * Immutable snapshot of the classes and packages graphs of a PackageData
+ * subtree, in compressed sparse row form: classes and packages are indexed
+ * in the order of their names, and successors of each of them are stored
+ * as a slice of a flat array of indexes, as are causes of packages
+ * dependencies (as classes indexes).
+ * 
+ * Compared to ClassData and PackageData, which each store their successors
+ * and predecessors, and for packages their causes, in tree sets and maps,
+ * this takes much less memory and is faster to iterate over, and since it
+ * holds no reference to the frozen tree, the tree can be garbage collected.
+ * 
+ * Each class and package is also available as a FrozenVertex, allowing
+ * to use graph computers on the snapshot. Reachability, shortest path,
+ * SCCs and some cycles computers iterate over the snapshot arrays through
+ * FrozenVertex.successors(), but cycles, shortest cycles and paths graph
+ * computers still copy the vertices they work on into their own work
+ * graphs before traversal, as they do for any graph.
+ * 
+ * Only dependencies between classes or packages of the frozen subtree
+ * are kept.
+ * 
+ * Thread-safe.
+ */
+public final class FrozenCodeGraph {
+    
+    //--------------------------------------------------------------------------
+    // PUBLIC CLASSES
+    //--------------------------------------------------------------------------
+    
+    /**
+     * Vertex for a class or a package of a FrozenCodeGraph.
+     * 
+     * There is a single instance per class or package of a snapshot,
+     * and vertices of a same snapshot and kind (class or package) are ordered
+     * as their names.
+     * 
+     * Immutable.
+     */
+    public static final class FrozenVertex implements InterfaceVertex {
+        
+        private final FrozenCodeGraph graph;
+        
+        private final boolean isClass;
+        
+        private final int index;
+        
+        /**
+         * @return The name.
+         */
+        @Override
+        public String toString() {
+            return this.name();
+        }
+        
+        /**
+         * Compares indexes, i.e. names, of vertices of a same snapshot and kind.
+         */
+        @Override
+        public int compareTo(InterfaceVertex other) {
+            final int otherIndex = ((FrozenVertex) other).index;
+            return (this.index < otherIndex) ? -1 : ((this.index == otherIndex) ? 0 : 1);
+        }
+        
+        /**
+         * @return The snapshot this vertex belongs to.
+         */
+        public FrozenCodeGraph graph() {
+            return this.graph;
+        }
+        
+        /**
+         * @return True if this vertex is for a class, false if it is for a package.
+         */
+        public boolean isClass() {
+            return this.isClass;
+        }
+        
+        /**
+         * @return The index of this vertex among vertices of its kind.
+         */
+        public int index() {
+            return this.index;
+        }
+        
+        /**
+         * @return The class or package name, like "java.lang.Math" or "java.lang",
+         *         or an empty string for default package.
+         */
+        public String name() {
+            return this.graph.name(this.isClass, this.index);
+        }
+        
+        /**
+         * @return The name, except for default package for which
+         *         NameUtils.DEFAULT_PACKAGE_DISPLAY_NAME is returned.
+         */
+        public String displayName() {
+            return NameUtils.toDisplayName(this.name());
+        }
+        
+        /**
+         * @return The byte size of the class or package at freeze time.
+         */
+        public long byteSize() {
+            return this.graph.byteSize(this.isClass, this.index);
+        }
+        
+        /**
+         * @return Vertex of the top level class of this class,
+         *         which is this vertex if it is a top level class.
+         * @throws UnsupportedOperationException if this vertex is for a package.
+         */
+        public FrozenVertex topLevelClassVertex() {
+            if (!this.isClass) {
+                throw new UnsupportedOperationException();
+            }
+            return this.graph.topLevelClassVertex(this.index);
+        }
+        
+        /**
+         * @return A read-only collection of successors, sorted.
+         */
+        @Override
+        @SuppressWarnings("unchecked")
+        public Collection<FrozenVertex> successors() {
+            return new MySuccColl(this);
+        }
+        
+        /**
+         * @param successor A vertex of the same snapshot.
+         * @return Names of the classes causing the dependency from this package
+         *         to the specified one, sorted, or null if there is no such
+         *         dependency.
+         * @throws UnsupportedOperationException if this vertex is for a class.
+         * @throws IllegalArgumentException if the specified vertex is not
+         *         a package vertex of the same snapshot.
+         */
+        public String[] causeNamesForSuccessor(FrozenVertex successor) {
+            if (this.isClass) {
+                throw new UnsupportedOperationException();
+            }
+            if ((successor.graph != this.graph)
+                    || successor.isClass) {
+                throw new IllegalArgumentException();
+            }
+            final int depIndex = this.graph.depIndex(false, this.index, successor.index);
+            if (depIndex < 0) {
+                return null;
+            }
+            return this.graph.causeNames(depIndex);
+        }
+        
+        FrozenVertex(
+                FrozenCodeGraph graph,
+                boolean isClass,
+                int index) {
+            this.graph = graph;
+            this.isClass = isClass;
+            this.index = index;
+        }
+    }
+    
+    //--------------------------------------------------------------------------
+    // PRIVATE CLASSES
+    //--------------------------------------------------------------------------
+    
+    /**
+     * Read-only collection of successors, backed by the snapshot arrays.
+     */
+    private static class MySuccColl extends AbstractCollection<FrozenVertex> {
+        private final FrozenVertex vertex;
+        private final FrozenVertex[] vertices;
+        private final int[] succs;
+        private final int from;
+        private final int to;
+        public MySuccColl(FrozenVertex vertex) {
+            this.vertex = vertex;
+            final FrozenCodeGraph graph = vertex.graph;
+            this.vertices = graph.vertices(vertex.isClass);
+            this.succs = graph.succs(vertex.isClass);
+            final int[] succStarts = graph.succStarts(vertex.isClass);
+            this.from = succStarts[vertex.index];
+            this.to = succStarts[vertex.index+1];
+        }
+        @Override
+        public int size() {
+            return this.to - this.from;
+        }
+        @Override
+        public boolean contains(Object obj) {
+            if (!(obj instanceof FrozenVertex)) {
+                return false;
+            }
+            final FrozenVertex other = (FrozenVertex) obj;
+            if ((other.graph != this.vertex.graph)
+                    || (other.isClass != this.vertex.isClass)) {
+                return false;
+            }
+            return this.vertex.graph.depIndex(
+                    this.vertex.isClass,
+                    this.vertex.index,
+                    other.index) >= 0;
+        }
+        @Override
+        public Iterator<FrozenVertex> iterator() {
+            return new Iterator<FrozenVertex>() {
+                private int k = from;
+                @Override
+                public boolean hasNext() {
+                    return this.k < to;
+                }
+                @Override
+                public FrozenVertex next() {
+                    if (this.k >= to) {
+                        throw new NoSuchElementException();
+                    }
+                    return vertices[succs[this.k++]];
+                }
+                @Override
+                public void remove() {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+    }
+    
+    //--------------------------------------------------------------------------
+    // MEMBERS
+    //--------------------------------------------------------------------------
+    
+    private static final int[] EMPTY_INT_ARR = new int[0];
+    
+    private final boolean reversed;
+    
+    /*
+     * Classes.
+     */
+    
+    /**
+     * Sorted.
+     */
+    private final String[] classNames;
+    
+    private final long[] classByteSizes;
+    
+    private final int[] classPackageIndexes;
+    
+    private final int[] topLevelClassIndexes;
+    
+    /**
+     * Successors of class i are in classSuccs, from index classSuccStarts[i]
+     * inclusive to index classSuccStarts[i+1] exclusive, sorted.
+     */
+    private final int[] classSuccStarts;
+    
+    private final int[] classSuccs;
+    
+    private final FrozenVertex[] classVertices;
+    
+    /*
+     * Packages.
+     */
+    
+    /**
+     * Sorted.
+     */
+    private final String[] packageNames;
+    
+    private final long[] packageByteSizes;
+    
+    private final int[] packageSuccStarts;
+    
+    private final int[] packageSuccs;
+    
+    /**
+     * Causes of dependency k (index in packageSuccs) are in causes,
+     * from index causeStarts[k] inclusive to index causeStarts[k+1]
+     * exclusive, sorted.
+     */
+    private final int[] causeStarts;
+    
+    private final int[] causes;
+    
+    private final FrozenVertex[] packageVertices;
+    
+    //--------------------------------------------------------------------------
+    // PUBLIC METHODS
+    //--------------------------------------------------------------------------
+    
+    /**
+     * @param packageData Package data which subtree must be frozen.
+     *        Must not be null.
+     * @param mustReverseDeps True if the snapshot must be of inverse
+     *        dependencies, in which case packages which subtree contains
+     *        no class, other than the specified one, are ignored,
+     *        as done by CodeDataUtils.newPackageDataList(...).
+     * @return A snapshot of the specified subtree.
+     * @throws NullPointerException if the specified package data is null.
+     */
+    public static FrozenCodeGraph freeze(
+            PackageData packageData,
+            boolean mustReverseDeps) {
+        return new FrozenCodeGraph(
+                ArgsUtils.requireNonNull(packageData),
+                mustReverseDeps);
+    }
+    
+    @Override
+    public String toString() {
+        return "[classes = "
+                + this.classCount()
+                + ", packages = "
+                + this.packageCount()
+                + ", reversed = "
+                + this.reversed
+                + "]";
+    }
+    
+    /**
+     * @return True if this snapshot is of inverse dependencies,
+     *         false otherwise.
+     */
+    public boolean isReversed() {
+        return this.reversed;
+    }
+    
+    /*
+     * Classes.
+     */
+    
+    /**
+     * @return The number of classes.
+     */
+    public int classCount() {
+        return this.classNames.length;
+    }
+    
+    /**
+     * @return The number of dependencies between classes.
+     */
+    public int classDepCount() {
+        return this.classSuccs.length;
+    }
+    
+    /**
+     * @param index A class index, in [0,classCount()[.
+     * @return The corresponding vertex.
+     * @throws ArrayIndexOutOfBoundsException if the specified index
+     *         is out of range.
+     */
+    public FrozenVertex getClassVertex(int index) {
+        return this.classVertices[index];
+    }
+    
+    /**
+     * @param className A class name. Must not be null.
+     * @return The corresponding vertex, or null if there is no such class.
+     * @throws NullPointerException if the specified name is null.
+     */
+    public FrozenVertex getClassVertex(String className) {
+        final int index = Arrays.binarySearch(this.classNames, ArgsUtils.requireNonNull(className));
+        return (index >= 0) ? this.classVertices[index] : null;
+    }
+    
+    /**
+     * Equivalent of CodeDataUtils.newClassDataList(...).
+     * 
+     * @param classNameFilter A name filter. Must not be null.
+     * @return A new list of vertices of classes which names match
+     *         the specified filter, sorted by name.
+     * @throws NullPointerException if the specified filter is null.
+     */
+    public List<InterfaceVertex> newClassVertexList(InterfaceNameFilter classNameFilter) {
+        final String prefix = classNameFilter.getPrefix();
+        final List<InterfaceVertex> list = new ArrayList<InterfaceVertex>();
+        for (int i = 0; i < this.classNames.length; i++) {
+            final String packageName = this.packageNames[this.classPackageIndexes[i]];
+            if (NameFilters.areCompatible(prefix, packageName)
+                    && classNameFilter.accept(this.classNames[i])) {
+                list.add(this.classVertices[i]);
+            }
+        }
+        return list;
+    }
+    
+    /*
+     * Packages.
+     */
+    
+    /**
+     * @return The number of packages.
+     */
+    public int packageCount() {
+        return this.packageNames.length;
+    }
+    
+    /**
+     * @return The number of dependencies between packages.
+     */
+    public int packageDepCount() {
+        return this.packageSuccs.length;
+    }
+    
+    /**
+     * @param index A package index, in [0,packageCount()[.
+     * @return The corresponding vertex.
+     * @throws ArrayIndexOutOfBoundsException if the specified index
+     *         is out of range.
+     */
+    public FrozenVertex getPackageVertex(int index) {
+        return this.packageVertices[index];
+    }
+    
+    /**
+     * @param packageName A package name. Must not be null.
+     * @return The corresponding vertex, or null if there is no such package.
+     * @throws NullPointerException if the specified name is null.
+     */
+    public FrozenVertex getPackageVertex(String packageName) {
+        final int index = Arrays.binarySearch(this.packageNames, ArgsUtils.requireNonNull(packageName));
+        return (index >= 0) ? this.packageVertices[index] : null;
+    }
+    
+    /**
+     * Equivalent of CodeDataUtils.newPackageDataList(...).
+     * 
+     * @param packageNameFilter A name filter. Must not be null.
+     * @return A new list of vertices of packages which names match
+     *         the specified filter, sorted by name.
+     * @throws NullPointerException if the specified filter is null.
+     */
+    public List<InterfaceVertex> newPackageVertexList(InterfaceNameFilter packageNameFilter) {
+        final String prefix = packageNameFilter.getPrefix();
+        final List<InterfaceVertex> list = new ArrayList<InterfaceVertex>();
+        for (int i = 0; i < this.packageNames.length; i++) {
+            final String packageName = this.packageNames[i];
+            if (NameFilters.areCompatible(prefix, packageName)
+                    && packageNameFilter.accept(packageName)) {
+                list.add(this.packageVertices[i]);
+            }
+        }
+        return list;
+    }
+    
+    //--------------------------------------------------------------------------
+    // PACKAGE-PRIVATE METHODS
+    //--------------------------------------------------------------------------
+    
+    String name(boolean isClass, int index) {
+        return isClass ? this.classNames[index] : this.packageNames[index];
+    }
+    
+    long byteSize(boolean isClass, int index) {
+        return isClass ? this.classByteSizes[index] : this.packageByteSizes[index];
+    }
+    
+    FrozenVertex topLevelClassVertex(int classIndex) {
+        return this.classVertices[this.topLevelClassIndexes[classIndex]];
+    }
+    
+    FrozenVertex[] vertices(boolean isClass) {
+        return isClass ? this.classVertices : this.packageVertices;
+    }
+    
+    int[] succStarts(boolean isClass) {
+        return isClass ? this.classSuccStarts : this.packageSuccStarts;
+    }
+    
+    int[] succs(boolean isClass) {
+        return isClass ? this.classSuccs : this.packageSuccs;
+    }
+    
+    /**
+     * @return Index of the specified dependency in succs(isClass),
+     *         or -1 if there is no such dependency.
+     */
+    int depIndex(
+            boolean isClass,
+            int fromIndex,
+            int toIndex) {
+        final int[] succStarts = this.succStarts(isClass);
+        final int[] succs = this.succs(isClass);
+        // Binary search (Arrays.binarySearch(int[],int,int,int)
+        // being Java 6+).
+        int low = succStarts[fromIndex];
+        int high = succStarts[fromIndex+1] - 1;
+        while (low <= high) {
+            final int mid = ((low + high) >>> 1);
+            final int midValue = succs[mid];
+            if (midValue < toIndex) {
+                low = mid + 1;
+            } else if (midValue > toIndex) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+    
+    /**
+     * @param packageDepIndex (in) Index of a dependency in packageSuccs.
+     * @return Names of the classes causing the specified dependency, sorted.
+     */
+    String[] causeNames(int packageDepIndex) {
+        final int from = this.causeStarts[packageDepIndex];
+        final int to = this.causeStarts[packageDepIndex+1];
+        final String[] names = new String[to - from];
+        for (int i = from; i < to; i++) {
+            names[i - from] = this.classNames[this.causes[i]];
+        }
+        return names;
+    }
+    
+    //--------------------------------------------------------------------------
+    // PRIVATE METHODS
+    //--------------------------------------------------------------------------
+    
+    private FrozenCodeGraph(
+            PackageData packageData,
+            boolean mustReverseDeps) {
+        
+        this.reversed = mustReverseDeps;
+        
+        /*
+         * Indexing.
+         */
+        
+        final List<ClassData> classDataList = new ArrayList<ClassData>();
+        final List<PackageData> packageDataList = new ArrayList<PackageData>();
+        addDataInto(
+                packageData,
+                packageData,
+                mustReverseDeps,
+                classDataList,
+                packageDataList);
+        
+        final ClassData[] classDataArr = classDataList.toArray(new ClassData[classDataList.size()]);
+        final PackageData[] packageDataArr = packageDataList.toArray(new PackageData[packageDataList.size()]);
+        // Sorting by name.
+        Arrays.sort(classDataArr);
+        Arrays.sort(packageDataArr);
+        
+        final Map<AbstractCodeData,Integer> indexByData = new HashMap<AbstractCodeData,Integer>();
+        for (int i = 0; i < classDataArr.length; i++) {
+            indexByData.put(classDataArr[i], i);
+        }
+        for (int i = 0; i < packageDataArr.length; i++) {
+            indexByData.put(packageDataArr[i], i);
+        }
+        
+        /*
+         * Classes.
+         */
+        
+        final int classCount = classDataArr.length;
+        this.classNames = new String[classCount];
+        this.classByteSizes = new long[classCount];
+        this.classPackageIndexes = new int[classCount];
+        this.topLevelClassIndexes = new int[classCount];
+        this.classSuccStarts = new int[classCount + 1];
+        int classDepCount = 0;
+        for (int i = 0; i < classCount; i++) {
+            final ClassData classData = classDataArr[i];
+            this.classNames[i] = classData.name();
+            this.classByteSizes[i] = classData.byteSize();
+            this.classPackageIndexes[i] = indexByData.get(classData.parent()).intValue();
+            this.topLevelClassIndexes[i] = indexByData.get(classData.topLevelClassData()).intValue();
+            this.classSuccStarts[i] = classDepCount;
+            for (ClassData succ : (mustReverseDeps ? classData.predecessors() : classData.successors())) {
+                if (indexByData.containsKey(succ)) {
+                    classDepCount++;
+                }
+            }
+        }
+        this.classSuccStarts[classCount] = classDepCount;
+        this.classSuccs = ((classDepCount == 0) ? EMPTY_INT_ARR : new int[classDepCount]);
+        {
+            int k = 0;
+            for (ClassData classData : classDataArr) {
+                // Iterating in names order, so indexes are sorted.
+                for (ClassData succ : (mustReverseDeps ? classData.predecessors() : classData.successors())) {
+                    final Integer succIndex = indexByData.get(succ);
+                    if (succIndex != null) {
+                        this.classSuccs[k++] = succIndex.intValue();
+                    }
+                }
+            }
+        }
+        
+        /*
+         * Packages.
+         */
+        
+        final int packageCount = packageDataArr.length;
+        this.packageNames = new String[packageCount];
+        this.packageByteSizes = new long[packageCount];
+        this.packageSuccStarts = new int[packageCount + 1];
+        int packageDepCount = 0;
+        int causeCount = 0;
+        for (int i = 0; i < packageCount; i++) {
+            final PackageData pd = packageDataArr[i];
+            this.packageNames[i] = pd.name();
+            this.packageByteSizes[i] = pd.byteSize();
+            this.packageSuccStarts[i] = packageDepCount;
+            for (Map.Entry<PackageData,SortedSet<ClassData>> entry : causeSetByContiguous(pd, mustReverseDeps).entrySet()) {
+                if (indexByData.containsKey(entry.getKey())) {
+                    packageDepCount++;
+                    causeCount += entry.getValue().size();
+                }
+            }
+        }
+        this.packageSuccStarts[packageCount] = packageDepCount;
+        this.packageSuccs = ((packageDepCount == 0) ? EMPTY_INT_ARR : new int[packageDepCount]);
+        this.causeStarts = new int[packageDepCount + 1];
+        this.causes = ((causeCount == 0) ? EMPTY_INT_ARR : new int[causeCount]);
+        {
+            int k = 0;
+            int c = 0;
+            for (PackageData pd : packageDataArr) {
+                for (Map.Entry<PackageData,SortedSet<ClassData>> entry : causeSetByContiguous(pd, mustReverseDeps).entrySet()) {
+                    final Integer succIndex = indexByData.get(entry.getKey());
+                    if (succIndex != null) {
+                        this.causeStarts[k] = c;
+                        this.packageSuccs[k++] = succIndex.intValue();
+                        for (ClassData cause : entry.getValue()) {
+                            // Causes belong to one of both packages,
+                            // so are in the snapshot.
+                            this.causes[c++] = indexByData.get(cause).intValue();
+                        }
+                    }
+                }
+            }
+            this.causeStarts[packageDepCount] = c;
+        }
+        
+        /*
+         * Vertices.
+         */
+        
+        this.classVertices = new FrozenVertex[classCount];
+        for (int i = 0; i < classCount; i++) {
+            this.classVertices[i] = new FrozenVertex(this, true, i);
+        }
+        this.packageVertices = new FrozenVertex[packageCount];
+        for (int i = 0; i < packageCount; i++) {
+            this.packageVertices[i] = new FrozenVertex(this, false, i);
+        }
+    }
+    
+    private static Map<PackageData,SortedSet<ClassData>> causeSetByContiguous(
+            PackageData packageData,
+            boolean mustReverseDeps) {
+        if (mustReverseDeps) {
+            return packageData.causeSetByPredecessor();
+        } else {
+            return packageData.causeSetBySuccessor();
+        }
+    }
+    
+    /**
+     * This method is recursive.
+     * 
+     * @param rootPackageData (in) Package data which subtree is frozen.
+     * @param classDataList (out)
+     * @param packageDataList (out)
+     */
+    private static void addDataInto(
+            PackageData rootPackageData,
+            PackageData packageData,
+            boolean mustReverseDeps,
+            List<ClassData> classDataList,
+            List<PackageData> packageDataList) {
+        
+        if (mustReverseDeps
+                && (packageData != rootPackageData)
+                && (packageData.getSubtreeClassCount() == 0)) {
+            return;
+        }
+        
+        packageDataList.add(packageData);
+        
+        classDataList.addAll(packageData.childClassDataByFileNameNoExt().values());
+        
+        for (PackageData childData : packageData.childPackageDataByDirName().values()) {
+            addDataInto(
+                    rootPackageData,
+                    childData,
+                    mustReverseDeps,
+                    classDataList,
+                    packageDataList);
+        }
+    }
+}
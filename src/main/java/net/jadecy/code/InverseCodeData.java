@@ -0,0 +1,176 @@
+/*
+ * Copyright 2026 Jeff Hain
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.jadecy.code;
+
+import java.util.AbstractCollection;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.SortedSet;
+
+import net.jadecy.graph.InterfaceVertex;
+import net.jadecy.utils.ArgsUtils;
+
+/**
+ * Read-only view of a ClassData or a PackageData as a vertex of the inverse
+ * dependencies graph, i.e. which successors are views of the predecessors
+ * of the viewed data.
+ *
+ * Allows to work on inverse dependencies without computing a derived tree
+ * with DerivedTreeComputer, which would duplicate all data and cause sets.
+ * Views are created on the fly, and for a same data are equal to each other,
+ * and ordered as viewed data.
+ *
+ * Views reflect modifications of viewed data, but must not be used while
+ * they are being modified.
+ */
+public final class InverseCodeData implements InterfaceVertex {
+
+    //--------------------------------------------------------------------------
+    // PRIVATE CLASSES
+    //--------------------------------------------------------------------------
+
+    /**
+     * Read-only collection of views of the specified data.
+     */
+    private static class MyViewColl extends AbstractCollection<InverseCodeData> {
+        private final Set<? extends AbstractCodeData> dataSet;
+        public MyViewColl(Set<? extends AbstractCodeData> dataSet) {
+            this.dataSet = dataSet;
+        }
+        @Override
+        public int size() {
+            return this.dataSet.size();
+        }
+        @Override
+        public boolean contains(Object obj) {
+            if (!(obj instanceof InverseCodeData)) {
+                return false;
+            }
+            return this.dataSet.contains(((InverseCodeData) obj).data);
+        }
+        @Override
+        public Iterator<InverseCodeData> iterator() {
+            final Iterator<? extends AbstractCodeData> it = this.dataSet.iterator();
+            return new Iterator<InverseCodeData>() {
+                @Override
+                public boolean hasNext() {
+                    return it.hasNext();
+                }
+                @Override
+                public InverseCodeData next() {
+                    return new InverseCodeData(it.next());
+                }
+                @Override
+                public void remove() {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+    }
+
+    //--------------------------------------------------------------------------
+    // MEMBERS
+    //--------------------------------------------------------------------------
+
+    private final AbstractCodeData data;
+
+    //--------------------------------------------------------------------------
+    // PUBLIC METHODS
+    //--------------------------------------------------------------------------
+
+    /**
+     * @param data Class or package data to view. Must not be null.
+     * @throws NullPointerException if the specified data is null.
+     */
+    public InverseCodeData(AbstractCodeData data) {
+        this.data = ArgsUtils.requireNonNull(data);
+    }
+
+    /**
+     * @return String representation of viewed data.
+     */
+    @Override
+    public String toString() {
+        return this.data.toString();
+    }
+
+    @Override
+    public int hashCode() {
+        return this.data.hashCode();
+    }
+
+    /**
+     * @return True if the specified object is a view of the same data,
+     *         false otherwise.
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof InverseCodeData)) {
+            return false;
+        }
+        return this.data == ((InverseCodeData) obj).data;
+    }
+
+    /**
+     * Compares viewed data.
+     */
+    @Override
+    public int compareTo(InterfaceVertex other) {
+        return this.data.compareTo(((InverseCodeData) other).data);
+    }
+
+    /**
+     * @return The viewed data.
+     */
+    public AbstractCodeData data() {
+        return this.data;
+    }
+
+    /**
+     * @return A read-only collection of views of predecessors
+     *         of the viewed data.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public Collection<InverseCodeData> successors() {
+        return new MyViewColl(this.data.predecessors());
+    }
+
+    /**
+     * @return A read-only collection of views of successors
+     *         of the viewed data.
+     */
+    public Collection<InverseCodeData> predecessors() {
+        return new MyViewColl(this.data.successors());
+    }
+
+    /**
+     * @param successor View of a successor of this view.
+     *        Both views must be views of package data.
+     * @return Causes of the dependency from the viewed package to the package
+     *         viewed by the specified view, in the inverse dependencies graph,
+     *         i.e. causes of the dependency from the latter to the former,
+     *         or null if there is no such dependency.
+     * @throws ClassCastException if this view or the specified view
+     *         is not a view of a package data.
+     */
+    public SortedSet<ClassData> causeSetForSuccessor(InverseCodeData successor) {
+        final PackageData packageData = (PackageData) this.data;
+        final PackageData succPackageData = (PackageData) successor.data;
+        return packageData.causeSetByPredecessor().get(succPackageData);
+    }
+}
@@ -16,8 +16,11 @@
 package net.jadecy.code;
 
 import java.io.PrintStream;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
 import java.util.SortedMap;
@@ -27,6 +30,7 @@ import java.util.TreeSet;
 
 import net.jadecy.names.NameUtils;
 import net.jadecy.utils.ArgsUtils;
+import net.jadecy.utils.SortedSetUtils;
 
 /**
  * Data corresponding to a package.
@@ -56,10 +60,195 @@ public class PackageData extends AbstractCodeData {
      * with ClassData.
      */
     
+    //--------------------------------------------------------------------------
+    // PRIVATE CLASSES
+    //--------------------------------------------------------------------------
+    
+    /**
+     * Unmodifiable view of a map of cause sets, with unmodifiable views
+     * of its sets, for compact storage not to have to store these views.
+     */
+    private static class MyUnmodCauseSetMap extends AbstractMap<PackageData,SortedSet<ClassData>> {
+        private final SortedMap<PackageData,SortedSet<ClassData>> map;
+        public MyUnmodCauseSetMap(SortedMap<PackageData,SortedSet<ClassData>> map) {
+            this.map = map;
+        }
+        @Override
+        public int size() {
+            return this.map.size();
+        }
+        @Override
+        public boolean containsKey(Object key) {
+            return this.map.containsKey(key);
+        }
+        @Override
+        public SortedSet<ClassData> get(Object key) {
+            final SortedSet<ClassData> causeSet = this.map.get(key);
+            return (causeSet != null) ? Collections.unmodifiableSortedSet(causeSet) : null;
+        }
+        @Override
+        public void clear() {
+            throw new UnsupportedOperationException();
+        }
+        @Override
+        public Set<PackageData> keySet() {
+            return Collections.unmodifiableSet(this.map.keySet());
+        }
+        @Override
+        public Set<Map.Entry<PackageData,SortedSet<ClassData>>> entrySet() {
+            final Set<Map.Entry<PackageData,SortedSet<ClassData>>> entrySet = this.map.entrySet();
+            return new AbstractSet<Map.Entry<PackageData,SortedSet<ClassData>>>() {
+                @Override
+                public int size() {
+                    return entrySet.size();
+                }
+                @Override
+                public Iterator<Map.Entry<PackageData,SortedSet<ClassData>>> iterator() {
+                    final Iterator<Map.Entry<PackageData,SortedSet<ClassData>>> it = entrySet.iterator();
+                    return new Iterator<Map.Entry<PackageData,SortedSet<ClassData>>>() {
+                        @Override
+                        public boolean hasNext() {
+                            return it.hasNext();
+                        }
+                        @Override
+                        public Map.Entry<PackageData,SortedSet<ClassData>> next() {
+                            final Map.Entry<PackageData,SortedSet<ClassData>> entry = it.next();
+                            return new MyUnmodEntry(
+                                    entry.getKey(),
+                                    Collections.unmodifiableSortedSet(entry.getValue()));
+                        }
+                        @Override
+                        public void remove() {
+                            throw new UnsupportedOperationException();
+                        }
+                    };
+                }
+            };
+        }
+    }
+    
+    /**
+     * Unmodifiable map of cause sets, for cause tracking modes where cause sets
+     * are not stored: keys are those of the causes count map, and sets are
+     * either empty or computed on retrieval.
+     */
+    private static class MyUntrackedCauseSetMap extends AbstractMap<PackageData,SortedSet<ClassData>> {
+        private final PackageData packageData;
+        private final boolean bySuccessor;
+        private final SortedMap<PackageData,Integer> causeCountByContiguous;
+        public MyUntrackedCauseSetMap(
+                PackageData packageData,
+                boolean bySuccessor) {
+            this.packageData = packageData;
+            this.bySuccessor = bySuccessor;
+            this.causeCountByContiguous =
+                    (bySuccessor ? packageData.causeCountBySuccessor : packageData.causeCountByPredecessor);
+        }
+        @Override
+        public int size() {
+            return this.causeCountByContiguous.size();
+        }
+        @Override
+        public boolean containsKey(Object key) {
+            return this.causeCountByContiguous.containsKey(key);
+        }
+        @Override
+        public SortedSet<ClassData> get(Object key) {
+            if (!this.causeCountByContiguous.containsKey(key)) {
+                return null;
+            }
+            if (this.packageData.causeTracking == CauseTracking.COUNT) {
+                return EMPTY_SET_ClassData;
+            }
+            final PackageData contiguous = (PackageData) key;
+            final SortedSet<ClassData> causeSet;
+            if (this.bySuccessor) {
+                causeSet = computeCauseSet(this.packageData, contiguous);
+            } else {
+                causeSet = computeCauseSet(contiguous, this.packageData);
+            }
+            return Collections.unmodifiableSortedSet(causeSet);
+        }
+        @Override
+        public void clear() {
+            throw new UnsupportedOperationException();
+        }
+        @Override
+        public Set<PackageData> keySet() {
+            return Collections.unmodifiableSet(this.causeCountByContiguous.keySet());
+        }
+        @Override
+        public Set<Map.Entry<PackageData,SortedSet<ClassData>>> entrySet() {
+            final SortedMap<PackageData,SortedSet<ClassData>> causeSetByContiguous;
+            if (this.packageData.causeTracking == CauseTracking.COUNT) {
+                causeSetByContiguous = new TreeMap<PackageData,SortedSet<ClassData>>();
+                for (PackageData contiguous : this.causeCountByContiguous.keySet()) {
+                    causeSetByContiguous.put(contiguous, EMPTY_SET_ClassData);
+                }
+            } else {
+                // Computing all sets in one pass.
+                causeSetByContiguous = computeCauseSetByContiguous(
+                        this.packageData,
+                        this.bySuccessor);
+                for (Map.Entry<PackageData,SortedSet<ClassData>> entry : causeSetByContiguous.entrySet()) {
+                    entry.setValue(Collections.unmodifiableSortedSet(entry.getValue()));
+                }
+            }
+            return Collections.unmodifiableMap(causeSetByContiguous).entrySet();
+        }
+    }
+    
+    private static class MyUnmodEntry implements Map.Entry<PackageData,SortedSet<ClassData>> {
+        private final PackageData key;
+        private final SortedSet<ClassData> value;
+        public MyUnmodEntry(
+                PackageData key,
+                SortedSet<ClassData> value) {
+            this.key = key;
+            this.value = value;
+        }
+        @Override
+        public String toString() {
+            return this.key + "=" + this.value;
+        }
+        @Override
+        public int hashCode() {
+            return this.key.hashCode() ^ this.value.hashCode();
+        }
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Map.Entry<?,?>)) {
+                return false;
+            }
+            final Map.Entry<?,?> other = (Map.Entry<?,?>) obj;
+            return this.key.equals(other.getKey())
+                    && this.value.equals(other.getValue());
+        }
+        @Override
+        public PackageData getKey() {
+            return this.key;
+        }
+        @Override
+        public SortedSet<ClassData> getValue() {
+            return this.value;
+        }
+        @Override
+        public SortedSet<ClassData> setValue(SortedSet<ClassData> value) {
+            throw new UnsupportedOperationException();
+        }
+    }
+    
     //--------------------------------------------------------------------------
     // MEMBERS
     //--------------------------------------------------------------------------
     
+    private static final SortedSet<ClassData> EMPTY_SET_ClassData =
+            Collections.unmodifiableSortedSet(new TreeSet<ClassData>());
+    
+    /*
+     * 
+     */
+    
     private final SortedMap<String,ClassData> childClassDataByFileNameNoExt =
             new TreeMap<String,ClassData>();
     private final SortedMap<String,ClassData> childClassDataByFileNameNoExtUnmod =
@@ -98,6 +287,41 @@ public class PackageData extends AbstractCodeData {
     private final Set<PackageData> predecessorSetUnmod =
             Collections.unmodifiableSet(this.predecessorSet);
 
+    /**
+     * Used instead of cause sets maps (and their key sets for successors
+     * and predecessors) unless cause tracking is FULL.
+     * 
+     * key = package data for a package depended on.
+     * value = number of classes of this package which depend on a class
+     *         of the package corresponding to the key.
+     */
+    private final SortedMap<PackageData,Integer> causeCountBySuccessor =
+            new TreeMap<PackageData,Integer>();
+    
+    /**
+     * Same as causeCountBySuccessor, but for predecessors.
+     */
+    private final SortedMap<PackageData,Integer> causeCountByPredecessor =
+            new TreeMap<PackageData,Integer>();
+    
+    /**
+     * Same value for all packages of a tree.
+     */
+    private final boolean mustUseCompactStorage;
+    
+    /**
+     * Same value for all packages of a tree.
+     */
+    private final CauseTracking causeTracking;
+    
+    /**
+     * Same instance for all packages of a tree.
+     * Symbols of classes are removed when they are deleted, and the whole
+     * table is cleared when default package is cleared, not to retain
+     * names of deleted classes.
+     */
+    private final ClassSymbolTable classSymbolTable;
+    
     /*
      * Subtree stuffs.
      * Class count could be computed from other values, but having it here
@@ -122,10 +346,80 @@ public class PackageData extends AbstractCodeData {
     //--------------------------------------------------------------------------
     
     /**
-     * Creates data for default package.
+     * Creates data for default package, with default storage.
      */
     public PackageData() {
+        this(false);
+    }
+    
+    /**
+     * Creates data for default package.
+     * 
+     * Compact storage uses sorted arrays instead of tree sets for
+     * classes successors and predecessors, and for packages dependencies
+     * causes, and creates unmodifiable views of internal collections
+     * on each call instead of keeping them, which greatly reduces memory
+     * footprint of large trees, at the cost of slower creation and deletion
+     * of dependencies (linear in the number of successors or predecessors,
+     * or of causes), and of some garbage.
+     * The API and the ordering of returned collections are the same
+     * in both modes.
+     * 
+     * @param mustUseCompactStorage True if the tree must use compact storage,
+     *        false for default storage.
+     */
+    public PackageData(boolean mustUseCompactStorage) {
+        this(
+                mustUseCompactStorage,
+                CauseTracking.FULL);
+    }
+    
+    /**
+     * Creates data for default package.
+     * 
+     * @param mustUseCompactStorage True if the tree must use compact storage,
+     *        false for default storage (cf. PackageData(boolean)).
+     * @param causeTracking How the tree must keep track of the causes of
+     *        packages dependencies. Must not be null.
+     * @throws NullPointerException if the specified cause tracking is null.
+     */
+    public PackageData(
+            boolean mustUseCompactStorage,
+            CauseTracking causeTracking) {
         super(null, null, null);
+        this.mustUseCompactStorage = mustUseCompactStorage;
+        this.causeTracking = ArgsUtils.requireNonNull(causeTracking);
+        this.classSymbolTable = new ClassSymbolTable();
+    }
+    
+    /**
+     * @return True if the tree this package belongs to uses compact storage,
+     *         false otherwise.
+     */
+    public boolean getMustUseCompactStorage() {
+        return this.mustUseCompactStorage;
+    }
+    
+    /**
+     * @return How the tree this package belongs to keeps track of the causes
+     *         of packages dependencies.
+     */
+    public CauseTracking getCauseTracking() {
+        return this.causeTracking;
+    }
+    
+    /**
+     * Symbols of classes are removed from the returned table when they are
+     * deleted (including names of nested classes merged into them), and the
+     * whole table is cleared when default package is cleared, so that it
+     * doesn't retain names of classes that are no longer in the tree, while
+     * keeping symbols of remaining classes for reuse.
+     * 
+     * @return Symbol table of the tree this package belongs to, to use with
+     *         getOrCreateClassDataForSymbol(...).
+     */
+    public ClassSymbolTable getClassSymbolTable() {
+        return this.classSymbolTable;
     }
     
     /*
@@ -172,10 +466,21 @@ public class PackageData extends AbstractCodeData {
      * i.e. all classes of this package that have a non-inverse dependency to a class of the successor,
      * plus all classes of the successor that are inversely depended on by a class of this package.
      *         
+     * If cause tracking is COUNT, sets are empty, and if it is LAZY,
+     * sets are computed from classes dependencies on each retrieval
+     * (cf. CauseTracking).
+     * 
      * @return An unmodifiable view of the internal map with unmodifiable views of its sets,
      *         or an empty unmodifiable map.
      */
     public Map<PackageData,SortedSet<ClassData>> causeSetBySuccessor() {
+        if (this.causeTracking != CauseTracking.FULL) {
+            return new MyUntrackedCauseSetMap(this, true);
+        }
+        if (this.mustUseCompactStorage) {
+            // Not keeping the views, for lower memory overhead.
+            return new MyUnmodCauseSetMap(this.causeSetBySuccessor);
+        }
         return this.causeSetUnmodBySuccessorUnmod;
     }
     
@@ -184,18 +489,44 @@ public class PackageData extends AbstractCodeData {
      */
     @Override
     public Set<PackageData> successors() {
+        if (this.causeTracking != CauseTracking.FULL) {
+            return Collections.unmodifiableSet(this.causeCountBySuccessor.keySet());
+        }
         return this.successorSetUnmod;
     }
     
+    /**
+     * The map contains, for each successor, the number of causes of the
+     * dependency from this package to the successor, i.e. the size of the
+     * corresponding set in causeSetBySuccessor() if cause tracking is FULL
+     * or LAZY.
+     * 
+     * @return An unmodifiable map, possibly empty.
+     */
+    public Map<PackageData,Integer> causeCountBySuccessor() {
+        return newCauseCountByContiguous(true);
+    }
+    
     /**
      * The map contains, for each predecessor, the causes of the dependency from the predecessor to this package,
      * i.e. all classes of the predecessor that have a non-inverse dependency to a class of this package,
      * plus all classes of this package that are inversely depended on by a class of the predecessor.
      * 
+     * If cause tracking is COUNT, sets are empty, and if it is LAZY,
+     * sets are computed from classes dependencies on each retrieval
+     * (cf. CauseTracking).
+     * 
      * @return An unmodifiable view of the internal map with unmodifiable views of its sets,
      *         or an empty unmodifiable map.
      */
     public Map<PackageData,SortedSet<ClassData>> causeSetByPredecessor() {
+        if (this.causeTracking != CauseTracking.FULL) {
+            return new MyUntrackedCauseSetMap(this, false);
+        }
+        if (this.mustUseCompactStorage) {
+            // Not keeping the views, for lower memory overhead.
+            return new MyUnmodCauseSetMap(this.causeSetByPredecessor);
+        }
         return this.causeSetUnmodByPredecessorUnmod;
     }
     
@@ -204,8 +535,23 @@ public class PackageData extends AbstractCodeData {
      */
     @Override
     public Set<PackageData> predecessors() {
+        if (this.causeTracking != CauseTracking.FULL) {
+            return Collections.unmodifiableSet(this.causeCountByPredecessor.keySet());
+        }
         return this.predecessorSetUnmod;
     }
+    
+    /**
+     * The map contains, for each predecessor, the number of causes of the
+     * dependency from the predecessor to this package, i.e. the size of the
+     * corresponding set in causeSetByPredecessor() if cause tracking is FULL
+     * or LAZY.
+     * 
+     * @return An unmodifiable map, possibly empty.
+     */
+    public Map<PackageData,Integer> causeCountByPredecessor() {
+        return newCauseCountByContiguous(false);
+    }
 
     /*
      * 
@@ -236,6 +582,11 @@ public class PackageData extends AbstractCodeData {
          */
         
         deleteChildrenIfAny(this);
+        
+        if (this.parent() == null) {
+            // Also removes names interned but not used by any class.
+            this.classSymbolTable.clear();
+        }
     }
 
     /*
@@ -285,6 +636,36 @@ public class PackageData extends AbstractCodeData {
         return this.getOrCreatePackageData(relativePackageName, original);
     }
     
+    /**
+     * Equivalent to getOrCreateClassData(classSymbol.name()), but faster,
+     * since the class name doesn't need to be split, and, if called on
+     * default package data, created data (including outer classes data)
+     * reuse String instances of the symbols.
+     * 
+     * @param classSymbol Symbol of a class name starting after this package
+     *        data's name.
+     * @return The class data corresponding to the specified symbol,
+     *         created if needed.
+     * @throws NullPointerException if the specified symbol is null.
+     */
+    public ClassData getOrCreateClassDataForSymbol(ClassSymbol classSymbol) {
+        // Implicit null check.
+        final String[] dirNames = classSymbol.dirNames();
+        final PackageData packageData = this.getOrCreatePackageData(
+                dirNames,
+                dirNames.length,
+                null);
+        if (this.parent() != null) {
+            // Symbol names not usable as data names,
+            // but its file name no ext still is.
+            final ClassData original = null;
+            return packageData.getOrCreateChildClassData(
+                    classSymbol.fileNameNoExt(),
+                    original);
+        }
+        return packageData.getOrCreateChildClassData(classSymbol);
+    }
+    
     /**
      * If returns true, also increments the byte size of the specified ClassData
      * and its parent PackageData with the specified byte size.
@@ -437,6 +818,17 @@ public class PackageData extends AbstractCodeData {
         
         packageData.addClassCount(-1);
         
+        /*
+         * Removing symbols of the class and of merged nested classes.
+         */
+        
+        packageData.classSymbolTable.remove(classData.name());
+        for (String classFileNameNoExt : classData.byteSizeByClassFileNameNoExt().keySet()) {
+            if (!classFileNameNoExt.equals(classData.fileNameNoExt())) {
+                packageData.classSymbolTable.remove(toClassName(packageData, classFileNameNoExt));
+            }
+        }
+        
         /*
          * Zeroing class byte size.
          */
@@ -568,7 +960,9 @@ public class PackageData extends AbstractCodeData {
      *         it did exist already, in which case nothing has been modified.
      * @throws NullPointerException if either classA or classB is null.
      * @throws IllegalArgumentException if classA or classB is deleted,
-     *         or if they have different roots or are a same instance.
+     *         or if they have different roots or are a same instance,
+     *         or if the dependency is inverse and across packages while cause
+     *         tracking is not FULL.
      */
     public static boolean ensureDependency(
             ClassData classA,
@@ -594,6 +988,16 @@ public class PackageData extends AbstractCodeData {
             throw new IllegalArgumentException("dependency to self");
         }
         
+        if (asInverseDep
+                && (packageA != packageB)
+                && (packageA.causeTracking != CauseTracking.FULL)) {
+            throw new IllegalArgumentException(
+                    "inverse dependency requires "
+                            + CauseTracking.FULL
+                            + " cause tracking, not "
+                            + packageA.causeTracking);
+        }
+        
         boolean modified = false;
         
         {
@@ -607,19 +1011,31 @@ public class PackageData extends AbstractCodeData {
             }
         }
         
-        if (packageA != packageB) {
+        if (packageA == packageB) {
+            // No cause.
+        } else if (packageA.causeTracking != CauseTracking.FULL) {
+            // Only non-inverse dependencies: classA is a new cause
+            // if it was not already depending on packageB.
+            if (modified
+                    && (classA.addToSuccessorCount(packageB, 1) == 1)) {
+                addToCauseCount(packageA.causeCountBySuccessor, packageB, 1);
+                addToCauseCount(packageB.causeCountByPredecessor, packageA, 1);
+            }
+        } else {
             SortedSet<ClassData> causeSet = packageA.causeSetBySuccessor.get(packageB);
             SortedSet<ClassData> invCauseSet = packageB.causeSetByPredecessor.get(packageA);
             if (causeSet == null) {
                 if (invCauseSet != null) {
                     throw new AssertionError();
                 }
-                causeSet = new TreeSet<ClassData>();
+                causeSet = packageA.newClassDataSet();
                 packageA.causeSetBySuccessor.put(packageB, causeSet);
-                packageA.causeSetUnmodBySuccessor.put(packageB, Collections.unmodifiableSortedSet(causeSet));
-                invCauseSet = new TreeSet<ClassData>();
+                invCauseSet = packageB.newClassDataSet();
                 packageB.causeSetByPredecessor.put(packageA, invCauseSet);
-                packageB.causeSetUnmodByPredecessor.put(packageA, Collections.unmodifiableSortedSet(invCauseSet));
+                if (!packageA.mustUseCompactStorage) {
+                    packageA.causeSetUnmodBySuccessor.put(packageB, Collections.unmodifiableSortedSet(causeSet));
+                    packageB.causeSetUnmodByPredecessor.put(packageA, Collections.unmodifiableSortedSet(invCauseSet));
+                }
             } else {
                 if (invCauseSet == null) {
                     throw new AssertionError();
@@ -743,8 +1159,13 @@ public class PackageData extends AbstractCodeData {
         // Implicit null check.
         if (verbose) {
             stream.println(this + " (" + this.byteSize() +  " bytes)");
-            stream.println(" causeSetBySuccessor = " + this.causeSetBySuccessor);
-            stream.println(" causeSetByPredecessor = " + this.causeSetByPredecessor);
+            if (this.causeTracking != CauseTracking.FULL) {
+                stream.println(" causeCountBySuccessor = " + this.causeCountBySuccessor);
+                stream.println(" causeCountByPredecessor = " + this.causeCountByPredecessor);
+            } else {
+                stream.println(" causeSetBySuccessor = " + this.causeSetBySuccessor);
+                stream.println(" causeSetByPredecessor = " + this.causeSetByPredecessor);
+            }
         } else {
             stream.println(this);
         }
@@ -817,6 +1238,14 @@ public class PackageData extends AbstractCodeData {
         }
     }
 
+    /**
+     * @return A new empty set of class data, of the type corresponding
+     *         to the storage used by this tree.
+     */
+    SortedSet<ClassData> newClassDataSet() {
+        return SortedSetUtils.newSortedSet(this.mustUseCompactStorage);
+    }
+    
     //--------------------------------------------------------------------------
     // PRIVATE METHODS
     //--------------------------------------------------------------------------
@@ -836,6 +1265,26 @@ public class PackageData extends AbstractCodeData {
         super(parent, dirName, original);
         // Just need to test one, as super does test args consistency.
         ArgsUtils.requireNonNull(parent);
+        this.mustUseCompactStorage = parent.mustUseCompactStorage;
+        this.causeTracking = parent.causeTracking;
+        this.classSymbolTable = parent.classSymbolTable;
+    }
+    
+    /**
+     * @param bySuccessor True for successors, false for predecessors.
+     */
+    private Map<PackageData,Integer> newCauseCountByContiguous(boolean bySuccessor) {
+        if (this.causeTracking != CauseTracking.FULL) {
+            return Collections.unmodifiableMap(
+                    bySuccessor ? this.causeCountBySuccessor : this.causeCountByPredecessor);
+        }
+        final SortedMap<PackageData,Integer> causeCountByContiguous =
+                new TreeMap<PackageData,Integer>();
+        for (Map.Entry<PackageData,SortedSet<ClassData>> entry
+                : (bySuccessor ? this.causeSetBySuccessor : this.causeSetByPredecessor).entrySet()) {
+            causeCountByContiguous.put(entry.getKey(), entry.getValue().size());
+        }
+        return Collections.unmodifiableMap(causeCountByContiguous);
     }
     
     /*
@@ -1008,7 +1457,8 @@ public class PackageData extends AbstractCodeData {
                     packageData,
                     classFileNameNoExt,
                     outerClassData,
-                    original);
+                    original,
+                    this.mustUseCompactStorage);
             
             // Using the String instance of the ClassData as key.
             this.childClassDataByFileNameNoExt.put(result.fileNameNoExt(), result);
@@ -1020,6 +1470,38 @@ public class PackageData extends AbstractCodeData {
         return result;
     }
 
+    /**
+     * Reentrant.
+     * 
+     * @param classSymbol Symbol of a class of this package, which must be
+     *        in a tree which root is the default package.
+     */
+    private ClassData getOrCreateChildClassData(ClassSymbol classSymbol) {
+        ClassData result = this.childClassDataByFileNameNoExt.get(classSymbol.fileNameNoExt());
+        if (result == null) {
+            final ClassSymbol outerClassSymbol = classSymbol.outerClassSymbol();
+            final ClassData outerClassData;
+            if (outerClassSymbol != null) {
+                outerClassData = this.getOrCreateChildClassData(outerClassSymbol);
+            } else {
+                outerClassData = null;
+            }
+            result = new ClassData(
+                    this,
+                    classSymbol,
+                    outerClassData,
+                    this.mustUseCompactStorage);
+            
+            // Using the String instance of the ClassData as key.
+            this.childClassDataByFileNameNoExt.put(result.fileNameNoExt(), result);
+            
+            this.addClassCount(1);
+            
+            this.incrementModCounts();
+        }
+        return result;
+    }
+    
     /**
      * @param original For string reuse. Can be null.
      */
@@ -1117,6 +1599,16 @@ public class PackageData extends AbstractCodeData {
             return;
         }
 
+        if (packageA.causeTracking != CauseTracking.FULL) {
+            // Only non-inverse dependencies: classA is no longer a cause
+            // if it no longer depends on packageB.
+            if (classA.addToSuccessorCount(packageB, -1) == 0) {
+                addToCauseCount(packageA.causeCountBySuccessor, packageB, -1);
+                addToCauseCount(packageB.causeCountByPredecessor, packageA, -1);
+            }
+            return;
+        }
+        
         /*
          * Eventual cause cleanup for non-inverse dependencies.
          */
@@ -1162,6 +1654,72 @@ public class PackageData extends AbstractCodeData {
         }
     }
     
+    /**
+     * Removes the mapping if the count becomes zero.
+     */
+    private static void addToCauseCount(
+            SortedMap<PackageData,Integer> causeCountByContiguous,
+            PackageData contiguous,
+            int toAdd) {
+        final Integer count = causeCountByContiguous.get(contiguous);
+        final int newCount = ((count != null) ? count.intValue() : 0) + toAdd;
+        if (newCount < 0) {
+            throw new AssertionError();
+        }
+        if (newCount == 0) {
+            causeCountByContiguous.remove(contiguous);
+        } else {
+            causeCountByContiguous.put(contiguous, newCount);
+        }
+    }
+    
+    /**
+     * For trees without inverse dependencies, i.e. not using FULL cause tracking.
+     * 
+     * @return A new set containing the classes of fromPackage that depend
+     *         on a class of toPackage.
+     */
+    private static SortedSet<ClassData> computeCauseSet(
+            PackageData fromPackage,
+            PackageData toPackage) {
+        final SortedSet<ClassData> causeSet = fromPackage.newClassDataSet();
+        for (ClassData classData : fromPackage.childClassDataByFileNameNoExt.values()) {
+            if (classData.hasSuccessorIn(toPackage)) {
+                causeSet.add(classData);
+            }
+        }
+        return causeSet;
+    }
+    
+    /**
+     * For trees without inverse dependencies, i.e. not using FULL cause tracking.
+     * 
+     * @param bySuccessor True for successors, false for predecessors.
+     * @return A new map of new cause sets, for each successor or predecessor
+     *         of the specified package.
+     */
+    private static SortedMap<PackageData,SortedSet<ClassData>> computeCauseSetByContiguous(
+            PackageData packageData,
+            boolean bySuccessor) {
+        final SortedMap<PackageData,SortedSet<ClassData>> causeSetByContiguous =
+                new TreeMap<PackageData,SortedSet<ClassData>>();
+        for (ClassData classData : packageData.childClassDataByFileNameNoExt.values()) {
+            for (ClassData contClassData : (bySuccessor ? classData.successors() : classData.predecessors())) {
+                final PackageData contiguous = (PackageData) contClassData.parent();
+                if (contiguous == packageData) {
+                    continue;
+                }
+                SortedSet<ClassData> causeSet = causeSetByContiguous.get(contiguous);
+                if (causeSet == null) {
+                    causeSet = packageData.newClassDataSet();
+                    causeSetByContiguous.put(contiguous, causeSet);
+                }
+                causeSet.add(bySuccessor ? classData : contClassData);
+            }
+        }
+        return causeSetByContiguous;
+    }
+    
     private static void removeFromCauseSetIfIn(
             PackageData packageWhereCauseForSucc,
             PackageData packageWhereCauseForPred,
@@ -1238,4 +1796,14 @@ public class PackageData extends AbstractCodeData {
     private static ClassData getOriginalOuterClassData(ClassData original) {
         return (original != null) ? original.outerClassData() : null;
     }
+    
+    private static String toClassName(
+            PackageData packageData,
+            String classFileNameNoExt) {
+        if (packageData.parent() == null) {
+            return classFileNameNoExt;
+        } else {
+            return packageData.name() + "." + classFileNameNoExt;
+        }
+    }
 }
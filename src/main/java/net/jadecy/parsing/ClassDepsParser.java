@@ -24,13 +24,22 @@ import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UTFDataFormatException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import net.jadecy.names.InterfaceNameFilter;
+import net.jadecy.names.NameUtils;
+
 /**
  * Computes class dependencies of a class, based on its class file.
  * As a result, dependencies might differ from what appears in source files:
@@ -78,7 +87,7 @@ import java.util.Set;
  * but not dependencies between modules (out of scope for this library).
  */
 public class ClassDepsParser {
-
+    
     /*
      * ".class" file format definition in jvms20.pdf, ch. 4.
      * 
@@ -89,9 +98,11 @@ public class ClassDepsParser {
      */
     
     /*
-     * Based on DataInput, and not on RandomAccessFile/FileChannel/ByteBuffer:
-     * - Faster (with buffered input stream).
-     * - Allows for usage with ZipFile.getInputStream(ZipEntry).
+     * Parsing treatments read through MyInput, which can either be based on
+     * a DataInput, which allows for usage with ZipFile.getInputStream(ZipEntry),
+     * or on a (heap or mapped) ByteBuffer, which is read with absolute gets
+     * and avoids the overhead of streams layers and of IOException wrapping
+     * for each read.
      */
     
     /*
@@ -111,53 +122,205 @@ public class ClassDepsParser {
     //--------------------------------------------------------------------------
     
     private static final boolean DEBUG = false;
-
+    
     private static final boolean ANNOS_NOT_IN_API = true;
     
     //--------------------------------------------------------------------------
     // PRIVATE CLASSES
     //--------------------------------------------------------------------------
     
+    /**
+     * Set of constant pool indexes, as a bitset.
+     */
+    private static class MyIndexSet {
+        private long[] words = new long[0];
+        /**
+         * Number of indexes that can be added, i.e. constant_pool_count.
+         */
+        private int capacity = 0;
+        /**
+         * Must only be called when empty.
+         */
+        void setCapacity(int capacity) {
+            final int wordCount = (capacity + 63) >>> 6;
+            if (wordCount > this.words.length) {
+                this.words = new long[wordCount];
+            }
+            this.capacity = capacity;
+        }
+        /**
+         * @throws IllegalArgumentException if the specified index
+         *         is out of constant pool.
+         */
+        void add(int index) {
+            if ((index < 0) || (index >= this.capacity)) {
+                throw new IllegalArgumentException("index out of constant pool: " + index);
+            }
+            this.words[index >>> 6] |= (1L << index);
+        }
+        /**
+         * @return The first index in the set, that is >= the specified one,
+         *         or -1 if there is none.
+         */
+        int nextIndex(int fromIndex) {
+            int wordIndex = fromIndex >>> 6;
+            final int wordCount = (this.capacity + 63) >>> 6;
+            if (wordIndex >= wordCount) {
+                return -1;
+            }
+            long word = this.words[wordIndex] & (-1L << fromIndex);
+            while (true) {
+                if (word != 0L) {
+                    return (wordIndex << 6) + Long.numberOfTrailingZeros(word);
+                }
+                if (++wordIndex == wordCount) {
+                    return -1;
+                }
+                word = this.words[wordIndex];
+            }
+        }
+        void clear() {
+            final int wordCount = (this.capacity + 63) >>> 6;
+            Arrays.fill(this.words, 0, wordCount, 0L);
+            this.capacity = 0;
+        }
+    }
+    
     /**
      * Contains some input and some output.
      * 
-     * Not optimizing by using primitive collections or taking advantage
-     * of our keys being relatively small integers (i.e. indexes),
-     * gains not looking to be worth it.
+     * Reused for successive parsings in a same thread (cf. DATA_TL),
+     * to avoid garbage: tables indexed by constant pool indexes are only
+     * reallocated when a larger constant pool is encountered, and are
+     * cleared after each parsing.
      */
     private static class MyData {
-        final boolean apiOnly;
-        boolean foundNonApiClassAbove = false;
+        /**
+         * True while used for a parsing, in which case a reentrant parsing
+         * (which could only happen from user collection) must use another
+         * instance.
+         */
+        boolean inUse = false;
+        MyInput input;
+        boolean apiOnly;
+        /**
+         * True if API dependencies must also be computed, into api* sets,
+         * while computing all dependencies (apiOnly being false).
+         */
+        boolean withApiDeps;
+        /**
+         * True while parsing parts of the class file which dependencies
+         * are API dependencies.
+         * Only set if apiOnly or withApiDeps is true.
+         */
+        boolean inApi;
+        /**
+         * True if class names (and descriptors) must be decoded with dots
+         * instead of slashes.
+         * Only supported for inputs that can decode lazily.
+         */
+        boolean doted;
+        /**
+         * Filter for the name of the parsed class (with dots if doted is true),
+         * or null if none.
+         */
+        InterfaceNameFilter classNameFilter;
+        boolean foundNonApiClassAbove;
         /*
          * Data always filled, from constants pool.
          */
         /**
-         * key = index for a CONSTANT_Utf8
-         * value = the String
+         * Size of constant pool tables in use.
+         */
+        int constantPoolCount;
+        /**
+         * index = index for a CONSTANT_Utf8
+         * value = the String, or null if not decoded (yet)
+         * 
+         * Filled while parsing constant pool if input decodes eagerly,
+         * else on demand.
+         */
+        String[] stringByUtf8Index = new String[0];
+        /**
+         * For inputs that decode lazily.
+         * index = index for a CONSTANT_Utf8
+         * value = position of its length in input, or 0 if none
+         *         (can't be 0 since magic comes first)
          */
-        final Map<Integer,String> stringByUtf8Index = new HashMap<Integer,String>();
+        int[] utf8PosByIndex = new int[0];
         /**
          * Must only be called after UTF8 strings of constant pool
          * have been parsed.
          * 
+         * If doted is true, slashes are replaced with dots,
+         * so must not be used for signatures.
+         * 
          * @throws IllegalArgumentException if the string
          *         has not been read from constant pool yet.
          */
-        String stringOfUtf8Index(Integer index) {
-            final String ret = this.stringByUtf8Index.get(index);
+        String stringOfUtf8Index(int index) {
+            this.checkUtf8Index(index);
+            String ret = this.stringByUtf8Index[index];
             if (ret == null) {
-                throw new IllegalArgumentException("no value in stringByUtf8Index for key " + index);
+                ret = this.decodeUtf8Index(index, this.doted);
+                this.stringByUtf8Index[index] = ret;
             }
             return ret;
         }
         /**
-         * Need for a map so that we can retrieve class name of the class, using "thisClassIndex",
+         * Must only be called after UTF8 strings of constant pool
+         * have been parsed.
+         * 
+         * @return The string with slashes, even if doted is true.
+         * @throws IllegalArgumentException if the string
+         *         has not been read from constant pool yet.
+         */
+        String rawStringOfUtf8Index(int index) {
+            if (this.doted) {
+                // Not cached, since signatures are only decoded once anyway.
+                this.checkUtf8Index(index);
+                return this.decodeUtf8Index(index, false);
+            } else {
+                return this.stringOfUtf8Index(index);
+            }
+        }
+        private void checkUtf8Index(int index) {
+            if ((index <= 0) || (index >= this.constantPoolCount)) {
+                throw new IllegalArgumentException("no value in stringByUtf8Index for key " + index);
+            }
+        }
+        private String decodeUtf8Index(int index, boolean slashesToDots) {
+            final int pos = this.utf8PosByIndex[index];
+            if (pos == 0) {
+                throw new IllegalArgumentException("no value in stringByUtf8Index for key " + index);
+            }
+            return this.input.decodeUtf8At(pos, slashesToDots);
+        }
+        /**
+         * Need for a table so that we can retrieve class name of the class, using "thisClassIndex",
          * else a "classNamesUtf8Indexes" list would be enough (since two classes
          * must not have a same name, hence not a same Utf8 index for their names).
+         * 
+         * index = index for a CONSTANT_Class
+         * value = index of its name CONSTANT_Utf8, or 0 if none
+         */
+        int[] classNamesUtf8IndexByClassIndex = new int[0];
+        /**
+         * index = index for a CONSTANT_Utf8
+         * value = ATTR_KIND_XXX if it has been used as an attribute name,
+         *         else ATTR_KIND_UNKNOWN (0)
+         * 
+         * Allows for attribute names to be decoded and looked up only once
+         * per class file, even though they are used by many attributes.
          */
-        final Map<Integer,Integer> classNamesUtf8IndexByClassIndex = new HashMap<Integer,Integer>();
-        String classNameOfClassIndex(Integer index) {
-            final Integer utf8Index = this.classNamesUtf8IndexByClassIndex.get(index);
+        int[] attrKindByUtf8Index = new int[0];
+        String classNameOfClassIndex(int index) {
+            final int utf8Index;
+            if ((index > 0) && (index < this.constantPoolCount)) {
+                utf8Index = this.classNamesUtf8IndexByClassIndex[index];
+            } else {
+                utf8Index = 0;
+            }
             return this.stringOfUtf8Index(utf8Index);
         }
         /*
@@ -167,26 +330,32 @@ public class ClassDepsParser {
         /**
          * element = index of a CONSTANT_Class_info structure.
          */
-        final Set<Integer> depClassesIndexes = new HashSet<Integer>();
+        final MyIndexSet depClassesIndexes = new MyIndexSet();
         /**
          * Descriptor: without generic typing.
          * 
          * Need for a set because multiple stuffs might have identical descriptors.
          */
-        final Set<Integer> depDescriptorsUtf8Indexes = new HashSet<Integer>();
+        final MyIndexSet depDescriptorsUtf8Indexes = new MyIndexSet();
         /**
          * Signature: with generic typing.
          * 
          * Need for a set because multiple stuffs might have identical signatures.
          */
-        final Set<Integer> depSignaturesUtf8Indexes = new HashSet<Integer>();
+        final MyIndexSet depSignaturesUtf8Indexes = new MyIndexSet();
+        /*
+         * Same as above, but for API dependencies, when withApiDeps is true.
+         */
+        final MyIndexSet apiDepClassesIndexes = new MyIndexSet();
+        final MyIndexSet apiDepDescriptorsUtf8Indexes = new MyIndexSet();
+        final MyIndexSet apiDepSignaturesUtf8Indexes = new MyIndexSet();
         /*
          * 
          */
         /**
          * Computed by classVersion(...) method.
          */
-        long classVersion = 0;
+        long classVersion;
         int class_access_flags;
         /**
          * Index for CONSTANT_Class of the class.
@@ -198,8 +367,272 @@ public class ClassDepsParser {
          * and makes it easy to ensure that we don't add "this class name" into it.
          */
         final Set<String> dependencySet = new HashSet<String>();
-        MyData(boolean apiOnly) {
+        /**
+         * Temporary list, for class names extracted from signatures
+         * when doted is true.
+         */
+        final List<String> tmpInternalClassNameList = new ArrayList<String>();
+        MyData() {
+        }
+        void init(
+                MyInput input,
+                boolean apiOnly,
+                boolean withApiDeps,
+                boolean doted,
+                InterfaceNameFilter classNameFilter) {
+            this.input = input;
             this.apiOnly = apiOnly;
+            this.withApiDeps = withApiDeps;
+            this.inApi = false;
+            this.doted = doted;
+            this.classNameFilter = classNameFilter;
+            this.foundNonApiClassAbove = false;
+            this.classVersion = 0;
+            this.class_access_flags = 0;
+            this.thisClassIndex = 0;
+        }
+        /**
+         * Called after constant_pool_count has been read.
+         */
+        void initConstantPoolTables(int constantPoolCount) {
+            if (constantPoolCount > this.stringByUtf8Index.length) {
+                this.stringByUtf8Index = new String[constantPoolCount];
+                this.utf8PosByIndex = new int[constantPoolCount];
+                this.classNamesUtf8IndexByClassIndex = new int[constantPoolCount];
+                this.attrKindByUtf8Index = new int[constantPoolCount];
+            }
+            this.depClassesIndexes.setCapacity(constantPoolCount);
+            this.depDescriptorsUtf8Indexes.setCapacity(constantPoolCount);
+            this.depSignaturesUtf8Indexes.setCapacity(constantPoolCount);
+            // Empty capacity (nothing to clear) if not used.
+            final int apiCapacity = (this.withApiDeps ? constantPoolCount : 0);
+            this.apiDepClassesIndexes.setCapacity(apiCapacity);
+            this.apiDepDescriptorsUtf8Indexes.setCapacity(apiCapacity);
+            this.apiDepSignaturesUtf8Indexes.setCapacity(apiCapacity);
+            this.constantPoolCount = constantPoolCount;
+        }
+        /**
+         * Clears all data, not to retain input, strings or class names
+         * until next parsing.
+         */
+        void clear() {
+            final int count = this.constantPoolCount;
+            Arrays.fill(this.stringByUtf8Index, 0, count, null);
+            Arrays.fill(this.utf8PosByIndex, 0, count, 0);
+            Arrays.fill(this.classNamesUtf8IndexByClassIndex, 0, count, 0);
+            Arrays.fill(this.attrKindByUtf8Index, 0, count, 0);
+            this.depClassesIndexes.clear();
+            this.depDescriptorsUtf8Indexes.clear();
+            this.depSignaturesUtf8Indexes.clear();
+            this.apiDepClassesIndexes.clear();
+            this.apiDepDescriptorsUtf8Indexes.clear();
+            this.apiDepSignaturesUtf8Indexes.clear();
+            this.constantPoolCount = 0;
+            this.dependencySet.clear();
+            this.tmpInternalClassNameList.clear();
+            this.input = null;
+            this.classNameFilter = null;
+        }
+    }
+    
+    /**
+     * Class file bytes source.
+     */
+    private static abstract class MyInput {
+        /**
+         * @return An u4 value, or 0 if reached EOF before it could be read.
+         */
+        abstract long getU4ElseZero();
+        abstract int getU1();
+        abstract int getU2();
+        abstract long getU4();
+        abstract void skip(int count);
+        /**
+         * Reads a CONSTANT_Utf8 body, i.e. an u2 length followed by that many
+         * bytes of modified UTF-8, and either decodes it into
+         * data.stringByUtf8Index, or records its position into
+         * data.utf8PosByIndex for later decoding.
+         */
+        abstract void readUtf8(MyData data, int index);
+        /**
+         * Only called for inputs that record positions in readUtf8(...).
+         * 
+         * @param pos Position of the u2 length of a CONSTANT_Utf8 body.
+         * @param slashesToDots True if must replace slashes with dots.
+         */
+        abstract String decodeUtf8At(int pos, boolean slashesToDots);
+        final void skip(long count) {
+            while (count > 0L) {
+                final int toSkip;
+                if (count > Integer.MAX_VALUE) {
+                    toSkip = Integer.MAX_VALUE;
+                } else {
+                    toSkip = (int) count;
+                }
+                count -= toSkip;
+                this.skip(toSkip);
+            }
+        }
+    }
+    
+    private static class MyDataInput extends MyInput {
+        private final DataInput dataInput;
+        MyDataInput(DataInput dataInput) {
+            this.dataInput = dataInput;
+        }
+        @Override
+        long getU4ElseZero() {
+            long value;
+            try {
+                value = this.dataInput.readInt();
+            } catch (EOFException e) {
+                return 0;
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+            if (value < 0) {
+                value += (1L<<32);
+            }
+            return value;
+        }
+        @Override
+        int getU1() {
+            int value;
+            try {
+                value = this.dataInput.readByte();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+            if (value < 0) {
+                value += (1<<8);
+            }
+            return value;
+        }
+        @Override
+        int getU2() {
+            int value;
+            try {
+                value = this.dataInput.readShort();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+            if (value < 0) {
+                value += (1<<16);
+            }
+            return value;
+        }
+        @Override
+        long getU4() {
+            long value;
+            try {
+                value = this.dataInput.readInt();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+            if (value < 0) {
+                value += (1L<<32);
+            }
+            return value;
+        }
+        @Override
+        void skip(int count) {
+            final int forCheck;
+            try {
+                forCheck = this.dataInput.skipBytes(count);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+            if (forCheck != count) {
+                throw new AssertionError(forCheck + " != " + count);
+            }
+        }
+        @Override
+        void readUtf8(MyData data, int index) {
+            final String string;
+            try {
+                string = this.dataInput.readUTF();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+            if (DEBUG) {
+                System.out.println("pool[" + index + "] : utf8 = " + string);
+            }
+            data.stringByUtf8Index[index] = string;
+        }
+        @Override
+        String decodeUtf8At(int pos, boolean slashesToDots) {
+            throw new UnsupportedOperationException();
+        }
+    }
+    
+    /**
+     * Reads with absolute gets, from position to limit of the buffer
+     * at creation time, and doesn't modify the buffer.
+     */
+    private static class MyByteBufferInput extends MyInput {
+        /**
+         * Big endian duplicate of the specified buffer.
+         */
+        private final ByteBuffer buffer;
+        private final int limit;
+        private int position;
+        MyByteBufferInput(ByteBuffer buffer) {
+            final ByteBuffer bb = buffer.duplicate();
+            bb.order(ByteOrder.BIG_ENDIAN);
+            this.buffer = bb;
+            this.limit = bb.limit();
+            this.position = bb.position();
+        }
+        @Override
+        long getU4ElseZero() {
+            if (this.limit - this.position < 4) {
+                return 0;
+            }
+            return this.getU4();
+        }
+        @Override
+        int getU1() {
+            return this.buffer.get(this.positionThenMove(1)) & 0xFF;
+        }
+        @Override
+        int getU2() {
+            return this.buffer.getShort(this.positionThenMove(2)) & 0xFFFF;
+        }
+        @Override
+        long getU4() {
+            return this.buffer.getInt(this.positionThenMove(4)) & 0xFFFFFFFFL;
+        }
+        @Override
+        void skip(int count) {
+            this.positionThenMove(count);
+        }
+        @Override
+        void readUtf8(MyData data, int index) {
+            final int pos = this.position;
+            final int utflen = this.getU2();
+            this.positionThenMove(utflen);
+            if (DEBUG) {
+                System.out.println("pool[" + index + "] : utf8 = " + this.decodeUtf8At(pos, false));
+            }
+            data.utf8PosByIndex[index] = pos;
+        }
+        @Override
+        String decodeUtf8At(int pos, boolean slashesToDots) {
+            final int utflen = this.buffer.getShort(pos) & 0xFFFF;
+            return decodeModifiedUtf8(this.buffer, pos + 2, utflen, slashesToDots);
+        }
+        /**
+         * @return Position before the move.
+         * @throws RuntimeException wrapping an EOFException if there are
+         *         less than the specified count of remaining bytes.
+         */
+        private int positionThenMove(int count) {
+            final int pos = this.position;
+            if (count > this.limit - pos) {
+                throw new RuntimeException(new EOFException());
+            }
+            this.position = pos + count;
+            return pos;
         }
     }
     
@@ -241,7 +674,7 @@ public class ClassDepsParser {
     
     private static final int ACC_PUBLIC = 0x0001;
     private static final int ACC_PROTECTED = 0x0004;
-
+    
     /*
      * Attributes by version, to ignore them if they are not
      * predefined ones but user defined ones.
@@ -323,14 +756,80 @@ public class ClassDepsParser {
         map.put(ATTR_NestMembers, classVersion(55,0));
         map.put(ATTR_Record, classVersion(60,0));
         map.put(ATTR_PermittedSubclasses, classVersion(61,0));
-
+        
         FIRST_VERSION_BY_ATTR_NAME = Collections.unmodifiableMap(map);
     }
-
+    
+    /*
+     * Kinds of attributes, for process_attribute_info(...) to switch on
+     * an int instead of comparing names.
+     */
+    
+    /**
+     * Attribute name not classified yet.
+     */
+    private static final int ATTR_KIND_UNKNOWN = 0;
+    /**
+     * User defined attribute, or predefined attribute not of interest.
+     */
+    private static final int ATTR_KIND_OTHER = 1;
+    private static final int ATTR_KIND_Signature = 2;
+    private static final int ATTR_KIND_InnerClasses = 3;
+    private static final int ATTR_KIND_Exceptions = 4;
+    private static final int ATTR_KIND_Code = 5;
+    /**
+     * For visible and invisible ones.
+     */
+    private static final int ATTR_KIND_Annotations = 6;
+    /**
+     * For visible and invisible ones.
+     */
+    private static final int ATTR_KIND_ParameterAnnotations = 7;
+    /**
+     * For visible and invisible ones.
+     */
+    private static final int ATTR_KIND_TypeAnnotations = 8;
+    private static final int ATTR_KIND_AnnotationDefault = 9;
+    private static final int ATTR_KIND_ModuleMainClass = 10;
+    private static final int ATTR_KIND_Record = 11;
+    
+    /**
+     * Only for predefined attributes processed by process_attribute_info(...).
+     */
+    private static final Map<String,Integer> ATTR_KIND_BY_ATTR_NAME;
+    static {
+        final Map<String,Integer> map = new HashMap<String,Integer>();
+        map.put(ATTR_Signature, ATTR_KIND_Signature);
+        map.put(ATTR_InnerClasses, ATTR_KIND_InnerClasses);
+        map.put(ATTR_Exceptions, ATTR_KIND_Exceptions);
+        map.put(ATTR_Code, ATTR_KIND_Code);
+        map.put(ATTR_RuntimeVisibleAnnotations, ATTR_KIND_Annotations);
+        map.put(ATTR_RuntimeInvisibleAnnotations, ATTR_KIND_Annotations);
+        map.put(ATTR_RuntimeVisibleParameterAnnotations, ATTR_KIND_ParameterAnnotations);
+        map.put(ATTR_RuntimeInvisibleParameterAnnotations, ATTR_KIND_ParameterAnnotations);
+        map.put(ATTR_RuntimeVisibleTypeAnnotations, ATTR_KIND_TypeAnnotations);
+        map.put(ATTR_RuntimeInvisibleTypeAnnotations, ATTR_KIND_TypeAnnotations);
+        map.put(ATTR_AnnotationDefault, ATTR_KIND_AnnotationDefault);
+        map.put(ATTR_ModuleMainClass, ATTR_KIND_ModuleMainClass);
+        map.put(ATTR_Record, ATTR_KIND_Record);
+        
+        ATTR_KIND_BY_ATTR_NAME = Collections.unmodifiableMap(map);
+    }
+    
+    /**
+     * Data reused by successive parsings in a same thread.
+     */
+    private static final ThreadLocal<MyData> DATA_TL = new ThreadLocal<MyData>() {
+        @Override
+        protected MyData initialValue() {
+            return new MyData();
+        }
+    };
+    
     //--------------------------------------------------------------------------
     // PUBLIC METHODS
     //--------------------------------------------------------------------------
-
+    
     /**
      * Computes dependencies and class name of the specified class file.
      * 
@@ -441,7 +940,7 @@ public class ClassDepsParser {
             }
         }
     }
-
+    
     /**
      * Computes dependencies and class name of the specified class file.
      * 
@@ -472,95 +971,142 @@ public class ClassDepsParser {
             DataInput classFileDataInput,
             boolean apiOnly,
             Collection<String> depInternalClassNameColl) {
-        final MyData data = new MyData(apiOnly);
-        final boolean okSoFar = parseClassFile(
-                classFileDataInput,
-                data);
-        if (DEBUG) {
-            System.out.println("ok after parsing = " + okSoFar);
-        }
-        if (!okSoFar) {
-            return null;
-        }
-        
-        // Already logged when parsed index.
-        final String thisClassName = data.classNameOfClassIndex(data.thisClassIndex);
-        if (thisClassName == null) {
-            throw new IllegalArgumentException("null class name for this");
-        }
-        
-        if (data.apiOnly
-                && ((!isApi(data.class_access_flags))
-                        || data.foundNonApiClassAbove)) {
-            if (DEBUG) {
-                System.out.println("not an API class : no API dependencies");
-            }
-            return thisClassName;
-        }
-
-        for (int classIndex : data.depClassesIndexes) {
-            if (classIndex == data.thisClassIndex) {
-                // Optional, since we remove "this class name"
-                // at the end.
-                continue;
-            }
-            if (DEBUG) {
-                System.out.print("dep classIndex = " + classIndex);
-            }
-            final String depClassName = data.classNameOfClassIndex(classIndex);
-            if (DEBUG) {
-                System.out.println(", className = " + depClassName);
-            }
-            addClassNameEventuallyFromArrayClassNameInto(
-                    depClassName,
-                    data.dependencySet);
-        }
-
-        for (int utf8Index : data.depDescriptorsUtf8Indexes) {
-            if (DEBUG) {
-                System.out.print("dep utf8Index = " + utf8Index);
-            }
-            final String descriptor = data.stringOfUtf8Index(utf8Index);
-            if (DEBUG) {
-                System.out.println(", descriptor = " + descriptor);
-            }
-            addClassNamesFromDescriptorInto(
-                    descriptor,
-                    data.dependencySet);
-        }
-        
-        for (int utf8Index : data.depSignaturesUtf8Indexes) {
-            if (DEBUG) {
-                System.out.print("dep utf8Index = " + utf8Index);
-            }
-            final String signature = data.stringOfUtf8Index(utf8Index);
-            if (DEBUG) {
-                System.out.println(", signature = " + signature);
-            }
-            addClassNamesFromSignatureInto(
-                    signature,
-                    data.dependencySet);
-        }
-
-        /*
-         * Making sure we don't pretend to depend on ourselves.
-         */
-        
-        data.dependencySet.remove(thisClassName);
-
-        /*
-         * 
-         */
-
-        depInternalClassNameColl.addAll(data.dependencySet);
-        
-        return thisClassName;
+        return computeDependencies(
+                new MyDataInput(classFileDataInput),
+                apiOnly,
+                false,
+                null,
+                depInternalClassNameColl);
     }
-
+    
+    /**
+     * Computes dependencies and class name of the specified class file.
+     * 
+     * Provided class names are in their internal form, e.g. "java/lang/Object".
+     * 
+     * If the specified collection implements java.util.Set interface, then a
+     * same class name might be added multiple times into it, else this method
+     * takes care to only add each class name once (but even if it was already
+     * in the specified collection before this call).
+     * 
+     * The order in which names are added in the specified collection is
+     * undefined, to allow for maximum performances.
+     * If wanting deterministic results, you can use a TreeSet.
+     * 
+     * Reads the bytes from position to limit of the specified buffer, using
+     * absolute gets, i.e. without modifying its position, limit or byte order.
+     * The buffer can be a heap buffer, or a memory-mapped file.
+     * 
+     * @param classFileBuffer Buffer containing a class file.
+     * @param apiOnly If true, only takes into account dependencies from API,
+     *        i.e. essentially public and protected fields, methods and
+     *        class signatures.
+     * @param depInternalClassNameColl Collection where to add internal class
+     *        names of classes the specified class depends on.
+     * @return The internal class name of the specified class, or null if the
+     *         specified buffer did not start with 0xCAFEBABE.
+     * @throws RuntimeException wrapping an IOException (such as EOFException
+     *         if the buffer ends before the class file) if any is thrown.
+     */
+    public static String computeDependencies(
+            ByteBuffer classFileBuffer,
+            boolean apiOnly,
+            Collection<String> depInternalClassNameColl) {
+        return computeDependencies(
+                new MyByteBufferInput(classFileBuffer),
+                apiOnly,
+                false,
+                null,
+                depInternalClassNameColl);
+    }
+    
+    /**
+     * Computes, in a single pass, both dependencies and API dependencies
+     * of the specified class file, i.e. the same dependencies than
+     * computeDependencies(ByteBuffer,boolean,Collection) with apiOnly
+     * being false, and then true.
+     * 
+     * @param classFileBuffer Buffer containing a class file.
+     * @param depInternalClassNameColl Collection where to add internal class
+     *        names of classes the specified class depends on.
+     * @param apiDepInternalClassNameColl Collection where to add internal
+     *        class names of classes the specified class depends on through
+     *        its API.
+     * @return The internal class name of the specified class, or null if the
+     *         specified buffer did not start with 0xCAFEBABE.
+     * @throws RuntimeException wrapping an IOException (such as EOFException
+     *         if the buffer ends before the class file) if any is thrown.
+     */
+    public static String computeDependencies(
+            ByteBuffer classFileBuffer,
+            Collection<String> depInternalClassNameColl,
+            Collection<String> apiDepInternalClassNameColl) {
+        return computeDependencies(
+                new MyByteBufferInput(classFileBuffer),
+                false,
+                true,
+                false,
+                null,
+                depInternalClassNameColl,
+                apiDepInternalClassNameColl);
+    }
+    
     //--------------------------------------------------------------------------
     // PACKAGE-PRIVATE METHODS
     //--------------------------------------------------------------------------
     
+    /**
+     * Same as computeDependencies(ByteBuffer,boolean,Collection),
+     * except that class names are provided with dots instead of slashes,
+     * e.g. "java.lang.Object".
+     * 
+     * Only the constant pool entries actually used as class names are
+     * decoded, and directly with dots, which avoids computing the internal
+     * names first.
+     * 
+     * The specified filter is applied to the class name as soon as it is
+     * known, i.e. just after the constant pool, and if it doesn't accept it,
+     * the rest of the class file is not parsed.
+     * 
+     * @param classNameFilter Filter for the name (with dots) of the parsed
+     *        class.
+     * @return The class name with dots, or null if the specified buffer
+     *         did not start with 0xCAFEBABE, or if the class name was not
+     *         accepted by the specified filter.
+     */
+    static String computeDotedDependencies(
+            ByteBuffer classFileBuffer,
+            boolean apiOnly,
+            InterfaceNameFilter classNameFilter,
+            Collection<String> depClassNameColl) {
+        return computeDependencies(
+                new MyByteBufferInput(classFileBuffer),
+                apiOnly,
+                true,
+                classNameFilter,
+                depClassNameColl);
+    }
+    
+    /**
+     * Same as computeDotedDependencies(ByteBuffer,boolean,InterfaceNameFilter,Collection),
+     * but computing in a single pass both dependencies and API dependencies,
+     * as done by computeDependencies(ByteBuffer,Collection,Collection).
+     */
+    static String computeDotedDependencies(
+            ByteBuffer classFileBuffer,
+            InterfaceNameFilter classNameFilter,
+            Collection<String> depClassNameColl,
+            Collection<String> apiDepClassNameColl) {
+        return computeDependencies(
+                new MyByteBufferInput(classFileBuffer),
+                false,
+                true,
+                true,
+                classNameFilter,
+                depClassNameColl,
+                apiDepClassNameColl);
+    }
+    
     /**
      * We don't consider arrays classes names as dependencies, only the class
      * name of their element type if it's not primitive.
@@ -588,7 +1134,7 @@ public class ClassDepsParser {
                     classNameOrArrayClassName);
         }
     }
-
+    
     /**
      * Can add a same class name multiple times.
      * 
@@ -619,7 +1165,7 @@ public class ClassDepsParser {
             mark = toExcl+1;
         }
     }
-
+    
     /**
      * Can add a same class name multiple times.
      * 
@@ -706,27 +1252,305 @@ public class ClassDepsParser {
                     + " but not ending : "
                     + signature);
         }
-        if (gtFrom >= 0) {
-            throw new IllegalArgumentException(
-                    "generic type name starting at "
-                    + gtFrom
-                    + " but not ending : "
-                    + signature);
+        if (gtFrom >= 0) {
+            throw new IllegalArgumentException(
+                    "generic type name starting at "
+                    + gtFrom
+                    + " but not ending : "
+                    + signature);
+        }
+        if (icsnFrom >= 0) {
+            throw new IllegalArgumentException(
+                    "nested class simple name starting at "
+                    + icsnFrom
+                    + " but not ending : "
+                    + signature);
+        }
+    }
+    
+    /**
+     * Decodes the specified bytes as modified UTF-8, as done by
+     * DataInput.readUTF() (but without the u2 length prefix).
+     * 
+     * @param buffer Buffer to read with absolute gets.
+     * @param from Index of the first byte.
+     * @param byteLength Number of bytes to decode.
+     * @param slashesToDots True if must replace slashes with dots,
+     *        to directly obtain non-internal class names.
+     * @return The decoded string.
+     * @throws RuntimeException wrapping an UTFDataFormatException if the bytes
+     *         are not valid modified UTF-8.
+     */
+    static String decodeModifiedUtf8(
+            ByteBuffer buffer,
+            int from,
+            int byteLength,
+            boolean slashesToDots) {
+        final char[] chars = new char[byteLength];
+        int charCount = 0;
+        
+        final int to = from + byteLength;
+        int i = from;
+        while (i < to) {
+            final int b1 = buffer.get(i) & 0xFF;
+            if (b1 < 0x80) {
+                // 0xxxxxxx
+                if (slashesToDots && (b1 == '/')) {
+                    chars[charCount++] = '.';
+                } else {
+                    chars[charCount++] = (char) b1;
+                }
+                i++;
+            } else if ((b1 >> 5) == 0x06) {
+                // 110xxxxx 10xxxxxx
+                if (i + 2 > to) {
+                    throw malformedUtf8("partial character at end", i);
+                }
+                final int b2 = buffer.get(i + 1);
+                if ((b2 & 0xC0) != 0x80) {
+                    throw malformedUtf8("malformed input around byte", i + 1);
+                }
+                chars[charCount++] = (char) (((b1 & 0x1F) << 6) | (b2 & 0x3F));
+                i += 2;
+            } else if ((b1 >> 4) == 0x0E) {
+                // 1110xxxx 10xxxxxx 10xxxxxx
+                if (i + 3 > to) {
+                    throw malformedUtf8("partial character at end", i);
+                }
+                final int b2 = buffer.get(i + 1);
+                final int b3 = buffer.get(i + 2);
+                if (((b2 & 0xC0) != 0x80) || ((b3 & 0xC0) != 0x80)) {
+                    throw malformedUtf8("malformed input around byte", i + 2);
+                }
+                chars[charCount++] = (char) (((b1 & 0x0F) << 12) | ((b2 & 0x3F) << 6) | (b3 & 0x3F));
+                i += 3;
+            } else {
+                // 10xxxxxx or 1111xxxx
+                throw malformedUtf8("malformed input around byte", i);
+            }
+        }
+        
+        return new String(chars, 0, charCount);
+    }
+    
+    //--------------------------------------------------------------------------
+    // PRIVATE METHODS
+    //--------------------------------------------------------------------------
+    
+    private ClassDepsParser() {
+    }
+    
+    /*
+     * 
+     */
+    
+    /**
+     * @param doted Must only be true for inputs that decode lazily.
+     * @param classNameFilter Can be null.
+     */
+    private static String computeDependencies(
+            MyInput input,
+            boolean apiOnly,
+            boolean doted,
+            InterfaceNameFilter classNameFilter,
+            Collection<String> depInternalClassNameColl) {
+        return computeDependencies(
+                input,
+                apiOnly,
+                false,
+                doted,
+                classNameFilter,
+                depInternalClassNameColl,
+                null);
+    }
+    
+    /**
+     * @param withApiDeps Must only be true if apiOnly is false.
+     * @param doted Must only be true for inputs that decode lazily.
+     * @param classNameFilter Can be null.
+     * @param apiDepInternalClassNameColl Only used if withApiDeps is true.
+     */
+    private static String computeDependencies(
+            MyInput input,
+            boolean apiOnly,
+            boolean withApiDeps,
+            boolean doted,
+            InterfaceNameFilter classNameFilter,
+            Collection<String> depInternalClassNameColl,
+            Collection<String> apiDepInternalClassNameColl) {
+        MyData data = DATA_TL.get();
+        if (data.inUse) {
+            data = new MyData();
+        }
+        data.inUse = true;
+        try {
+            data.init(
+                    input,
+                    apiOnly,
+                    withApiDeps,
+                    doted,
+                    classNameFilter);
+            return computeDependencies(
+                    input,
+                    data,
+                    depInternalClassNameColl,
+                    apiDepInternalClassNameColl);
+        } finally {
+            data.clear();
+            data.inUse = false;
+        }
+    }
+    
+    /**
+     * @param data (in,out) Initialized data.
+     * @param apiDepInternalClassNameColl Only used if data.withApiDeps is true.
+     */
+    private static String computeDependencies(
+            MyInput input,
+            MyData data,
+            Collection<String> depInternalClassNameColl,
+            Collection<String> apiDepInternalClassNameColl) {
+        final boolean okSoFar = parseClassFile(
+                input,
+                data);
+        if (DEBUG) {
+            System.out.println("ok after parsing = " + okSoFar);
+        }
+        if (!okSoFar) {
+            return null;
         }
-        if (icsnFrom >= 0) {
-            throw new IllegalArgumentException(
-                    "nested class simple name starting at "
-                    + icsnFrom
-                    + " but not ending : "
-                    + signature);
+        
+        // Already logged when parsed index.
+        final String thisClassName = data.classNameOfClassIndex(data.thisClassIndex);
+        if (thisClassName == null) {
+            throw new IllegalArgumentException("null class name for this");
+        }
+        
+        final boolean isApiClass =
+                isApi(data.class_access_flags)
+                && (!data.foundNonApiClassAbove);
+        
+        if (data.apiOnly
+                && (!isApiClass)) {
+            if (DEBUG) {
+                System.out.println("not an API class : no API dependencies");
+            }
+            return thisClassName;
+        }
+        
+        addDependencies(
+                data,
+                data.depClassesIndexes,
+                data.depDescriptorsUtf8Indexes,
+                data.depSignaturesUtf8Indexes,
+                thisClassName,
+                depInternalClassNameColl);
+        
+        if (data.withApiDeps
+                && isApiClass) {
+            addDependencies(
+                    data,
+                    data.apiDepClassesIndexes,
+                    data.apiDepDescriptorsUtf8Indexes,
+                    data.apiDepSignaturesUtf8Indexes,
+                    thisClassName,
+                    apiDepInternalClassNameColl);
         }
+        
+        return thisClassName;
     }
-
-    //--------------------------------------------------------------------------
-    // PRIVATE METHODS
-    //--------------------------------------------------------------------------
     
-    private ClassDepsParser() {
+    /**
+     * Decodes class names from the specified sets of indexes,
+     * and adds them into the specified collection.
+     * 
+     * @param data (in,out)
+     */
+    private static void addDependencies(
+            MyData data,
+            MyIndexSet depClassesIndexes,
+            MyIndexSet depDescriptorsUtf8Indexes,
+            MyIndexSet depSignaturesUtf8Indexes,
+            String thisClassName,
+            Collection<String> depInternalClassNameColl) {
+        
+        for (int classIndex = depClassesIndexes.nextIndex(0);
+                classIndex >= 0;
+                classIndex = depClassesIndexes.nextIndex(classIndex + 1)) {
+            if (classIndex == data.thisClassIndex) {
+                // Optional, since we remove "this class name"
+                // at the end.
+                continue;
+            }
+            if (DEBUG) {
+                System.out.print("dep classIndex = " + classIndex);
+            }
+            final String depClassName = data.classNameOfClassIndex(classIndex);
+            if (DEBUG) {
+                System.out.println(", className = " + depClassName);
+            }
+            addClassNameEventuallyFromArrayClassNameInto(
+                    depClassName,
+                    data.dependencySet);
+        }
+        
+        for (int utf8Index = depDescriptorsUtf8Indexes.nextIndex(0);
+                utf8Index >= 0;
+                utf8Index = depDescriptorsUtf8Indexes.nextIndex(utf8Index + 1)) {
+            if (DEBUG) {
+                System.out.print("dep utf8Index = " + utf8Index);
+            }
+            final String descriptor = data.stringOfUtf8Index(utf8Index);
+            if (DEBUG) {
+                System.out.println(", descriptor = " + descriptor);
+            }
+            addClassNamesFromDescriptorInto(
+                    descriptor,
+                    data.dependencySet);
+        }
+        
+        for (int utf8Index = depSignaturesUtf8Indexes.nextIndex(0);
+                utf8Index >= 0;
+                utf8Index = depSignaturesUtf8Indexes.nextIndex(utf8Index + 1)) {
+            if (DEBUG) {
+                System.out.print("dep utf8Index = " + utf8Index);
+            }
+            // Signatures use dots as nested classes separators,
+            // so must be parsed with slashes.
+            final String signature = data.rawStringOfUtf8Index(utf8Index);
+            if (DEBUG) {
+                System.out.println(", signature = " + signature);
+            }
+            if (data.doted) {
+                final List<String> internalClassNameList = data.tmpInternalClassNameList;
+                addClassNamesFromSignatureInto(
+                        signature,
+                        internalClassNameList);
+                for (String internalClassName : internalClassNameList) {
+                    data.dependencySet.add(NameUtils.doted(internalClassName));
+                }
+                internalClassNameList.clear();
+            } else {
+                addClassNamesFromSignatureInto(
+                        signature,
+                        data.dependencySet);
+            }
+        }
+        
+        /*
+         * Making sure we don't pretend to depend on ourselves.
+         */
+        
+        data.dependencySet.remove(thisClassName);
+        
+        /*
+         * 
+         */
+        
+        depInternalClassNameColl.addAll(data.dependencySet);
+        
+        // Cleared for eventual next call.
+        data.dependencySet.clear();
     }
     
     /*
@@ -736,13 +1560,14 @@ public class ClassDepsParser {
     /**
      * @param data (in,out)
      * @return True if the input started with 0xCAFEBABE, i.e. corresponds to a
-     *         ".class" file, false otherwise.
+     *         ".class" file, and its class name was accepted by the eventual
+     *         class name filter, false otherwise.
      */
     private static boolean parseClassFile(
-            DataInput dataInput,
+            MyInput input,
             MyData data) {
         
-        final long magic = getU4ElseZero(dataInput);
+        final long magic = input.getU4ElseZero();
         if ((int)magic != 0xCAFEBABE) {
             if (DEBUG) {
                 System.out.println();
@@ -750,14 +1575,14 @@ public class ClassDepsParser {
             }
             return false;
         }
-
+        
         if (DEBUG) {
             System.out.println();
             System.out.println("parseClassFile : apiOnly = " + data.apiOnly);
         }
         
-        final int minor_version = getU2(dataInput);
-        final int major_version = getU2(dataInput);
+        final int minor_version = input.getU2();
+        final int major_version = input.getU2();
         if (DEBUG) {
             System.out.println("major_version = " + major_version);
             System.out.println("minor_version = " + minor_version);
@@ -765,30 +1590,42 @@ public class ClassDepsParser {
         data.classVersion = classVersion(major_version, minor_version);
         
         process_constant_pool(
-                dataInput,
+                input,
                 data);
-
-        final int access_flags = getU2(dataInput);
+        
+        final int access_flags = input.getU2();
         data.class_access_flags = access_flags;
-
+        
         // this_class
-        data.thisClassIndex = getU2(dataInput);
+        data.thisClassIndex = input.getU2();
         
         if (DEBUG) {
             System.out.println("thisClassIndex = " + data.thisClassIndex + " (" + data.classNameOfClassIndex(data.thisClassIndex) + ")");
         }
-
+        
+        if ((data.classNameFilter != null)
+                && (!data.classNameFilter.accept(data.classNameOfClassIndex(data.thisClassIndex)))) {
+            if (DEBUG) {
+                System.out.println("class name not accepted : not parsing further");
+            }
+            return false;
+        }
+        
         if (data.apiOnly && (!isApi(access_flags))) {
             // No API dependency for non-API classes.
             // Need to be checked again upon return.
             return true;
         }
         
-        if (data.apiOnly) {
+        data.inApi =
+                (data.apiOnly || data.withApiDeps)
+                && isApi(access_flags);
+        
+        if (data.inApi) {
             if (DEBUG) {
                 System.out.println("parsing super class...");
             }
-            final int super_class = getU2(dataInput);
+            final int super_class = input.getU2();
             if (super_class == 0) {
                 // Must be Object class (not checking that).
             } else {
@@ -800,17 +1637,17 @@ public class ClassDepsParser {
             }
             // Can skip because is added by brutal add.
             // Skipping super_class.
-            skip(dataInput, 2);
+            input.skip(2);
         }
-
-        final int interfaces_count = getU2(dataInput);
-        if (data.apiOnly) {
+        
+        final int interfaces_count = input.getU2();
+        if (data.inApi) {
             if (DEBUG) {
                 System.out.println("parsing interfaces...");
             }
             // Indexes of CONSTANT_Class_info structures.
             for (int i = 0; i < interfaces_count; i++) {
-                final int interfaceClassIndex = getU2(dataInput);
+                final int interfaceClassIndex = input.getU2();
                 addDepClassIndex(data, interfaceClassIndex);
             }
         } else {
@@ -819,18 +1656,18 @@ public class ClassDepsParser {
             }
             // Can skip because is added by brutal add.
             // Skipping interfaces = interfaces_count * (interface [u2]).
-            skip(dataInput, interfaces_count * 2);
+            input.skip(interfaces_count * 2);
         }
-
+        
         if (DEBUG) {
             System.out.println("parsing fields...");
         }
-
-        final int field_count = getU2(dataInput);
+        
+        final int field_count = input.getU2();
         
         for (int i  =0; i < field_count; i++) {
             process_field_info_or_method_info(
-                    dataInput,
+                    input,
                     data);
         }
         
@@ -838,40 +1675,41 @@ public class ClassDepsParser {
             System.out.println("parsing methods...");
         }
         
-        final int method_count = getU2(dataInput);
+        final int method_count = input.getU2();
         
         for (int i = 0; i < method_count; i++) {
             process_field_info_or_method_info(
-                    dataInput,
+                    input,
                     data);
         }
-
+        
         if (DEBUG) {
             System.out.println("parsing attributes...");
         }
-
-        final int attribute_count = getU2(dataInput);
-
+        
+        final int attribute_count = input.getU2();
+        
         for (int i = 0; i < attribute_count; i++) {
             process_attribute_info(
-                    dataInput,
+                    input,
                     data);
         }
         
         return true;
     }
-
+    
     /*
      * Constant pool.
      */
-
+    
     private static void process_constant_pool(
-            DataInput dataInput,
+            MyInput input,
             MyData data) {
-        final int constant_pool_count = getU2(dataInput);
+        final int constant_pool_count = input.getU2();
+        data.initConstantPoolTables(constant_pool_count);
         // Starts at 1, but must still be inferior to count.
         for (int index = 1; index < constant_pool_count; index++) {
-            final int tagOrdinal = getU1(dataInput);
+            final int tagOrdinal = input.getU1();
             if (tagOrdinal >= MyTag.VALUES.length) {
                 throw new RuntimeException("unknown tag : " + tagOrdinal);
             }
@@ -883,68 +1721,68 @@ public class ClassDepsParser {
             switch (tag) {
             case CONSTANT_Utf8: {
                 process_CONSTANT_Utf8(
-                        dataInput,
+                        input,
                         data,
                         index);
             } break;
             
             case CONSTANT_Integer:
             case CONSTANT_Float: {
-                skip(dataInput, 4);
+                input.skip(4);
             } break;
             
             case CONSTANT_Long:
             case CONSTANT_Double: {
-                skip(dataInput, 8);
+                input.skip(8);
                 // 8-byte entries take two indexes.
                 index++;
             } break;
-
+            
             case CONSTANT_Class: {
                 process_CONSTANT_Class(
-                        dataInput,
+                        input,
                         data,
                         index);
             } break;
             
             case CONSTANT_String: {
-                skip(dataInput, 2);
+                input.skip(2);
             } break;
             
             case CONSTANT_Fieldref:
             case CONSTANT_Methodref:
             case CONSTANT_InterfaceMethodref: {
-                skip(dataInput, 4);
+                input.skip(4);
             } break;
             
             case CONSTANT_NameAndType: {
                 process_CONSTANT_TypeAndName(
-                        dataInput,
+                        input,
                         data,
                         index);
             } break;
             
             case CONSTANT_MethodHandle: {
-                skip(dataInput, 3);
+                input.skip(3);
             } break;
             
             case CONSTANT_MethodType: {
                 process_CONSTANT_MethodType(
-                        dataInput,
+                        input,
                         data,
                         index);
             } break;
             
             case CONSTANT_Dynamic:
             case CONSTANT_InvokeDynamic: {
-                skip(dataInput, 4);
+                input.skip(4);
             } break;
             
             case CONSTANT_Module:
             case CONSTANT_Package: {
-                skip(dataInput, 2);
+                input.skip(2);
             } break;
-
+            
             default:
                 // Can happen, for unused_XXX enum values.
                 throw new RuntimeException("unknown tag : " + tag);
@@ -953,31 +1791,22 @@ public class ClassDepsParser {
     }
     
     private static void process_CONSTANT_Utf8(
-            DataInput dataInput,
+            MyInput input,
             MyData data,
             int index) {
-        // Reading in modified UTF-8.
-        String string;
-        try {
-            string = dataInput.readUTF();
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        }
-        if (DEBUG) {
-            System.out.println("pool[" + index + "] : utf8 = " + string);
-        }
-        data.stringByUtf8Index.put(index, string);
+        // Reading in modified UTF-8 (eventually lazily).
+        input.readUtf8(data, index);
     }
     
     private static void process_CONSTANT_Class(
-            DataInput dataInput,
+            MyInput input,
             MyData data,
             int index) {
-        final int name_index = getU2(dataInput);
+        final int name_index = input.getU2();
         if (DEBUG) {
             System.out.println("pool[" + index + "] : class name utf8 index = " + name_index);
         }
-        data.classNamesUtf8IndexByClassIndex.put(index, name_index);
+        data.classNamesUtf8IndexByClassIndex[index] = name_index;
         if (!data.apiOnly) {
             // Brutal add.
             addDepClassIndex(data, index);
@@ -985,13 +1814,13 @@ public class ClassDepsParser {
     }
     
     private static void process_CONSTANT_TypeAndName(
-            DataInput dataInput,
+            MyInput input,
             MyData data,
             int index) {
         // Skipping name_index.
-        skip(dataInput, 2);
+        input.skip(2);
         
-        final int descriptor_index = getU2(dataInput);
+        final int descriptor_index = input.getU2();
         if (DEBUG) {
             System.out.println("pool[" + index + "] : descriptor (TAN) utf8 index = " + descriptor_index);
         }
@@ -1000,12 +1829,12 @@ public class ClassDepsParser {
             addDepDescriptorIndex(data, descriptor_index);
         }
     }
-
+    
     private static void process_CONSTANT_MethodType(
-            DataInput dataInput,
+            MyInput input,
             MyData data,
             int index) {
-        final int descriptor_index = getU2(dataInput);
+        final int descriptor_index = input.getU2();
         if (DEBUG) {
             System.out.println("pool[" + index + "] : descriptor (MT) utf8 index = " + descriptor_index);
         }
@@ -1018,28 +1847,31 @@ public class ClassDepsParser {
     /*
      * 
      */
-
+    
     /**
      * field_info and method_info have same structure, except
      * for the types of attributes they can contain: this method
      * handles any.
      */
     private static void process_field_info_or_method_info(
-            DataInput dataInput,
+            MyInput input,
             MyData data) {
-        final int access_flags = getU2(dataInput);
+        final int access_flags = input.getU2();
         
         final boolean useIt = (!data.apiOnly) || isApi(access_flags);
         
+        final boolean wasInApi = data.inApi;
+        data.inApi = wasInApi && isApi(access_flags);
+        
         if (DEBUG) {
-            final int name_index = getU2(dataInput);
+            final int name_index = input.getU2();
             System.out.println("name_index = " + name_index + " (useIt = " + useIt + ")");
         } else {
             // Skipping name_index [u2].
-            skip(dataInput, 2);
+            input.skip(2);
         }
         
-        final int descriptor_index = getU2(dataInput);
+        final int descriptor_index = input.getU2();
         if (DEBUG) {
             System.out.println("descriptor (fOrM) utf8 index = " + descriptor_index);
         }
@@ -1047,145 +1879,155 @@ public class ClassDepsParser {
             addDepDescriptorIndex(data, descriptor_index);
         }
         
-        final int attributes_count = getU2(dataInput);
+        final int attributes_count = input.getU2();
         for (int i = 0; i < attributes_count; i++) {
             if (useIt) {
                 process_attribute_info(
-                        dataInput,
+                        input,
                         data);
             } else {
-                skip_attribute_info(dataInput);
+                skip_attribute_info(input);
             }
         }
+        
+        data.inApi = wasInApi;
     }
     
     /*
      * Attributes.
      */
-
+    
     private static void process_attribute_info(
-        DataInput dataInput,
+        MyInput input,
         MyData data) {
         
         // These two are read here (common for all attributes),
         // so need not to read them again while reading attributes.
-        final int attribute_name_index = getU2(dataInput);
+        final int attribute_name_index = input.getU2();
         if (DEBUG) {
             System.out.println("attribute_name_index = " + attribute_name_index);
         }
         
-        final long attribute_length = getU4(dataInput);
+        final long attribute_length = input.getU4();
         if (DEBUG) {
             System.out.println("attribute_length = " + attribute_length);
         }
-
-        // Utf8 constants have all been read at this point,
-        // so name must not be null.
-        final String name = data.stringOfUtf8Index(attribute_name_index);
-
-        final boolean isPredef = isPredefAttr(data.classVersion, name);
+        
+        final int attrKind = attrKindOfUtf8Index(data, attribute_name_index);
         
         if (DEBUG) {
-            if (isPredef) {
-                System.out.println("attribute name = " + name);
-            } else {
-                System.out.println("attribute name = " + name + " (not predefined : will ignore)");
-            }
+            System.out.println("attribute name = " + data.stringOfUtf8Index(attribute_name_index) + " (kind = " + attrKind + ")");
         }
         
         boolean attrProcessed = false;
-
-        if (!isPredef) {
-            // User attribute: skipping.
-            
-        } else if (name.equals(ATTR_Signature)) {
+        
+        switch (attrKind) {
+        case ATTR_KIND_Signature: {
             process_Signature_attributeBody(
-                    dataInput,
+                    input,
                     data);
             attrProcessed = true;
-
-        } else if (name.equals(ATTR_InnerClasses)) {
-            if (data.apiOnly) {
+        } break;
+        
+        case ATTR_KIND_InnerClasses: {
+            if (data.apiOnly || data.withApiDeps) {
                 process_InnerClasses_attributeBody(
-                        dataInput,
+                        input,
                         data);
                 attrProcessed = true;
             } else {
                 // Can skip, no need to check outer classes access flags.
             }
-            
-        } else if (name.equals(ATTR_Exceptions)) {
-            if (data.apiOnly) {
+        } break;
+        
+        case ATTR_KIND_Exceptions: {
+            if (data.inApi) {
                 // Needed to detect thrown exceptions in method signatures.
                 process_Exceptions_attributeBody(
-                        dataInput,
+                        input,
                         data);
                 attrProcessed = true;
             } else {
                 // Can skip, already detected when parsing constant pool.
             }
-            
-        } else if (name.equals(ATTR_Code)) {
+        } break;
+        
+        case ATTR_KIND_Code: {
             if (data.apiOnly) {
                 // Code is never API.
             } else {
                 // Needed to detect class names of parameters of code annotations
                 // that make it into the class file, such as annotations of
                 // ElementType.TYPE_USE target.
+                final boolean wasInApi = data.inApi;
+                data.inApi = false;
                 process_Code_attributeBody(
-                        dataInput,
+                        input,
                         data);
+                data.inApi = wasInApi;
                 attrProcessed = true;
             }
-            
-        } else if (name.equals(ATTR_RuntimeVisibleAnnotations)
-                || name.equals(ATTR_RuntimeInvisibleAnnotations)) {
+        } break;
+        
+        case ATTR_KIND_Annotations: {
             if (ANNOS_NOT_IN_API && data.apiOnly) {
                 // No dep to annotations (when used as annotations).
             } else {
                 // Needed to detect annotations in signatures
                 // or other basic usages.
-                process_annotations(dataInput, data);
+                final boolean wasInApi = data.inApi;
+                data.inApi = wasInApi && (!ANNOS_NOT_IN_API);
+                process_annotations(input, data);
+                data.inApi = wasInApi;
                 attrProcessed = true;
             }
-
-        } else if (name.equals(ATTR_RuntimeVisibleParameterAnnotations)
-                || name.equals(ATTR_RuntimeInvisibleParameterAnnotations)) {
+        } break;
+        
+        case ATTR_KIND_ParameterAnnotations: {
             if (ANNOS_NOT_IN_API && data.apiOnly) {
                 // No dep to annotations (when used as annotations).
             } else {
                 // Needed to detect annotations of ElementType.PARAMETER target.
-                process_parameter_annotations(dataInput, data);
+                final boolean wasInApi = data.inApi;
+                data.inApi = wasInApi && (!ANNOS_NOT_IN_API);
+                process_parameter_annotations(input, data);
+                data.inApi = wasInApi;
                 attrProcessed = true;
             }
-            
-        } else if (name.equals(ATTR_RuntimeVisibleTypeAnnotations)
-                || name.equals(ATTR_RuntimeInvisibleTypeAnnotations)) {
+        } break;
+        
+        case ATTR_KIND_TypeAnnotations: {
             if (ANNOS_NOT_IN_API && data.apiOnly) {
                 // No dep to annotations (when used as annotations).
             } else {
                 // Needed to detect annotations of ElementType.TYPE_PARAMETER
                 // and ElementType.TYPE_USE targets.
-                process_type_annotations(dataInput, data);
+                final boolean wasInApi = data.inApi;
+                data.inApi = wasInApi && (!ANNOS_NOT_IN_API);
+                process_type_annotations(input, data);
+                data.inApi = wasInApi;
                 attrProcessed = true;
             }
-
-        } else if (name.equals(ATTR_AnnotationDefault)) {
+        } break;
+        
+        case ATTR_KIND_AnnotationDefault: {
             // Needed to detect default parameters values
             // when parsing annotations.
-            process_element_value(dataInput, data);
+            process_element_value(input, data);
             attrProcessed = true;
-            
-        } else if (name.equals(ATTR_ModuleMainClass)) {
+        } break;
+        
+        case ATTR_KIND_ModuleMainClass: {
             /*
              * Someone might be interested in this dependency.
              */
             process_ModuleMainClass_attributeBody(
-                dataInput,
+                input,
                 data);
             attrProcessed = true;
-            
-        } else if (name.equals(ATTR_Record)) {
+        } break;
+        
+        case ATTR_KIND_Record: {
             /*
              * We actually don't seem to need to parse Record attribute,
              * since it can only contain (predefined) attributes
@@ -1197,13 +2039,14 @@ public class ClassDepsParser {
              * in case there could be an actual reason to.
              */
             process_Record_attributeBody(
-                dataInput,
+                input,
                 data);
             attrProcessed = true;
-            
-        } else {
+        } break;
+        
+        default: {
             /*
-             * Not of interest.
+             * User attribute, or not of interest.
              * 
              * No need to parse PermittedSubclasses attribute:
              * - If apiOnly is true, permitted subclasses
@@ -1216,44 +2059,45 @@ public class ClassDepsParser {
              *   Not doing so would require to check for their eventual
              *   use in all class code, which would not be worth it.
              */
+        } break;
         }
         
         if (!attrProcessed) {
             if (DEBUG) {
-                System.out.println("skipping attribute : " + name);
+                System.out.println("skipping attribute : attribute_name_index = " + attribute_name_index);
             }
             // Skipping attribute.
-            skip(dataInput, attribute_length);
+            input.skip(attribute_length);
         }
     }
-
-    private static void skip_attribute_info(DataInput dataInput) {
-        final int attribute_name_index = getU2(dataInput);
-        final long attribute_length = getU4(dataInput);
+    
+    private static void skip_attribute_info(MyInput input) {
+        final int attribute_name_index = input.getU2();
+        final long attribute_length = input.getU4();
         if (DEBUG) {
             System.out.println("skipping attribute : attribute_name_index = " + attribute_name_index);
         }
         // Skipping attribute.
-        skip(dataInput, attribute_length);
+        input.skip(attribute_length);
     }
-
+    
     private static void process_element_value(
-            DataInput dataInput,
+            MyInput input,
             MyData data) {
         
-        final char tag = (char) getU1(dataInput);
+        final char tag = (char) input.getU1();
         if (tag == '[') {
             // array_value
-            process_array_value(dataInput, data);
+            process_array_value(input, data);
         } else if (tag == '@') {
             // annotation_value
-            process_annotation(dataInput, data);
+            process_annotation(input, data);
         } else if (tag == 'c') {
-            final int class_info_index = getU2(dataInput);
+            final int class_info_index = input.getU2();
             addDepDescriptorIndex(data, class_info_index);
         } else if (tag == 'e') {
             // enum_const_value
-            process_enum_const_value(dataInput, data);
+            process_enum_const_value(input, data);
         } else {
             // const_value_index [u2]: for a primitive type
             // or String type (if tag == 's') constant.
@@ -1261,126 +2105,126 @@ public class ClassDepsParser {
             // in process_field_info_or_method_info(...),
             // so we don't do anything special about that here
             // (same for ConstantValue_attribute).
-            skip(dataInput, 2);
+            input.skip(2);
         }
     }
     
     private static void process_array_value(
-            DataInput dataInput,
+            MyInput input,
             MyData data) {
-        final int num_values = getU2(dataInput);
+        final int num_values = input.getU2();
         for (int i = 0; i < num_values; i++) {
             process_element_value(
-                    dataInput,
+                    input,
                     data);
         }
     }
     
     private static void process_annotations(
-            DataInput dataInput,
+            MyInput input,
             MyData data) {
-        final int num_annotations = getU2(dataInput);
+        final int num_annotations = input.getU2();
         for (int i = 0; i < num_annotations; i++) {
-            process_annotation(dataInput, data);
+            process_annotation(input, data);
         }
     }
     
     private static void process_annotation(
-            DataInput dataInput,
+            MyInput input,
             MyData data) {
-        final int type_index = getU2(dataInput);
+        final int type_index = input.getU2();
         addDepDescriptorIndex(data, type_index);
         
-        final int num_element_value_pairs = getU2(dataInput);
+        final int num_element_value_pairs = input.getU2();
         for (int i = 0; i < num_element_value_pairs; i++) {
             // Skipping element_name_index [u2].
-            skip(dataInput, 2);
-            process_element_value(dataInput, data);
+            input.skip(2);
+            process_element_value(input, data);
         }
     }
     
     private static void process_parameter_annotations(
-            DataInput dataInput,
+            MyInput input,
             MyData data) {
-        final int num_parameters = getU1(dataInput);
+        final int num_parameters = input.getU1();
         for (int i = 0; i < num_parameters; i++) {
-            process_annotations(dataInput, data);
+            process_annotations(input, data);
         }
     }
     
     private static void process_type_annotations(
-            DataInput dataInput,
+            MyInput input,
             MyData data) {
-        final int num_annotations = getU2(dataInput);
+        final int num_annotations = input.getU2();
         for (int i = 0; i < num_annotations; i++) {
-            process_type_annotation(dataInput, data);
+            process_type_annotation(input, data);
         }
     }
     
     private static void process_type_annotation(
-            DataInput dataInput,
+            MyInput input,
             MyData data) {
         
-        final int target_type = getU1(dataInput);
+        final int target_type = input.getU1();
         if ((target_type >= 0x00) && (target_type <= 0x01)) {
             // type_parameter_target
             // Skipping type_parameter_index [u1].
-            skip(dataInput, 1);
-            
+            input.skip(1);
+        
         } else if (target_type == 0x10) {
             // supertype_target
             // Skipping supertype_index [u2].
-            skip(dataInput, 2);
-            
+            input.skip(2);
+        
         } else if ((target_type >= 0x11) && (target_type <= 0x12)) {
             // type_parameter_bound_target
             // Skipping type_parameter_index [u1]
             // and bound_index [u1].
-            skip(dataInput, 2);
-            
+            input.skip(2);
+        
         } else if ((target_type >= 0x13) && (target_type <= 0x15)) {
             // empty_target (really empty!)
-            
+        
         } else if (target_type == 0x16) {
             // method_formal_parameter_target / formal_parameter_target
             // Skipping formal_parameter_index [u1].
-            skip(dataInput, 1);
-            
+            input.skip(1);
+        
         } else if (target_type == 0x17) {
             // throws_target
             // Skipping throws_type_index [u2].
-            skip(dataInput, 2);
-            
+            input.skip(2);
+        
         } else if ((target_type >= 0x40) && (target_type <= 0x41)) {
             // localvar_target
-            final int table_length = getU2(dataInput);
+            final int table_length = input.getU2();
             // Skipping
             // table_length
             // * (start_pc [u2]
             //    + length [u2]
             //    + index [u2]).
-            skip(dataInput, table_length * 6L);
-            
+            input.skip(table_length * 6L);
+        
         } else if (target_type == 0x42) {
             // catch_target
             // Skipping exception_table_index [u2].
-            skip(dataInput, 2);
-            
+            input.skip(2);
+        
         } else if ((target_type >= 0x43) && (target_type <= 0x46)) {
             // offset_target
             // Skipping offset [u2]
             // and type_argument_index [u1].
-            skip(dataInput, 3);
-            
+            input.skip(3);
+        
         } else if ((target_type >= 0x47) && (target_type <= 0x4B)) {
             // type_argument_target
-            final int path_length = getU1(dataInput);
+            final int path_length = input.getU1();
             // Skipping
             // path_length
             // * (type_path_kind [u1]
             //    + type_argument_index [u1]).
-            skip(dataInput, path_length * 2);
-            
+            input.skip(path_length * 2);
+        
         } else {
             // We would like to ignore it, but don't know how much to skip.
             throw new IllegalArgumentException("unknown target_type: " + target_type);
@@ -1389,15 +2233,15 @@ public class ClassDepsParser {
         // type_path target_path
         // Indicates what is annotated: we don't care.
         {
-            final int path_length = getU1(dataInput);
+            final int path_length = input.getU1();
             // Skipping
             // path_length
             // * (type_path_kind [u1]
             //    + type_argument_index [u1]).
-            skip(dataInput, path_length * 2);
+            input.skip(path_length * 2);
         }
         
-        process_annotation(dataInput, data);
+        process_annotation(input, data);
     }
     
     /*
@@ -1405,20 +2249,20 @@ public class ClassDepsParser {
      */
     
     private static void process_enum_const_value(
-            DataInput dataInput,
+            MyInput input,
             MyData data) {
         // Descriptor for name of the enum type.
-        final int type_name_index = getU2(dataInput);
+        final int type_name_index = input.getU2();
         addDepDescriptorIndex(data, type_name_index);
         
         // Skipping const_name_index [u2].
-        skip(dataInput, 2);
+        input.skip(2);
     }
     
     private static void process_Signature_attributeBody(
-            DataInput dataInput,
+            MyInput input,
             MyData data) {
-        final int signature_index = getU2(dataInput);
+        final int signature_index = input.getU2();
         if (DEBUG) {
             System.out.println("Signature attr : signature utf8 index = " + signature_index);
         }
@@ -1435,19 +2279,19 @@ public class ClassDepsParser {
      * to check access flags of outer classes.
      */
     private static void process_InnerClasses_attributeBody(
-            DataInput dataInput,
+            MyInput input,
             MyData data) {
-        final int number_of_classes = getU2(dataInput);
+        final int number_of_classes = input.getU2();
         
         final String thisClassName = data.classNameOfClassIndex(data.thisClassIndex);
         
         for (int i = 0; i < number_of_classes; i++) {
-            final int inner_class_info_index = getU2(dataInput);
-            final int outer_class_info_index = getU2(dataInput);
+            final int inner_class_info_index = input.getU2();
+            final int outer_class_info_index = input.getU2();
             // 0 if anonymous inner class, so we don't count
             // on it to retrieve the name.
-            final int inner_name_index = getU2(dataInput);
-            final int inner_class_access_flags = getU2(dataInput);
+            final int inner_name_index = input.getU2();
+            final int inner_class_access_flags = input.getU2();
             
             if (DEBUG) {
                 System.out.println("inner_class_info_index = " + inner_class_info_index);
@@ -1455,7 +2299,7 @@ public class ClassDepsParser {
                 System.out.println("inner_name_index = " + inner_name_index);
                 System.out.println("inner_class_access_flags = " + inner_class_access_flags + " (isApi = " + isApi(inner_class_access_flags) + ")");
             }
-
+            
             final String innerClassName = data.classNameOfClassIndex(inner_class_info_index);
             
             final boolean innerIsAnOuterOfThis =
@@ -1477,52 +2321,52 @@ public class ClassDepsParser {
     }
     
     private static void process_ModuleMainClass_attributeBody(
-        DataInput dataInput,
+        MyInput input,
         MyData data) {
         
-        final int main_class_index = getU2(dataInput);
+        final int main_class_index = input.getU2();
         if (DEBUG) {
             System.out.println("main_class_index = " + main_class_index);
         }
-
+        
         addDepClassIndex(data, main_class_index);
     }
     
     private static void process_Record_attributeBody(
-        DataInput dataInput,
+        MyInput input,
         MyData data) {
         
-        final int components_count = getU2(dataInput);
+        final int components_count = input.getU2();
         if (DEBUG) {
             System.out.println("components_count = " + components_count);
         }
         
         for (int i = 0; i < components_count; i++) {
             process_record_component_info(
-                dataInput, data);
+                input, data);
         }
     }
     
     private static void process_record_component_info(
-        DataInput dataInput,
+        MyInput input,
         MyData data) {
         
         if (DEBUG) {
-            final int name_index = getU2(dataInput);
+            final int name_index = input.getU2();
             System.out.println("name_index = " + name_index);
-            final int descriptor_index = getU2(dataInput);
+            final int descriptor_index = input.getU2();
             System.out.println("descriptor_index = " + descriptor_index);
         } else {
-            skip(dataInput, 4);
+            input.skip(4);
         }
         
-        final int attributes_count = getU2(dataInput);
+        final int attributes_count = input.getU2();
         if (DEBUG) {
             System.out.println("attributes_count = " + attributes_count);
         }
         
         for (int i = 0; i < attributes_count; i++) {
-            process_attribute_info(dataInput, data);
+            process_attribute_info(input, data);
         }
     }
     
@@ -1533,28 +2377,28 @@ public class ClassDepsParser {
      * also appear here, and we count on it for dependencies computation of API methods.
      */
     private static void process_Exceptions_attributeBody(
-            DataInput dataInput,
+            MyInput input,
             MyData data) {
-        final int number_of_exceptions = getU2(dataInput);
+        final int number_of_exceptions = input.getU2();
         for (int i = 0; i < number_of_exceptions; i++) {
-            final int exception_class_index = getU2(dataInput);
+            final int exception_class_index = input.getU2();
             addDepClassIndex(data, exception_class_index);
         }
     }
     
     private static void process_Code_attributeBody(
-            DataInput dataInput,
+            MyInput input,
             MyData data) {
         
         // Skipping max_stack [u2]
         // and max_locals [u2].
-        skip(dataInput, 4);
+        input.skip(4);
         
-        final long code_length = getU4(dataInput);
+        final long code_length = input.getU4();
         // Skipping code[code_length] ([u1] per element).
-        skip(dataInput, code_length);
+        input.skip(code_length);
         
-        final int exception_table_length = getU2(dataInput);
+        final int exception_table_length = input.getU2();
         // Skipping
         // exception_table_length
         // * (start_pc [u2]
@@ -1563,16 +2407,16 @@ public class ClassDepsParser {
         //    + catch_type [u2]).
         // (catch_type, when != 0, contains an exception class index,
         // but these are already taken care of when parsing constant pool).
-        skip(dataInput, exception_table_length * 8L);
+        input.skip(exception_table_length * 8L);
         
-        final int attributes_count = getU2(dataInput);
+        final int attributes_count = input.getU2();
         for (int i = 0; i < attributes_count; i++) {
             process_attribute_info(
-                    dataInput,
+                    input,
                     data);
         }
     }
-
+    
     /*
      * Access flags.
      */
@@ -1580,42 +2424,51 @@ public class ClassDepsParser {
     private static boolean isApi(int access_flags) {
         return ((access_flags & (ACC_PUBLIC | ACC_PROTECTED)) != 0);
     }
-
+    
     /*
      * 
      */
     
     private static void addDepClassIndex(
             MyData data,
-            Integer classIndex) {
+            int classIndex) {
         if (DEBUG) {
             System.out.println("adding dep to classIndex = " + classIndex);
         }
         data.depClassesIndexes.add(classIndex);
+        if (data.withApiDeps && data.inApi) {
+            data.apiDepClassesIndexes.add(classIndex);
+        }
     }
     
     private static void addDepDescriptorIndex(
             MyData data,
-            Integer descriptorIndex) {
+            int descriptorIndex) {
         if (DEBUG) {
             System.out.println("adding dep to descriptorIndex = " + descriptorIndex);
         }
         data.depDescriptorsUtf8Indexes.add(descriptorIndex);
+        if (data.withApiDeps && data.inApi) {
+            data.apiDepDescriptorsUtf8Indexes.add(descriptorIndex);
+        }
     }
     
     private static void addDepSignatureIndex(
             MyData data,
-            Integer signatureIndex) {
+            int signatureIndex) {
         if (DEBUG) {
             System.out.println("adding dep to signatureIndex = " + signatureIndex);
         }
         data.depSignaturesUtf8Indexes.add(signatureIndex);
+        if (data.withApiDeps && data.inApi) {
+            data.apiDepSignaturesUtf8Indexes.add(signatureIndex);
+        }
     }
     
     /*
      * 
      */
-
+    
     /**
      * Method for adding dependencies classes names.
      */
@@ -1629,89 +2482,11 @@ public class ClassDepsParser {
     }
     
     /*
-     * Misc.
+     * 
      */
     
-    private static int getU1(DataInput dataInput) {
-        int value;
-        try {
-            value = dataInput.readByte();
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        }
-        if (value < 0) {
-            value += (1<<8);
-        }
-        return value;
-    }
-    
-    private static int getU2(DataInput dataInput) {
-        int value;
-        try {
-            value = dataInput.readShort();
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        }
-        if (value < 0) {
-            value += (1<<16);
-        }
-        return value;
-    }
-
-    /**
-     * @return An u4 value, or 0 if reached EOF before it could be read.
-     */
-    private static long getU4ElseZero(DataInput dataInput) {
-        long value;
-        try {
-            value = dataInput.readInt();
-        } catch (EOFException e) {
-            return 0;
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        }
-        if (value < 0) {
-            value += (1L<<32);
-        }
-        return value;
-    }
-
-    private static long getU4(DataInput dataInput) {
-        long value;
-        try {
-            value = dataInput.readInt();
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        }
-        if (value < 0) {
-            value += (1L<<32);
-        }
-        return value;
-    }
-
-    private static void skip(DataInput dataInput, int count) {
-        final int forCheck;
-        try {
-            forCheck = dataInput.skipBytes(count);
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        }
-        if (forCheck != count) {
-            throw new AssertionError(forCheck + " != " + count);
-        }
-    }
-
-    private static void skip(DataInput dataInput, long count) {
-        while (count > 0L) {
-            final int toSkip;
-            if (count > Integer.MAX_VALUE) {
-                toSkip = Integer.MAX_VALUE;
-            } else {
-                toSkip = (int) count;
-            }
-            count -= toSkip;
-            skip(dataInput, toSkip);
-        }
+    private static RuntimeException malformedUtf8(String message, int index) {
+        return new RuntimeException(new UTFDataFormatException(message + " " + index));
     }
     
     /*
@@ -1735,4 +2510,33 @@ public class ClassDepsParser {
         return (attrVersion != null)
                 && (classVersion >= attrVersion.longValue());
     }
+    
+    /**
+     * Classifies the specified attribute name on first call for it,
+     * so that it is only decoded and looked up once per class file.
+     * 
+     * @param attributeNameUtf8Index Index of an attribute name CONSTANT_Utf8.
+     * @return The ATTR_KIND_XXX of the attribute, ATTR_KIND_OTHER if it is
+     *         not predefined for the class version or not of interest.
+     */
+    private static int attrKindOfUtf8Index(
+            MyData data,
+            int attributeNameUtf8Index) {
+        data.checkUtf8Index(attributeNameUtf8Index);
+        int attrKind = data.attrKindByUtf8Index[attributeNameUtf8Index];
+        if (attrKind == ATTR_KIND_UNKNOWN) {
+            // Utf8 constants have all been read at this point,
+            // so name must not be null.
+            final String name = data.stringOfUtf8Index(attributeNameUtf8Index);
+            attrKind = ATTR_KIND_OTHER;
+            if (isPredefAttr(data.classVersion, name)) {
+                final Integer kind = ATTR_KIND_BY_ATTR_NAME.get(name);
+                if (kind != null) {
+                    attrKind = kind.intValue();
+                }
+            }
+            data.attrKindByUtf8Index[attributeNameUtf8Index] = attrKind;
+        }
+        return attrKind;
+    }
 }
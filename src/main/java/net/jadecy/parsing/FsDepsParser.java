@@ -15,112 +15,2350 @@
  */
 package net.jadecy.parsing;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FilenameFilter;
-import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
-import java.util.Collection;
-import java.util.Enumeration;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
 
+import net.jadecy.code.CauseTracking;
 import net.jadecy.code.ClassData;
 import net.jadecy.code.PackageData;
 import net.jadecy.names.InterfaceNameFilter;
+import net.jadecy.names.NameFilters;
 import net.jadecy.names.NameUtils;
 import net.jadecy.utils.ArgsUtils;
 
 /**
  * Parses dependencies from class files in file system.
  * 
- * Jar files are not explored recursively, i.e. if a jar file contains another
- * jar file, the nested jar file won't be explored.
+ * Jar files are explored recursively, i.e. if a jar file contains entries
+ * not accepted by jar entry filename filter but accepted by jar filename
+ * filter (such as BOOT-INF/lib/*.jar in Spring Boot jars), these nested jar
+ * files are explored as well, by streaming over their entry, without
+ * extraction. Filters are given entries of nested jar files with the nested
+ * jar file, within its containing jar file, as parent, as if extracted, and
+ * jar filename filter is given entries directories within their jar file
+ * as parents.
+ * Since nested jar files can only be read sequentially, their entries
+ * are read in the calling thread, even if parsing in parallel.
+ * 
+ * When accumulating into default package data, dependencies parsed from jar
+ * entries are kept along with entries name, size and CRC (which are read from
+ * jar central directory, or for nested jar files after their content), and
+ * are reused for entries with same name, size and CRC found later on, such as
+ * in duplicated or shaded copies of a same library, which are therefore not
+ * parsed again (but for entries of nested jar files, still read).
+ * Class files dependencies are only reused for entries accepted by class name
+ * filter when parsed, and as long as their class name is also accepted by
+ * current class name filter.
+ * 
+ * The class name filter is applied as soon as the class name is read from the
+ * class file, i.e. just after its constant pool, for classes which name it
+ * doesn't accept not to be parsed further.
+ * 
+ * If parallelism is greater than 1, class files are parsed by a pool of
+ * threads created for each call to accumulateDependencies(...), while files
+ * walking, file name filters evaluation, and accumulation into default package
+ * data are done in the calling thread, in the same order than when parsing
+ * sequentially, for the result to be identical.
+ * In this case, the class name filter is used by parsing threads, and must
+ * therefore be thread-safe (which is the case of filters from NameFilters).
+ * 
+ * If I/O parallelism is greater than 0, class files and jar entries are read
+ * ahead by another pool of threads, each read handing its content over to
+ * parsing threads (one if parallelism is 1), which allows for reads latency
+ * (such as with network file systems) to be overlapped without using more
+ * parsing threads than CPUs. The amount of read-ahead is bounded, as well as
+ * the amount of parsed classes not yet accumulated, and accumulation is still
+ * done in the calling thread, in sequential parsing order.
+ * Read-ahead content is always read into heap buffers, since memory-mapping
+ * would defer actual reads to parsing threads.
+ * 
+ * If a cache directory is specified, parsing results of jar files are stored
+ * in it, and reused as long as the jar file byte size and last modification
+ * time don't change, in which case the jar file is not opened. For the cache
+ * to be usable with any class name filter, cached jar files are parsed
+ * without early stop on class name filter, which is then applied on
+ * accumulation.
+ * Class files are not cached, since reading their dependencies from cache
+ * would be about as slow as parsing them.
+ * 
+ * If computing API dependencies along with dependencies (withApiDeps), each
+ * class file is parsed once for both, and API dependencies are accumulated
+ * into API default package data, which contains the same classes than
+ * default package data (which contains all dependencies), and is updated
+ * along with it. This is equivalent to, but faster than, parsing with two
+ * parsers, one with apiOnly false and the other with apiOnly true.
+ * 
+ * Dependencies can also be given class by class to an
+ * InterfaceClassDepsProcessor, with parseDependencies(...), instead of being
+ * accumulated into default package data, for memory usage not to depend on
+ * the amount of parsed classes.
+ * 
+ * If the specified file is a JDK 9+ runtime image (lib/modules file, also
+ * known as jimage file), its class files are read through the "jrt:/" file
+ * system of its JDK, without extraction, which requires running on Java 8+.
+ * Modules and packages directories of the image are given to directory
+ * filename filter, and its class files to class filename filter, with files
+ * within the image file as parents, as if it was a directory.
+ * For example, classes of the running JDK can be parsed with
+ * new File(System.getProperty("java.home"), "lib/modules").
+ * Images are only parsed when specified directly, not when found in
+ * a directory, and their parsing results are not cached.
+ * 
+ * Dependencies can also be accumulated from class files contents in memory,
+ * with accumulateClassBytesDependencies(...), or from a jar file read from
+ * a stream, with accumulateJarStreamDependencies(...), for them not to have
+ * to be written into files first.
+ * 
+ * Dependencies can also be parsed lazily, with
+ * accumulateReachableDependencies(...), which first indexes class files
+ * of specified files by class name, and then only parses classes reachable
+ * from a begin set, as they are reached.
+ * 
+ * An InterfaceParsingListener can be set, to be notified of parsed roots
+ * and class files, with the time spent reading and parsing each class file
+ * (measured in the thread that did it), for example to figure out which
+ * files cause a parsing to be slow. ParsingStats is such a listener.
+ * 
+ * If configured to (cf. FsDepsParserConfig.withMustRecordParsedFiles(...)),
+ * byte size and last modification time of parsed files are recorded,
+ * along with the names of classes parsed from them, which allows
+ * updateDependencies() to only parse again added or modified files
+ * (and files containing classes with a same top level class).
  * 
  * See ClassDepsParser for details about how dependencies are computed.
  */
 public class FsDepsParser implements InterfaceDepsParser {
-
+    
     //--------------------------------------------------------------------------
-    // MEMBERS
+    // CONFIGURATION
     //--------------------------------------------------------------------------
-
-    /*
-     * Merge and API booleans, as well as default package data,
-     * stored as members, for less risk of them changing while accumulating
-     * dependencies, which could easily mess things up.
+    
+    /**
+     * Number of jar entries parsed per task, when parsing in parallel.
+     * Large enough for tasks overhead to be negligible, and small enough
+     * for a single large jar to be spread over all threads.
      */
+    private static final int JAR_ENTRIES_PER_TASK = 64;
     
-    private final boolean mustMergeNestedClasses;
-    private final boolean apiOnly;
+    /**
+     * Max number of tasks not yet accumulated, per thread, when parsing
+     * in parallel, above which the calling thread waits for the oldest one
+     * and accumulates its results before submitting more.
+     * Allows to keep memory usage bounded, while still having
+     * enough tasks for threads not to wait for the calling thread.
+     */
+    private static final int MAX_PENDING_TASKS_PER_THREAD = 4;
+    
+    //--------------------------------------------------------------------------
+    // PRIVATE CLASSES
+    //--------------------------------------------------------------------------
+    
+    /**
+     * What has been parsed from a class file or jar file, to figure out
+     * which classes must be parsed again if it changes.
+     */
+    private static class MyFileRecord {
+        final long byteSize;
+        final long lastModified;
+        /**
+         * Names of classes parsed from the file and accumulated
+         * (or ignored due to being parsed already from another file).
+         */
+        final List<String> classNameList = new ArrayList<String>(1);
+        /**
+         * Byte size and last modification time must be retrieved
+         * before parsing, for the record to be considered outdated
+         * if the file is modified while being parsed.
+         */
+        MyFileRecord(
+                long byteSize,
+                long lastModified) {
+            this.byteSize = byteSize;
+            this.lastModified = lastModified;
+        }
+        boolean isUpToDate(File file) {
+            return (file.length() == this.byteSize)
+                    && (file.lastModified() == this.lastModified);
+        }
+    }
+    
+    /**
+     * File or directory specified to accumulateDependencies(...),
+     * with the filters used for it.
+     */
+    private static class MyRoot {
+        final File file;
+        final ParsingFilters filters;
+        MyRoot(
+                File file,
+                ParsingFilters filters) {
+            this.file = file;
+            this.filters = filters;
+        }
+    }
+    
+    private enum MyFileKind {
+        CLASS,
+        JAR,
+        IMAGE,
+    }
+    
+    /**
+     * Class file, jar file or image file found when walking a root.
+     */
+    private static class MyFileToParse {
+        final File file;
+        final MyFileKind kind;
+        final MyRoot root;
+        MyFileToParse(
+                File file,
+                MyFileKind kind,
+                MyRoot root) {
+            this.file = file;
+            this.kind = kind;
+            this.root = root;
+        }
+    }
+    
+    /**
+     * State of the update of a default package data, for updateDependencies().
+     */
+    private static class MyTreeUpdate {
+        final PackageData defaultPackageData;
+        final Set<ClassData> outdatedTopLevelClassDataSet;
+        /**
+         * Up-to-date classes depending on outdated classes.
+         */
+        final List<ClassData> predClassDataList = new ArrayList<ClassData>();
+        /**
+         * Names of outdated classes depended on by up-to-date classes.
+         */
+        final List<String> succClassNameList = new ArrayList<String>();
+        /**
+         * Top level class data of up-to-date classes depended on
+         * by outdated classes.
+         */
+        final Set<ClassData> formerSuccTopLevelClassDataSet = new HashSet<ClassData>();
+        final Set<PackageData> packageDataToPruneSet = new HashSet<PackageData>();
+        MyTreeUpdate(
+                PackageData defaultPackageData,
+                Set<ClassData> outdatedTopLevelClassDataSet) {
+            this.defaultPackageData = defaultPackageData;
+            this.outdatedTopLevelClassDataSet = outdatedTopLevelClassDataSet;
+        }
+    }
+    
+    /**
+     * Processes class files, jar files and image files encountered
+     * while walking the file system.
+     */
+    private static abstract class MyFileProcessor {
+        final boolean mustMergeNestedClasses;
+        final boolean apiOnly;
+        /**
+         * True if API dependencies must be computed along with dependencies.
+         */
+        final boolean withApiDeps;
+        final ParsingFilters filters;
+        final PackageData defaultPackageData;
+        /**
+         * Where to accumulate API dependencies, or null if not accumulating
+         * them.
+         */
+        final PackageData apiDefaultPackageData;
+        /**
+         * Can be null.
+         */
+        final JarDepsCache jarDepsCache;
+        /**
+         * Where to put records of processed files.
+         * Null if not accumulating into default package data.
+         */
+        final Map<String,MyFileRecord> fileRecordByPath;
+        /**
+         * Names of classes of accumulated jar entries, for reuse.
+         * Null if not accumulating into default package data.
+         */
+        final JarEntryDedup jarEntryDedup;
+        /**
+         * If not null, parsed dependencies are given to it
+         * instead of being accumulated into default package data.
+         */
+        final InterfaceClassDepsProcessor classDepsProcessor;
+        /**
+         * Can be null.
+         */
+        final InterfaceParsingListener parsingListener;
+        /**
+         * Set to true when classDepsProcessor asks to stop.
+         */
+        boolean mustStop = false;
+        /**
+         * For ParsedClassDeps.accumulateClassDeps(...) to tell whether
+         * the class was a duplicate.
+         */
+        private final boolean[] tmpDuplicateRef = new boolean[1];
+        MyFileProcessor(
+                boolean mustMergeNestedClasses,
+                boolean apiOnly,
+                boolean withApiDeps,
+                ParsingFilters filters,
+                PackageData defaultPackageData,
+                PackageData apiDefaultPackageData,
+                JarDepsCache jarDepsCache,
+                Map<String,MyFileRecord> fileRecordByPath,
+                JarEntryDedup jarEntryDedup,
+                InterfaceClassDepsProcessor classDepsProcessor,
+                InterfaceParsingListener parsingListener) {
+            this.mustMergeNestedClasses = mustMergeNestedClasses;
+            this.apiOnly = apiOnly;
+            this.withApiDeps = withApiDeps;
+            this.filters = filters;
+            this.defaultPackageData = defaultPackageData;
+            this.apiDefaultPackageData = apiDefaultPackageData;
+            this.jarDepsCache = jarDepsCache;
+            this.fileRecordByPath = fileRecordByPath;
+            this.jarEntryDedup = jarEntryDedup;
+            this.classDepsProcessor = classDepsProcessor;
+            this.parsingListener = parsingListener;
+        }
+        /**
+         * @return True if did modify, false otherwise.
+         */
+        abstract boolean processClassFile(File file);
+        /**
+         * @return True if did modify, false otherwise.
+         */
+        abstract boolean processJarFile(File jar);
+        /**
+         * @return True if did modify, false otherwise.
+         */
+        abstract boolean processImageFile(File image);
+        /**
+         * Must be called once all files have been processed.
+         * 
+         * @return True if did modify, false otherwise.
+         */
+        boolean accumulateResults() {
+            return false;
+        }
+        /**
+         * Must be called when done with this processor.
+         */
+        void shutdown() {
+        }
+        /**
+         * Accumulates the specified dependencies into default package data,
+         * or gives them to classDepsProcessor.
+         * 
+         * @param classNameFilter Can be null, if already applied when parsing.
+         * @param container Jar file or image file the class was parsed from,
+         *        or null if it was parsed from a class file.
+         * @param record (in,out) Record of the file the class was parsed from.
+         *        Can be null if not accumulating into default package data.
+         * @return True if did modify, false otherwise.
+         */
+        boolean onClassDeps(
+                ParsedClassDeps classDeps,
+                InterfaceNameFilter classNameFilter,
+                File container,
+                MyFileRecord record) {
+            final String classNameParsed = classDeps.classNameParsed;
+            if (this.classDepsProcessor == null) {
+                if ((classDeps.contentKey != null)
+                        && (classNameParsed != null)) {
+                    this.jarEntryDedup.onAccumulated(
+                            classDeps.contentKey,
+                            classNameParsed);
+                }
+                final boolean[] duplicateRef = this.tmpDuplicateRef;
+                boolean modified = ParsedClassDeps.accumulateClassDeps(
+                        classDeps,
+                        classNameFilter,
+                        this.mustMergeNestedClasses,
+                        this.defaultPackageData,
+                        ((record != null) ? record.classNameList : null),
+                        duplicateRef);
+                if (this.apiDefaultPackageData != null) {
+                    modified |= ParsedClassDeps.accumulateClassDeps(
+                            classDeps.toApiClassDeps(),
+                            classNameFilter,
+                            this.mustMergeNestedClasses,
+                            this.apiDefaultPackageData,
+                            null, // parsedClassNameList
+                            null); // duplicateRef
+                }
+                if (this.parsingListener != null) {
+                    this.parsingListener.onClassFile(
+                            container,
+                            (ParsedClassDeps.isAccepted(classNameParsed, classNameFilter) ? classNameParsed : null),
+                            classDeps.inputByteSize,
+                            classDeps.parseNs,
+                            duplicateRef[0]);
+                }
+                return modified;
+            }
+            if (this.mustStop) {
+                return false;
+            }
+            final boolean accepted = ParsedClassDeps.isAccepted(classNameParsed, classNameFilter);
+            if (this.parsingListener != null) {
+                this.parsingListener.onClassFile(
+                        container,
+                        (accepted ? classNameParsed : null),
+                        classDeps.inputByteSize,
+                        classDeps.parseNs,
+                        false); // duplicate
+            }
+            if (accepted) {
+                this.mustStop = this.classDepsProcessor.processClassDeps(
+                        classNameParsed,
+                        classDeps.inputByteSize,
+                        classDeps.depClassNameList);
+            }
+            return false;
+        }
+        /**
+         * @param entry A jar entry, which size and CRC are known.
+         * @return Key for the content of the specified jar entry,
+         *         or null if not reusing dependencies of jar entries,
+         *         or if its size or CRC is unknown.
+         */
+        JarEntryDedup.ContentKey newContentKey(ZipEntry entry) {
+            if ((this.jarEntryDedup == null)
+                    || (this.jarDepsCache != null)) {
+                // Jar files to cache need dependencies of all their entries.
+                return null;
+            }
+            return JarEntryDedup.newContentKey(entry);
+        }
+        /**
+         * An entry with same content than an accumulated one is either not
+         * accepted by class name filter, or a duplicate (unless its class
+         * has been deleted since), so its dependencies are of no use
+         * and don't need to be parsed.
+         * 
+         * @param contentKey Can be null.
+         * @param parsingClassNameFilter Class name filter that would be used
+         *        to parse the entry.
+         * @return Dependencies to accumulate for the entry with the specified
+         *         content key, if an entry with same content has already been
+         *         accumulated, and its class not deleted since, else null.
+         */
+        ParsedClassDeps getKnownClassDeps(
+                JarEntryDedup.ContentKey contentKey,
+                InterfaceNameFilter parsingClassNameFilter) {
+            if (contentKey == null) {
+                return null;
+            }
+            final String className = this.jarEntryDedup.getClassName(contentKey);
+            if (className == null) {
+                return null;
+            }
+            if (!parsingClassNameFilter.accept(className)) {
+                // As if parsing stopped after class name.
+                return new ParsedClassDeps(contentKey.size, null, null);
+            }
+            if (!this.jarEntryDedup.isAccumulated(className)) {
+                return null;
+            }
+            final List<String> noDeps = Collections.emptyList();
+            return new ParsedClassDeps(
+                    contentKey.size,
+                    className,
+                    noDeps,
+                    (this.withApiDeps ? noDeps : null));
+        }
+        /**
+         * @return A new record for the specified file, replacing
+         *         the previous one if any, or null if not accumulating
+         *         into default package data.
+         */
+        MyFileRecord newFileRecord(File file) {
+            if (this.fileRecordByPath == null) {
+                return null;
+            }
+            final MyFileRecord record = new MyFileRecord(
+                    file.length(),
+                    file.lastModified());
+            this.fileRecordByPath.put(file.getAbsolutePath(), record);
+            return record;
+        }
+    }
+    
+    /**
+     * Parses and accumulates dependencies on the fly, in the calling thread.
+     */
+    private static class MySequentialProcessor extends MyFileProcessor {
+        MySequentialProcessor(
+                boolean mustMergeNestedClasses,
+                boolean apiOnly,
+                boolean withApiDeps,
+                ParsingFilters filters,
+                PackageData defaultPackageData,
+                PackageData apiDefaultPackageData,
+                JarDepsCache jarDepsCache,
+                Map<String,MyFileRecord> fileRecordByPath,
+                JarEntryDedup jarEntryDedup,
+                InterfaceClassDepsProcessor classDepsProcessor,
+                InterfaceParsingListener parsingListener) {
+            super(
+                    mustMergeNestedClasses,
+                    apiOnly,
+                    withApiDeps,
+                    filters,
+                    defaultPackageData,
+                    apiDefaultPackageData,
+                    jarDepsCache,
+                    fileRecordByPath,
+                    jarEntryDedup,
+                    classDepsProcessor,
+                    parsingListener);
+        }
+        @Override
+        boolean processClassFile(File file) {
+            return parseClassFile(
+                    file,
+                    this.filters.getClassNameFilter(),
+                    this.apiOnly,
+                    this.withApiDeps,
+                    this,
+                    this.newFileRecord(file));
+        }
+        @Override
+        boolean processJarFile(File jar) {
+            final MyFileRecord record = this.newFileRecord(jar);
+            if (this.jarDepsCache != null) {
+                return parseJarFileWithCache(
+                        jar,
+                        this.filters,
+                        this.apiOnly,
+                        this.withApiDeps,
+                        this,
+                        this.jarDepsCache,
+                        record);
+            }
+            return parseJarFile(
+                    jar,
+                    this.filters,
+                    this.apiOnly,
+                    this.withApiDeps,
+                    this,
+                    record);
+        }
+        @Override
+        boolean processImageFile(File image) {
+            return parseImageFile(
+                    image,
+                    this.filters,
+                    this.apiOnly,
+                    this.withApiDeps,
+                    this,
+                    this.newFileRecord(image));
+        }
+    }
+    
+    /**
+     * Visits entries of a jar file, and recursively of its nested jar files,
+     * until processor must stop.
+     */
+    private static abstract class MyJarEntryVisitor<P extends MyFileProcessor> extends JarEntryWalker.AbstractEntryVisitor {
+        final P processor;
+        MyJarEntryVisitor(P processor) {
+            this.processor = processor;
+        }
+        @Override
+        boolean mustStop() {
+            return this.processor.mustStop;
+        }
+        @Override
+        void onEntryNotAccepted(File container, String entryName) {
+            FsDepsParser.onEntryNotAccepted(container, entryName, this.processor);
+        }
+    }
+    
+    /**
+     * Parses visited entries in the calling thread.
+     */
+    private static class MyJarEntryParser extends MyJarEntryVisitor<MyFileProcessor> {
+        final File jar;
+        final InterfaceNameFilter parsingClassNameFilter;
+        final boolean apiOnly;
+        final boolean withApiDeps;
+        /**
+         * Can be null, if already applied when parsing.
+         */
+        final InterfaceNameFilter accumulationClassNameFilter;
+        final MyFileRecord record;
+        /**
+         * Where to add entries parsing results, or null if not caching.
+         */
+        final List<JarDepsCache.EntryDeps> entryDepsList;
+        /**
+         * Where to add entries API parsing results, or null if not caching
+         * or not computing API dependencies along with dependencies.
+         */
+        final List<JarDepsCache.EntryDeps> apiEntryDepsList;
+        boolean modified = false;
+        MyJarEntryParser(
+                File jar,
+                InterfaceNameFilter parsingClassNameFilter,
+                boolean apiOnly,
+                boolean withApiDeps,
+                MyFileProcessor processor,
+                InterfaceNameFilter accumulationClassNameFilter,
+                MyFileRecord record,
+                List<JarDepsCache.EntryDeps> entryDepsList,
+                List<JarDepsCache.EntryDeps> apiEntryDepsList) {
+            super(processor);
+            this.jar = jar;
+            this.parsingClassNameFilter = parsingClassNameFilter;
+            this.apiOnly = apiOnly;
+            this.withApiDeps = withApiDeps;
+            this.accumulationClassNameFilter = accumulationClassNameFilter;
+            this.record = record;
+            this.entryDepsList = entryDepsList;
+            this.apiEntryDepsList = apiEntryDepsList;
+        }
+        @Override
+        void visitAcceptedEntry(
+                String entryPath,
+                ZipFile zipFile,
+                ZipEntry entry,
+                byte[] bytes) {
+            final JarEntryDedup.ContentKey contentKey = this.processor.newContentKey(entry);
+            ParsedClassDeps classDeps = this.processor.getKnownClassDeps(
+                    contentKey,
+                    this.parsingClassNameFilter);
+            if (classDeps == null) {
+                classDeps = ParsedClassDeps.computeJarEntryDeps(
+                        zipFile,
+                        entry,
+                        bytes,
+                        this.parsingClassNameFilter,
+                        this.apiOnly,
+                        this.withApiDeps).withContentKey(contentKey);
+            }
+            if (this.entryDepsList != null) {
+                this.entryDepsList.add(newEntryDeps(
+                        entryPath,
+                        JarDepsCache.ENTRY_PARSED,
+                        classDeps));
+            }
+            if (this.apiEntryDepsList != null) {
+                this.apiEntryDepsList.add(newEntryDeps(
+                        entryPath,
+                        JarDepsCache.ENTRY_PARSED,
+                        classDeps.toApiClassDeps()));
+            }
+            this.modified |= this.processor.onClassDeps(
+                    classDeps,
+                    this.accumulationClassNameFilter,
+                    this.jar,
+                    this.record);
+        }
+        @Override
+        void visitOtherEntry(String entryPath, int status) {
+            if (this.entryDepsList != null) {
+                this.entryDepsList.add(newEntryDeps(
+                        entryPath,
+                        status,
+                        null));
+            }
+            if (this.apiEntryDepsList != null) {
+                this.apiEntryDepsList.add(newEntryDeps(
+                        entryPath,
+                        status,
+                        null));
+            }
+        }
+    }
+    
+    /**
+     * Jar entry to parse in a parallel task.
+     */
+    private static class MyJarEntryToParse {
+        final ZipEntry entry;
+        /**
+         * Content of the entry if it is nested, else null.
+         */
+        final byte[] bytes;
+        /**
+         * Can be null.
+         */
+        final JarEntryDedup.ContentKey contentKey;
+        /**
+         * Dependencies known from an entry with same content,
+         * possibly pending, or null if must parse.
+         */
+        final ParsedClassDeps knownClassDeps;
+        MyJarEntryToParse(
+                ZipEntry entry,
+                byte[] bytes,
+                JarEntryDedup.ContentKey contentKey,
+                ParsedClassDeps knownClassDeps) {
+            this.entry = entry;
+            this.bytes = bytes;
+            this.contentKey = contentKey;
+            this.knownClassDeps = knownClassDeps;
+        }
+    }
+    
+    /**
+     * Parallel task parsing a batch of class files or jar entries, in two
+     * steps: reading their content, possibly done ahead by reader threads,
+     * and parsing it.
+     */
+    private static abstract class MyParsingTask implements ParsingExecutor.InterfaceReadAheadTask<List<ParsedClassDeps>> {
+        final int itemCount;
+        final InterfaceNameFilter classNameFilter;
+        final boolean apiOnly;
+        final boolean withApiDeps;
+        /**
+         * Content read ahead, null elements being for items not to parse.
+         * Null if not read ahead.
+         */
+        ByteBuffer[] bufferArr = null;
+        /**
+         * Time spent reading ahead each item, in nanoseconds.
+         * Null if not read ahead.
+         */
+        long[] readNsArr = null;
+        /**
+         * Exception thrown while reading ahead, if any,
+         * rethrown when parsing.
+         */
+        Throwable readThrowable = null;
+        MyParsingTask(
+                int itemCount,
+                InterfaceNameFilter classNameFilter,
+                boolean apiOnly,
+                boolean withApiDeps) {
+            this.itemCount = itemCount;
+            this.classNameFilter = classNameFilter;
+            this.apiOnly = apiOnly;
+            this.withApiDeps = withApiDeps;
+        }
+        /**
+         * Reads and parses the specified item.
+         */
+        abstract ParsedClassDeps compute(int index);
+        /**
+         * @return Dependencies of the specified item if already known,
+         *         in which case it is neither read nor parsed, else null.
+         */
+        ParsedClassDeps getKnownClassDeps(int index) {
+            return null;
+        }
+        /**
+         * @return Key for reuse of dependencies parsed from the specified
+         *         item, or null if not to be reused.
+         */
+        JarEntryDedup.ContentKey getContentKey(int index) {
+            return null;
+        }
+        /**
+         * @return Content of the specified item, in a heap buffer,
+         *         or null if it must not be parsed.
+         */
+        abstract ByteBuffer read(int index);
+        /**
+         * Reads content of all items, for call() to only have to parse it.
+         * Does not throw.
+         */
+        @Override
+        public void readAhead() {
+            try {
+                final ByteBuffer[] bufferArr = new ByteBuffer[this.itemCount];
+                final long[] readNsArr = new long[this.itemCount];
+                for (int i = 0; i < bufferArr.length; i++) {
+                    if (this.getKnownClassDeps(i) == null) {
+                        final long startNs = System.nanoTime();
+                        bufferArr[i] = this.read(i);
+                        readNsArr[i] = System.nanoTime() - startNs;
+                    }
+                }
+                this.readNsArr = readNsArr;
+                this.bufferArr = bufferArr;
+            } catch (Throwable e) {
+                this.readThrowable = e;
+            }
+        }
+        @Override
+        public List<ParsedClassDeps> call() throws Exception {
+            if (this.readThrowable != null) {
+                if (this.readThrowable instanceof Error) {
+                    throw (Error) this.readThrowable;
+                }
+                throw (Exception) this.readThrowable;
+            }
+            final ByteBuffer[] bufferArr = this.bufferArr;
+            // Not holding content longer than needed.
+            this.bufferArr = null;
+            final List<ParsedClassDeps> result = new ArrayList<ParsedClassDeps>(this.itemCount);
+            for (int i = 0; i < this.itemCount; i++) {
+                ParsedClassDeps classDeps = this.getKnownClassDeps(i);
+                if (classDeps == null) {
+                    if (bufferArr == null) {
+                        classDeps = this.compute(i);
+                    } else {
+                        final ByteBuffer buffer = bufferArr[i];
+                        // Taking read time into account.
+                        classDeps = ParsedClassDeps.computeClassBufferDeps(
+                                ((buffer != null) ? buffer.remaining() : 0L),
+                                buffer,
+                                System.nanoTime() - this.readNsArr[i],
+                                this.classNameFilter,
+                                this.apiOnly,
+                                this.withApiDeps);
+                    }
+                    classDeps = classDeps.withContentKey(this.getContentKey(i));
+                }
+                result.add(classDeps);
+            }
+            return result;
+        }
+    }
+    
+    /**
+     * Jar file parsed by parallel tasks, which results are to be written
+     * into cache once all tasks are done.
+     */
+    private static class MyJarToCache {
+        final File jar;
+        final long jarByteSize;
+        final long jarLastModified;
+        /**
+         * Names of all entries of the jar file, and of explored nested
+         * jar files, in jar order.
+         */
+        final List<String> entryNameList = new ArrayList<String>();
+        /**
+         * Status of each entry (cf. JarDepsCache).
+         */
+        final List<Integer> statusList = new ArrayList<Integer>();
+        /**
+         * Tasks parsing accepted entries, in jar order.
+         */
+        final List<Future<List<ParsedClassDeps>>> futureList = new ArrayList<Future<List<ParsedClassDeps>>>();
+        MyJarToCache(
+                File jar,
+                long jarByteSize,
+                long jarLastModified) {
+            this.jar = jar;
+            this.jarByteSize = jarByteSize;
+            this.jarLastModified = jarLastModified;
+        }
+    }
+    
+    /**
+     * Submits parsing tasks to an executor, and then accumulates their
+     * results in submission order, i.e. in the order in which files
+     * would have been parsed sequentially.
+     * 
+     * File name filters are only used in the calling thread, but the class
+     * name filter is used by parsing tasks, to stop parsing classes
+     * which name it doesn't accept as early as possible.
+     * 
+     * Results are accumulated as soon as there are too many pending tasks,
+     * not to have to hold all of them in memory at once.
+     * 
+     * If the executor reads ahead, tasks content is read by its reader
+     * threads before their parsing.
+     */
+    private static class MyParallelProcessor extends MyFileProcessor {
+        final ParsingExecutor executor;
+        final int maxPendingTaskCount;
+        /**
+         * Tasks which results have not been accumulated yet,
+         * in submission order.
+         */
+        final LinkedList<Future<List<ParsedClassDeps>>> pendingFutureList = new LinkedList<Future<List<ParsedClassDeps>>>();
+        /**
+         * Record of the file parsed by each pending task.
+         */
+        final LinkedList<MyFileRecord> pendingRecordList = new LinkedList<MyFileRecord>();
+        /**
+         * Jar file or image file parsed by each pending task,
+         * or null for class files.
+         */
+        final LinkedList<File> pendingContainerList = new LinkedList<File>();
+        /**
+         * Zip files which entries are being parsed,
+         * to close once all tasks are done.
+         */
+        final List<ZipFile> zipFileList = new ArrayList<ZipFile>();
+        /**
+         * Images which class files are being parsed,
+         * to close once all tasks are done.
+         */
+        final List<JrtImage> imageList = new ArrayList<JrtImage>();
+        /**
+         * Jar files which parsing results are to be written into cache
+         * once all tasks are done.
+         */
+        final List<MyJarToCache> jarToCacheList = new ArrayList<MyJarToCache>();
+        /**
+         * Content keys of jar entries parsed by pending tasks,
+         * for entries with same content not to be parsed as well.
+         */
+        final Set<JarEntryDedup.ContentKey> pendingContentKeySet = new HashSet<JarEntryDedup.ContentKey>();
+        MyParallelProcessor(
+                boolean mustMergeNestedClasses,
+                boolean apiOnly,
+                boolean withApiDeps,
+                ParsingFilters filters,
+                PackageData defaultPackageData,
+                PackageData apiDefaultPackageData,
+                JarDepsCache jarDepsCache,
+                Map<String,MyFileRecord> fileRecordByPath,
+                JarEntryDedup jarEntryDedup,
+                InterfaceClassDepsProcessor classDepsProcessor,
+                InterfaceParsingListener parsingListener,
+                ParsingExecutor executor,
+                int maxPendingTaskCount) {
+            super(
+                    mustMergeNestedClasses,
+                    apiOnly,
+                    withApiDeps,
+                    filters,
+                    defaultPackageData,
+                    apiDefaultPackageData,
+                    jarDepsCache,
+                    fileRecordByPath,
+                    jarEntryDedup,
+                    classDepsProcessor,
+                    parsingListener);
+            this.executor = executor;
+            this.maxPendingTaskCount = maxPendingTaskCount;
+        }
+        @Override
+        boolean processClassFile(final File file) {
+            if (this.mustStop) {
+                return false;
+            }
+            final MyParsingTask task = new MyParsingTask(
+                    1,
+                    this.filters.getClassNameFilter(),
+                    this.apiOnly,
+                    this.withApiDeps) {
+                @Override
+                ParsedClassDeps compute(int index) {
+                    return ParsedClassDeps.computeClassFileDeps(file, this.classNameFilter, this.apiOnly, this.withApiDeps);
+                }
+                @Override
+                ByteBuffer read(int index) {
+                    return ParsingIoUtilz.readClassFileContent(file);
+                }
+            };
+            return this.addPendingTask(this.executor.submit(task), null, this.newFileRecord(file));
+        }
+        @Override
+        boolean processJarFile(File jar) {
+            if (this.mustStop) {
+                return false;
+            }
+            final MyFileRecord record = this.newFileRecord(jar);
+            
+            final InterfaceNameFilter classNameFilter;
+            final MyJarToCache jarToCache;
+            if (this.jarDepsCache != null) {
+                final long jarByteSize = jar.length();
+                final long jarLastModified = jar.lastModified();
+                final List<ParsedClassDeps> cachedClassDepsList = readCachedJarDeps(
+                        jar,
+                        jarByteSize,
+                        jarLastModified,
+                        this.filters,
+                        this.apiOnly,
+                        this.withApiDeps,
+                        this.jarDepsCache);
+                if (cachedClassDepsList != null) {
+                    final FutureTask<List<ParsedClassDeps>> future = new FutureTask<List<ParsedClassDeps>>(
+                            new Callable<List<ParsedClassDeps>>() {
+                                @Override
+                                public List<ParsedClassDeps> call() {
+                                    return cachedClassDepsList;
+                                }
+                            });
+                    future.run();
+                    return this.addPendingTask(future, jar, record);
+                }
+                // Class name filter applied on accumulation.
+                classNameFilter = NameFilters.any();
+                jarToCache = new MyJarToCache(
+                        jar,
+                        jarByteSize,
+                        jarLastModified);
+                this.jarToCacheList.add(jarToCache);
+            } else {
+                classNameFilter = this.filters.getClassNameFilter();
+                jarToCache = null;
+            }
+            
+            final ZipFile zipFile = ParsingIoUtilz.openZipFile(jar);
+            this.zipFileList.add(zipFile);
+            
+            final MyJarEntriesSubmitter submitter = new MyJarEntriesSubmitter(
+                    this,
+                    jar,
+                    zipFile,
+                    classNameFilter,
+                    record,
+                    jarToCache);
+            JarEntryWalker.walkJarFile(
+                    jar,
+                    zipFile,
+                    this.filters,
+                    submitter);
+            submitter.flush();
+            return submitter.modified;
+        }
+        @Override
+        boolean processImageFile(File image) {
+            if (this.mustStop) {
+                return false;
+            }
+            final MyFileRecord record = this.newFileRecord(image);
+            
+            final JrtImage jrtImage = JrtImage.open(image);
+            this.imageList.add(jrtImage);
+            
+            final List<String> pathList = jrtImage.listClassFiles(
+                    this.filters.getDirFilenameFilter(),
+                    this.filters.getClassFilenameFilter());
+            
+            boolean modified = false;
+            for (int from = 0; (from < pathList.size()) && (!this.mustStop); from += JAR_ENTRIES_PER_TASK) {
+                final int to = Math.min(pathList.size(), from + JAR_ENTRIES_PER_TASK);
+                modified |= this.submitImageClassFiles(jrtImage, pathList.subList(from, to), record);
+            }
+            return modified;
+        }
+        @Override
+        boolean accumulateResults() {
+            final boolean modified = this.accumulatePendingTasks(0);
+            if (!this.mustStop) {
+                for (MyJarToCache jarToCache : this.jarToCacheList) {
+                    this.writeJarToCache(jarToCache);
+                }
+            }
+            return modified;
+        }
+        /**
+         * Cancels eventual remaining tasks, waits for executor termination,
+         * and closes zip files and images.
+         */
+        @Override
+        void shutdown() {
+            for (Future<List<ParsedClassDeps>> future : this.pendingFutureList) {
+                future.cancel(true);
+            }
+            this.executor.shutdown();
+            for (ZipFile zipFile : this.zipFileList) {
+                ParsingIoUtilz.closeZipFile(zipFile);
+            }
+            for (JrtImage jrtImage : this.imageList) {
+                jrtImage.close();
+            }
+        }
+        /**
+         * @param container Jar file or image file parsed by the task,
+         *        or null if it parses a class file.
+         * @return True if did modify, false otherwise.
+         */
+        private boolean addPendingTask(
+                Future<List<ParsedClassDeps>> future,
+                File container,
+                MyFileRecord record) {
+            this.pendingFutureList.add(future);
+            this.pendingRecordList.add(record);
+            this.pendingContainerList.add(container);
+            return this.accumulatePendingTasks(this.maxPendingTaskCount);
+        }
+        /**
+         * Accumulates results of oldest pending tasks, until there are
+         * no more than the specified number of pending tasks, or until
+         * class dependencies processor asks to stop.
+         * 
+         * @return True if did modify, false otherwise.
+         */
+        private boolean accumulatePendingTasks(int maxPendingCount) {
+            // If using cache, some results have not been filtered
+            // by class name filter yet.
+            final InterfaceNameFilter classNameFilter =
+                    ((this.jarDepsCache != null) ? this.filters.getClassNameFilter() : null);
+            boolean modified = false;
+            while ((this.pendingFutureList.size() > maxPendingCount)
+                    && (!this.mustStop)) {
+                final List<ParsedClassDeps> result = ParsingExecutor.getResult(this.pendingFutureList.getFirst());
+                this.pendingFutureList.removeFirst();
+                final MyFileRecord record = this.pendingRecordList.removeFirst();
+                final File container = this.pendingContainerList.removeFirst();
+                for (ParsedClassDeps classDeps : result) {
+                    if (classDeps.pending) {
+                        // Entry with same content accumulated by now.
+                        final ParsedClassDeps knownClassDeps = this.getKnownClassDeps(
+                                classDeps.contentKey,
+                                this.filters.getClassNameFilter());
+                        if (knownClassDeps != null) {
+                            classDeps = knownClassDeps;
+                        } else {
+                            // Not a class file, or class name not accepted.
+                            classDeps = new ParsedClassDeps(classDeps.inputByteSize, null, null);
+                        }
+                    } else if (classDeps.contentKey != null) {
+                        this.pendingContentKeySet.remove(classDeps.contentKey);
+                    }
+                    modified |= this.onClassDeps(
+                            classDeps,
+                            classNameFilter,
+                            container,
+                            record);
+                }
+            }
+            return modified;
+        }
+        /**
+         * @param jarToCache Can be null.
+         * @return True if did modify, false otherwise.
+         */
+        private boolean submitJarEntries(
+                File jar,
+                final ZipFile zipFile,
+                final List<MyJarEntryToParse> entryList,
+                final InterfaceNameFilter classNameFilter,
+                MyFileRecord record,
+                MyJarToCache jarToCache) {
+            final MyParsingTask task = new MyParsingTask(
+                    entryList.size(),
+                    classNameFilter,
+                    this.apiOnly,
+                    this.withApiDeps) {
+                @Override
+                ParsedClassDeps compute(int index) {
+                    final MyJarEntryToParse entryToParse = entryList.get(index);
+                    return ParsedClassDeps.computeJarEntryDeps(
+                            zipFile,
+                            entryToParse.entry,
+                            entryToParse.bytes,
+                            this.classNameFilter,
+                            this.apiOnly,
+                            this.withApiDeps);
+                }
+                @Override
+                ByteBuffer read(int index) {
+                    final MyJarEntryToParse entryToParse = entryList.get(index);
+                    if (entryToParse.bytes != null) {
+                        return ByteBuffer.wrap(entryToParse.bytes);
+                    }
+                    return ParsingIoUtilz.readJarEntryContent(zipFile, entryToParse.entry);
+                }
+                @Override
+                ParsedClassDeps getKnownClassDeps(int index) {
+                    return entryList.get(index).knownClassDeps;
+                }
+                @Override
+                JarEntryDedup.ContentKey getContentKey(int index) {
+                    return entryList.get(index).contentKey;
+                }
+            };
+            final Future<List<ParsedClassDeps>> future = this.executor.submit(task);
+            if (jarToCache != null) {
+                jarToCache.futureList.add(future);
+            }
+            return this.addPendingTask(future, jar, record);
+        }
+        /**
+         * @return True if did modify, false otherwise.
+         */
+        private boolean submitImageClassFiles(
+                final JrtImage jrtImage,
+                final List<String> pathList,
+                MyFileRecord record) {
+            final MyParsingTask task = new MyParsingTask(
+                    pathList.size(),
+                    this.filters.getClassNameFilter(),
+                    this.apiOnly,
+                    this.withApiDeps) {
+                @Override
+                ParsedClassDeps compute(int index) {
+                    return ParsedClassDeps.computeImageClassFileDeps(
+                            jrtImage,
+                            pathList.get(index),
+                            this.classNameFilter,
+                            this.apiOnly,
+                            this.withApiDeps);
+                }
+                @Override
+                ByteBuffer read(int index) {
+                    return ByteBuffer.wrap(jrtImage.readClassFile(pathList.get(index)));
+                }
+            };
+            return this.addPendingTask(this.executor.submit(task), jrtImage.getImageFile(), record);
+        }
+        /**
+         * Must be called once all tasks are done.
+         */
+        private void writeJarToCache(MyJarToCache jarToCache) {
+            final int entryCount = jarToCache.entryNameList.size();
+            final List<JarDepsCache.EntryDeps> entryDepsList = new ArrayList<JarDepsCache.EntryDeps>(entryCount);
+            final List<JarDepsCache.EntryDeps> apiEntryDepsList =
+                    (this.withApiDeps ? new ArrayList<JarDepsCache.EntryDeps>(entryCount) : null);
+            int futureIndex = 0;
+            List<ParsedClassDeps> classDepsList = null;
+            int classDepsIndex = 0;
+            for (int i = 0; i < entryCount; i++) {
+                final String entryName = jarToCache.entryNameList.get(i);
+                final int status = jarToCache.statusList.get(i);
+                if (status == JarDepsCache.ENTRY_PARSED) {
+                    if ((classDepsList == null)
+                            || (classDepsIndex == classDepsList.size())) {
+                        classDepsList = ParsingExecutor.getResult(jarToCache.futureList.get(futureIndex++));
+                        classDepsIndex = 0;
+                    }
+                    final ParsedClassDeps classDeps = classDepsList.get(classDepsIndex++);
+                    entryDepsList.add(newEntryDeps(
+                            entryName,
+                            status,
+                            classDeps));
+                    if (apiEntryDepsList != null) {
+                        apiEntryDepsList.add(newEntryDeps(
+                                entryName,
+                                status,
+                                classDeps.toApiClassDeps()));
+                    }
+                } else {
+                    entryDepsList.add(newEntryDeps(entryName, status, null));
+                    if (apiEntryDepsList != null) {
+                        apiEntryDepsList.add(newEntryDeps(entryName, status, null));
+                    }
+                }
+            }
+            writeJarDepsToCache(
+                    this.jarDepsCache,
+                    jarToCache.jar,
+                    jarToCache.jarByteSize,
+                    jarToCache.jarLastModified,
+                    this.apiOnly,
+                    entryDepsList,
+                    apiEntryDepsList);
+        }
+    }
     
-    private final PackageData defaultPackageData = new PackageData();
+    /**
+     * Submits visited entries to parallel tasks, by batches.
+     */
+    private static class MyJarEntriesSubmitter extends MyJarEntryVisitor<MyParallelProcessor> {
+        final File jar;
+        final ZipFile zipFile;
+        final InterfaceNameFilter classNameFilter;
+        final MyFileRecord record;
+        /**
+         * Can be null.
+         */
+        final MyJarToCache jarToCache;
+        List<MyJarEntryToParse> entryList = null;
+        boolean modified = false;
+        MyJarEntriesSubmitter(
+                MyParallelProcessor processor,
+                File jar,
+                ZipFile zipFile,
+                InterfaceNameFilter classNameFilter,
+                MyFileRecord record,
+                MyJarToCache jarToCache) {
+            super(processor);
+            this.jar = jar;
+            this.zipFile = zipFile;
+            this.classNameFilter = classNameFilter;
+            this.record = record;
+            this.jarToCache = jarToCache;
+        }
+        @Override
+        void visitAcceptedEntry(
+                String entryPath,
+                ZipFile zipFile,
+                ZipEntry entry,
+                byte[] bytes) {
+            this.addToCache(entryPath, JarDepsCache.ENTRY_PARSED);
+            if (this.entryList == null) {
+                this.entryList = new ArrayList<MyJarEntryToParse>(JAR_ENTRIES_PER_TASK);
+            }
+            final JarEntryDedup.ContentKey contentKey = this.processor.newContentKey(entry);
+            ParsedClassDeps knownClassDeps = this.processor.getKnownClassDeps(
+                    contentKey,
+                    this.classNameFilter);
+            if ((knownClassDeps == null)
+                    && (contentKey != null)
+                    && (!this.processor.pendingContentKeySet.add(contentKey))) {
+                knownClassDeps = ParsedClassDeps.newPending(contentKey);
+            }
+            this.entryList.add(new MyJarEntryToParse(
+                    entry,
+                    ((knownClassDeps == null) ? bytes : null),
+                    contentKey,
+                    knownClassDeps));
+            if (this.entryList.size() == JAR_ENTRIES_PER_TASK) {
+                this.flush();
+            }
+        }
+        @Override
+        void visitOtherEntry(String entryPath, int status) {
+            this.addToCache(entryPath, status);
+        }
+        /**
+         * Submits entries not submitted yet, if any.
+         */
+        void flush() {
+            if ((this.entryList != null)
+                    && (!this.processor.mustStop)) {
+                this.modified |= this.processor.submitJarEntries(
+                        this.jar,
+                        this.zipFile,
+                        this.entryList,
+                        this.classNameFilter,
+                        this.record,
+                        this.jarToCache);
+            }
+            this.entryList = null;
+        }
+        private void addToCache(String entryPath, int status) {
+            if (this.jarToCache != null) {
+                this.jarToCache.entryNameList.add(entryPath);
+                this.jarToCache.statusList.add(status);
+            }
+        }
+    }
+    
+    /**
+     * Only collects files to parse, and their roots.
+     */
+    private static class MyFileCollector extends MyFileProcessor {
+        final MyRoot root;
+        /**
+         * Files found in walked roots, in walking order.
+         */
+        final Map<String,MyFileToParse> fileToParseByPath;
+        MyFileCollector(
+                MyRoot root,
+                Map<String,MyFileToParse> fileToParseByPath) {
+            super(
+                    false,
+                    false,
+                    false,
+                    root.filters,
+                    null,
+                    null,
+                    null,
+                    null,
+                    null,
+                    null,
+                    null);
+            this.root = root;
+            this.fileToParseByPath = fileToParseByPath;
+        }
+        @Override
+        boolean processClassFile(File file) {
+            this.addFile(file, MyFileKind.CLASS);
+            return false;
+        }
+        @Override
+        boolean processJarFile(File jar) {
+            this.addFile(jar, MyFileKind.JAR);
+            return false;
+        }
+        @Override
+        boolean processImageFile(File image) {
+            this.addFile(image, MyFileKind.IMAGE);
+            return false;
+        }
+        private void addFile(File file, MyFileKind kind) {
+            final String path = file.getAbsolutePath();
+            // If found from multiple roots, using first one,
+            // which is the one it has been parsed with.
+            if (!this.fileToParseByPath.containsKey(path)) {
+                this.fileToParseByPath.put(path, new MyFileToParse(file, kind, this.root));
+            }
+        }
+    }
+    
+    /**
+     * Indexes found class files into a reachable dependencies parser.
+     */
+    private static class MyClassIndexer extends MyFileProcessor {
+        final ReachableDepsParser reachableDepsParser;
+        /**
+         * Root being walked.
+         */
+        File root = null;
+        MyClassIndexer(
+                ParsingFilters filters,
+                ReachableDepsParser reachableDepsParser) {
+            super(
+                    false,
+                    false,
+                    false,
+                    filters,
+                    null,
+                    null,
+                    null,
+                    null,
+                    null,
+                    null,
+                    null);
+            this.reachableDepsParser = reachableDepsParser;
+        }
+        @Override
+        boolean processClassFile(File file) {
+            this.reachableDepsParser.indexClassFile(this.root, file);
+            return false;
+        }
+        @Override
+        boolean processJarFile(File jar) {
+            this.reachableDepsParser.indexJarFile(jar);
+            return false;
+        }
+        @Override
+        boolean processImageFile(File image) {
+            this.reachableDepsParser.indexImageFile(image);
+            return false;
+        }
+    }
+
+    //--------------------------------------------------------------------------
+    // MEMBERS
+    //--------------------------------------------------------------------------
+
+    /*
+     * Merge and API booleans, as well as default package data,
+     * stored as members, for less risk of them changing while accumulating
+     * dependencies, which could easily mess things up.
+     */
+    
+    private final boolean mustMergeNestedClasses;
+    private final boolean apiOnly;
+    
+    private final FsDepsParserConfig config;
+    
+    private final boolean withApiDeps;
+    
+    private final int parallelism;
+    
+    private final int ioParallelism;
+    
+    /**
+     * Null if not using cache.
+     */
+    private final JarDepsCache jarDepsCache;
+    
+    private final PackageData defaultPackageData;
+    
+    /**
+     * Null if not computing API dependencies along with dependencies.
+     */
+    private final PackageData apiDefaultPackageData;
+    
+    /*
+     * For updateDependencies().
+     * Null if not recording parsed files.
+     */
+    
+    private final List<MyRoot> rootList;
+    
+    private final Map<String,MyFileRecord> fileRecordByPath;
+    
+    /**
+     * Names of classes parsed from jar entries, for entries with same content
+     * not to be parsed again.
+     * Cleared whenever default package data is found empty, such as after
+     * it has been cleared.
+     */
+    private final JarEntryDedup jarEntryDedup;
+    
+    /**
+     * Can be null.
+     */
+    private InterfaceParsingListener parsingListener = null;
+    
+    //--------------------------------------------------------------------------
+    // PUBLIC METHODS
+    //--------------------------------------------------------------------------
+
+    /**
+     * Creates a parser that parses in the calling thread, without cache
+     * (cf. FsDepsParserConfig.defaultInstance()).
+     * 
+     * @param mustMergeNestedClasses True if must merge dependencies from and to
+     *        nested classes into their top level classes, along with byte size,
+     *        false otherwise.
+     * @param apiOnly If true, only takes into account API dependencies
+     *        (cf. ClassDepsParser for details).
+     */
+    public FsDepsParser(
+            boolean mustMergeNestedClasses,
+            boolean apiOnly) {
+        this(
+                mustMergeNestedClasses,
+                apiOnly,
+                FsDepsParserConfig.defaultInstance());
+    }
+    
+    /**
+     * @param mustMergeNestedClasses True if must merge dependencies from and to
+     *        nested classes into their top level classes, along with byte size,
+     *        false otherwise.
+     * @param apiOnly If true, only takes into account API dependencies
+     *        (cf. ClassDepsParser for details).
+     * @param config Configuration for parallelism, cache, API dependencies
+     *        and storage. Must not be null.
+     * @throws NullPointerException if the specified configuration is null.
+     * @throws IllegalArgumentException if both apiOnly and computation of
+     *         API dependencies along with dependencies are required.
+     */
+    public FsDepsParser(
+            boolean mustMergeNestedClasses,
+            boolean apiOnly,
+            FsDepsParserConfig config) {
+        // Implicit null check.
+        final boolean withApiDeps = config.getWithApiDeps();
+        if (apiOnly && withApiDeps) {
+            throw new IllegalArgumentException("apiOnly and withApiDeps can't both be true");
+        }
+        this.mustMergeNestedClasses = mustMergeNestedClasses;
+        this.apiOnly = apiOnly;
+        this.config = config;
+        this.withApiDeps = withApiDeps;
+        final boolean mustUseCompactStorage = config.getMustUseCompactStorage();
+        final CauseTracking causeTracking = config.getCauseTracking();
+        this.defaultPackageData = new PackageData(mustUseCompactStorage, causeTracking);
+        this.apiDefaultPackageData = (withApiDeps ? new PackageData(mustUseCompactStorage, causeTracking) : null);
+        this.jarEntryDedup = new JarEntryDedup(mustMergeNestedClasses, this.defaultPackageData);
+        this.parallelism = config.getParallelism();
+        this.ioParallelism = config.getIoParallelism();
+        final File cacheDir = config.getCacheDir();
+        this.jarDepsCache = ((cacheDir != null) ? new JarDepsCache(cacheDir) : null);
+        if (config.getMustRecordParsedFiles()) {
+            this.rootList = new ArrayList<MyRoot>();
+            this.fileRecordByPath = new HashMap<String,MyFileRecord>();
+        } else {
+            this.rootList = null;
+            this.fileRecordByPath = null;
+        }
+    }
+
+    @Override
+    public boolean getMustMergeNestedClasses() {
+        return this.mustMergeNestedClasses;
+    }
+
+    @Override
+    public boolean getApiOnly() {
+        return this.apiOnly;
+    }
+    
+    /**
+     * @return The configuration this parser was created with.
+     */
+    public FsDepsParserConfig getConfig() {
+        return this.config;
+    }
+    
+    /**
+     * @return True if API dependencies are computed along with all
+     *         dependencies, false otherwise.
+     */
+    public boolean getWithApiDeps() {
+        return this.withApiDeps;
+    }
+    
+    /**
+     * @return True if default package data, and API default package data
+     *         if any, use compact storage, false otherwise.
+     */
+    public boolean getMustUseCompactStorage() {
+        return this.defaultPackageData.getMustUseCompactStorage();
+    }
+    
+    /**
+     * @return How default package data, and API default package data
+     *         if any, keep track of the causes of packages dependencies.
+     */
+    public CauseTracking getCauseTracking() {
+        return this.defaultPackageData.getCauseTracking();
+    }
+    
+    /**
+     * @return True if parsed files are recorded, for updateDependencies(),
+     *         false otherwise.
+     */
+    public boolean getMustRecordParsedFiles() {
+        return (this.rootList != null);
+    }
+    
+    /**
+     * @return The number of threads class files are parsed with.
+     */
+    public int getParallelism() {
+        return this.parallelism;
+    }
+    
+    /**
+     * @return The number of threads class files and jar entries are read
+     *         with ahead of their parsing, or 0 if not reading ahead.
+     */
+    public int getIoParallelism() {
+        return this.ioParallelism;
+    }
+    
+    /**
+     * @return The directory where jar files parsing results are cached,
+     *         or null if not using cache.
+     */
+    public File getCacheDir() {
+        return ((this.jarDepsCache != null) ? this.jarDepsCache.getCacheDir() : null);
+    }
+
+    @Override
+    public PackageData getDefaultPackageData() {
+        return this.defaultPackageData;
+    }
+    
+    /**
+     * Classes and byte sizes are the same than in default package data,
+     * but dependencies are only API dependencies.
+     * 
+     * @return Default package data where API dependencies are accumulated,
+     *         or null if not computing them along with all dependencies.
+     */
+    public PackageData getApiDefaultPackageData() {
+        return this.apiDefaultPackageData;
+    }
+
+    /**
+     * @return The parsing listener, or null if none.
+     */
+    public InterfaceParsingListener getParsingListener() {
+        return this.parsingListener;
+    }
+    
+    /**
+     * Must not be called while parsing.
+     * 
+     * @param parsingListener Listener to notify of parsed files and of their
+     *        parsing time, for all subsequent parsings. Can be null,
+     *        for no listener.
+     */
+    public void setParsingListener(InterfaceParsingListener parsingListener) {
+        this.parsingListener = parsingListener;
+    }
+    
+    @Override
+    public boolean accumulateDependencies(
+            File file,
+            ParsingFilters filters) {
+        
+        ArgsUtils.requireNonNull(file);
+        ArgsUtils.requireNonNull(filters);
+        
+        if (!file.exists()) {
+            throw new IllegalArgumentException(
+                    "file to parse not found: " + file.getAbsolutePath(),
+                    new FileNotFoundException("" + file.getPath())); // Just path, as done by usual JDK code.
+        }
+        
+        this.addRoot(file, filters);
+        
+        final InterfaceParsingListener parsingListener = this.parsingListener;
+        final long startNs = System.nanoTime();
+        if (parsingListener != null) {
+            parsingListener.onRootBegin(file);
+        }
+        
+        final boolean modified;
+        final MyFileProcessor processor = this.newFileProcessor(filters, null, false);
+        try {
+            modified = accumulateRootDepData(
+                    file,
+                    processor)
+                    | processor.accumulateResults();
+        } finally {
+            processor.shutdown();
+        }
+        
+        if (parsingListener != null) {
+            parsingListener.onRootEnd(file, System.nanoTime() - startNs);
+        }
+        return modified;
+    }
+    
+    /**
+     * Accumulates dependencies of classes which class files contents are in
+     * memory, for them not to have to be written in files to be parsed.
+     * 
+     * The specified map is considered as the entries of a jar file, which
+     * has no location: its keys are given to filters as jar entries names,
+     * with a null parent (for entries directly in the map), and values
+     * accepted by jar filename filter are explored as nested jar files.
+     * Else, accumulation is done as for accumulateDependencies(File,...),
+     * in the calling thread, and with reuse of dependencies parsed from
+     * entries of nested jar files with same name, size and CRC.
+     * 
+     * Parsed classes are not recorded as coming from any file, so
+     * updateDependencies() does not consider them.
+     * 
+     * @param classBytesByEntryName Contents of class files, by entry name,
+     *        such as "java/lang/Math.class", in the order in which they
+     *        must be parsed.
+     * @param filters Filters to use.
+     * @return True if did modify dependencies, false otherwise.
+     * @throws NullPointerException if any argument, or any key or value
+     *         of the specified map, is null.
+     */
+    public boolean accumulateClassBytesDependencies(
+            Map<String,byte[]> classBytesByEntryName,
+            ParsingFilters filters) {
+        
+        ArgsUtils.requireNonNull(classBytesByEntryName);
+        ArgsUtils.requireNonNull(filters);
+        
+        final MyFileProcessor processor = this.newFileProcessor(filters, null, true);
+        try {
+            return parseClassBytesMap(
+                    classBytesByEntryName,
+                    filters,
+                    this.apiOnly,
+                    processor.withApiDeps,
+                    processor);
+        } finally {
+            processor.shutdown();
+        }
+    }
+    
+    /**
+     * Accumulates dependencies of classes which class files are in the jar
+     * file read from the specified stream, which is read sequentially
+     * through a ZipInputStream, for it not to have to be written in a file
+     * to be parsed.
+     * 
+     * The jar file is parsed as a nested jar file which has no location,
+     * i.e. its entries are given to filters with a null parent (for entries
+     * directly in this jar file). Else, accumulation is done as for
+     * accumulateDependencies(File,...), in the calling thread.
+     * 
+     * Parsed classes are not recorded as coming from any file, so
+     * updateDependencies() does not consider them.
+     * 
+     * @param jarInputStream Stream to read the jar file from. Not closed
+     *        by this method.
+     * @param filters Filters to use.
+     * @return True if did modify dependencies, false otherwise.
+     * @throws NullPointerException if any argument is null.
+     * @throws RuntimeException wrapping an IOException if the stream
+     *         could not be read.
+     */
+    public boolean accumulateJarStreamDependencies(
+            InputStream jarInputStream,
+            ParsingFilters filters) {
+        
+        ArgsUtils.requireNonNull(jarInputStream);
+        ArgsUtils.requireNonNull(filters);
+        
+        final MyFileProcessor processor = this.newFileProcessor(filters, null, true);
+        try {
+            return parseJarStream(
+                    jarInputStream,
+                    filters,
+                    this.apiOnly,
+                    processor.withApiDeps,
+                    processor);
+        } finally {
+            processor.shutdown();
+        }
+    }
+    
+    /**
+     * Parses dependencies of classes found in the specified file, with the
+     * specified filters, and gives them to the specified processor instead
+     * of accumulating them into default package data, which is not used.
+     * 
+     * Each parsed class is processed separately, with its own byte size and
+     * dependencies, i.e. nested classes are not merged into their top level
+     * class whatever getMustMergeNestedClasses() returns. Also, a class found
+     * in multiple class files or jar files is processed each time.
+     * This allows for memory usage not to depend on the amount of parsed
+     * classes.
+     * 
+     * Classes are processed in the calling thread, in the same order than
+     * they would be accumulated into default package data.
+     * If computing API dependencies along with dependencies, only
+     * dependencies are given to the processor.
+     * 
+     * @param file A class file, a jar file, an image file, or a directory.
+     * @param filters Filters to use.
+     * @param classDepsProcessor Processor to give parsed dependencies to.
+     * @return True if parsing was stopped by the processor, false otherwise.
+     * @throws NullPointerException if any argument is null.
+     * @throws IllegalArgumentException wrapping a FileNotFoundException if
+     *         the specified file is not found.
+     */
+    public boolean parseDependencies(
+            File file,
+            ParsingFilters filters,
+            InterfaceClassDepsProcessor classDepsProcessor) {
+        
+        ArgsUtils.requireNonNull(file);
+        ArgsUtils.requireNonNull(filters);
+        ArgsUtils.requireNonNull(classDepsProcessor);
+        
+        if (!file.exists()) {
+            throw new IllegalArgumentException(
+                    "file to parse not found: " + file.getAbsolutePath(),
+                    new FileNotFoundException("" + file.getPath())); // Just path, as done by usual JDK code.
+        }
+        
+        final InterfaceParsingListener parsingListener = this.parsingListener;
+        final long startNs = System.nanoTime();
+        if (parsingListener != null) {
+            parsingListener.onRootBegin(file);
+        }
+        
+        final MyFileProcessor processor = this.newFileProcessor(filters, classDepsProcessor, false);
+        try {
+            accumulateRootDepData(
+                    file,
+                    processor);
+            processor.accumulateResults();
+        } finally {
+            processor.shutdown();
+        }
+        
+        if (parsingListener != null) {
+            parsingListener.onRootEnd(file, System.nanoTime() - startNs);
+        }
+        return processor.mustStop;
+    }
+    
+    /**
+     * Parses and accumulates into default package data, dependencies of
+     * classes found in the specified files which are reachable from a begin
+     * set, without parsing other classes, which is typically much faster than
+     * accumulateDependencies(...) for computing dependencies of a few classes
+     * within a large class path.
+     * 
+     * Specified files are first indexed, in order, using same walking and
+     * filters than accumulateDependencies(...), by class names computed from
+     * class files paths (i.e. directories are considered to be class path
+     * roots, and jar files and images are not read other than their
+     * directory), and then classes are parsed, in the calling thread,
+     * as they are reached from begin set.
+     * When a class is found multiple times, only the first one is parsed,
+     * and entries of nested jar files are not indexed.
+     * 
+     * Whenever a class is reached, if merging nested classes, all classes
+     * of its top level class are parsed, and if forPackages is true, all
+     * classes of its package are parsed, for dependencies of reached
+     * elements to be complete.
+     * 
+     * Parsed files are not recorded, i.e. they are not taken into account
+     * by updateDependencies(), and parsing results are not cached.
+     * 
+     * @param fileList Class files, jar files, image files, or directories.
+     * @param filters Filters to use.
+     * @param beginNameFilter Filter for names of classes (or of top level
+     *        classes if merging nested classes), or of packages if
+     *        forPackages is true, which dependencies must be parsed.
+     * @param forPackages True if begin name filter is for packages, and all
+     *        classes of reached packages must be parsed, false otherwise.
+     * @return True if did modify, false otherwise.
+     * @throws NullPointerException if any argument is null.
+     * @throws IllegalArgumentException wrapping a FileNotFoundException if
+     *         a specified file is not found.
+     */
+    public boolean accumulateReachableDependencies(
+            List<File> fileList,
+            ParsingFilters filters,
+            InterfaceNameFilter beginNameFilter,
+            boolean forPackages) {
+        
+        ArgsUtils.requireNonNull(fileList);
+        ArgsUtils.requireNonNull(filters);
+        ArgsUtils.requireNonNull(beginNameFilter);
+        
+        for (File file : fileList) {
+            if (!file.exists()) {
+                throw new IllegalArgumentException(
+                        "file to parse not found: " + file.getAbsolutePath(),
+                        new FileNotFoundException("" + file.getPath())); // Just path, as done by usual JDK code.
+            }
+        }
+        
+        final ReachableDepsParser reachableDepsParser = new ReachableDepsParser(
+                filters,
+                this.mustMergeNestedClasses,
+                this.apiOnly,
+                this.withApiDeps);
+        try {
+            final MyClassIndexer indexer = new MyClassIndexer(filters, reachableDepsParser);
+            for (File file : fileList) {
+                indexer.root = file;
+                accumulateRootDepData(file, indexer);
+            }
+            return reachableDepsParser.accumulateReachableDependencies(
+                    beginNameFilter,
+                    forPackages,
+                    this.defaultPackageData,
+                    this.apiDefaultPackageData,
+                    this.parsingListener);
+        } finally {
+            reachableDepsParser.close();
+        }
+    }
+    
+    /**
+     * Updates default package data according to modifications of class files
+     * and jar files, since they were parsed, within the files and directories
+     * specified to previous calls to accumulateDependencies(...), and using
+     * the same filters.
+     * 
+     * Added files are parsed, and data of classes parsed from deleted or
+     * modified files (as indicated by their byte size or last modification
+     * time) are deleted and parsed again, along with other classes having
+     * the same top level class (since it might be their container when
+     * merging nested classes), while dependencies from up-to-date classes
+     * to them are preserved.
+     * Classes which data is deleted, and that are no longer depended on,
+     * are removed, along with packages left empty.
+     * 
+     * Default package data (and API default package data, if any) is supposed
+     * not to have been modified other than by this parser.
+     * 
+     * @return True if did modify, false otherwise.
+     * @throws IllegalStateException if this parser does not record parsed
+     *         files (cf. FsDepsParserConfig.withMustRecordParsedFiles(...)).
+     */
+    public boolean updateDependencies() {
+        
+        if (this.rootList == null) {
+            throw new IllegalStateException("parsed files not recorded");
+        }
+        
+        final PackageData defaultPackageData = this.defaultPackageData;
+        
+        /*
+         * Walking roots to find current files.
+         */
+        
+        final Map<String,MyFileToParse> fileToParseByPath = new LinkedHashMap<String,MyFileToParse>();
+        for (MyRoot root : this.rootList) {
+            if (root.file.exists()) {
+                accumulateRootDepData(
+                        root.file,
+                        new MyFileCollector(root, fileToParseByPath));
+            }
+        }
+        
+        /*
+         * Computing files to parse again, and outdated classes.
+         */
+        
+        final Set<String> pathToParseSet = new HashSet<String>();
+        final Set<ClassData> outdatedTopLevelClassDataSet = new HashSet<ClassData>();
+        for (Map.Entry<String,MyFileRecord> entry : this.fileRecordByPath.entrySet()) {
+            final String path = entry.getKey();
+            final MyFileRecord record = entry.getValue();
+            final MyFileToParse fileToParse = fileToParseByPath.get(path);
+            if ((fileToParse == null)
+                    || (!record.isUpToDate(fileToParse.file))) {
+                // Deleted or modified.
+                pathToParseSet.add(path);
+                this.addTopLevelClassDatas(record, outdatedTopLevelClassDataSet);
+            }
+        }
+        for (String path : fileToParseByPath.keySet()) {
+            if (!this.fileRecordByPath.containsKey(path)) {
+                // Added.
+                pathToParseSet.add(path);
+            }
+        }
+        if (pathToParseSet.size() == 0) {
+            return false;
+        }
+        
+        // Up-to-date files containing outdated classes
+        // must be parsed again as well.
+        final Set<ClassData> tmpTopLevelClassDataSet = new HashSet<ClassData>();
+        for (Map.Entry<String,MyFileRecord> entry : this.fileRecordByPath.entrySet()) {
+            final String path = entry.getKey();
+            if (!pathToParseSet.contains(path)) {
+                tmpTopLevelClassDataSet.clear();
+                this.addTopLevelClassDatas(entry.getValue(), tmpTopLevelClassDataSet);
+                for (ClassData classData : tmpTopLevelClassDataSet) {
+                    if (outdatedTopLevelClassDataSet.contains(classData)) {
+                        pathToParseSet.add(path);
+                        break;
+                    }
+                }
+            }
+        }
+        
+        /*
+         * Deleting outdated classes, after having saved dependencies
+         * to them from up-to-date classes, and up-to-date classes they
+         * depended on, which might need to be removed if no longer
+         * depended on.
+         * Done for API default package data as well, if any, which contains
+         * the same parsed classes.
+         */
+        
+        boolean modified = false;
+        
+        final List<MyTreeUpdate> treeUpdateList = new ArrayList<MyTreeUpdate>(2);
+        treeUpdateList.add(new MyTreeUpdate(
+                defaultPackageData,
+                outdatedTopLevelClassDataSet));
+        if (this.apiDefaultPackageData != null) {
+            final Set<ClassData> apiOutdatedTopLevelClassDataSet = new HashSet<ClassData>();
+            for (ClassData classData : outdatedTopLevelClassDataSet) {
+                final ClassData apiClassData = this.apiDefaultPackageData.getClassData(classData.name());
+                if (apiClassData != null) {
+                    apiOutdatedTopLevelClassDataSet.add(apiClassData);
+                }
+            }
+            treeUpdateList.add(new MyTreeUpdate(
+                    this.apiDefaultPackageData,
+                    apiOutdatedTopLevelClassDataSet));
+        }
+        
+        for (MyTreeUpdate treeUpdate : treeUpdateList) {
+            modified |= deleteOutdatedClasses(treeUpdate);
+        }
+        
+        /*
+         * Parsing again, in walking order, with the filters of each root.
+         */
+        
+        for (String path : pathToParseSet) {
+            this.fileRecordByPath.remove(path);
+        }
+        
+        MyFileProcessor processor = null;
+        try {
+            for (MyFileToParse fileToParse : fileToParseByPath.values()) {
+                if (!pathToParseSet.contains(fileToParse.file.getAbsolutePath())) {
+                    continue;
+                }
+                final ParsingFilters filters = fileToParse.root.filters;
+                if ((processor != null)
+                        && (!processor.filters.equals(filters))) {
+                    modified |= processor.accumulateResults();
+                    processor.shutdown();
+                    processor = null;
+                }
+                if (processor == null) {
+                    processor = this.newFileProcessor(filters, null, false);
+                }
+                if (fileToParse.kind == MyFileKind.JAR) {
+                    modified |= processor.processJarFile(fileToParse.file);
+                } else if (fileToParse.kind == MyFileKind.IMAGE) {
+                    modified |= processor.processImageFile(fileToParse.file);
+                } else {
+                    modified |= processor.processClassFile(fileToParse.file);
+                }
+            }
+            if (processor != null) {
+                modified |= processor.accumulateResults();
+            }
+        } finally {
+            if (processor != null) {
+                processor.shutdown();
+            }
+        }
+        
+        /*
+         * Restoring dependencies from up-to-date classes,
+         * and removing classes no longer depended on, and empty packages.
+         */
+        
+        for (MyTreeUpdate treeUpdate : treeUpdateList) {
+            modified |= restoreDependenciesAndPrune(treeUpdate);
+        }
+        
+        return modified;
+    }
+    
+    //--------------------------------------------------------------------------
+    // PRIVATE METHODS
+    //--------------------------------------------------------------------------
+    
+    /**
+     * @param classDepsProcessor If null, the returned processor accumulates
+     *        dependencies into default package data, else it gives them
+     *        to the specified processor.
+     * @param mustParseInCallingThread True if the returned processor must
+     *        parse in the calling thread whatever the parallelisms.
+     */
+    private MyFileProcessor newFileProcessor(
+            ParsingFilters filters,
+            InterfaceClassDepsProcessor classDepsProcessor,
+            boolean mustParseInCallingThread) {
+        final boolean withApiDeps;
+        final PackageData defaultPackageData;
+        final PackageData apiDefaultPackageData;
+        final Map<String,MyFileRecord> fileRecordByPath;
+        final JarEntryDedup jarEntryDedup;
+        final InterfaceParsingListener parsingListener = this.parsingListener;
+        if (classDepsProcessor == null) {
+            withApiDeps = this.withApiDeps;
+            defaultPackageData = this.defaultPackageData;
+            apiDefaultPackageData = this.apiDefaultPackageData;
+            fileRecordByPath = this.fileRecordByPath;
+            jarEntryDedup = this.jarEntryDedup;
+            jarEntryDedup.clearIfEmpty();
+        } else {
+            // Streamed dependencies are only all dependencies.
+            withApiDeps = false;
+            defaultPackageData = null;
+            apiDefaultPackageData = null;
+            fileRecordByPath = null;
+            jarEntryDedup = null;
+        }
+        if (mustParseInCallingThread
+                || ((this.parallelism == 1)
+                        && (this.ioParallelism == 0))) {
+            return new MySequentialProcessor(
+                    this.mustMergeNestedClasses,
+                    this.apiOnly,
+                    withApiDeps,
+                    filters,
+                    defaultPackageData,
+                    apiDefaultPackageData,
+                    this.jarDepsCache,
+                    fileRecordByPath,
+                    jarEntryDedup,
+                    classDepsProcessor,
+                    parsingListener);
+        } else {
+            return new MyParallelProcessor(
+                    this.mustMergeNestedClasses,
+                    this.apiOnly,
+                    withApiDeps,
+                    filters,
+                    defaultPackageData,
+                    apiDefaultPackageData,
+                    this.jarDepsCache,
+                    fileRecordByPath,
+                    jarEntryDedup,
+                    classDepsProcessor,
+                    parsingListener,
+                    new ParsingExecutor(
+                            this.parallelism,
+                            this.ioParallelism,
+                            // Thread name.
+                            FsDepsParser.class.getSimpleName()),
+                    Math.max(this.parallelism, this.ioParallelism) * MAX_PENDING_TASKS_PER_THREAD);
+        }
+    }
+    
+    /**
+     * Does nothing if not recording parsed files, or if the specified root
+     * is already known with equal filters.
+     */
+    private void addRoot(File file, ParsingFilters filters) {
+        if (this.rootList == null) {
+            return;
+        }
+        final String path = file.getAbsolutePath();
+        for (MyRoot root : this.rootList) {
+            if (root.filters.equals(filters)
+                    && root.file.getAbsolutePath().equals(path)) {
+                return;
+            }
+        }
+        this.rootList.add(new MyRoot(file, filters));
+    }
+    
+    /**
+     * @param topLevelClassDataSet (in,out) Where to add top level class data
+     *        of classes which data exist, among those parsed from the file
+     *        of the specified record.
+     */
+    private void addTopLevelClassDatas(
+            MyFileRecord record,
+            Set<ClassData> topLevelClassDataSet) {
+        for (String className : record.classNameList) {
+            final String classNameForData;
+            if (this.mustMergeNestedClasses) {
+                classNameForData = NameUtils.getTopLevelClassName(className);
+            } else {
+                classNameForData = className;
+            }
+            final ClassData classData = this.defaultPackageData.getClassData(classNameForData);
+            if (classData != null) {
+                topLevelClassDataSet.add(classData.topLevelClassData());
+            }
+        }
+    }
     
-    //--------------------------------------------------------------------------
-    // PUBLIC METHODS
-    //--------------------------------------------------------------------------
-
     /**
-     * @param mustMergeNestedClasses True if must merge dependencies from and to
-     *        nested classes into their top level classes, along with byte size,
-     *        false otherwise.
-     * @param apiOnly If true, only takes into account API dependencies
-     *        (cf. ClassDepsParser for details).
+     * Deletes outdated classes, after having saved dependencies
+     * with up-to-date classes.
+     * 
+     * @return True if did modify, false otherwise.
      */
-    public FsDepsParser(
-            boolean mustMergeNestedClasses,
-            boolean apiOnly) {
-        this.mustMergeNestedClasses = mustMergeNestedClasses;
-        this.apiOnly = apiOnly;
+    private static boolean deleteOutdatedClasses(MyTreeUpdate treeUpdate) {
+        boolean modified = false;
+        for (ClassData classData : treeUpdate.outdatedTopLevelClassDataSet) {
+            saveDependenciesWithUpToDateClasses(
+                    classData,
+                    treeUpdate.outdatedTopLevelClassDataSet,
+                    treeUpdate.predClassDataList,
+                    treeUpdate.succClassNameList,
+                    treeUpdate.formerSuccTopLevelClassDataSet);
+        }
+        for (ClassData classData : treeUpdate.outdatedTopLevelClassDataSet) {
+            treeUpdate.packageDataToPruneSet.add((PackageData) classData.parent());
+            modified |= PackageData.deleteClassData(classData);
+        }
+        return modified;
     }
-
-    @Override
-    public boolean getMustMergeNestedClasses() {
-        return this.mustMergeNestedClasses;
+    
+    /**
+     * Restores saved dependencies from up-to-date classes, and then removes
+     * classes no longer depended on, and empty packages.
+     * 
+     * @return True if did modify, false otherwise.
+     */
+    private static boolean restoreDependenciesAndPrune(MyTreeUpdate treeUpdate) {
+        
+        boolean modified = false;
+        
+        final List<ClassData> predClassDataList = treeUpdate.predClassDataList;
+        for (int i = 0; i < predClassDataList.size(); i++) {
+            final ClassData predClassData = predClassDataList.get(i);
+            final ClassData succClassData = treeUpdate.defaultPackageData.getOrCreateClassData(
+                    treeUpdate.succClassNameList.get(i));
+            modified |= PackageData.ensureDependency(
+                    predClassData,
+                    succClassData);
+        }
+        
+        final Set<PackageData> packageDataToPruneSet = treeUpdate.packageDataToPruneSet;
+        for (ClassData classData : treeUpdate.formerSuccTopLevelClassDataSet) {
+            if ((!classData.isDeleted())
+                    && isUnused(classData)) {
+                packageDataToPruneSet.add((PackageData) classData.parent());
+                modified |= PackageData.deleteClassData(classData);
+            }
+        }
+        
+        for (PackageData packageData : packageDataToPruneSet) {
+            PackageData tmpPackageData = packageData;
+            while ((!tmpPackageData.isDeleted())
+                    && (tmpPackageData.parent() != null)
+                    && (tmpPackageData.childClassDataByFileNameNoExt().size() == 0)
+                    && (tmpPackageData.childPackageDataByDirName().size() == 0)) {
+                final PackageData parent = (PackageData) tmpPackageData.parent();
+                modified |= PackageData.deletePackageData(tmpPackageData);
+                tmpPackageData = parent;
+            }
+        }
+        
+        return modified;
     }
-
-    @Override
-    public boolean getApiOnly() {
-        return this.apiOnly;
+    
+    /**
+     * This method is recursive.
+     * 
+     * @param classData Outdated class data, or one of its nested classes.
+     * @param predClassDataList (in,out) Up-to-date classes depending on
+     *        outdated classes.
+     * @param succClassNameList (in,out) Names of outdated classes depended
+     *        on by up-to-date classes.
+     * @param formerSuccTopLevelClassDataSet (in,out) Top level class data of
+     *        up-to-date classes depended on by outdated classes.
+     */
+    private static void saveDependenciesWithUpToDateClasses(
+            ClassData classData,
+            Set<ClassData> outdatedTopLevelClassDataSet,
+            List<ClassData> predClassDataList,
+            List<String> succClassNameList,
+            Set<ClassData> formerSuccTopLevelClassDataSet) {
+        for (ClassData predClassData : classData.predecessors()) {
+            if (!outdatedTopLevelClassDataSet.contains(predClassData.topLevelClassData())) {
+                predClassDataList.add(predClassData);
+                succClassNameList.add(classData.name());
+            }
+        }
+        for (ClassData succClassData : classData.successors()) {
+            final ClassData succTopLevelClassData = succClassData.topLevelClassData();
+            if (!outdatedTopLevelClassDataSet.contains(succTopLevelClassData)) {
+                formerSuccTopLevelClassDataSet.add(succTopLevelClassData);
+            }
+        }
+        for (ClassData nestedClassData : classData.nestedClassByFileNameNoExt().values()) {
+            saveDependenciesWithUpToDateClasses(
+                    nestedClassData,
+                    outdatedTopLevelClassDataSet,
+                    predClassDataList,
+                    succClassNameList,
+                    formerSuccTopLevelClassDataSet);
+        }
     }
-
-    @Override
-    public PackageData getDefaultPackageData() {
-        return this.defaultPackageData;
+    
+    /**
+     * This method is recursive.
+     * 
+     * @return True if the specified class and its nested classes have not
+     *         been parsed, and have no dependency.
+     */
+    private static boolean isUnused(ClassData classData) {
+        if ((classData.byteSize() != 0)
+                || (classData.predecessors().size() != 0)
+                || (classData.successors().size() != 0)) {
+            return false;
+        }
+        for (ClassData nestedClassData : classData.nestedClassByFileNameNoExt().values()) {
+            if (!isUnused(nestedClassData)) {
+                return false;
+            }
+        }
+        return true;
     }
-
-    @Override
-    public boolean accumulateDependencies(
+    
+    /**
+     * @param file File specified for parsing.
+     * @return True if did modify, false otherwise.
+     */
+    private static boolean accumulateRootDepData(
             File file,
-            ParsingFilters filters) {
-        
-        ArgsUtils.requireNonNull(file);
-        ArgsUtils.requireNonNull(filters);
-        
-        if (!file.exists()) {
-            throw new IllegalArgumentException(
-                    "file to parse not found: " + file.getAbsolutePath(),
-                    new FileNotFoundException("" + file.getPath())); // Just path, as done by usual JDK code.
+            MyFileProcessor processor) {
+        if (JrtImage.isImageFile(file)) {
+            return processor.processImageFile(file);
         }
-        
         return accumulateDepData(
                 file.getParentFile(),
                 file,
-                //
-                this.mustMergeNestedClasses,
-                this.apiOnly,
-                filters,
-                //
-                defaultPackageData);
+                processor);
     }
-    
-    //--------------------------------------------------------------------------
-    // PRIVATE METHODS
-    //--------------------------------------------------------------------------
 
     /**
      * This method is recursive.
@@ -130,18 +2368,14 @@ public class FsDepsParser implements InterfaceDepsParser {
     private static boolean accumulateDepData(
             File parent,
             File file,
-            boolean mustMergeNestedClasses,
-            boolean apiOnly,
-            ParsingFilters filters,
-            PackageData defaultPackageData) {
+            MyFileProcessor processor) {
         
         boolean modified = false;
         
+        final ParsingFilters filters = processor.filters;
         final FilenameFilter dirFilenameFilter = filters.getDirFilenameFilter();
         final FilenameFilter jarFilenameFilter = filters.getJarFilenameFilter();
-        final FilenameFilter jarEntryFilenameFilter = filters.getJarEntryFilenameFilter();
         final FilenameFilter classFilenameFilter = filters.getClassFilenameFilter();
-        final InterfaceNameFilter classNameFilter = filters.getClassNameFilter();
         
         final String fileName = file.getName();
         if (file.isDirectory()) {
@@ -153,35 +2387,26 @@ public class FsDepsParser implements InterfaceDepsParser {
 
                 final String dirPath = file.getAbsolutePath();
                 for (String childFileName : children) {
+                    if (processor.mustStop) {
+                        break;
+                    }
                     final String childPath = dirPath + "/" + childFileName;
                     final File child = new File(childPath);
                     modified |= accumulateDepData(
                             file,
                             child,
-                            mustMergeNestedClasses,
-                            apiOnly,
-                            filters,
-                            defaultPackageData);
+                            processor);
                 }
             }
         } else {
             // Not a directory: considering it must be a class file
             // or a jar file.
             if (classFilenameFilter.accept(parent, fileName)) {
-                modified |= parseClassFile(
-                        file,
-                        classNameFilter,
-                        mustMergeNestedClasses,
-                        apiOnly,
-                        defaultPackageData);
+                modified |= processor.processClassFile(file);
             } else if (jarFilenameFilter.accept(parent, fileName)) {
-                modified |= parseJarFile(
-                        file,
-                        jarEntryFilenameFilter,
-                        classNameFilter,
-                        mustMergeNestedClasses,
-                        apiOnly,
-                        defaultPackageData);
+                modified |= processor.processJarFile(file);
+            } else if (processor.parsingListener != null) {
+                processor.parsingListener.onFileNotAccepted(file);
             }
         }
         
@@ -200,32 +2425,112 @@ public class FsDepsParser implements InterfaceDepsParser {
     private static boolean parseClassFile(
             File file,
             InterfaceNameFilter classNameFilter,
-            boolean mustMergeNestedClasses,
             boolean apiOnly,
-            PackageData defaultPackageData) {
+            boolean withApiDeps,
+            MyFileProcessor processor,
+            MyFileRecord record) {
         
-        boolean modified = false;
+        final ParsedClassDeps classDeps = ParsedClassDeps.computeClassFileDeps(
+                file,
+                classNameFilter,
+                apiOnly,
+                withApiDeps);
         
-        final long inputByteSize = file.length();
-        final FileInputStream fis;
-        try {
-            fis = new FileInputStream(file);
-        } catch (FileNotFoundException e) {
-            throw new IllegalArgumentException(e);
-        }
+        return processor.onClassDeps(
+                classDeps,
+                null, // Already applied.
+                null, // container
+                record);
+    }
+    
+    /**
+     * @return True if did modify, false otherwise.
+     * @throws IllegalArgumentException wrapping a FileNotFoundException if the
+     *         specified file is not found.
+     */
+    private static boolean parseJarFile(
+            File jar,
+            ParsingFilters filters,
+            boolean apiOnly,
+            boolean withApiDeps,
+            MyFileProcessor processor,
+            MyFileRecord record) {
+        
+        final MyJarEntryParser parser = new MyJarEntryParser(
+                jar,
+                filters.getClassNameFilter(),
+                apiOnly,
+                withApiDeps,
+                processor,
+                null, // Already applied.
+                record,
+                null, // entryDepsList
+                null); // apiEntryDepsList
+        
+        final ZipFile zipFile = ParsingIoUtilz.openZipFile(jar);
         try {
-            modified = parseClassFileStream(
-                    inputByteSize,
-                    fis,
-                    classNameFilter,
-                    mustMergeNestedClasses,
-                    apiOnly,
-                    defaultPackageData);
+            JarEntryWalker.walkJarFile(
+                    jar,
+                    zipFile,
+                    filters,
+                    parser);
         } finally {
-            try {
-                fis.close();
-            } catch (IOException e) {
-                throw new RuntimeException(e);
+            ParsingIoUtilz.closeZipFile(zipFile);
+        }
+        
+        return parser.modified;
+    }
+    
+    /**
+     * @return True if did modify, false otherwise.
+     */
+    private static boolean parseClassBytesMap(
+            Map<String,byte[]> classBytesByEntryName,
+            ParsingFilters filters,
+            boolean apiOnly,
+            boolean withApiDeps,
+            MyFileProcessor processor) {
+        
+        boolean modified = false;
+        
+        final InterfaceNameFilter classNameFilter = filters.getClassNameFilter();
+        
+        for (Map.Entry<String,byte[]> mapEntry : classBytesByEntryName.entrySet()) {
+            if (processor.mustStop) {
+                break;
+            }
+            final String entryName = mapEntry.getKey();
+            final byte[] bytes = mapEntry.getValue();
+            ArgsUtils.requireNonNull(entryName);
+            ArgsUtils.requireNonNull(bytes);
+            final int status = JarEntryWalker.computeEntryStatus(null, entryName, filters);
+            if (status == JarDepsCache.ENTRY_PARSED) {
+                final ParsedClassDeps classDeps = ParsedClassDeps.computeClassBytesDeps(
+                        bytes,
+                        System.nanoTime(),
+                        classNameFilter,
+                        apiOnly,
+                        withApiDeps);
+                modified |= processor.onClassDeps(
+                        classDeps,
+                        null, // Already applied.
+                        null, // container
+                        null); // record
+            } else if (status == JarDepsCache.ENTRY_NOT_ACCEPTED) {
+                onEntryNotAccepted(null, entryName, processor);
+            } else {
+                final MyJarEntryParser parser = newNoLocationJarEntryParser(
+                        filters,
+                        apiOnly,
+                        withApiDeps,
+                        processor);
+                JarEntryWalker.walkNestedJar(
+                        new File(entryName),
+                        entryName + JarEntryWalker.NESTED_JAR_SEPARATOR,
+                        new ZipInputStream(new ByteArrayInputStream(bytes)),
+                        filters,
+                        parser);
+                modified |= parser.modified;
             }
         }
         
@@ -233,192 +2538,339 @@ public class FsDepsParser implements InterfaceDepsParser {
     }
     
     /**
-     * Computes classes dependencies with names not in internal form,
-     * i.e. with dots instead of slashes.
-     * 
-     * @param depClassNameList (in,out)
-     * @return Class name with dots, not slashed.
+     * @return True if did modify, false otherwise.
      */
-    private static String computeClassDeps(
-            InputStream inputStream,
+    private static boolean parseJarStream(
+            InputStream jarInputStream,
+            ParsingFilters filters,
             boolean apiOnly,
-            List<String> depClassNameList) {
+            boolean withApiDeps,
+            MyFileProcessor processor) {
         
-        final List<String> depInternalClassNameList = new ArrayList<String>();
-        final String internalClassName = ClassDepsParser.computeDependencies(
-                inputStream,
+        final MyJarEntryParser parser = newNoLocationJarEntryParser(
+                filters,
                 apiOnly,
-                depInternalClassNameList);
+                withApiDeps,
+                processor);
         
-        for (String depInternalClassName : depInternalClassNameList) {
-            final String depClassName = NameUtils.doted(depInternalClassName);
-            depClassNameList.add(depClassName);
-        }
+        // Not closing it, not to close the specified stream.
+        JarEntryWalker.walkNestedJar(
+                null, // nestedJar
+                "", // entryPathPrefix
+                new ZipInputStream(jarInputStream),
+                filters,
+                parser);
         
-        return NameUtils.doted(internalClassName);
-
+        return parser.modified;
+    }
+    
+    /**
+     * @return A parser for entries of a jar file which has no location,
+     *         and for which no record is made.
+     */
+    private static MyJarEntryParser newNoLocationJarEntryParser(
+            ParsingFilters filters,
+            boolean apiOnly,
+            boolean withApiDeps,
+            MyFileProcessor processor) {
+        return new MyJarEntryParser(
+                null, // jar
+                filters.getClassNameFilter(),
+                apiOnly,
+                withApiDeps,
+                processor,
+                null, // Already applied.
+                null, // record
+                null, // entryDepsList
+                null); // apiEntryDepsList
     }
     
     /**
-     * Not using InputStream.available() to compute input size,
-     * because theoretically it might not always work.
+     * Uses cached results if any, else parses the jar file and caches
+     * the results.
      * 
-     * @param inputByteSize If <= 0, does nothing.
      * @return True if did modify, false otherwise.
+     * @throws IllegalArgumentException wrapping a FileNotFoundException if the
+     *         specified file is not found.
      */
-    private static boolean parseClassFileStream(
-            long inputByteSize,
-            InputStream inputStream,
-            InterfaceNameFilter classNameFilter,
-            boolean mustMergeNestedClasses,
+    private static boolean parseJarFileWithCache(
+            File jar,
+            ParsingFilters filters,
             boolean apiOnly,
-            PackageData defaultPackageData) {
+            boolean withApiDeps,
+            MyFileProcessor processor,
+            JarDepsCache jarDepsCache,
+            MyFileRecord record) {
         
-        boolean modified = false;
+        final InterfaceNameFilter classNameFilter = filters.getClassNameFilter();
         
-        // We need size to be > 0, else we could pretend we did
-        // modify while we did not (if size is 0, and class data
-        // had already been created but has no dependency).
-        if (inputByteSize <= 0) {
+        // Retrieved before parsing, for the cache to be considered stale
+        // if the jar file is modified while being parsed.
+        final long jarByteSize = jar.length();
+        final long jarLastModified = jar.lastModified();
+        
+        final List<ParsedClassDeps> cachedClassDepsList = readCachedJarDeps(
+                jar,
+                jarByteSize,
+                jarLastModified,
+                filters,
+                apiOnly,
+                withApiDeps,
+                jarDepsCache);
+        if (cachedClassDepsList != null) {
+            boolean modified = false;
+            for (ParsedClassDeps classDeps : cachedClassDepsList) {
+                modified |= processor.onClassDeps(
+                        classDeps,
+                        classNameFilter,
+                        jar,
+                        record);
+            }
             return modified;
         }
         
-        /*
-         * Parsing class file.
-         */
+        final List<JarDepsCache.EntryDeps> entryDepsList = new ArrayList<JarDepsCache.EntryDeps>();
+        final List<JarDepsCache.EntryDeps> apiEntryDepsList =
+                (withApiDeps ? new ArrayList<JarDepsCache.EntryDeps>() : null);
         
-        final List<String> depClassNameList = new ArrayList<String>();
-        // Always retrieving class name from inside the class file,
-        // not from its path, so that we can handle "badly located"
-        // class files.
-        final String classNameParsed = computeClassDeps(
-                inputStream,
+        // Not stopping early on class name filter,
+        // for results to be usable with other filters.
+        final MyJarEntryParser parser = new MyJarEntryParser(
+                jar,
+                NameFilters.any(),
                 apiOnly,
-                depClassNameList);
+                withApiDeps,
+                processor,
+                classNameFilter,
+                record,
+                entryDepsList,
+                apiEntryDepsList);
         
-        final boolean wasClassFile = (classNameParsed != null);
-        if (wasClassFile
-                && classNameFilter.accept(classNameParsed)) {
-
-            /*
-             * Eventually replacing nested classes with top level class.
-             */
-            
-            final String classNameForData;
-            final Collection<String> depClassNameCollForData;
-            if (mustMergeNestedClasses) {
-                classNameForData = NameUtils.getTopLevelClassName(classNameParsed);
-                
-                depClassNameCollForData = new HashSet<String>();
-                for (String depClassName : depClassNameList) {
-                    depClassNameCollForData.add(NameUtils.getTopLevelClassName(depClassName));
+        final ZipFile zipFile = ParsingIoUtilz.openZipFile(jar);
+        try {
+            JarEntryWalker.walkJarFile(
+                    jar,
+                    zipFile,
+                    filters,
+                    parser);
+        } finally {
+            ParsingIoUtilz.closeZipFile(zipFile);
+        }
+        
+        if (processor.mustStop) {
+            // Not caching partial results.
+            return parser.modified;
+        }
+        
+        writeJarDepsToCache(
+                jarDepsCache,
+                jar,
+                jarByteSize,
+                jarLastModified,
+                apiOnly,
+                entryDepsList,
+                apiEntryDepsList);
+        
+        return parser.modified;
+    }
+    
+    /**
+     * @return Cached results for entries accepted by the specified filters,
+     *         in jar order, not filtered by class name filter, or null if
+     *         there are none, or if some accepted entries were not parsed,
+     *         or some accepted nested jar files not explored, when results
+     *         were cached.
+     */
+    private static List<ParsedClassDeps> readCachedJarDeps(
+            File jar,
+            long jarByteSize,
+            long jarLastModified,
+            ParsingFilters filters,
+            boolean apiOnly,
+            boolean withApiDeps,
+            JarDepsCache jarDepsCache) {
+        
+        final List<JarDepsCache.EntryDeps> entryDepsList = jarDepsCache.read(
+                jar,
+                jarByteSize,
+                jarLastModified,
+                apiOnly);
+        if (entryDepsList == null) {
+            return null;
+        }
+        
+        final List<JarDepsCache.EntryDeps> apiEntryDepsList;
+        if (withApiDeps) {
+            apiEntryDepsList = jarDepsCache.read(
+                    jar,
+                    jarByteSize,
+                    jarLastModified,
+                    true); // apiOnly
+            if ((apiEntryDepsList == null)
+                    || (apiEntryDepsList.size() != entryDepsList.size())) {
+                return null;
+            }
+        } else {
+            apiEntryDepsList = null;
+        }
+        
+        final List<ParsedClassDeps> classDepsList = new ArrayList<ParsedClassDeps>(entryDepsList.size());
+        // Prefix of entries of a nested jar file no longer accepted.
+        String ignoredPrefix = null;
+        for (int i = 0; i < entryDepsList.size(); i++) {
+            final JarDepsCache.EntryDeps entryDeps = entryDepsList.get(i);
+            final String entryPath = entryDeps.entryName;
+            if (ignoredPrefix != null) {
+                if (entryPath.startsWith(ignoredPrefix)) {
+                    continue;
                 }
-                
-                // Making sure we don't loop with ourselves.
-                depClassNameCollForData.remove(classNameForData);
+                ignoredPrefix = null;
+            }
+            final int sepIndex = entryPath.lastIndexOf(JarEntryWalker.NESTED_JAR_SEPARATOR);
+            final File container;
+            final String entryName;
+            if (sepIndex < 0) {
+                container = jar;
+                entryName = entryPath;
             } else {
-                classNameForData = classNameParsed;
-                depClassNameCollForData = depClassNameList;
+                container = new File(jar, entryPath.substring(0, sepIndex).replace(JarEntryWalker.NESTED_JAR_SEPARATOR, "/"));
+                entryName = entryPath.substring(sepIndex + JarEntryWalker.NESTED_JAR_SEPARATOR.length());
             }
-            
-            /*
-             * Updating structure.
-             */
-            
-            // If just created, and then accepted (because not parsed yet),
-            // modified will be set to true when we figure out it was not already
-            // registered as already parsed (need not to set it to true here!).
-            final ClassData classData = defaultPackageData.getOrCreateClassData(classNameForData);
-
-            final String classFileNameNoExt = NameUtils.getFileNameNoExt(classNameParsed);
-            final boolean classFileNameNoExtNotParsedYet = PackageData.setByteSizeForClassOrNested(
-                    classData,
-                    classFileNameNoExt,
-                    inputByteSize);
-            if (classFileNameNoExtNotParsedYet) {
-                // Class data might have been created already
-                // for some dependency, but has not yet been parsed
-                // (else we would not pass here), so modification
-                // will occur when we add its byte size to its package.
-                modified = true;
-                
-                for (String depClassName : depClassNameCollForData) {
-                    final ClassData depClassData = defaultPackageData.getOrCreateClassData(depClassName);
-
-                    modified |= PackageData.ensureDependency(
-                            classData,
-                            depClassData);
+            final int status = JarEntryWalker.computeEntryStatus(container, entryName, filters);
+            if (status != entryDeps.status) {
+                if (status != JarDepsCache.ENTRY_NOT_ACCEPTED) {
+                    // Filters accept more entries than when cached.
+                    return null;
                 }
-            } else {
-                // Already parsed and taken care of: must ignore it.
-                // (Or user nastily called setByteSizeForClass(...) already,
-                // but that's his fault.)
+                if (entryDeps.status == JarDepsCache.ENTRY_NESTED_JAR) {
+                    ignoredPrefix = entryPath + JarEntryWalker.NESTED_JAR_SEPARATOR;
+                }
+                continue;
+            }
+            if (status == JarDepsCache.ENTRY_PARSED) {
+                final List<String> apiDepClassNameList;
+                if (apiEntryDepsList != null) {
+                    final JarDepsCache.EntryDeps apiEntryDeps = apiEntryDepsList.get(i);
+                    if (!apiEntryDeps.entryName.equals(entryPath)) {
+                        // Written by different parsings.
+                        return null;
+                    }
+                    apiDepClassNameList = apiEntryDeps.depClassNameList;
+                } else {
+                    apiDepClassNameList = null;
+                }
+                classDepsList.add(new ParsedClassDeps(
+                        entryDeps.inputByteSize,
+                        entryDeps.classNameParsed,
+                        entryDeps.depClassNameList,
+                        apiDepClassNameList));
             }
         }
-        
-        return modified;
+        return classDepsList;
     }
-
+    
     /**
-     * @return True if did modify, false otherwise.
-     * @throws IllegalArgumentException wrapping a FileNotFoundException if the
-     *         specified file is not found.
+     * @param apiEntryDepsList Results for API dependencies, computed along
+     *        with the specified results, or null if none.
      */
-    private static boolean parseJarFile(
+    private static void writeJarDepsToCache(
+            JarDepsCache jarDepsCache,
             File jar,
-            FilenameFilter jarEntryFilenameFilter,
-            InterfaceNameFilter classNameFilter,
-            boolean mustMergeNestedClasses,
+            long jarByteSize,
+            long jarLastModified,
+            boolean apiOnly,
+            List<JarDepsCache.EntryDeps> entryDepsList,
+            List<JarDepsCache.EntryDeps> apiEntryDepsList) {
+        jarDepsCache.write(
+                jar,
+                jarByteSize,
+                jarLastModified,
+                apiOnly,
+                entryDepsList);
+        if (apiEntryDepsList != null) {
+            jarDepsCache.write(
+                    jar,
+                    jarByteSize,
+                    jarLastModified,
+                    true, // apiOnly
+                    apiEntryDepsList);
+        }
+    }
+    
+    /**
+     * @param classDeps Null if the entry was not parsed.
+     */
+    private static JarDepsCache.EntryDeps newEntryDeps(
+            String entryName,
+            int status,
+            ParsedClassDeps classDeps) {
+        if (classDeps == null) {
+            return new JarDepsCache.EntryDeps(entryName, status, 0L, null, null);
+        }
+        return new JarDepsCache.EntryDeps(
+                entryName,
+                status,
+                classDeps.inputByteSize,
+                classDeps.classNameParsed,
+                classDeps.depClassNameList);
+    }
+    
+    /**
+     * Notifies parsing listener, if any, of the specified entry, unless it is
+     * a directory.
+     * 
+     * @param container Jar file containing the entry,
+     *        possibly nested in another one.
+     */
+    private static void onEntryNotAccepted(
+            File container,
+            String entryName,
+            MyFileProcessor processor) {
+        if ((processor.parsingListener != null)
+                && (!entryName.endsWith("/"))) {
+            processor.parsingListener.onFileNotAccepted(new File(container, entryName));
+        }
+    }
+    
+    /**
+     * @return True if did modify, false otherwise.
+     * @throws IllegalArgumentException if the image could not be opened.
+     */
+    private static boolean parseImageFile(
+            File image,
+            ParsingFilters filters,
             boolean apiOnly,
-            PackageData defaultPackageData) {
+            boolean withApiDeps,
+            MyFileProcessor processor,
+            MyFileRecord record) {
         
         boolean modified = false;
         
-        final ZipFile zipFile;
-        try {
-            zipFile = new ZipFile(jar);
-        } catch (IOException e) {
-            throw new IllegalArgumentException(e);
-        }
+        final InterfaceNameFilter classNameFilter = filters.getClassNameFilter();
+        
+        final JrtImage jrtImage = JrtImage.open(image);
         try {
-            final Enumeration<? extends ZipEntry> entries = zipFile.entries();
-            while (entries.hasMoreElements()) {
-                final ZipEntry entry = entries.nextElement();
-                if (jarEntryFilenameFilter.accept(jar,entry.getName())) {
-                    long inputByteSize = entry.getSize();
-                    if (inputByteSize < 0) {
-                        // Unknown.
-                        inputByteSize = 0;
-                    }
-                    final InputStream is;
-                    try {
-                        is = zipFile.getInputStream(entry);
-                    } catch (IOException e) {
-                        throw new RuntimeException(e);
-                    }
-                    try {
-                        modified |= parseClassFileStream(
-                                inputByteSize,
-                                is,
-                                classNameFilter,
-                                mustMergeNestedClasses,
-                                apiOnly,
-                                defaultPackageData);
-                    } finally {
-                        try {
-                            is.close();
-                        } catch (IOException e) {
-                            throw new RuntimeException(e);
-                        }
-                    }
+            final List<String> pathList = jrtImage.listClassFiles(
+                    filters.getDirFilenameFilter(),
+                    filters.getClassFilenameFilter());
+            for (String path : pathList) {
+                if (processor.mustStop) {
+                    break;
                 }
+                final ParsedClassDeps classDeps = ParsedClassDeps.computeImageClassFileDeps(
+                        jrtImage,
+                        path,
+                        classNameFilter,
+                        apiOnly,
+                        withApiDeps);
+                modified |= processor.onClassDeps(
+                        classDeps,
+                        null, // Already applied.
+                        image,
+                        record);
             }
         } finally {
-            try {
-                zipFile.close();
-            } catch (IOException e) {
-                throw new RuntimeException(e);
-            }
+            jrtImage.close();
         }
         
         return modified;
@@ -0,0 +1,242 @@
+/*
+ * Copyright 2026 Jeff Hain
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.jadecy.parsing;
+
+import java.io.File;
+
+import net.jadecy.code.CauseTracking;
+import net.jadecy.utils.ArgsUtils;
+
+/**
+ * Configuration for FsDepsParser, other than nested classes merging
+ * and API only parsing.
+ * 
+ * Effectively immutable.
+ */
+public final class FsDepsParserConfig {
+    
+    //--------------------------------------------------------------------------
+    // MEMBERS
+    //--------------------------------------------------------------------------
+    
+    private static final FsDepsParserConfig DEFAULT_INSTANCE = new FsDepsParserConfig();
+    
+    private int parallelism;
+    private int ioParallelism;
+    private File cacheDir;
+    private boolean withApiDeps;
+    private boolean mustUseCompactStorage;
+    private CauseTracking causeTracking;
+    private boolean mustRecordParsedFiles;
+    
+    //--------------------------------------------------------------------------
+    // PUBLIC METHODS
+    //--------------------------------------------------------------------------
+    
+    /**
+     * @return A default instance, using default values described for each
+     *         withXxx methods, for which parsing is done in the calling thread,
+     *         without cache.
+     */
+    public static FsDepsParserConfig defaultInstance() {
+        return DEFAULT_INSTANCE;
+    }
+    
+    /*
+     * 
+     */
+    
+    /**
+     * Default is 1.
+     * 
+     * @param parallelism Number of threads to parse class files with.
+     *        If 1, and I/O parallelism is 0, parsing is done in the calling
+     *        thread.
+     * @return A new instance, with same values as this one except for the
+     *         specified one.
+     * @throws IllegalArgumentException if parallelism is < 1.
+     */
+    public FsDepsParserConfig withParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism [" + parallelism + "] must be >= 1");
+        }
+        final FsDepsParserConfig instance = new FsDepsParserConfig(this);
+        instance.parallelism = parallelism;
+        return instance;
+    }
+    
+    /**
+     * Default is 0.
+     * 
+     * @param ioParallelism Number of threads to read class files and jar
+     *        entries with, ahead of their parsing. If 0, they are read by the
+     *        threads parsing them.
+     * @return A new instance, with same values as this one except for the
+     *         specified one.
+     * @throws IllegalArgumentException if I/O parallelism is < 0.
+     */
+    public FsDepsParserConfig withIoParallelism(int ioParallelism) {
+        if (ioParallelism < 0) {
+            throw new IllegalArgumentException("I/O parallelism [" + ioParallelism + "] must be >= 0");
+        }
+        final FsDepsParserConfig instance = new FsDepsParserConfig(this);
+        instance.ioParallelism = ioParallelism;
+        return instance;
+    }
+    
+    /**
+     * Default is null.
+     * 
+     * @param cacheDir Directory where to cache jar files parsing results,
+     *        created if needed. Can be null, in which case no cache is used.
+     * @return A new instance, with same values as this one except for the
+     *         specified one.
+     */
+    public FsDepsParserConfig withCacheDir(File cacheDir) {
+        final FsDepsParserConfig instance = new FsDepsParserConfig(this);
+        instance.cacheDir = cacheDir;
+        return instance;
+    }
+    
+    /**
+     * Default is false.
+     * 
+     * @param withApiDeps If true, API dependencies are computed along with
+     *        all dependencies, during the same parsing, and accumulated into
+     *        API default package data. Must be false for API only parsers.
+     * @return A new instance, with same values as this one except for the
+     *         specified one.
+     */
+    public FsDepsParserConfig withApiDeps(boolean withApiDeps) {
+        final FsDepsParserConfig instance = new FsDepsParserConfig(this);
+        instance.withApiDeps = withApiDeps;
+        return instance;
+    }
+    
+    /**
+     * Default is false.
+     * 
+     * @param mustUseCompactStorage True if default package data, and API
+     *        default package data if any, must use compact storage
+     *        (cf. PackageData(boolean)), false otherwise.
+     * @return A new instance, with same values as this one except for the
+     *         specified one.
+     */
+    public FsDepsParserConfig withMustUseCompactStorage(boolean mustUseCompactStorage) {
+        final FsDepsParserConfig instance = new FsDepsParserConfig(this);
+        instance.mustUseCompactStorage = mustUseCompactStorage;
+        return instance;
+    }
+    
+    /**
+     * Default is CauseTracking.FULL.
+     * 
+     * @param causeTracking How default package data, and API default package
+     *        data if any, must keep track of the causes of packages
+     *        dependencies. Must not be null.
+     * @return A new instance, with same values as this one except for the
+     *         specified one.
+     * @throws NullPointerException if the specified cause tracking is null.
+     */
+    public FsDepsParserConfig withCauseTracking(CauseTracking causeTracking) {
+        ArgsUtils.requireNonNull(causeTracking);
+        final FsDepsParserConfig instance = new FsDepsParserConfig(this);
+        instance.causeTracking = causeTracking;
+        return instance;
+    }
+    
+    /**
+     * Default is false.
+     * 
+     * @param mustRecordParsedFiles True if the files and directories
+     *        specified to accumulateDependencies(...), and byte size, last
+     *        modification time and parsed classes of files parsed from them,
+     *        must be recorded, for use by updateDependencies(), false
+     *        otherwise.
+     * @return A new instance, with same values as this one except for the
+     *         specified one.
+     */
+    public FsDepsParserConfig withMustRecordParsedFiles(boolean mustRecordParsedFiles) {
+        final FsDepsParserConfig instance = new FsDepsParserConfig(this);
+        instance.mustRecordParsedFiles = mustRecordParsedFiles;
+        return instance;
+    }
+    
+    /*
+     * 
+     */
+    
+    public int getParallelism() {
+        return this.parallelism;
+    }
+    
+    public int getIoParallelism() {
+        return this.ioParallelism;
+    }
+    
+    /**
+     * @return The cache directory, or null if not using cache.
+     */
+    public File getCacheDir() {
+        return this.cacheDir;
+    }
+    
+    public boolean getWithApiDeps() {
+        return this.withApiDeps;
+    }
+    
+    public boolean getMustUseCompactStorage() {
+        return this.mustUseCompactStorage;
+    }
+    
+    /**
+     * @return The cause tracking. Never null.
+     */
+    public CauseTracking getCauseTracking() {
+        return this.causeTracking;
+    }
+    
+    public boolean getMustRecordParsedFiles() {
+        return this.mustRecordParsedFiles;
+    }
+    
+    //--------------------------------------------------------------------------
+    // PRIVATE METHODS
+    //--------------------------------------------------------------------------
+    
+    private FsDepsParserConfig() {
+        this.parallelism = 1;
+        this.ioParallelism = 0;
+        this.cacheDir = null;
+        this.withApiDeps = false;
+        this.mustUseCompactStorage = false;
+        this.causeTracking = CauseTracking.FULL;
+        this.mustRecordParsedFiles = false;
+    }
+    
+    /**
+     * Copy constructor.
+     */
+    private FsDepsParserConfig(FsDepsParserConfig toCopy) {
+        this.parallelism = toCopy.parallelism;
+        this.ioParallelism = toCopy.ioParallelism;
+        this.cacheDir = toCopy.cacheDir;
+        this.withApiDeps = toCopy.withApiDeps;
+        this.mustUseCompactStorage = toCopy.mustUseCompactStorage;
+        this.causeTracking = toCopy.causeTracking;
+        this.mustRecordParsedFiles = toCopy.mustRecordParsedFiles;
+    }
+}
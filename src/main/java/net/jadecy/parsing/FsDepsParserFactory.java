@@ -15,6 +15,8 @@
  */
 package net.jadecy.parsing;
 
+import net.jadecy.utils.ArgsUtils;
+
 /**
  * Creates instances of FsDepsParser.
  */
@@ -24,18 +26,66 @@ public class FsDepsParserFactory implements InterfaceDepsParserFactory {
     // MEMBERS
     //--------------------------------------------------------------------------
     
+    /**
+     * Instance creating parsers that parse in the calling thread,
+     * without cache.
+     */
     public static final FsDepsParserFactory DEFAULT_INSTANCE = new FsDepsParserFactory();
     
+    private final FsDepsParserConfig config;
+    
     //--------------------------------------------------------------------------
     // PUBLIC METHODS
     //--------------------------------------------------------------------------
     
+    /**
+     * Creates a factory for parsers that parse in the calling thread,
+     * without cache.
+     */
+    public FsDepsParserFactory() {
+        this(FsDepsParserConfig.defaultInstance());
+    }
+    
+    /**
+     * @param config Configuration for created parsers. Must not be null.
+     *        Computation of API dependencies along with dependencies
+     *        is ignored for API only parsers.
+     * @throws NullPointerException if the specified configuration is null.
+     */
+    public FsDepsParserFactory(FsDepsParserConfig config) {
+        this.config = ArgsUtils.requireNonNull(config);
+    }
+    
+    /**
+     * @return Configuration for created parsers.
+     */
+    public FsDepsParserConfig getConfig() {
+        return this.config;
+    }
+    
+    /**
+     * @param config Configuration for created parsers. Must not be null.
+     * @return A factory identical to this one, but with the specified
+     *         configuration.
+     * @throws NullPointerException if the specified configuration is null.
+     */
+    public FsDepsParserFactory withConfig(FsDepsParserConfig config) {
+        return new FsDepsParserFactory(config);
+    }
+    
     @Override
     public InterfaceDepsParser newInstance(
             boolean mustMergeNestedClasses,
             boolean apiOnly) {
+        final FsDepsParserConfig config;
+        if (apiOnly) {
+            config = this.config.withApiDeps(false);
+        } else {
+            config = this.config;
+        }
         return new FsDepsParser(
                 mustMergeNestedClasses,
-                apiOnly);
+                apiOnly,
+                config);
     }
 }
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2026 Jeff Hain
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.jadecy.parsing;
+
+import java.util.List;
+
+/**
+ * Interface to process dependencies of parsed classes one at a time,
+ * without need of accumulating them into a PackageData tree.
+ */
+public interface InterfaceClassDepsProcessor {
+    
+    /**
+     * Specified list ownership is transfered to the implementation,
+     * or to the GC if the implementation doesn't want it.
+     * 
+     * If this method throws, parsing is stopped and the exception
+     * is propagated.
+     * 
+     * @param className Name of the parsed class, with dots.
+     * @param byteSize Byte size of the class file. Always > 0.
+     * @param depClassNameList Names, with dots, of the classes the parsed
+     *        class depends on, without duplicates.
+     * @return True if must stop parsing, false otherwise.
+     */
+    public boolean processClassDeps(
+            String className,
+            long byteSize,
+            List<String> depClassNameList);
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2026 Jeff Hain
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.jadecy.parsing;
+
+import java.io.File;
+
+/**
+ * Interface to be notified of what FsDepsParser parses, and of how long
+ * it takes, for instrumentation purpose.
+ * 
+ * Methods are called in the thread calling the parser.
+ * onClassFile(...) is called in the order in which class files would be
+ * parsed sequentially, even when parsing in parallel, but in that case
+ * onFileNotAccepted(...) can be called before onClassFile(...) is called
+ * for class files encountered before.
+ * 
+ * If a method throws, parsing is stopped and the exception is propagated.
+ */
+public interface InterfaceParsingListener {
+    
+    /**
+     * Called by accumulateDependencies(...) and parseDependencies(...),
+     * before walking the specified file.
+     * 
+     * @param root The file or directory to parse.
+     */
+    public void onRootBegin(File root);
+    
+    /**
+     * Called by accumulateDependencies(...) and parseDependencies(...),
+     * after the specified file has been parsed, unless parsing threw.
+     * 
+     * @param root The file or directory parsed.
+     * @param durationNs Time elapsed since onRootBegin(...), in nanoseconds,
+     *        including accumulation of parsing results.
+     */
+    public void onRootEnd(
+            File root,
+            long durationNs);
+    
+    /**
+     * Called for each file, which is not a directory, that is accepted
+     * neither by class filename filter nor by jar filename filter,
+     * and for each jar entry that is accepted neither by jar entry filename
+     * filter nor by jar filename filter (except for jar files which parsing
+     * results are read from cache).
+     * 
+     * @param file The file, or for jar entries, the entry within its jar file,
+     *        as if extracted.
+     */
+    public void onFileNotAccepted(File file);
+    
+    /**
+     * Called for each class file, jar entry, or image class file, accepted
+     * by filename filters, once its dependencies have been computed
+     * or reused.
+     * 
+     * @param container The jar file or image file containing the class file,
+     *        or null if it is not in a jar file or image file, or if it is
+     *        in memory or in a jar file read from a stream.
+     * @param className Name of the class, with dots, or null if the file
+     *        is empty or not a class file, or if its class name has not been
+     *        accepted by class name filter.
+     * @param byteSize Byte size of the class file.
+     * @param parseNs Time spent reading and parsing the class file,
+     *        in nanoseconds, by whatever thread did it, or -1 if its
+     *        dependencies have not been parsed but reused, from cache
+     *        or from a jar entry with same content.
+     * @param duplicate True if a class with the same name has already been
+     *        accumulated, in which case this one has been ignored,
+     *        false otherwise (always false for parseDependencies(...)).
+     */
+    public void onClassFile(
+            File container,
+            String className,
+            long byteSize,
+            long parseNs,
+            boolean duplicate);
+}
@@ -0,0 +1,387 @@
+/*
+ * Copyright 2026 Jeff Hain
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.jadecy.parsing;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * On-disk cache of jar files parsing results, for jar files that did not
+ * change since they were parsed (such as third-party libraries) not to be
+ * parsed again by each process.
+ * 
+ * Each jar file has its own cache file, which contains the jar file path,
+ * byte size and last modification time, used to check that it did not change,
+ * and the parsing results (byte size, class name with dots, and dependencies
+ * class names with dots) of the entries accepted by the jar entry filename
+ * filter used when it was parsed, in jar order, including entries of nested
+ * jar files accepted by the jar filename filter.
+ * Results are cached separately for API dependencies and for all
+ * dependencies.
+ * 
+ * The cache being only an optimization, I/O errors and invalid cache files
+ * are considered as cache misses, and cache files are written in temporary
+ * files first and then renamed, so that concurrent processes using a same
+ * cache directory don't read partially written files.
+ */
+class JarDepsCache {
+    
+    //--------------------------------------------------------------------------
+    // CONFIGURATION
+    //--------------------------------------------------------------------------
+    
+    private static final boolean DEBUG = false;
+    
+    /**
+     * To make sure we don't read files of another format.
+     */
+    private static final long MAGIC = 0x4A44434A41524450L; // "JDCJARDP"
+    
+    /**
+     * To increment whenever the format, or what is computed by parsing,
+     * changes.
+     */
+    private static final int FORMAT_VERSION = 2;
+    
+    private static final String CACHE_FILE_EXT = ".deps";
+    
+    /**
+     * Min byte size of an entry in cache files: entry name length (2 bytes)
+     * and status (1 byte).
+     */
+    private static final int MIN_ENTRY_BYTE_SIZE = 3;
+    
+    /**
+     * Min byte size of a dependency in cache files: class name length
+     * (2 bytes).
+     */
+    private static final int MIN_DEP_BYTE_SIZE = 2;
+    
+    /*
+     * Entries statuses.
+     */
+    
+    /**
+     * Entry accepted by neither jar entry filename filter,
+     * nor jar filename filter.
+     */
+    static final int ENTRY_NOT_ACCEPTED = 0;
+    
+    /**
+     * Entry accepted by jar entry filename filter, and parsed.
+     */
+    static final int ENTRY_PARSED = 1;
+    
+    /**
+     * Entry not accepted by jar entry filename filter, but accepted by
+     * jar filename filter, which entries have been explored.
+     */
+    static final int ENTRY_NESTED_JAR = 2;
+    
+    //--------------------------------------------------------------------------
+    // PACKAGE-PRIVATE CLASSES
+    //--------------------------------------------------------------------------
+    
+    /**
+     * Parsing result for a jar entry.
+     */
+    static class EntryDeps {
+        /**
+         * For entries of nested jar files, prefixed with the names of their
+         * nested jar files entries, each followed by "!/".
+         */
+        final String entryName;
+        /**
+         * Other fields are only used if ENTRY_PARSED.
+         */
+        final int status;
+        final long inputByteSize;
+        /**
+         * Class name with dots, or null if not a class file.
+         */
+        final String classNameParsed;
+        /**
+         * Class names with dots. Null if classNameParsed is null.
+         */
+        final List<String> depClassNameList;
+        EntryDeps(
+                String entryName,
+                int status,
+                long inputByteSize,
+                String classNameParsed,
+                List<String> depClassNameList) {
+            this.entryName = entryName;
+            this.status = status;
+            this.inputByteSize = inputByteSize;
+            this.classNameParsed = classNameParsed;
+            this.depClassNameList = depClassNameList;
+        }
+    }
+    
+    //--------------------------------------------------------------------------
+    // MEMBERS
+    //--------------------------------------------------------------------------
+    
+    private final File cacheDir;
+    
+    //--------------------------------------------------------------------------
+    // PUBLIC METHODS
+    //--------------------------------------------------------------------------
+    
+    /**
+     * @param cacheDir Directory where to store cache files.
+     *        Created on first write if it does not exist.
+     */
+    public JarDepsCache(File cacheDir) {
+        this.cacheDir = cacheDir;
+    }
+    
+    public File getCacheDir() {
+        return this.cacheDir;
+    }
+    
+    //--------------------------------------------------------------------------
+    // PACKAGE-PRIVATE METHODS
+    //--------------------------------------------------------------------------
+    
+    /**
+     * @param jar Jar file.
+     * @param jarByteSize Current byte size of the jar file.
+     * @param jarLastModified Current last modification time of the jar file.
+     * @param apiOnly Whether results must be for API dependencies only.
+     * @return The cached results for the specified jar file, in jar order,
+     *         or null if there are none, or if the jar file changed,
+     *         or if the cache file could not be read or is invalid.
+     */
+    List<EntryDeps> read(
+            File jar,
+            long jarByteSize,
+            long jarLastModified,
+            boolean apiOnly) {
+        final File cacheFile = this.getCacheFile(jar, apiOnly);
+        if (!cacheFile.isFile()) {
+            return null;
+        }
+        try {
+            // Read at once, for counts to be checked against
+            // the number of bytes left.
+            final DataInputStream dis = new DataInputStream(
+                    new ByteArrayInputStream(
+                            readBytes(cacheFile)));
+            try {
+                if ((dis.readLong() != MAGIC)
+                        || (dis.readInt() != FORMAT_VERSION)
+                        || (dis.readBoolean() != apiOnly)
+                        || (!dis.readUTF().equals(jar.getAbsolutePath()))
+                        || (dis.readLong() != jarByteSize)
+                        || (dis.readLong() != jarLastModified)) {
+                    if (DEBUG) {
+                        System.out.println("cache miss (stale) for " + jar.getAbsolutePath());
+                    }
+                    return null;
+                }
+                final int entryCount = readCount(dis, MIN_ENTRY_BYTE_SIZE);
+                final List<EntryDeps> entryDepsList = new ArrayList<EntryDeps>(entryCount);
+                for (int i = 0; i < entryCount; i++) {
+                    entryDepsList.add(readEntryDeps(dis));
+                }
+                if (DEBUG) {
+                    System.out.println("cache hit for " + jar.getAbsolutePath());
+                }
+                return entryDepsList;
+            } finally {
+                dis.close();
+            }
+        } catch (IOException e) {
+            // Includes EOFException for truncated files,
+            // and bad counts.
+            if (DEBUG) {
+                System.out.println("cache miss (" + e + ") for " + jar.getAbsolutePath());
+            }
+            return null;
+        }
+    }
+    
+    /**
+     * Does nothing if could not write.
+     * 
+     * @param jar Jar file.
+     * @param jarByteSize Byte size of the jar file before it was parsed.
+     * @param jarLastModified Last modification time of the jar file
+     *        before it was parsed.
+     * @param apiOnly Whether results are for API dependencies only.
+     * @param entryDepsList Results to cache, in jar order.
+     */
+    void write(
+            File jar,
+            long jarByteSize,
+            long jarLastModified,
+            boolean apiOnly,
+            List<EntryDeps> entryDepsList) {
+        if ((!this.cacheDir.isDirectory())
+                && (!this.cacheDir.mkdirs())) {
+            return;
+        }
+        final File cacheFile = this.getCacheFile(jar, apiOnly);
+        File tmpFile = null;
+        try {
+            tmpFile = File.createTempFile(cacheFile.getName(), ".tmp", this.cacheDir);
+            final DataOutputStream dos = new DataOutputStream(
+                    new BufferedOutputStream(
+                            new FileOutputStream(tmpFile)));
+            try {
+                dos.writeLong(MAGIC);
+                dos.writeInt(FORMAT_VERSION);
+                dos.writeBoolean(apiOnly);
+                dos.writeUTF(jar.getAbsolutePath());
+                dos.writeLong(jarByteSize);
+                dos.writeLong(jarLastModified);
+                dos.writeInt(entryDepsList.size());
+                for (EntryDeps entryDeps : entryDepsList) {
+                    writeEntryDeps(dos, entryDeps);
+                }
+            } finally {
+                dos.close();
+            }
+            // Can't rename over an existing file on some systems.
+            cacheFile.delete();
+            if (tmpFile.renameTo(cacheFile)) {
+                tmpFile = null;
+            }
+        } catch (IOException e) {
+            // Ignoring.
+            if (DEBUG) {
+                System.out.println("could not write cache (" + e + ") for " + jar.getAbsolutePath());
+            }
+        } finally {
+            if (tmpFile != null) {
+                tmpFile.delete();
+            }
+        }
+    }
+    
+    //--------------------------------------------------------------------------
+    // PRIVATE METHODS
+    //--------------------------------------------------------------------------
+    
+    /**
+     * Cache file name is computed from a hash of the jar file path,
+     * which is also stored inside the file to check against collisions.
+     */
+    private File getCacheFile(File jar, boolean apiOnly) {
+        final String jarPath = jar.getAbsolutePath();
+        // 64 bits FNV-1a hash.
+        long hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < jarPath.length(); i++) {
+            hash ^= jarPath.charAt(i);
+            hash *= 0x100000001B3L;
+        }
+        final String fileName =
+                jar.getName()
+                + "-" + Long.toHexString(hash)
+                + (apiOnly ? "-api" : "-all")
+                + CACHE_FILE_EXT;
+        return new File(this.cacheDir, fileName);
+    }
+    
+    private static byte[] readBytes(File file) throws IOException {
+        final long byteSize = file.length();
+        if (byteSize > Integer.MAX_VALUE) {
+            throw new IOException("file too large: " + byteSize);
+        }
+        final byte[] bytes = new byte[(int) byteSize];
+        final DataInputStream dis = new DataInputStream(new FileInputStream(file));
+        try {
+            dis.readFully(bytes);
+        } finally {
+            dis.close();
+        }
+        return bytes;
+    }
+    
+    /**
+     * @param dis Stream reading from a byte array, for available() to be
+     *        the number of bytes left.
+     * @param minItemByteSize Min byte size of each counted item.
+     * @return The read count.
+     * @throws IOException if the read count is negative, or if counted
+     *         items can't fit in the bytes left.
+     */
+    private static int readCount(DataInputStream dis, int minItemByteSize) throws IOException {
+        final int count = dis.readInt();
+        if ((count < 0)
+                || (count > dis.available() / minItemByteSize)) {
+            throw new IOException("bad count: " + count);
+        }
+        return count;
+    }
+    
+    private static EntryDeps readEntryDeps(DataInputStream dis) throws IOException {
+        final String entryName = dis.readUTF();
+        final int status = dis.readByte();
+        if (status != ENTRY_PARSED) {
+            if ((status != ENTRY_NOT_ACCEPTED)
+                    && (status != ENTRY_NESTED_JAR)) {
+                throw new IOException("bad entry status: " + status);
+            }
+            return new EntryDeps(entryName, status, 0L, null, null);
+        }
+        final long inputByteSize = dis.readLong();
+        final boolean isClass = dis.readBoolean();
+        if (!isClass) {
+            return new EntryDeps(entryName, status, inputByteSize, null, null);
+        }
+        final String classNameParsed = dis.readUTF();
+        final int depCount = readCount(dis, MIN_DEP_BYTE_SIZE);
+        final List<String> depClassNameList = new ArrayList<String>(depCount);
+        for (int i = 0; i < depCount; i++) {
+            depClassNameList.add(dis.readUTF());
+        }
+        return new EntryDeps(
+                entryName,
+                status,
+                inputByteSize,
+                classNameParsed,
+                depClassNameList);
+    }
+    
+    private static void writeEntryDeps(DataOutputStream dos, EntryDeps entryDeps) throws IOException {
+        dos.writeUTF(entryDeps.entryName);
+        dos.writeByte(entryDeps.status);
+        if (entryDeps.status != ENTRY_PARSED) {
+            return;
+        }
+        dos.writeLong(entryDeps.inputByteSize);
+        final boolean isClass = (entryDeps.classNameParsed != null);
+        dos.writeBoolean(isClass);
+        if (!isClass) {
+            return;
+        }
+        dos.writeUTF(entryDeps.classNameParsed);
+        dos.writeInt(entryDeps.depClassNameList.size());
+        for (String depClassName : entryDeps.depClassNameList) {
+            dos.writeUTF(depClassName);
+        }
+    }
+}
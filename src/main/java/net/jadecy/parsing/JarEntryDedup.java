@@ -0,0 +1,168 @@
+/*
+ * Copyright 2026 Jeff Hain
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.jadecy.parsing;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+
+import net.jadecy.code.ClassData;
+import net.jadecy.code.ClassSymbol;
+import net.jadecy.code.PackageData;
+
+/**
+ * Names of classes parsed from jar entries and accumulated into a default
+ * package data, by entry name, size and CRC, for entries with same content
+ * found later on, such as in duplicated or shaded copies of a same library,
+ * not to be parsed again.
+ * 
+ * Only using entries file names, for entries of nested jar files and of their
+ * containing jar files to match.
+ */
+class JarEntryDedup {
+    
+    //--------------------------------------------------------------------------
+    // PACKAGE-PRIVATE CLASSES
+    //--------------------------------------------------------------------------
+    
+    /**
+     * Identifies the content of a jar entry, by its name, size and CRC,
+     * which can be known without reading it.
+     */
+    static class ContentKey {
+        final String entryName;
+        final long size;
+        final long crc;
+        ContentKey(
+                String entryName,
+                long size,
+                long crc) {
+            this.entryName = entryName;
+            this.size = size;
+            this.crc = crc;
+        }
+        @Override
+        public int hashCode() {
+            return this.entryName.hashCode()
+                    + 31 * ((int) this.crc + 31 * (int) this.size);
+        }
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof ContentKey)) {
+                return false;
+            }
+            final ContentKey other = (ContentKey) obj;
+            return (this.crc == other.crc)
+                    && (this.size == other.size)
+                    && this.entryName.equals(other.entryName);
+        }
+    }
+    
+    //--------------------------------------------------------------------------
+    // MEMBERS
+    //--------------------------------------------------------------------------
+    
+    private final boolean mustMergeNestedClasses;
+    
+    private final PackageData defaultPackageData;
+    
+    private final Map<ContentKey,String> classNameByContentKey = new HashMap<ContentKey,String>();
+    
+    //--------------------------------------------------------------------------
+    // PUBLIC METHODS
+    //--------------------------------------------------------------------------
+    
+    /**
+     * @param mustMergeNestedClasses Whether nested classes are merged into
+     *        their top level classes in the specified default package data.
+     * @param defaultPackageData Default package data dependencies of entries
+     *        are accumulated into.
+     */
+    public JarEntryDedup(
+            boolean mustMergeNestedClasses,
+            PackageData defaultPackageData) {
+        this.mustMergeNestedClasses = mustMergeNestedClasses;
+        this.defaultPackageData = defaultPackageData;
+    }
+    
+    /**
+     * @param entry A jar entry.
+     * @return Key for the content of the specified jar entry,
+     *         or null if its size or CRC is unknown.
+     */
+    public static ContentKey newContentKey(ZipEntry entry) {
+        final long size = entry.getSize();
+        final long crc = entry.getCrc();
+        if ((size < 0)
+                || (crc < 0)) {
+            return null;
+        }
+        return new ContentKey(entry.getName(), size, crc);
+    }
+    
+    /**
+     * Must be called when dependencies of an entry with the specified
+     * content key have been accumulated.
+     * 
+     * @param className Name of the class parsed from the entry.
+     */
+    public void onAccumulated(
+            ContentKey contentKey,
+            String className) {
+        // Canonical instance, not to retain parsed one.
+        this.classNameByContentKey.put(
+                contentKey,
+                this.defaultPackageData.getClassSymbolTable().intern(className).name());
+    }
+    
+    /**
+     * @return Name of the class parsed from an accumulated entry with the
+     *         specified content key, or null if none.
+     */
+    public String getClassName(ContentKey contentKey) {
+        return this.classNameByContentKey.get(contentKey);
+    }
+    
+    /**
+     * @return True if the specified class has been parsed and accumulated
+     *         into default package data, and not deleted since,
+     *         false otherwise.
+     */
+    public boolean isAccumulated(String className) {
+        final ClassSymbol classSymbol = this.defaultPackageData.getClassSymbolTable().intern(className);
+        final ClassSymbol classSymbolForData;
+        if (this.mustMergeNestedClasses) {
+            classSymbolForData = classSymbol.topLevelClassSymbol();
+        } else {
+            classSymbolForData = classSymbol;
+        }
+        final ClassData classData = this.defaultPackageData.getClassData(classSymbolForData.name());
+        return (classData != null)
+                && classData.byteSizeByClassFileNameNoExt().containsKey(classSymbol.fileNameNoExt());
+    }
+    
+    /**
+     * Clears known class names if default package data has no child,
+     * such as after it has been cleared, not to retain names of classes
+     * no longer there.
+     */
+    public void clearIfEmpty() {
+        if (this.defaultPackageData.childClassDataByFileNameNoExt().isEmpty()
+                && this.defaultPackageData.childPackageDataByDirName().isEmpty()) {
+            this.classNameByContentKey.clear();
+        }
+    }
+}
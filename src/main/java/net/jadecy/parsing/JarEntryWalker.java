@@ -0,0 +1,225 @@
+/*
+ * Copyright 2026 Jeff Hain
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.jadecy.parsing;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Enumeration;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Walks entries of a jar file, in jar order, and recursively of its nested
+ * jar files, i.e. of its entries not accepted by jar entry filename filter
+ * but accepted by jar filename filter, which are streamed over through
+ * a ZipInputStream, without extraction.
+ * 
+ * Filters are given entries of nested jar files with the nested jar file,
+ * within its containing jar file, as parent, as if extracted, and jar
+ * filename filter is given entries directories within their jar file
+ * as parents.
+ */
+class JarEntryWalker {
+    
+    //--------------------------------------------------------------------------
+    // CONFIGURATION
+    //--------------------------------------------------------------------------
+    
+    /**
+     * Separator between the name of a nested jar file entry,
+     * and the name of an entry of this nested jar file.
+     */
+    static final String NESTED_JAR_SEPARATOR = "!/";
+    
+    //--------------------------------------------------------------------------
+    // PACKAGE-PRIVATE CLASSES
+    //--------------------------------------------------------------------------
+    
+    /**
+     * Visits entries of a jar file, and recursively of its nested jar files.
+     */
+    static abstract class AbstractEntryVisitor {
+        /**
+         * Called before each entry.
+         * 
+         * @return True if walking must stop, false otherwise.
+         */
+        abstract boolean mustStop();
+        /**
+         * Called for entries accepted by jar entry filename filter.
+         * 
+         * @param entryPath Entry name, prefixed with the names of its nested
+         *        jar files entries, each followed by NESTED_JAR_SEPARATOR.
+         * @param zipFile Zip file of the entry, or null if it is nested.
+         * @param entry The entry, which size and CRC are known.
+         * @param bytes Content of the entry if it is nested, else null.
+         */
+        abstract void visitAcceptedEntry(
+                String entryPath,
+                ZipFile zipFile,
+                ZipEntry entry,
+                byte[] bytes);
+        /**
+         * Called for entries not accepted by jar entry filename filter,
+         * before entries of nested jar files.
+         * 
+         * @param status JarDepsCache.ENTRY_NOT_ACCEPTED or
+         *        JarDepsCache.ENTRY_NESTED_JAR.
+         */
+        void visitOtherEntry(String entryPath, int status) {
+        }
+        /**
+         * Called for entries accepted by no filter, after visitOtherEntry(...).
+         * 
+         * @param container Jar file containing the entry,
+         *        possibly nested in another one, or null if none.
+         */
+        void onEntryNotAccepted(File container, String entryName) {
+        }
+    }
+    
+    //--------------------------------------------------------------------------
+    // PUBLIC METHODS
+    //--------------------------------------------------------------------------
+    
+    /**
+     * Visits entries of the specified jar file, and of its nested jar files,
+     * until visitor must stop.
+     */
+    public static void walkJarFile(
+            File jar,
+            ZipFile zipFile,
+            ParsingFilters filters,
+            AbstractEntryVisitor visitor) {
+        final Enumeration<? extends ZipEntry> entries = zipFile.entries();
+        while (entries.hasMoreElements()
+                && (!visitor.mustStop())) {
+            final ZipEntry entry = entries.nextElement();
+            final String entryName = entry.getName();
+            final int status = computeEntryStatus(jar, entryName, filters);
+            if (status == JarDepsCache.ENTRY_PARSED) {
+                visitor.visitAcceptedEntry(entryName, zipFile, entry, null);
+            } else {
+                visitor.visitOtherEntry(entryName, status);
+                if (status == JarDepsCache.ENTRY_NOT_ACCEPTED) {
+                    visitor.onEntryNotAccepted(jar, entryName);
+                } else {
+                    final InputStream is = ParsingIoUtilz.getInputStream(zipFile, entry);
+                    try {
+                        walkNestedJar(
+                                new File(jar, entryName),
+                                entryName + NESTED_JAR_SEPARATOR,
+                                new ZipInputStream(is),
+                                filters,
+                                visitor);
+                    } finally {
+                        ParsingIoUtilz.closeInputStream(is);
+                    }
+                }
+            }
+        }
+    }
+    
+    /**
+     * This method is recursive.
+     * 
+     * Visits entries of the specified nested jar file, and of its nested jar
+     * files, until visitor must stop.
+     * Does not close the specified stream, for it not to close
+     * the stream it reads from.
+     * 
+     * @param nestedJar Nested jar file, within its containing jar file,
+     *        or null if it has no location.
+     * @param entryPathPrefix Prefix for the names of entries of the nested
+     *        jar file.
+     */
+    public static void walkNestedJar(
+            File nestedJar,
+            String entryPathPrefix,
+            ZipInputStream zis,
+            ParsingFilters filters,
+            AbstractEntryVisitor visitor) {
+        while (!visitor.mustStop()) {
+            final ZipEntry entry;
+            try {
+                entry = zis.getNextEntry();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+            if (entry == null) {
+                break;
+            }
+            final String entryName = entry.getName();
+            final String entryPath = entryPathPrefix + entryName;
+            final int status = computeEntryStatus(nestedJar, entryName, filters);
+            if (status == JarDepsCache.ENTRY_PARSED) {
+                // Reading first, for entry size and CRC to be known.
+                final byte[] bytes = ParsingIoUtilz.readEntry(zis, entry);
+                visitor.visitAcceptedEntry(entryPath, null, entry, bytes);
+            } else {
+                visitor.visitOtherEntry(entryPath, status);
+                if (status == JarDepsCache.ENTRY_NOT_ACCEPTED) {
+                    visitor.onEntryNotAccepted(nestedJar, entryName);
+                } else {
+                    walkNestedJar(
+                            new File(nestedJar, entryName),
+                            entryPath + NESTED_JAR_SEPARATOR,
+                            new ZipInputStream(zis),
+                            filters,
+                            visitor);
+                }
+            }
+        }
+    }
+    
+    /**
+     * @param container Jar file containing the entry,
+     *        possibly nested in another one, or null if none.
+     * @return Status of the specified entry, as defined in JarDepsCache.
+     */
+    public static int computeEntryStatus(
+            File container,
+            String entryName,
+            ParsingFilters filters) {
+        if (filters.getJarEntryFilenameFilter().accept(container, entryName)) {
+            return JarDepsCache.ENTRY_PARSED;
+        }
+        final int slashIndex = entryName.lastIndexOf('/');
+        final File parent;
+        final String fileName;
+        if (slashIndex < 0) {
+            parent = container;
+            fileName = entryName;
+        } else {
+            parent = new File(container, entryName.substring(0, slashIndex));
+            fileName = entryName.substring(slashIndex + 1);
+        }
+        if ((fileName.length() != 0)
+                && filters.getJarFilenameFilter().accept(parent, fileName)) {
+            return JarDepsCache.ENTRY_NESTED_JAR;
+        }
+        return JarDepsCache.ENTRY_NOT_ACCEPTED;
+    }
+    
+    //--------------------------------------------------------------------------
+    // PRIVATE METHODS
+    //--------------------------------------------------------------------------
+    
+    private JarEntryWalker() {
+    }
+}
@@ -0,0 +1,363 @@
+/*
+ * Copyright 2026 Jeff Hain
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.jadecy.parsing;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Gives access to class files of a JDK 9+ runtime image (lib/modules file,
+ * also known as jimage file), through the "jrt:/" file system of that JDK.
+ * 
+ * Since this file system requires Java 7+ APIs (java.nio.file), it is used
+ * through reflection, for this code to still compile and run with Java 5
+ * (in which case opening an image throws).
+ * If running on Java 9+, the file system is created with the "java.home"
+ * environment property, else it is loaded from the jrt-fs.jar file
+ * of the image's JDK, which requires Java 8+.
+ * 
+ * Class files are read from "/modules/<module name>/<package path>/",
+ * which corresponds to the content extracted by "jimage extract".
+ * 
+ * Reading class files is thread-safe, but walking and closing are not.
+ */
+class JrtImage {
+    
+    //--------------------------------------------------------------------------
+    // CONFIGURATION
+    //--------------------------------------------------------------------------
+    
+    /**
+     * Written in native byte order, so it can be either way in the file.
+     */
+    private static final int MAGIC = 0xCAFEDADA;
+    
+    private static final String JRT_URI = "jrt:/";
+    
+    private static final String MODULES_DIR_PATH = "/modules";
+    
+    private static final String CLASS_FILE_EXT = ".class";
+    
+    //--------------------------------------------------------------------------
+    // MEMBERS
+    //--------------------------------------------------------------------------
+    
+    private final File imageFile;
+    
+    /**
+     * A java.nio.file.FileSystem.
+     */
+    private final Object fileSystem;
+    
+    /*
+     * Methods of java.nio.file types.
+     */
+    
+    private final Method getPathMethod;
+    private final Method newDirectoryStreamMethod;
+    private final Method isDirectoryMethod;
+    private final Method readAllBytesMethod;
+    
+    /**
+     * Empty LinkOption array, for isDirectory(...).
+     */
+    private final Object noLinkOptions;
+    
+    //--------------------------------------------------------------------------
+    // PUBLIC METHODS
+    //--------------------------------------------------------------------------
+    
+    /**
+     * @return True if the specified file is a JDK runtime image file,
+     *         false otherwise.
+     */
+    public static boolean isImageFile(File file) {
+        if (!file.isFile()) {
+            return false;
+        }
+        final byte[] bytes = new byte[4];
+        try {
+            final FileInputStream fis = new FileInputStream(file);
+            try {
+                int offset = 0;
+                while (offset < bytes.length) {
+                    final int n = fis.read(bytes, offset, bytes.length - offset);
+                    if (n < 0) {
+                        return false;
+                    }
+                    offset += n;
+                }
+            } finally {
+                fis.close();
+            }
+        } catch (IOException e) {
+            return false;
+        }
+        final int bigEndian =
+                ((bytes[0] & 0xFF) << 24)
+                | ((bytes[1] & 0xFF) << 16)
+                | ((bytes[2] & 0xFF) << 8)
+                | (bytes[3] & 0xFF);
+        return (bigEndian == MAGIC)
+                || (Integer.reverseBytes(bigEndian) == MAGIC);
+    }
+    
+    /**
+     * @param imageFile Image file, in the lib directory of its JDK.
+     * @throws IllegalArgumentException if the file system of the specified
+     *         image could not be created, for example if its JDK is not found
+     *         or if running on Java 7 or below.
+     */
+    public static JrtImage open(File imageFile) {
+        return new JrtImage(imageFile);
+    }
+    
+    public File getImageFile() {
+        return this.imageFile;
+    }
+    
+    /**
+     * Walks the image in the same way than accumulateDependencies(...)
+     * walks a directory, with module directories as children of the image
+     * file, i.e. files given to filters for directories and class files are
+     * within the image file, as if it was a directory with extracted content.
+     * 
+     * @param dirFilenameFilter Filter for module and package directories.
+     * @param classFilenameFilter Filter for class files.
+     * @return Paths of accepted class files, to use with readClassFile(...).
+     */
+    public List<String> listClassFiles(
+            FilenameFilter dirFilenameFilter,
+            FilenameFilter classFilenameFilter) {
+        final List<String> pathList = new ArrayList<String>();
+        final Object modulesDir = this.getPath(MODULES_DIR_PATH);
+        for (Object moduleDir : this.list(modulesDir)) {
+            this.listClassFiles(
+                    this.imageFile,
+                    moduleDir,
+                    dirFilenameFilter,
+                    classFilenameFilter,
+                    pathList);
+        }
+        return pathList;
+    }
+    
+    /**
+     * @param path A path returned by listClassFiles(...).
+     * @return Content of the specified class file.
+     */
+    public byte[] readClassFile(String path) {
+        return (byte[]) invoke(this.readAllBytesMethod, null, this.getPath(path));
+    }
+    
+    /**
+     * @param path A path returned by listClassFiles(...).
+     * @return Name of the class of the specified class file, as computed
+     *         from its path, i.e. from its package directories within its
+     *         module directory.
+     */
+    public static String computeClassName(String path) {
+        // "/modules/<module>/<package path>/<file name>".
+        final int packagePathStart = path.indexOf('/', MODULES_DIR_PATH.length() + 1) + 1;
+        return path.substring(
+                packagePathStart,
+                path.length() - CLASS_FILE_EXT.length()).replace('/', '.');
+    }
+    
+    public void close() {
+        try {
+            ((Closeable) this.fileSystem).close();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+    
+    //--------------------------------------------------------------------------
+    // PRIVATE METHODS
+    //--------------------------------------------------------------------------
+    
+    private JrtImage(File imageFile) {
+        
+        this.imageFile = imageFile;
+        
+        final File libDir = imageFile.getAbsoluteFile().getParentFile();
+        final File jdkHome = ((libDir != null) ? libDir.getParentFile() : null);
+        if (jdkHome == null) {
+            throw new IllegalArgumentException("no JDK home for image " + imageFile.getAbsolutePath());
+        }
+        
+        try {
+            final Class<?> fileSystemsClass = Class.forName("java.nio.file.FileSystems");
+            final Class<?> fileSystemClass = Class.forName("java.nio.file.FileSystem");
+            final Class<?> filesClass = Class.forName("java.nio.file.Files");
+            final Class<?> pathClass = Class.forName("java.nio.file.Path");
+            final Class<?> linkOptionClass = Class.forName("java.nio.file.LinkOption");
+            
+            this.fileSystem = newFileSystem(fileSystemsClass, jdkHome);
+            
+            this.getPathMethod = fileSystemClass.getMethod("getPath", String.class, String[].class);
+            this.newDirectoryStreamMethod = filesClass.getMethod("newDirectoryStream", pathClass);
+            this.noLinkOptions = Array.newInstance(linkOptionClass, 0);
+            this.isDirectoryMethod = filesClass.getMethod("isDirectory", pathClass, this.noLinkOptions.getClass());
+            this.readAllBytesMethod = filesClass.getMethod("readAllBytes", pathClass);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalArgumentException("parsing image " + imageFile.getAbsolutePath() + " requires Java 8+", e);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalArgumentException("parsing image " + imageFile.getAbsolutePath() + " requires Java 8+", e);
+        }
+    }
+    
+    /**
+     * @return A new jrt file system for the specified JDK.
+     * @throws IllegalArgumentException if could not create it.
+     */
+    private static Object newFileSystem(
+            Class<?> fileSystemsClass,
+            File jdkHome) throws NoSuchMethodException {
+        final URI uri = URI.create(JRT_URI);
+        final Map<String,String> env = new HashMap<String,String>();
+        env.put("java.home", jdkHome.getAbsolutePath());
+        
+        RuntimeException firstException;
+        try {
+            // Java 9+.
+            final Method method = fileSystemsClass.getMethod("newFileSystem", URI.class, Map.class);
+            return invoke(method, null, uri, env);
+        } catch (RuntimeException e) {
+            firstException = e;
+        }
+        
+        // Java 8: provider loaded from image's JDK.
+        final File jrtFsJar = new File(new File(jdkHome, "lib"), "jrt-fs.jar");
+        if (!jrtFsJar.isFile()) {
+            throw new IllegalArgumentException(
+                    "could not open image of JDK " + jdkHome.getAbsolutePath(),
+                    firstException);
+        }
+        final URL jrtFsJarUrl;
+        try {
+            jrtFsJarUrl = jrtFsJar.toURI().toURL();
+        } catch (MalformedURLException e) {
+            throw new IllegalArgumentException(e);
+        }
+        final ClassLoader loader = new URLClassLoader(new URL[]{jrtFsJarUrl});
+        final Method method = fileSystemsClass.getMethod("newFileSystem", URI.class, Map.class, ClassLoader.class);
+        try {
+            return invoke(method, null, uri, env, loader);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException(
+                    "could not open image of JDK " + jdkHome.getAbsolutePath(),
+                    e);
+        }
+    }
+    
+    /**
+     * This method is recursive.
+     * 
+     * @param parent Pseudo file of the parent of the specified path.
+     * @param path A java.nio.file.Path.
+     */
+    private void listClassFiles(
+            File parent,
+            Object path,
+            FilenameFilter dirFilenameFilter,
+            FilenameFilter classFilenameFilter,
+            List<String> pathList) {
+        final String pathStr = path.toString();
+        final String fileName = pathStr.substring(pathStr.lastIndexOf('/') + 1);
+        if (this.isDirectory(path)) {
+            if (dirFilenameFilter.accept(parent, fileName)) {
+                final File dir = new File(parent, fileName);
+                for (Object child : this.list(path)) {
+                    this.listClassFiles(
+                            dir,
+                            child,
+                            dirFilenameFilter,
+                            classFilenameFilter,
+                            pathList);
+                }
+            }
+        } else {
+            if (fileName.endsWith(CLASS_FILE_EXT)
+                    && classFilenameFilter.accept(parent, fileName)) {
+                pathList.add(pathStr);
+            }
+        }
+    }
+    
+    private Object getPath(String path) {
+        return invoke(this.getPathMethod, this.fileSystem, path, new String[0]);
+    }
+    
+    private boolean isDirectory(Object path) {
+        return (Boolean) invoke(this.isDirectoryMethod, null, path, this.noLinkOptions);
+    }
+    
+    /**
+     * @return Children of the specified directory.
+     */
+    private List<Object> list(Object dir) {
+        final List<Object> childList = new ArrayList<Object>();
+        final Object stream = invoke(this.newDirectoryStreamMethod, null, dir);
+        try {
+            for (Object child : (Iterable<?>) stream) {
+                childList.add(child);
+            }
+        } finally {
+            try {
+                ((Closeable) stream).close();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+        return childList;
+    }
+    
+    /**
+     * Rethrows exceptions thrown by the method, wrapping checked ones
+     * into RuntimeException.
+     */
+    private static Object invoke(Method method, Object target, Object... args) {
+        try {
+            return method.invoke(target, args);
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException(e);
+        } catch (InvocationTargetException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            } else {
+                throw new RuntimeException(cause);
+            }
+        }
+    }
+}
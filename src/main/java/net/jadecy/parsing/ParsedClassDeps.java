@@ -0,0 +1,564 @@
+/*
+ * Copyright 2026 Jeff Hain
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.jadecy.parsing;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import net.jadecy.code.ClassData;
+import net.jadecy.code.ClassSymbol;
+import net.jadecy.code.ClassSymbolTable;
+import net.jadecy.code.PackageData;
+import net.jadecy.names.InterfaceNameFilter;
+
+/**
+ * Dependencies of a class file, computed before their accumulation
+ * into default package data, which allows to compute them
+ * in another thread.
+ * 
+ * Also provides their computation from class files, jar entries and image
+ * class files, and their accumulation into default package data.
+ */
+class ParsedClassDeps {
+    
+    //--------------------------------------------------------------------------
+    // MEMBERS
+    //--------------------------------------------------------------------------
+    
+    final long inputByteSize;
+    
+    /**
+     * Class name with dots, or null if the class file has not been
+     * parsed, was not a class file, or its class name was not accepted
+     * by class name filter (which is not applied when parsing jar files
+     * which results are to be cached).
+     */
+    final String classNameParsed;
+    
+    final List<String> depClassNameList;
+    
+    /**
+     * API dependencies, if computed along with dependencies,
+     * else null. Null if classNameParsed is null.
+     */
+    final List<String> apiDepClassNameList;
+    
+    /**
+     * Key of the jar entry these dependencies have been parsed from,
+     * for reuse, or null if not to be reused.
+     */
+    final JarEntryDedup.ContentKey contentKey;
+    
+    /**
+     * Time spent reading and parsing the class file, in nanoseconds,
+     * or -1 if these dependencies have not been parsed but reused,
+     * from cache or from a jar entry with same content.
+     */
+    final long parseNs;
+    
+    /**
+     * True if these dependencies are those of a jar entry with same
+     * content (as identified by contentKey) than an entry still being
+     * parsed, in which case they are only known once that entry has been
+     * accumulated.
+     */
+    final boolean pending;
+    
+    //--------------------------------------------------------------------------
+    // PUBLIC METHODS
+    //--------------------------------------------------------------------------
+    
+    public ParsedClassDeps(
+            long inputByteSize,
+            String classNameParsed,
+            List<String> depClassNameList) {
+        this(
+                inputByteSize,
+                classNameParsed,
+                depClassNameList,
+                null); // apiDepClassNameList
+    }
+    
+    public ParsedClassDeps(
+            long inputByteSize,
+            String classNameParsed,
+            List<String> depClassNameList,
+            List<String> apiDepClassNameList) {
+        this(
+                inputByteSize,
+                classNameParsed,
+                depClassNameList,
+                apiDepClassNameList,
+                null, // contentKey
+                -1L); // parseNs
+    }
+    
+    public ParsedClassDeps(
+            long inputByteSize,
+            String classNameParsed,
+            List<String> depClassNameList,
+            List<String> apiDepClassNameList,
+            JarEntryDedup.ContentKey contentKey,
+            long parseNs) {
+        this(
+                inputByteSize,
+                classNameParsed,
+                depClassNameList,
+                apiDepClassNameList,
+                contentKey,
+                parseNs,
+                false); // pending
+    }
+    
+    /**
+     * @return Dependencies for a jar entry with the specified content key,
+     *         which must be the same than the one of an entry still being
+     *         parsed.
+     */
+    public static ParsedClassDeps newPending(JarEntryDedup.ContentKey contentKey) {
+        return new ParsedClassDeps(
+                contentKey.size,
+                null, // classNameParsed
+                null, // depClassNameList
+                null, // apiDepClassNameList
+                contentKey,
+                -1L, // parseNs
+                true); // pending
+    }
+    
+    /**
+     * @param contentKey Can be null.
+     * @return Dependencies identical to these ones,
+     *         but with the specified content key.
+     */
+    public ParsedClassDeps withContentKey(JarEntryDedup.ContentKey contentKey) {
+        if (contentKey == null) {
+            return this;
+        }
+        return new ParsedClassDeps(
+                this.inputByteSize,
+                this.classNameParsed,
+                this.depClassNameList,
+                this.apiDepClassNameList,
+                contentKey,
+                this.parseNs);
+    }
+    
+    /**
+     * Must only be called if API dependencies have been computed.
+     * 
+     * @return Dependencies with API dependencies as dependencies.
+     */
+    public ParsedClassDeps toApiClassDeps() {
+        return new ParsedClassDeps(
+                this.inputByteSize,
+                this.classNameParsed,
+                this.apiDepClassNameList);
+    }
+    
+    /*
+     * Computation.
+     */
+    
+    /**
+     * @throws IllegalArgumentException wrapping a FileNotFoundException if the
+     *         specified file is not found.
+     */
+    public static ParsedClassDeps computeClassFileDeps(
+            File file,
+            InterfaceNameFilter classNameFilter,
+            boolean apiOnly,
+            boolean withApiDeps) {
+        
+        final ParsedClassDeps classDeps;
+        
+        final long startNs = System.nanoTime();
+        
+        final FileInputStream fis = ParsingIoUtilz.openFileInputStream(file);
+        try {
+            final FileChannel channel = fis.getChannel();
+            final long inputByteSize = ParsingIoUtilz.size(channel);
+            final ByteBuffer buffer;
+            if (inputByteSize <= 0) {
+                // Not parsed.
+                buffer = null;
+            } else {
+                buffer = ParsingIoUtilz.readClassFile(channel, inputByteSize, true);
+            }
+            classDeps = computeClassBufferDeps(
+                    inputByteSize,
+                    buffer,
+                    startNs,
+                    classNameFilter,
+                    apiOnly,
+                    withApiDeps);
+        } finally {
+            ParsingIoUtilz.closeInputStream(fis);
+        }
+        
+        return classDeps;
+    }
+    
+    /**
+     * @param zipFile Zip file of the entry, or null if it is nested.
+     * @param entry The entry. Not used if it is nested.
+     * @param bytes Content of the entry if it is nested, else null.
+     */
+    public static ParsedClassDeps computeJarEntryDeps(
+            ZipFile zipFile,
+            ZipEntry entry,
+            byte[] bytes,
+            InterfaceNameFilter classNameFilter,
+            boolean apiOnly,
+            boolean withApiDeps) {
+        if (bytes != null) {
+            return computeClassBytesDeps(
+                    bytes,
+                    System.nanoTime(),
+                    classNameFilter,
+                    apiOnly,
+                    withApiDeps);
+        }
+        
+        final ParsedClassDeps classDeps;
+        
+        final long startNs = System.nanoTime();
+        
+        // Not using InputStream.available() to compute input size,
+        // because theoretically it might not always work.
+        long inputByteSize = entry.getSize();
+        if (inputByteSize < 0) {
+            // Unknown.
+            inputByteSize = 0;
+        }
+        final InputStream is = ParsingIoUtilz.getInputStream(zipFile, entry);
+        try {
+            final ByteBuffer buffer;
+            if (inputByteSize <= 0) {
+                // Not parsed.
+                buffer = null;
+            } else {
+                buffer = ByteBuffer.wrap(ParsingIoUtilz.readFully(is, inputByteSize));
+            }
+            classDeps = computeClassBufferDeps(
+                    inputByteSize,
+                    buffer,
+                    startNs,
+                    classNameFilter,
+                    apiOnly,
+                    withApiDeps);
+        } finally {
+            ParsingIoUtilz.closeInputStream(is);
+        }
+        
+        return classDeps;
+    }
+    
+    /**
+     * @param path A path returned by JrtImage.listClassFiles(...).
+     */
+    public static ParsedClassDeps computeImageClassFileDeps(
+            JrtImage jrtImage,
+            String path,
+            InterfaceNameFilter classNameFilter,
+            boolean apiOnly,
+            boolean withApiDeps) {
+        final long startNs = System.nanoTime();
+        return computeClassBytesDeps(
+                jrtImage.readClassFile(path),
+                startNs,
+                classNameFilter,
+                apiOnly,
+                withApiDeps);
+    }
+    
+    /**
+     * @param startNs System.nanoTime() when started to read the class file.
+     */
+    public static ParsedClassDeps computeClassBytesDeps(
+            byte[] bytes,
+            long startNs,
+            InterfaceNameFilter classNameFilter,
+            boolean apiOnly,
+            boolean withApiDeps) {
+        return computeClassBufferDeps(
+                bytes.length,
+                ByteBuffer.wrap(bytes),
+                startNs,
+                classNameFilter,
+                apiOnly,
+                withApiDeps);
+    }
+    
+    /**
+     * @param inputByteSize If <= 0, does not parse.
+     * @param buffer Class file content. Not used if inputByteSize <= 0.
+     * @param startNs System.nanoTime() when started to read the class file,
+     *        for computation of parsing time.
+     */
+    public static ParsedClassDeps computeClassBufferDeps(
+            long inputByteSize,
+            ByteBuffer buffer,
+            long startNs,
+            InterfaceNameFilter classNameFilter,
+            boolean apiOnly,
+            boolean withApiDeps) {
+        
+        // We need size to be > 0, else we could pretend we did
+        // modify while we did not (if size is 0, and class data
+        // had already been created but has no dependency).
+        if (inputByteSize <= 0) {
+            return new ParsedClassDeps(
+                    inputByteSize,
+                    null,
+                    null,
+                    null,
+                    null,
+                    System.nanoTime() - startNs);
+        }
+        
+        /*
+         * Parsing class file.
+         */
+        
+        final List<String> depClassNameList = new ArrayList<String>();
+        final List<String> apiDepClassNameList = (withApiDeps ? new ArrayList<String>() : null);
+        // Always retrieving class name from inside the class file,
+        // not from its path, so that we can handle "badly located"
+        // class files.
+        final String classNameParsed = computeClassDeps(
+                buffer,
+                classNameFilter,
+                apiOnly,
+                depClassNameList,
+                apiDepClassNameList);
+        
+        return new ParsedClassDeps(
+                inputByteSize,
+                classNameParsed,
+                depClassNameList,
+                apiDepClassNameList,
+                null, // contentKey
+                System.nanoTime() - startNs);
+    }
+    
+    /**
+     * @return Name of the class defined in the specified class file,
+     *         or null if it is not a class file.
+     * @throws IllegalArgumentException wrapping a FileNotFoundException if the
+     *         specified file is not found.
+     */
+    public static String readClassName(
+            File file,
+            boolean apiOnly) {
+        final String[] classNameRef = new String[1];
+        // Stopping parsing once class name is known.
+        computeClassFileDeps(
+                file,
+                new InterfaceNameFilter() {
+                    @Override
+                    public String getPrefix() {
+                        return "";
+                    }
+                    @Override
+                    public boolean accept(String name) {
+                        classNameRef[0] = name;
+                        return false;
+                    }
+                },
+                apiOnly,
+                false); // withApiDeps
+        return classNameRef[0];
+    }
+    
+    /*
+     * Accumulation.
+     */
+    
+    /**
+     * @param classNameFilter Can be null, if already applied when parsing.
+     * @param parsedClassNameList (in,out) Where to add the name of the class,
+     *        if accepted, for the record of the file it was parsed from.
+     *        Can be null if not recording.
+     * @param duplicateRef (out) Where to set, at index 0, whether the class
+     *        had already been accumulated, and has been ignored.
+     *        Can be null.
+     * @return True if did modify, false otherwise.
+     */
+    public static boolean accumulateClassDeps(
+            ParsedClassDeps classDeps,
+            InterfaceNameFilter classNameFilter,
+            boolean mustMergeNestedClasses,
+            PackageData defaultPackageData,
+            List<String> parsedClassNameList,
+            boolean[] duplicateRef) {
+        
+        boolean modified = false;
+        
+        if (duplicateRef != null) {
+            duplicateRef[0] = false;
+        }
+        
+        final long inputByteSize = classDeps.inputByteSize;
+        final String classNameParsed = classDeps.classNameParsed;
+        final List<String> depClassNameList = classDeps.depClassNameList;
+        
+        final boolean wasAcceptedClassFile = isAccepted(classNameParsed, classNameFilter);
+        if (wasAcceptedClassFile) {
+            
+            final ClassSymbolTable classSymbolTable = defaultPackageData.getClassSymbolTable();
+            
+            final ClassSymbol classSymbol = classSymbolTable.intern(classNameParsed);
+            
+            if (parsedClassNameList != null) {
+                // Canonical instance, not to retain parsed one.
+                parsedClassNameList.add(classSymbol.name());
+            }
+            
+            /*
+             * Eventually replacing nested classes with top level class.
+             */
+            
+            final ClassSymbol classSymbolForData;
+            if (mustMergeNestedClasses) {
+                classSymbolForData = classSymbol.topLevelClassSymbol();
+            } else {
+                classSymbolForData = classSymbol;
+            }
+            
+            /*
+             * Updating structure.
+             */
+            
+            // If just created, and then accepted (because not parsed yet),
+            // modified will be set to true when we figure out it was not already
+            // registered as already parsed (need not to set it to true here!).
+            final ClassData classData = defaultPackageData.getOrCreateClassDataForSymbol(classSymbolForData);
+            
+            final boolean classFileNameNoExtNotParsedYet = PackageData.setByteSizeForClassOrNested(
+                    classData,
+                    classSymbol.fileNameNoExt(),
+                    inputByteSize);
+            if (classFileNameNoExtNotParsedYet) {
+                // Class data might have been created already
+                // for some dependency, but has not yet been parsed
+                // (else we would not pass here), so modification
+                // will occur when we add its byte size to its package.
+                modified = true;
+                
+                for (String depClassName : depClassNameList) {
+                    ClassSymbol depClassSymbol = classSymbolTable.intern(depClassName);
+                    if (mustMergeNestedClasses) {
+                        depClassSymbol = depClassSymbol.topLevelClassSymbol();
+                        if (depClassSymbol == classSymbolForData) {
+                            // Making sure we don't loop with ourselves.
+                            continue;
+                        }
+                    }
+                    final ClassData depClassData = defaultPackageData.getOrCreateClassDataForSymbol(depClassSymbol);
+                    
+                    modified |= PackageData.ensureDependency(
+                            classData,
+                            depClassData);
+                }
+            } else {
+                // Already parsed and taken care of: must ignore it.
+                // (Or user nastily called setByteSizeForClass(...) already,
+                // but that's his fault.)
+                if (duplicateRef != null) {
+                    duplicateRef[0] = true;
+                }
+            }
+        }
+        
+        return modified;
+    }
+    
+    /**
+     * @param className Can be null.
+     * @param classNameFilter Can be null, if already applied when parsing.
+     * @return True if the specified class name is not null,
+     *         and accepted by the specified filter if any.
+     */
+    public static boolean isAccepted(
+            String className,
+            InterfaceNameFilter classNameFilter) {
+        return (className != null)
+                && ((classNameFilter == null)
+                        || classNameFilter.accept(className));
+    }
+    
+    //--------------------------------------------------------------------------
+    // PRIVATE METHODS
+    //--------------------------------------------------------------------------
+    
+    private ParsedClassDeps(
+            long inputByteSize,
+            String classNameParsed,
+            List<String> depClassNameList,
+            List<String> apiDepClassNameList,
+            JarEntryDedup.ContentKey contentKey,
+            long parseNs,
+            boolean pending) {
+        this.inputByteSize = inputByteSize;
+        this.classNameParsed = classNameParsed;
+        this.depClassNameList = depClassNameList;
+        this.apiDepClassNameList = apiDepClassNameList;
+        this.contentKey = contentKey;
+        this.parseNs = parseNs;
+        this.pending = pending;
+    }
+    
+    /**
+     * Computes classes dependencies with names not in internal form,
+     * i.e. with dots instead of slashes.
+     * 
+     * @param depClassNameList (in,out)
+     * @param apiDepClassNameList (in,out) Where to add API dependencies,
+     *        computed in the same pass, or null if not computing them.
+     * @return Class name with dots, not slashed, or null if not a class file
+     *         or if the class name is not accepted by the specified filter.
+     */
+    private static String computeClassDeps(
+            ByteBuffer buffer,
+            InterfaceNameFilter classNameFilter,
+            boolean apiOnly,
+            List<String> depClassNameList,
+            List<String> apiDepClassNameList) {
+        
+        // Directly decoding names with dots,
+        // and not parsing rejected classes further than their name.
+        if (apiDepClassNameList != null) {
+            return ClassDepsParser.computeDotedDependencies(
+                    buffer,
+                    classNameFilter,
+                    depClassNameList,
+                    apiDepClassNameList);
+        }
+        return ClassDepsParser.computeDotedDependencies(
+                buffer,
+                apiOnly,
+                classNameFilter,
+                depClassNameList);
+    }
+}
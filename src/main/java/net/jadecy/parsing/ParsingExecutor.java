@@ -0,0 +1,181 @@
+/*
+ * Copyright 2026 Jeff Hain
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.jadecy.parsing;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pool of parsing threads, and optionally of reader threads, to which tasks
+ * are first given for their content to be read ahead, each read handing its
+ * task over to parsing threads, which allows for reads latency (such as with
+ * network file systems) to be overlapped without using more parsing threads
+ * than CPUs.
+ * 
+ * Threads are daemon threads, not to prevent JVM exit if some parsing
+ * gets stuck.
+ */
+class ParsingExecutor {
+    
+    //--------------------------------------------------------------------------
+    // PACKAGE-PRIVATE CLASSES
+    //--------------------------------------------------------------------------
+    
+    /**
+     * Task which content can be read ahead, before its call.
+     */
+    interface InterfaceReadAheadTask<V> extends Callable<V> {
+        /**
+         * Called by a reader thread before call(), if reading ahead.
+         * Must not throw, but keep eventual exception for call() to throw it.
+         */
+        public void readAhead();
+    }
+    
+    //--------------------------------------------------------------------------
+    // PRIVATE CLASSES
+    //--------------------------------------------------------------------------
+    
+    private static class MyThreadFactory implements ThreadFactory {
+        final String threadName;
+        MyThreadFactory(String threadName) {
+            this.threadName = threadName;
+        }
+        @Override
+        public Thread newThread(Runnable runnable) {
+            final Thread thread = new Thread(runnable, this.threadName);
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+    
+    //--------------------------------------------------------------------------
+    // MEMBERS
+    //--------------------------------------------------------------------------
+    
+    private final ExecutorService executor;
+    
+    /**
+     * Null if not reading ahead.
+     */
+    private final ExecutorService readerExecutor;
+    
+    //--------------------------------------------------------------------------
+    // PUBLIC METHODS
+    //--------------------------------------------------------------------------
+    
+    /**
+     * @param parallelism Number of parsing threads. Must be >= 1.
+     * @param ioParallelism Number of reader threads, or 0 if not reading
+     *        ahead.
+     * @param threadName Name for created threads.
+     */
+    public ParsingExecutor(
+            int parallelism,
+            int ioParallelism,
+            String threadName) {
+        this.executor = Executors.newFixedThreadPool(
+                parallelism,
+                new MyThreadFactory(threadName));
+        this.readerExecutor = ((ioParallelism != 0) ? Executors.newFixedThreadPool(
+                ioParallelism,
+                new MyThreadFactory(threadName)) : null);
+    }
+    
+    /**
+     * @return Future of the specified task.
+     */
+    public <V> Future<V> submit(final InterfaceReadAheadTask<V> task) {
+        if (this.readerExecutor == null) {
+            return this.executor.submit(task);
+        }
+        final FutureTask<V> future = new FutureTask<V>(task);
+        final ExecutorService executor = this.executor;
+        this.readerExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                if (future.isCancelled()) {
+                    return;
+                }
+                task.readAhead();
+                executor.execute(future);
+            }
+        });
+        return future;
+    }
+    
+    /**
+     * Interrupts running tasks, and waits for threads termination.
+     */
+    public void shutdown() {
+        if (this.readerExecutor != null) {
+            // Shut down first, for readers not to hand over
+            // tasks to a terminated executor.
+            this.readerExecutor.shutdownNow();
+            awaitTerminationUninterruptibly(this.readerExecutor);
+        }
+        this.executor.shutdownNow();
+        awaitTerminationUninterruptibly(this.executor);
+    }
+    
+    /**
+     * Rethrows exceptions thrown by the task as if they were thrown
+     * in the calling thread.
+     */
+    public static <T> T getResult(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            } else {
+                throw new RuntimeException(cause);
+            }
+        }
+    }
+    
+    //--------------------------------------------------------------------------
+    // PRIVATE METHODS
+    //--------------------------------------------------------------------------
+    
+    private static void awaitTerminationUninterruptibly(ExecutorService executor) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                if (executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS)) {
+                    break;
+                }
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            // Restoring interrupt status.
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -233,7 +233,41 @@ public final class ParsingFilters {
     public InterfaceNameFilter getClassNameFilter() {
         return this.classNameFilter;
     }
-    
+
+    /*
+     *
+     */
+
+    @Override
+    public int hashCode() {
+        int h = this.dirFilenameFilter.hashCode();
+        h = 31 * h + this.jarFilenameFilter.hashCode();
+        h = 31 * h + this.jarEntryFilenameFilter.hashCode();
+        h = 31 * h + this.classFilenameFilter.hashCode();
+        h = 31 * h + this.classNameFilter.hashCode();
+        return h;
+    }
+
+    /**
+     * @return True if the specified object is a ParsingFilters with equal
+     *         filters, false otherwise.
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        if (!(obj instanceof ParsingFilters)) {
+            return false;
+        }
+        final ParsingFilters other = (ParsingFilters) obj;
+        return this.dirFilenameFilter.equals(other.dirFilenameFilter)
+                && this.jarFilenameFilter.equals(other.jarFilenameFilter)
+                && this.jarEntryFilenameFilter.equals(other.jarEntryFilenameFilter)
+                && this.classFilenameFilter.equals(other.classFilenameFilter)
+                && this.classNameFilter.equals(other.classNameFilter);
+    }
+
     //--------------------------------------------------------------------------
     // PRIVATE METHODS
     //--------------------------------------------------------------------------
@@ -0,0 +1,251 @@
+/*
+ * Copyright 2026 Jeff Hain
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.jadecy.parsing;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Reading of class files and jar entries contents, for parsing.
+ * 
+ * IOExceptions are wrapped into RuntimeException, but for files not found,
+ * which are wrapped into IllegalArgumentException.
+ */
+class ParsingIoUtilz {
+    
+    //--------------------------------------------------------------------------
+    // CONFIGURATION
+    //--------------------------------------------------------------------------
+    
+    /**
+     * Class files at least this large are memory-mapped, smaller ones are
+     * read into a heap buffer.
+     * Mapping has a higher fixed cost than a read, and mapped buffers are
+     * only unmapped on GC (which on some systems prevents the deletion
+     * of the file meanwhile), so it's only worth it for large files.
+     */
+    private static final long MAPPING_THRESHOLD = 64 * 1024L;
+    
+    //--------------------------------------------------------------------------
+    // PUBLIC METHODS
+    //--------------------------------------------------------------------------
+    
+    /**
+     * @return Content of the specified class file, in a heap buffer,
+     *         or null if it is empty.
+     * @throws IllegalArgumentException wrapping a FileNotFoundException if the
+     *         specified file is not found.
+     */
+    public static ByteBuffer readClassFileContent(File file) {
+        final FileInputStream fis = openFileInputStream(file);
+        try {
+            final FileChannel channel = fis.getChannel();
+            final long inputByteSize = size(channel);
+            if (inputByteSize <= 0) {
+                return null;
+            }
+            return readClassFile(channel, inputByteSize, false);
+        } finally {
+            closeInputStream(fis);
+        }
+    }
+    
+    /**
+     * @return Content of the specified jar entry, in a heap buffer,
+     *         or null if its size is unknown or 0.
+     */
+    public static ByteBuffer readJarEntryContent(
+            ZipFile zipFile,
+            ZipEntry entry) {
+        final long inputByteSize = entry.getSize();
+        if (inputByteSize <= 0) {
+            return null;
+        }
+        final InputStream is = getInputStream(zipFile, entry);
+        try {
+            return ByteBuffer.wrap(readFully(is, inputByteSize));
+        } finally {
+            closeInputStream(is);
+        }
+    }
+    
+    /**
+     * @param inputByteSize Must be > 0.
+     * @param mappingAllowed Whether large files can be memory-mapped.
+     * @return A mapped buffer if the file is large and mapping is allowed,
+     *         else a heap buffer.
+     */
+    public static ByteBuffer readClassFile(
+            FileChannel channel,
+            long inputByteSize,
+            boolean mappingAllowed) {
+        checkClassFileSize(inputByteSize);
+        try {
+            if (mappingAllowed
+                    && (inputByteSize >= MAPPING_THRESHOLD)) {
+                return channel.map(FileChannel.MapMode.READ_ONLY, 0L, inputByteSize);
+            } else {
+                final ByteBuffer buffer = ByteBuffer.allocate((int) inputByteSize);
+                while (buffer.hasRemaining()) {
+                    if (channel.read(buffer) < 0) {
+                        // File shrunk: parsing what we got.
+                        break;
+                    }
+                }
+                buffer.flip();
+                return buffer;
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+    
+    /**
+     * @param inputByteSize Must be > 0.
+     * @return An array containing the specified number of bytes read from
+     *         the specified stream.
+     * @throws RuntimeException wrapping an EOFException if the stream
+     *         ends before.
+     */
+    public static byte[] readFully(
+            InputStream inputStream,
+            long inputByteSize) {
+        checkClassFileSize(inputByteSize);
+        final byte[] bytes = new byte[(int) inputByteSize];
+        int offset = 0;
+        try {
+            while (offset < bytes.length) {
+                final int n = inputStream.read(bytes, offset, bytes.length - offset);
+                if (n < 0) {
+                    throw new EOFException();
+                }
+                offset += n;
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return bytes;
+    }
+    
+    /**
+     * @return Content of the current entry of the specified stream,
+     *         which size might be unknown.
+     */
+    public static byte[] readEntry(
+            ZipInputStream zis,
+            ZipEntry entry) {
+        final long size = entry.getSize();
+        if (size >= 0) {
+            if (size == 0) {
+                return new byte[0];
+            }
+            return readFully(zis, size);
+        }
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[8 * 1024];
+        try {
+            int n;
+            while ((n = zis.read(buffer)) >= 0) {
+                baos.write(buffer, 0, n);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        checkClassFileSize(baos.size());
+        return baos.toByteArray();
+    }
+    
+    /**
+     * @throws IllegalArgumentException wrapping a FileNotFoundException if the
+     *         specified file is not found.
+     */
+    public static FileInputStream openFileInputStream(File file) {
+        try {
+            return new FileInputStream(file);
+        } catch (FileNotFoundException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+    
+    public static long size(FileChannel channel) {
+        try {
+            return channel.size();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+    
+    /**
+     * @throws IllegalArgumentException wrapping a FileNotFoundException if the
+     *         specified file is not found.
+     */
+    public static ZipFile openZipFile(File jar) {
+        try {
+            return new ZipFile(jar);
+        } catch (IOException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+    
+    public static void closeZipFile(ZipFile zipFile) {
+        try {
+            zipFile.close();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+    
+    public static InputStream getInputStream(
+            ZipFile zipFile,
+            ZipEntry entry) {
+        try {
+            return zipFile.getInputStream(entry);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+    
+    public static void closeInputStream(InputStream inputStream) {
+        try {
+            inputStream.close();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+    
+    //--------------------------------------------------------------------------
+    // PRIVATE METHODS
+    //--------------------------------------------------------------------------
+    
+    private ParsingIoUtilz() {
+    }
+    
+    private static void checkClassFileSize(long inputByteSize) {
+        if (inputByteSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("too large for a class file: " + inputByteSize + " bytes");
+        }
+    }
+}
@@ -0,0 +1,435 @@
+/*
+ * Copyright 2026 Jeff Hain
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.jadecy.parsing;
+
+import java.io.File;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Parsing listener that counts what FsDepsParser parses, skips or reuses,
+ * and records parsing times per root and per jar or image file, as well as
+ * the slowest class files to parse, for a summary to be printed.
+ * 
+ * Only uses counters, and a bounded heap for slowest class files, to keep
+ * overhead low.
+ * 
+ * Not thread-safe (but only used in the thread calling the parser).
+ */
+public class ParsingStats implements InterfaceParsingListener {
+    
+    //--------------------------------------------------------------------------
+    // CONFIGURATION
+    //--------------------------------------------------------------------------
+    
+    private static final int DEFAULT_MAX_SLOWEST_COUNT = 10;
+    
+    //--------------------------------------------------------------------------
+    // PRIVATE CLASSES
+    //--------------------------------------------------------------------------
+    
+    private static class MyRootStats {
+        final File root;
+        long durationNs;
+        long classFileCount;
+        long byteCount;
+        long parseNsSum;
+        MyRootStats(File root) {
+            this.root = root;
+        }
+    }
+    
+    private static class MyContainerStats {
+        final File container;
+        long classFileCount;
+        long byteCount;
+        long parseNsSum;
+        MyContainerStats(File container) {
+            this.container = container;
+        }
+    }
+    
+    private static class MyClassFileStats {
+        final File container;
+        final String className;
+        final long byteSize;
+        final long parseNs;
+        MyClassFileStats(
+                File container,
+                String className,
+                long byteSize,
+                long parseNs) {
+            this.container = container;
+            this.className = className;
+            this.byteSize = byteSize;
+            this.parseNs = parseNs;
+        }
+    }
+    
+    /**
+     * Increasing parse time, for the heap to have the fastest at its head.
+     */
+    private static final Comparator<MyClassFileStats> CLASS_FILE_COMPARATOR =
+            new Comparator<MyClassFileStats>() {
+        @Override
+        public int compare(MyClassFileStats a, MyClassFileStats b) {
+            return (a.parseNs < b.parseNs) ? -1 : ((a.parseNs > b.parseNs) ? 1 : 0);
+        }
+    };
+    
+    /**
+     * Decreasing parse time sum.
+     */
+    private static final Comparator<MyContainerStats> CONTAINER_COMPARATOR =
+            new Comparator<MyContainerStats>() {
+        @Override
+        public int compare(MyContainerStats a, MyContainerStats b) {
+            return (a.parseNsSum > b.parseNsSum) ? -1 : ((a.parseNsSum < b.parseNsSum) ? 1 : 0);
+        }
+    };
+    
+    //--------------------------------------------------------------------------
+    // MEMBERS
+    //--------------------------------------------------------------------------
+    
+    private final int maxSlowestCount;
+    
+    private long fileNotAcceptedCount;
+    
+    private long classFileCount;
+    
+    private long parsedCount;
+    
+    private long reusedCount;
+    
+    private long classNotAcceptedCount;
+    
+    private long duplicateCount;
+    
+    private long byteCount;
+    
+    private long parseNsSum;
+    
+    private final List<MyRootStats> rootStatsList = new ArrayList<MyRootStats>();
+    
+    /**
+     * Stats of the root being parsed, null if none.
+     */
+    private MyRootStats currentRootStats;
+    
+    private final Map<File,MyContainerStats> containerStatsByContainer =
+            new LinkedHashMap<File,MyContainerStats>();
+    
+    private final PriorityQueue<MyClassFileStats> slowestHeap =
+            new PriorityQueue<MyClassFileStats>(11, CLASS_FILE_COMPARATOR);
+    
+    //--------------------------------------------------------------------------
+    // PUBLIC METHODS
+    //--------------------------------------------------------------------------
+    
+    /**
+     * Creates stats recording the 10 slowest class files
+     * and jar or image files.
+     */
+    public ParsingStats() {
+        this(DEFAULT_MAX_SLOWEST_COUNT);
+    }
+    
+    /**
+     * @param maxSlowestCount Max number of slowest class files,
+     *        and of slowest jar or image files, to record.
+     * @throws IllegalArgumentException if maxSlowestCount < 0.
+     */
+    public ParsingStats(int maxSlowestCount) {
+        if (maxSlowestCount < 0) {
+            throw new IllegalArgumentException("maxSlowestCount [" + maxSlowestCount + "] must be >= 0");
+        }
+        this.maxSlowestCount = maxSlowestCount;
+    }
+    
+    /**
+     * Resets all stats.
+     */
+    public void clear() {
+        this.fileNotAcceptedCount = 0;
+        this.classFileCount = 0;
+        this.parsedCount = 0;
+        this.reusedCount = 0;
+        this.classNotAcceptedCount = 0;
+        this.duplicateCount = 0;
+        this.byteCount = 0;
+        this.parseNsSum = 0;
+        this.rootStatsList.clear();
+        this.currentRootStats = null;
+        this.containerStatsByContainer.clear();
+        this.slowestHeap.clear();
+    }
+    
+    /*
+     * InterfaceParsingListener
+     */
+    
+    @Override
+    public void onRootBegin(File root) {
+        final MyRootStats rootStats = new MyRootStats(root);
+        // Using these as snapshots until root end.
+        rootStats.classFileCount = this.classFileCount;
+        rootStats.byteCount = this.byteCount;
+        rootStats.parseNsSum = this.parseNsSum;
+        this.currentRootStats = rootStats;
+    }
+    
+    @Override
+    public void onRootEnd(
+            File root,
+            long durationNs) {
+        final MyRootStats rootStats = this.currentRootStats;
+        if (rootStats == null) {
+            // Begin not notified, or cleared in between.
+            return;
+        }
+        rootStats.durationNs = durationNs;
+        rootStats.classFileCount = this.classFileCount - rootStats.classFileCount;
+        rootStats.byteCount = this.byteCount - rootStats.byteCount;
+        rootStats.parseNsSum = this.parseNsSum - rootStats.parseNsSum;
+        this.rootStatsList.add(rootStats);
+        this.currentRootStats = null;
+    }
+    
+    @Override
+    public void onFileNotAccepted(File file) {
+        this.fileNotAcceptedCount++;
+    }
+    
+    @Override
+    public void onClassFile(
+            File container,
+            String className,
+            long byteSize,
+            long parseNs,
+            boolean duplicate) {
+        this.classFileCount++;
+        this.byteCount += byteSize;
+        if (parseNs < 0) {
+            this.reusedCount++;
+        } else {
+            this.parsedCount++;
+            this.parseNsSum += parseNs;
+        }
+        if (className == null) {
+            this.classNotAcceptedCount++;
+        } else if (duplicate) {
+            this.duplicateCount++;
+        }
+        
+        if (container != null) {
+            MyContainerStats containerStats = this.containerStatsByContainer.get(container);
+            if (containerStats == null) {
+                containerStats = new MyContainerStats(container);
+                this.containerStatsByContainer.put(container, containerStats);
+            }
+            containerStats.classFileCount++;
+            containerStats.byteCount += byteSize;
+            if (parseNs >= 0) {
+                containerStats.parseNsSum += parseNs;
+            }
+        }
+        
+        if ((className != null)
+                && (parseNs >= 0)
+                && (this.maxSlowestCount > 0)) {
+            if (this.slowestHeap.size() < this.maxSlowestCount) {
+                this.slowestHeap.add(new MyClassFileStats(container, className, byteSize, parseNs));
+            } else if (parseNs > this.slowestHeap.peek().parseNs) {
+                this.slowestHeap.poll();
+                this.slowestHeap.add(new MyClassFileStats(container, className, byteSize, parseNs));
+            }
+        }
+    }
+    
+    /*
+     * Getters.
+     */
+    
+    /**
+     * @return Number of roots which parsing completed.
+     */
+    public int getRootCount() {
+        return this.rootStatsList.size();
+    }
+    
+    /**
+     * @return Number of files and jar entries accepted by no filename filter.
+     */
+    public long getFileNotAcceptedCount() {
+        return this.fileNotAcceptedCount;
+    }
+    
+    /**
+     * @return Number of class files (including jar entries and image files)
+     *         accepted by filename filters, parsed or reused.
+     */
+    public long getClassFileCount() {
+        return this.classFileCount;
+    }
+    
+    /**
+     * @return Number of class files actually parsed.
+     */
+    public long getParsedCount() {
+        return this.parsedCount;
+    }
+    
+    /**
+     * @return Number of class files which parsing results were reused,
+     *         from cache or from a jar entry with same content.
+     */
+    public long getReusedCount() {
+        return this.reusedCount;
+    }
+    
+    /**
+     * @return Number of class files that were empty or not class files,
+     *         or which class name was not accepted by class name filter.
+     */
+    public long getClassNotAcceptedCount() {
+        return this.classNotAcceptedCount;
+    }
+    
+    /**
+     * @return Number of class files ignored because a class with the same
+     *         name had already been accumulated.
+     */
+    public long getDuplicateCount() {
+        return this.duplicateCount;
+    }
+    
+    /**
+     * @return Sum of byte sizes of class files.
+     */
+    public long getByteCount() {
+        return this.byteCount;
+    }
+    
+    /**
+     * @return Sum of time spent reading and parsing class files,
+     *         in nanoseconds, over all threads.
+     */
+    public long getParseNsSum() {
+        return this.parseNsSum;
+    }
+    
+    /**
+     * @return Names of the slowest class files to parse, slowest first.
+     */
+    public List<String> getSlowestClassNames() {
+        final List<MyClassFileStats> list = this.getSlowestClassFiles();
+        final List<String> result = new ArrayList<String>(list.size());
+        for (MyClassFileStats stats : list) {
+            result.add(stats.className);
+        }
+        return result;
+    }
+    
+    /**
+     * Prints a summary of these stats, with times in milliseconds.
+     * 
+     * @param stream Stream where to print the summary.
+     */
+    public void printSummary(PrintStream stream) {
+        long rootsDurationNs = 0;
+        for (MyRootStats rootStats : this.rootStatsList) {
+            rootsDurationNs += rootStats.durationNs;
+        }
+        stream.println("parsing stats:");
+        stream.println("roots: " + this.rootStatsList.size() + " (" + toMsString(rootsDurationNs) + " ms)");
+        for (MyRootStats rootStats : this.rootStatsList) {
+            stream.println(
+                    "  " + rootStats.root.getPath()
+                    + ": " + toMsString(rootStats.durationNs) + " ms"
+                    + ", " + rootStats.classFileCount + " class files"
+                    + ", " + rootStats.byteCount + " bytes"
+                    + ", parse time " + toMsString(rootStats.parseNsSum) + " ms");
+        }
+        stream.println("files not accepted: " + this.fileNotAcceptedCount);
+        stream.println(
+                "class files: " + this.classFileCount
+                + " (parsed: " + this.parsedCount
+                + ", reused: " + this.reusedCount
+                + ", not accepted: " + this.classNotAcceptedCount
+                + ", duplicates: " + this.duplicateCount + ")");
+        stream.println("bytes read: " + this.byteCount);
+        stream.println("parse time (all threads): " + toMsString(this.parseNsSum) + " ms");
+        
+        if (this.containerStatsByContainer.size() != 0) {
+            final List<MyContainerStats> containerStatsList =
+                    new ArrayList<MyContainerStats>(this.containerStatsByContainer.values());
+            Collections.sort(containerStatsList, CONTAINER_COMPARATOR);
+            stream.println("slowest jar or image files:");
+            final int n = Math.min(this.maxSlowestCount, containerStatsList.size());
+            for (int i = 0; i < n; i++) {
+                final MyContainerStats containerStats = containerStatsList.get(i);
+                stream.println(
+                        "  " + containerStats.container.getPath()
+                        + ": " + toMsString(containerStats.parseNsSum) + " ms"
+                        + ", " + containerStats.classFileCount + " class files"
+                        + ", " + containerStats.byteCount + " bytes");
+            }
+        }
+        
+        final List<MyClassFileStats> slowestList = this.getSlowestClassFiles();
+        if (slowestList.size() != 0) {
+            stream.println("slowest class files:");
+            for (MyClassFileStats stats : slowestList) {
+                stream.println(
+                        "  " + stats.className
+                        + ((stats.container != null) ? " (in " + stats.container.getPath() + ")" : "")
+                        + ": " + toMsString(stats.parseNs) + " ms"
+                        + ", " + stats.byteSize + " bytes");
+            }
+        }
+    }
+    
+    //--------------------------------------------------------------------------
+    // PRIVATE METHODS
+    //--------------------------------------------------------------------------
+    
+    /**
+     * @return Slowest class files, slowest first.
+     */
+    private List<MyClassFileStats> getSlowestClassFiles() {
+        final List<MyClassFileStats> list = new ArrayList<MyClassFileStats>(this.slowestHeap);
+        Collections.sort(list, Collections.reverseOrder(CLASS_FILE_COMPARATOR));
+        return list;
+    }
+    
+    /**
+     * Not using String.format(...), for output not to depend on locale.
+     * 
+     * @return The specified duration in milliseconds, with 3 decimals.
+     */
+    private static String toMsString(long ns) {
+        final long us = ns / 1000L;
+        final long frac = us % 1000L;
+        return (us / 1000L) + "." + ((frac < 100) ? ((frac < 10) ? "00" : "0") : "") + frac;
+    }
+}
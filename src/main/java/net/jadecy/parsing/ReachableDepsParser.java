@@ -0,0 +1,402 @@
+/*
+ * Copyright 2026 Jeff Hain
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.jadecy.parsing;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import net.jadecy.code.PackageData;
+import net.jadecy.names.InterfaceNameFilter;
+import net.jadecy.names.NameUtils;
+
+/**
+ * Lazy parsing: indexes class files by class name, as computed from their
+ * path, and then only parses classes reachable from a begin set, as they
+ * are reached.
+ * 
+ * Class files are indexed in the order in which they are given, and when
+ * a class is found multiple times, only the first one is parsed.
+ * Entries of nested jar files are not indexed.
+ * Zip files and images are kept open, until closed by close().
+ */
+class ReachableDepsParser {
+    
+    //--------------------------------------------------------------------------
+    // CONFIGURATION
+    //--------------------------------------------------------------------------
+    
+    private static final String CLASS_FILE_EXT = ".class";
+    
+    //--------------------------------------------------------------------------
+    // PRIVATE CLASSES
+    //--------------------------------------------------------------------------
+    
+    /**
+     * Location of an indexed class file.
+     */
+    private static class MyClassLocation {
+        /**
+         * Class file, jar file or image file.
+         */
+        final File file;
+        /**
+         * Zip file of the jar file, or null if not a jar entry.
+         */
+        final ZipFile zipFile;
+        /**
+         * Image, or null if not an image class file.
+         */
+        final JrtImage jrtImage;
+        /**
+         * Jar entry name or image path, or null if class file.
+         */
+        final String path;
+        MyClassLocation(
+                File file,
+                ZipFile zipFile,
+                JrtImage jrtImage,
+                String path) {
+            this.file = file;
+            this.zipFile = zipFile;
+            this.jrtImage = jrtImage;
+            this.path = path;
+        }
+        /**
+         * @return Jar file or image file the class file is in,
+         *         or null if it is a class file.
+         */
+        File getContainer() {
+            return (this.path != null) ? this.file : null;
+        }
+    }
+    
+    //--------------------------------------------------------------------------
+    // MEMBERS
+    //--------------------------------------------------------------------------
+    
+    private final ParsingFilters filters;
+    
+    private final boolean mustMergeNestedClasses;
+    
+    private final boolean apiOnly;
+    
+    private final boolean withApiDeps;
+    
+    /**
+     * Location of first class file found for each class name.
+     */
+    private final Map<String,MyClassLocation> locationByClassName = new HashMap<String,MyClassLocation>();
+    
+    /**
+     * Names of indexed classes, in indexing order.
+     */
+    private final List<String> classNameList = new ArrayList<String>();
+    
+    private final Map<File,ZipFile> zipFileByJar = new HashMap<File,ZipFile>();
+    
+    private final Map<File,JrtImage> imageByFile = new HashMap<File,JrtImage>();
+    
+    //--------------------------------------------------------------------------
+    // PUBLIC METHODS
+    //--------------------------------------------------------------------------
+    
+    /**
+     * @param filters Filters for indexing, and for parsing.
+     * @param withApiDeps True if API dependencies must be computed along with
+     *        dependencies.
+     */
+    public ReachableDepsParser(
+            ParsingFilters filters,
+            boolean mustMergeNestedClasses,
+            boolean apiOnly,
+            boolean withApiDeps) {
+        this.filters = filters;
+        this.mustMergeNestedClasses = mustMergeNestedClasses;
+        this.apiOnly = apiOnly;
+        this.withApiDeps = withApiDeps;
+    }
+    
+    /**
+     * @param root File specified for parsing, which is either the specified
+     *        class file, or the directory the specified class file has been
+     *        found in, and from which its class name is computed.
+     * @throws IllegalArgumentException wrapping a FileNotFoundException if the
+     *         specified file is not found.
+     */
+    public void indexClassFile(File root, File file) {
+        final String className;
+        if ((file == root)
+                || (!file.getName().endsWith(CLASS_FILE_EXT))) {
+            // No root or extension to compute name from: reading it.
+            className = ParsedClassDeps.readClassName(file, this.apiOnly);
+            if (className == null) {
+                return;
+            }
+        } else {
+            final String rootPath = root.getAbsolutePath();
+            final String filePath = file.getAbsolutePath();
+            String relPath = filePath.substring(rootPath.length() + 1);
+            relPath = relPath.substring(0, relPath.length() - CLASS_FILE_EXT.length());
+            className = relPath.replace(File.separatorChar, '.').replace('/', '.');
+        }
+        this.addLocation(className, new MyClassLocation(file, null, null, null));
+    }
+    
+    /**
+     * Does nothing if the specified jar file has already been indexed.
+     * 
+     * @throws IllegalArgumentException wrapping a FileNotFoundException if the
+     *         specified file is not found.
+     */
+    public void indexJarFile(File jar) {
+        if (this.zipFileByJar.containsKey(jar)) {
+            return;
+        }
+        final ZipFile zipFile = ParsingIoUtilz.openZipFile(jar);
+        this.zipFileByJar.put(jar, zipFile);
+        final Enumeration<? extends ZipEntry> entries = zipFile.entries();
+        while (entries.hasMoreElements()) {
+            final ZipEntry entry = entries.nextElement();
+            final String entryName = entry.getName();
+            if (entryName.endsWith(CLASS_FILE_EXT)
+                    && (JarEntryWalker.computeEntryStatus(jar, entryName, this.filters) == JarDepsCache.ENTRY_PARSED)) {
+                final String className = entryName.substring(
+                        0,
+                        entryName.length() - CLASS_FILE_EXT.length()).replace('/', '.');
+                this.addLocation(className, new MyClassLocation(jar, zipFile, null, entryName));
+            }
+        }
+    }
+    
+    /**
+     * Does nothing if the specified image has already been indexed.
+     * 
+     * @throws IllegalArgumentException if the image could not be opened.
+     */
+    public void indexImageFile(File image) {
+        if (this.imageByFile.containsKey(image)) {
+            return;
+        }
+        final JrtImage jrtImage = JrtImage.open(image);
+        this.imageByFile.put(image, jrtImage);
+        final List<String> pathList = jrtImage.listClassFiles(
+                this.filters.getDirFilenameFilter(),
+                this.filters.getClassFilenameFilter());
+        for (String path : pathList) {
+            this.addLocation(
+                    JrtImage.computeClassName(path),
+                    new MyClassLocation(image, null, jrtImage, path));
+        }
+    }
+    
+    /**
+     * Parses and accumulates, in the calling thread, dependencies of indexed
+     * classes reachable from the specified begin set.
+     * 
+     * Whenever a class is reached, if merging nested classes, all classes
+     * of its top level class are parsed, and if forPackages is true, all
+     * classes of its package are parsed, for dependencies of reached
+     * elements to be complete.
+     * 
+     * @param beginNameFilter Filter for names of classes (or of top level
+     *        classes if merging nested classes), or of packages if
+     *        forPackages is true, which dependencies must be parsed.
+     * @param forPackages True if begin name filter is for packages, and all
+     *        classes of reached packages must be parsed, false otherwise.
+     * @param apiDefaultPackageData Where to accumulate API dependencies,
+     *        or null if not computing them.
+     * @param parsingListener Can be null.
+     * @return True if did modify, false otherwise.
+     */
+    public boolean accumulateReachableDependencies(
+            InterfaceNameFilter beginNameFilter,
+            boolean forPackages,
+            PackageData defaultPackageData,
+            PackageData apiDefaultPackageData,
+            InterfaceParsingListener parsingListener) {
+        
+        final boolean mustMergeNestedClasses = this.mustMergeNestedClasses;
+        final InterfaceNameFilter classNameFilter = this.filters.getClassNameFilter();
+        
+        /*
+         * Grouping classes by unit, i.e. by what must be parsed
+         * together when one of them is reached.
+         */
+        
+        final Map<String,List<String>> classNameListByUnitName = new HashMap<String,List<String>>();
+        final List<String> unitNameList = new ArrayList<String>();
+        for (String className : this.classNameList) {
+            final String unitName = computeUnitName(
+                    className,
+                    mustMergeNestedClasses,
+                    forPackages);
+            List<String> classNameList = classNameListByUnitName.get(unitName);
+            if (classNameList == null) {
+                classNameList = new ArrayList<String>(1);
+                classNameListByUnitName.put(unitName, classNameList);
+                unitNameList.add(unitName);
+            }
+            classNameList.add(className);
+        }
+        
+        /*
+         * Parsing reached units, breadth-first.
+         */
+        
+        final Set<String> reachedUnitNameSet = new HashSet<String>();
+        final LinkedList<String> unitNameQueue = new LinkedList<String>();
+        for (String unitName : unitNameList) {
+            if (beginNameFilter.accept(unitName)) {
+                reachedUnitNameSet.add(unitName);
+                unitNameQueue.add(unitName);
+            }
+        }
+        
+        final boolean[] duplicateRef = new boolean[1];
+        
+        boolean modified = false;
+        while (unitNameQueue.size() != 0) {
+            final String unitName = unitNameQueue.removeFirst();
+            for (String className : classNameListByUnitName.get(unitName)) {
+                if (!classNameFilter.accept(className)) {
+                    continue;
+                }
+                final MyClassLocation location = this.locationByClassName.get(className);
+                final ParsedClassDeps classDeps = this.computeClassDeps(
+                        location,
+                        classNameFilter);
+                modified |= ParsedClassDeps.accumulateClassDeps(
+                        classDeps,
+                        null, // Already applied.
+                        mustMergeNestedClasses,
+                        defaultPackageData,
+                        null, // parsedClassNameList
+                        duplicateRef);
+                if (apiDefaultPackageData != null) {
+                    modified |= ParsedClassDeps.accumulateClassDeps(
+                            classDeps.toApiClassDeps(),
+                            null, // Already applied.
+                            mustMergeNestedClasses,
+                            apiDefaultPackageData,
+                            null, // parsedClassNameList
+                            null); // duplicateRef
+                }
+                if (parsingListener != null) {
+                    parsingListener.onClassFile(
+                            location.getContainer(),
+                            classDeps.classNameParsed,
+                            classDeps.inputByteSize,
+                            classDeps.parseNs,
+                            duplicateRef[0]);
+                }
+                if (classDeps.classNameParsed == null) {
+                    continue;
+                }
+                for (String depClassName : classDeps.depClassNameList) {
+                    final String depUnitName = computeUnitName(
+                            depClassName,
+                            mustMergeNestedClasses,
+                            forPackages);
+                    if (classNameListByUnitName.containsKey(depUnitName)
+                            && reachedUnitNameSet.add(depUnitName)) {
+                        unitNameQueue.add(depUnitName);
+                    }
+                }
+            }
+        }
+        return modified;
+    }
+    
+    /**
+     * Closes zip files and images of indexed jar files and image files.
+     */
+    public void close() {
+        for (ZipFile zipFile : this.zipFileByJar.values()) {
+            ParsingIoUtilz.closeZipFile(zipFile);
+        }
+        for (JrtImage jrtImage : this.imageByFile.values()) {
+            jrtImage.close();
+        }
+    }
+    
+    //--------------------------------------------------------------------------
+    // PRIVATE METHODS
+    //--------------------------------------------------------------------------
+    
+    /**
+     * @return Name of the unit the specified class belongs to.
+     */
+    private static String computeUnitName(
+            String className,
+            boolean mustMergeNestedClasses,
+            boolean forPackages) {
+        if (forPackages) {
+            return NameUtils.getPackageName(className);
+        } else if (mustMergeNestedClasses) {
+            return NameUtils.getTopLevelClassName(className);
+        } else {
+            return className;
+        }
+    }
+    
+    /**
+     * @return Dependencies of the class at the specified location.
+     */
+    private ParsedClassDeps computeClassDeps(
+            MyClassLocation location,
+            InterfaceNameFilter classNameFilter) {
+        if (location.zipFile != null) {
+            return ParsedClassDeps.computeJarEntryDeps(
+                    location.zipFile,
+                    location.zipFile.getEntry(location.path),
+                    null, // bytes
+                    classNameFilter,
+                    this.apiOnly,
+                    this.withApiDeps);
+        } else if (location.jrtImage != null) {
+            return ParsedClassDeps.computeImageClassFileDeps(
+                    location.jrtImage,
+                    location.path,
+                    classNameFilter,
+                    this.apiOnly,
+                    this.withApiDeps);
+        } else {
+            return ParsedClassDeps.computeClassFileDeps(
+                    location.file,
+                    classNameFilter,
+                    this.apiOnly,
+                    this.withApiDeps);
+        }
+    }
+    
+    private void addLocation(String className, MyClassLocation location) {
+        // If found multiple times, using first one,
+        // which is the one that would be accumulated.
+        if (!this.locationByClassName.containsKey(className)) {
+            this.locationByClassName.put(className, location);
+            this.classNameList.add(className);
+        }
+    }
+}
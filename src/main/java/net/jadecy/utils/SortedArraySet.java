@@ -0,0 +1,324 @@
+/*
+ * Copyright 2026 Jeff Hain
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.jadecy.utils;
+
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.SortedSet;
+
+/**
+ * A sorted set backed by an array, using the natural ordering of its elements,
+ * which takes much less memory than a TreeSet (no node per element),
+ * at the cost of linear-time insertions and removals.
+ * 
+ * Elements are kept sorted on modification, not on read, so that concurrent
+ * reads are safe as long as there is no concurrent modification.
+ * 
+ * Unlike with TreeSet, headSet(...), tailSet(...) and subSet(...) return
+ * new sets, not views.
+ * 
+ * Does not allow null elements.
+ * 
+ * Not thread-safe.
+ * 
+ * Note: if comparable type has a natural ordering that is inconsistent
+ * with equals, this class also does.
+ */
+public class SortedArraySet<E extends Comparable<? super E>> extends AbstractSet<E> implements SortedSet<E> {
+    
+    //--------------------------------------------------------------------------
+    // CONFIGURATION
+    //--------------------------------------------------------------------------
+    
+    /**
+     * Small, since these sets are meant to be numerous and most of them small.
+     */
+    private static final int INITIAL_CAPACITY = 2;
+    
+    //--------------------------------------------------------------------------
+    // PRIVATE CLASSES
+    //--------------------------------------------------------------------------
+    
+    private class MyIterator implements Iterator<E> {
+        private int expectedModCount = modCount;
+        private int nextIndex = 0;
+        private int lastIndex = -1;
+        @Override
+        public boolean hasNext() {
+            return this.nextIndex < size;
+        }
+        @Override
+        @SuppressWarnings("unchecked")
+        public E next() {
+            this.checkModCount();
+            if (this.nextIndex >= size) {
+                throw new NoSuchElementException();
+            }
+            this.lastIndex = this.nextIndex++;
+            return (E) elements[this.lastIndex];
+        }
+        @Override
+        public void remove() {
+            if (this.lastIndex < 0) {
+                throw new IllegalStateException();
+            }
+            this.checkModCount();
+            removeAt(this.lastIndex);
+            this.nextIndex = this.lastIndex;
+            this.lastIndex = -1;
+            this.expectedModCount = modCount;
+        }
+        private void checkModCount() {
+            if (modCount != this.expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+    }
+    
+    //--------------------------------------------------------------------------
+    // MEMBERS
+    //--------------------------------------------------------------------------
+    
+    private static final Object[] EMPTY_ARR = new Object[0];
+    
+    /**
+     * Sorted in [0,size[, nulls after.
+     */
+    private Object[] elements = EMPTY_ARR;
+    
+    private int size = 0;
+    
+    private int modCount = 0;
+    
+    //--------------------------------------------------------------------------
+    // PUBLIC METHODS
+    //--------------------------------------------------------------------------
+    
+    public SortedArraySet() {
+    }
+    
+    /**
+     * @param c Collection which elements must be added into this set.
+     * @throws NullPointerException if the specified collection is null
+     *         or contains null.
+     */
+    public SortedArraySet(Collection<? extends E> c) {
+        this.addAll(c);
+    }
+    
+    @Override
+    public int size() {
+        return this.size;
+    }
+    
+    @Override
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+    
+    @Override
+    public boolean contains(Object obj) {
+        return this.indexOf(obj) >= 0;
+    }
+    
+    @Override
+    public boolean add(E element) {
+        ArgsUtils.requireNonNull(element);
+        final int index = this.indexOf(element);
+        if (index >= 0) {
+            return false;
+        }
+        this.insertAt(-index-1, element);
+        return true;
+    }
+    
+    @Override
+    public boolean remove(Object obj) {
+        final int index = this.indexOf(obj);
+        if (index < 0) {
+            return false;
+        }
+        this.removeAt(index);
+        return true;
+    }
+    
+    @Override
+    public void clear() {
+        if (this.size != 0) {
+            this.elements = EMPTY_ARR;
+            this.size = 0;
+            this.modCount++;
+        }
+    }
+    
+    @Override
+    public Iterator<E> iterator() {
+        return new MyIterator();
+    }
+    
+    @Override
+    public Object[] toArray() {
+        final Object[] result = new Object[this.size];
+        System.arraycopy(this.elements, 0, result, 0, this.size);
+        return result;
+    }
+    
+    /**
+     * @return Null, since natural ordering is used.
+     */
+    @Override
+    public Comparator<? super E> comparator() {
+        return null;
+    }
+    
+    @Override
+    @SuppressWarnings("unchecked")
+    public E first() {
+        if (this.size == 0) {
+            throw new NoSuchElementException();
+        }
+        return (E) this.elements[0];
+    }
+    
+    @Override
+    @SuppressWarnings("unchecked")
+    public E last() {
+        if (this.size == 0) {
+            throw new NoSuchElementException();
+        }
+        return (E) this.elements[this.size-1];
+    }
+    
+    /**
+     * @return A new set containing elements in [fromElement,toElement[.
+     * @throws IllegalArgumentException if fromElement is superior to toElement.
+     */
+    @Override
+    public SortedSet<E> subSet(E fromElement, E toElement) {
+        if (fromElement.compareTo(toElement) > 0) {
+            throw new IllegalArgumentException();
+        }
+        return this.newRangeSet(
+                this.lowerBoundIndex(fromElement),
+                this.lowerBoundIndex(toElement));
+    }
+    
+    /**
+     * @return A new set containing elements strictly inferior to toElement.
+     */
+    @Override
+    public SortedSet<E> headSet(E toElement) {
+        return this.newRangeSet(
+                0,
+                this.lowerBoundIndex(toElement));
+    }
+    
+    /**
+     * @return A new set containing elements superior or equal to fromElement.
+     */
+    @Override
+    public SortedSet<E> tailSet(E fromElement) {
+        return this.newRangeSet(
+                this.lowerBoundIndex(fromElement),
+                this.size);
+    }
+    
+    //--------------------------------------------------------------------------
+    // PRIVATE METHODS
+    //--------------------------------------------------------------------------
+    
+    /**
+     * @param obj (in) Must be an E, else ClassCastException might be thrown,
+     *        as for TreeSet.
+     * @return Index of the specified object if it is in this set,
+     *         else (-(insertion point) - 1).
+     */
+    @SuppressWarnings("unchecked")
+    private int indexOf(Object obj) {
+        final E key = (E) ArgsUtils.requireNonNull(obj);
+        final Object[] elements = this.elements;
+        int low = 0;
+        int high = this.size - 1;
+        // Fast path for in-order additions.
+        if ((high >= 0)
+                && (key.compareTo((E) elements[high]) > 0)) {
+            return -(high + 1) - 1;
+        }
+        while (low <= high) {
+            final int mid = ((low + high) >>> 1);
+            final int cmp = key.compareTo((E) elements[mid]);
+            if (cmp > 0) {
+                low = mid + 1;
+            } else if (cmp < 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+    
+    /**
+     * @return Index of the first element superior or equal to the specified one,
+     *         or size if there is none.
+     */
+    private int lowerBoundIndex(E element) {
+        final int index = this.indexOf(element);
+        return (index >= 0) ? index : -index-1;
+    }
+    
+    private SortedSet<E> newRangeSet(int from, int to) {
+        final SortedArraySet<E> result = new SortedArraySet<E>();
+        final int n = to - from;
+        if (n > 0) {
+            result.elements = new Object[n];
+            System.arraycopy(this.elements, from, result.elements, 0, n);
+            result.size = n;
+        }
+        return result;
+    }
+    
+    private void insertAt(int index, E element) {
+        final int oldSize = this.size;
+        Object[] elements = this.elements;
+        if (oldSize == elements.length) {
+            final int newCapacity = Math.max(INITIAL_CAPACITY, oldSize + (oldSize >> 1));
+            final Object[] newElements = new Object[newCapacity];
+            System.arraycopy(elements, 0, newElements, 0, index);
+            System.arraycopy(elements, index, newElements, index + 1, oldSize - index);
+            elements = newElements;
+            this.elements = elements;
+        } else {
+            System.arraycopy(elements, index, elements, index + 1, oldSize - index);
+        }
+        elements[index] = element;
+        this.size = oldSize + 1;
+        this.modCount++;
+    }
+    
+    private void removeAt(int index) {
+        final int newSize = this.size - 1;
+        final Object[] elements = this.elements;
+        System.arraycopy(elements, index + 1, elements, index, newSize - index);
+        elements[newSize] = null;
+        this.size = newSize;
+        this.modCount++;
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2026 Jeff Hain
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.jadecy.utils;
+
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * Utilities to create sorted sets.
+ */
+public class SortedSetUtils {
+
+    //--------------------------------------------------------------------------
+    // PUBLIC METHODS
+    //--------------------------------------------------------------------------
+
+    /**
+     * @param mustUseCompactStorage True if the returned set must favor
+     *        memory footprint over modifications speed, false otherwise.
+     * @return A new empty SortedArraySet if compact storage is required,
+     *         else a new empty TreeSet, using the natural ordering of their
+     *         elements.
+     */
+    public static <E extends Comparable<? super E>> SortedSet<E> newSortedSet(boolean mustUseCompactStorage) {
+        if (mustUseCompactStorage) {
+            return new SortedArraySet<E>();
+        } else {
+            return new TreeSet<E>();
+        }
+    }
+    
+    //--------------------------------------------------------------------------
+    // PRIVATE METHODS
+    //--------------------------------------------------------------------------
+
+    private SortedSetUtils() {
+    }
+}
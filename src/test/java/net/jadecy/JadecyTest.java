@@ -24,12 +24,14 @@ import java.util.Set;
 import java.util.SortedMap;
 import java.util.SortedSet;
 
+import net.jadecy.code.CauseTracking;
 import net.jadecy.code.ClassData;
 import net.jadecy.code.PackageData;
 import net.jadecy.names.InterfaceNameFilter;
 import net.jadecy.names.NameFilters;
 import net.jadecy.names.NameUtils;
 import net.jadecy.parsing.FsDepsParser;
+import net.jadecy.parsing.FsDepsParserConfig;
 import net.jadecy.parsing.InterfaceDepsParser;
 import net.jadecy.parsing.ParsingFilters;
 import net.jadecy.virtual.AbstractVirtualCodeGraphTezt;
@@ -260,9 +262,203 @@ public class JadecyTest extends AbstractVirtualCodeGraphTezt {
         }
     }
 
+    public void test_withMustUseFrozenGraph_and_getMustUseFrozenGraph() {
+        final Jadecy refJdc = newJadecy();
+        
+        assertFalse(refJdc.getMustUseFrozenGraph());
+        assertSame(refJdc, refJdc.withMustUseFrozenGraph(false));
+        
+        final Jadecy frozenJdc = refJdc.withMustUseFrozenGraph(true);
+        assertTrue(frozenJdc.getMustUseFrozenGraph());
+        assertSame(refJdc.parser(), frozenJdc.parser());
+        
+        // Preserved by other withXXX methods.
+        assertTrue(frozenJdc.withMustUseInverseDeps(true).getMustUseFrozenGraph());
+        assertTrue(frozenJdc.withRetainedClassNameFilter(
+                NameFilters.startsWithName(P1N)).getMustUseFrozenGraph());
+        
+        /*
+         * Same results as without frozen graph.
+         */
+        
+        for (boolean mustUseInverseDeps : new boolean[]{false,true}) {
+            for (InterfaceNameFilter retainedClassNameFilter : new InterfaceNameFilter[]{
+                    NameFilters.any(),
+                    NameFilters.startsWithName(P1N)}) {
+                final Jadecy jdc = refJdc.withMustUseInverseDeps(
+                        mustUseInverseDeps).withRetainedClassNameFilter(
+                                retainedClassNameFilter);
+                final Jadecy fJdc = jdc.withMustUseFrozenGraph(true);
+                
+                for (ElemType elemType : ElemType.values()) {
+                    assertEquals(
+                            jdc.computeMatches(elemType, NameFilters.any()),
+                            fJdc.computeMatches(elemType, NameFilters.any()));
+                    assertEquals(
+                            jdc.computeDepsGraph(elemType, NameFilters.any(), true, false, NameFilters.any(), -1),
+                            fJdc.computeDepsGraph(elemType, NameFilters.any(), true, false, NameFilters.any(), -1));
+                    assertEquals(
+                            jdc.computeSccs(elemType),
+                            fJdc.computeSccs(elemType));
+                    
+                    final MyCycleProcessor processor = new MyCycleProcessor();
+                    jdc.computeCycles(elemType, -1, processor);
+                    final MyCycleProcessor fProcessor = new MyCycleProcessor();
+                    fJdc.computeCycles(elemType, -1, fProcessor);
+                    assertEquals(processor.processedList, fProcessor.processedList);
+                }
+            }
+        }
+    }
+    
     public void test_parser() {
         // Already covered while creating Jadecy.
     }
+    
+    /*
+     * Derived tree caching.
+     */
+    
+    public void test_derivedTreeCache_invalidatedOnModification() {
+        final FsDepsParser parser = new FsDepsParser(false, false);
+        final PackageData defaultP = parser.getDefaultPackageData();
+        final ClassData a = defaultP.getOrCreateClassData("a.A");
+        final ClassData b = defaultP.getOrCreateClassData("b.B");
+        PackageData.ensureDependency(a, b);
+        
+        final Jadecy jdc = new Jadecy(
+                parser,
+                true, // mustUseInverseDeps
+                NameFilters.any());
+        
+        final InterfaceNameFilter any = NameFilters.any();
+        
+        assertEquals("{a.A=0, b.B=0}", jdc.computeMatches(ElemType.CLASS, any).toString());
+        // Same, using cached derived tree.
+        assertEquals("{a.A=0, b.B=0}", jdc.computeMatches(ElemType.CLASS, any).toString());
+        
+        /*
+         * Class creation.
+         */
+        
+        final ClassData c = defaultP.getOrCreateClassData("a.C");
+        assertEquals("{a.A=0, a.C=0, b.B=0}", jdc.computeMatches(ElemType.CLASS, any).toString());
+        
+        /*
+         * Byte size setting.
+         */
+        
+        PackageData.setByteSizeForClassOrNested(c, c.fileNameNoExt(), 7L);
+        assertEquals("{a.A=0, a.C=7, b.B=0}", jdc.computeMatches(ElemType.CLASS, any).toString());
+        
+        /*
+         * Dependency creation and deletion.
+         */
+        
+        final InterfaceNameFilter bFilter = NameFilters.equalsName("b.B");
+        assertEquals(
+                "[{b.B=0}, {a.A=0}]",
+                jdc.computeDeps(ElemType.CLASS, bFilter, true, false, -1).toString());
+        
+        PackageData.ensureDependency(c, b);
+        assertEquals(
+                "[{b.B=0}, {a.A=0, a.C=7}]",
+                jdc.computeDeps(ElemType.CLASS, bFilter, true, false, -1).toString());
+        
+        PackageData.deleteDependency(c, b);
+        assertEquals(
+                "[{b.B=0}, {a.A=0}]",
+                jdc.computeDeps(ElemType.CLASS, bFilter, true, false, -1).toString());
+    }
+    
+    /*
+     * Frozen graph caching.
+     */
+    
+    public void test_frozenGraphCache_invalidatedOnModification() {
+        final FsDepsParser parser = new FsDepsParser(false, false);
+        final PackageData defaultP = parser.getDefaultPackageData();
+        final ClassData a = defaultP.getOrCreateClassData("a.A");
+        final ClassData b = defaultP.getOrCreateClassData("b.B");
+        PackageData.ensureDependency(a, b);
+        
+        final Jadecy jdc = new Jadecy(
+                parser,
+                false,
+                NameFilters.any()).withMustUseFrozenGraph(true);
+        
+        final InterfaceNameFilter any = NameFilters.any();
+        final InterfaceNameFilter aFilter = NameFilters.equalsName("a.A");
+        
+        assertEquals(
+                "[{a.A=0}, {b.B=0}]",
+                jdc.computeDeps(ElemType.CLASS, aFilter, true, false, -1).toString());
+        // Same, using cached frozen graph.
+        assertEquals(
+                "[{a.A=0}, {b.B=0}]",
+                jdc.computeDeps(ElemType.CLASS, aFilter, true, false, -1).toString());
+        
+        /*
+         * Class creation and byte size setting.
+         */
+        
+        final ClassData c = defaultP.getOrCreateClassData("a.C");
+        PackageData.setByteSizeForClassOrNested(c, c.fileNameNoExt(), 7L);
+        assertEquals("{a.A=0, a.C=7, b.B=0}", jdc.computeMatches(ElemType.CLASS, any).toString());
+        
+        /*
+         * Dependency creation and deletion.
+         */
+        
+        PackageData.ensureDependency(a, c);
+        assertEquals(
+                "[{a.A=0}, {a.C=7, b.B=0}]",
+                jdc.computeDeps(ElemType.CLASS, aFilter, true, false, -1).toString());
+        
+        PackageData.deleteDependency(a, c);
+        assertEquals(
+                "[{a.A=0}, {b.B=0}]",
+                jdc.computeDeps(ElemType.CLASS, aFilter, true, false, -1).toString());
+    }
+    
+    /*
+     * Cause tracking.
+     */
+    
+    public void test_causeTracking_packagesCauses() {
+        for (CauseTracking causeTracking : CauseTracking.values()) {
+            final FsDepsParser parser = new FsDepsParser(
+                    false,
+                    false,
+                    FsDepsParserConfig.defaultInstance()
+                            .withCauseTracking(causeTracking));
+            final PackageData defaultP = parser.getDefaultPackageData();
+            PackageData.ensureDependency(
+                    defaultP.getOrCreateClassData("a.A1"),
+                    defaultP.getOrCreateClassData("b.B"));
+            PackageData.ensureDependency(
+                    defaultP.getOrCreateClassData("a.A2"),
+                    defaultP.getOrCreateClassData("b.B"));
+            
+            final InterfaceNameFilter aFilter = NameFilters.equalsName("a");
+            final String expectedCauses =
+                    ((causeTracking == CauseTracking.COUNT) ? "[]" : "[a.A1, a.A2]");
+            
+            final Jadecy jdc = new Jadecy(parser, false, NameFilters.any());
+            assertEquals(
+                    "[{a={b=" + expectedCauses + "}}, {b={}}]",
+                    jdc.computeDepsGraph(ElemType.PACKAGE, aFilter, true, false, NameFilters.any(), -1).toString());
+            assertEquals(
+                    "[{a=" + expectedCauses + "}, {b=[]}]",
+                    jdc.computeOneShortestPath(ElemType.PACKAGE, aFilter, NameFilters.equalsName("b")).toString());
+            
+            // Derived copy with inverse dependencies: full causes.
+            final Jadecy invJdc = new Jadecy(parser, true, NameFilters.not(NameFilters.equalsName("c.C")));
+            assertEquals(
+                    "{a={}, b={a=[a.A1, a.A2]}}",
+                    invJdc.computePathsGraph(ElemType.PACKAGE, NameFilters.equalsName("b"), aFilter, -1).toString());
+        }
+    }
 
     /*
      * 
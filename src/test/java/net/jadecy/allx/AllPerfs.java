@@ -15,6 +15,7 @@
  */
 package net.jadecy.allx;
 
+import net.jadecy.code.CodeDataFootprintPerf;
 import net.jadecy.code.DerivedTreeComputerPerf;
 import net.jadecy.code.CodeDataUtilsPerf;
 import net.jadecy.graph.CyclesComputersPerf;
@@ -38,6 +39,7 @@ public class AllPerfs {
          * net.jadecy.code
          */
         
+        CodeDataFootprintPerf.newRun(args);
         CodeDataUtilsPerf.newRun(args);
         DerivedTreeComputerPerf.newRun(args);
         
@@ -123,6 +123,8 @@ public class DepsTest extends TestCase {
                     NameFilters.startsWithName("java.lang"),
                     NameFilters.startsWithName("java.util"),
                     NameFilters.startsWithName("java.io"),
+                    NameFilters.startsWithName("java.nio"),
+                    NameFilters.startsWithName("java.net"),
                     NameFilters.startsWithName("net.jadecy.code"),
                     NameFilters.startsWithName("net.jadecy.names"),
                     NameFilters.startsWithName("net.jadecy.utils"),
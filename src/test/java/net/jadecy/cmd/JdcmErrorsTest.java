@@ -152,6 +152,19 @@ public class JdcmErrorsTest extends AbstractJdcmTezt {
         checkEqual(expectedLines, defaultStream);
     }
     
+    public void test_parsestatsAndDotformat() {
+        final String[] args = getArgs("-depsof a -parsestats -dotformat");
+        
+        final MemPrintStream defaultStream = new MemPrintStream();
+        runArgsWithVirtualDeps(args, defaultStream);
+        
+        final String[] expectedLines = withPringUsageAdded(
+                new String[]{
+                        "ERROR: -parsestats and -dotformat are incompatible",
+                });
+        checkEqual(expectedLines, defaultStream);
+    }
+    
     /*
      * 
      */
@@ -203,6 +216,15 @@ public class JdcmErrorsTest extends AbstractJdcmTezt {
                 JdcmCompType.PATHSG);
     }
 
+    public void test_incompatibilitiesOfLazy() {
+        test_incompatibilitiesOf(
+                "lazy",
+                JdcmCompType.DEPSOF,
+                JdcmCompType.GDEPSOF,
+                JdcmCompType.SPATH,
+                JdcmCompType.PATHSG);
+    }
+    
     public void test_incompatibilitiesOfMaxsteps() {
         test_incompatibilitiesOf(
                 "maxsteps",
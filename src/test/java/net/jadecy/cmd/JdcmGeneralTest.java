@@ -117,6 +117,54 @@ public class JdcmGeneralTest extends AbstractJdcmTezt {
         checkEqual(expectedLines, defaultStream);
     }
     
+    /*
+     * -cachedir
+     */
+    
+    public void test_cacheDir_notFsDepsParserFactory() {
+        final String[] args = getArgs("-depsof " + C1N + " -cachedir foo");
+        
+        final MemPrintStream defaultStream = new MemPrintStream();
+        runArgsWithVirtualDeps(args, defaultStream);
+
+        final String[] expectedLines = new String[]{
+                "ERROR: -cachedir option requires parser factory to be a FsDepsParserFactory",
+        };
+        checkEqual(expectedLines, defaultStream);
+    }
+    
+    /*
+     * -lazy
+     */
+    
+    public void test_lazy_notFsDepsParser() {
+        final String[] args = getArgs("-depsof " + C1N + " -lazy");
+        
+        final MemPrintStream defaultStream = new MemPrintStream();
+        runArgsWithVirtualDeps(args, defaultStream);
+        
+        final String[] expectedLines = new String[]{
+                "ERROR: -lazy option requires parser to be a FsDepsParser",
+        };
+        checkEqual(expectedLines, defaultStream);
+    }
+    
+    /*
+     * -parsestats
+     */
+    
+    public void test_parseStats_notFsDepsParser() {
+        final String[] args = getArgs("-depsof " + C1N + " -parsestats");
+        
+        final MemPrintStream defaultStream = new MemPrintStream();
+        runArgsWithVirtualDeps(args, defaultStream);
+        
+        final String[] expectedLines = new String[]{
+                "ERROR: -parsestats option requires parser to be a FsDepsParser",
+        };
+        checkEqual(expectedLines, defaultStream);
+    }
+    
     /*
      * -nomerge and -apionly
      */
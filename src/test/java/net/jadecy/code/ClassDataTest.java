@@ -15,6 +15,7 @@
  */
 package net.jadecy.code;
 
+import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
 
@@ -64,6 +65,41 @@ public class ClassDataTest extends TestCase {
             // ok
         }
     }
+    
+    public void test_successors_and_predecessors_compactStorage() {
+        final PackageData defaultP = new PackageData(true);
+        final ClassData ca = defaultP.getOrCreateClassData("a");
+        final ClassData cb = defaultP.getOrCreateClassData("b");
+        final ClassData cc = defaultP.getOrCreateClassData("c");
+        PackageData.ensureDependency(ca, cc);
+        PackageData.ensureDependency(ca, cb);
+        
+        assertEquals("[b, c]", ca.successors().toString());
+        assertEquals("[a]", cb.predecessors().toString());
+        
+        // Unmodifiable.
+        try {
+            ca.successors().remove(cb);
+            assertTrue(false);
+        } catch (UnsupportedOperationException e) {
+            // ok
+        }
+        try {
+            cb.predecessors().clear();
+            assertTrue(false);
+        } catch (UnsupportedOperationException e) {
+            // ok
+        }
+        try {
+            final Iterator<ClassData> it = ca.successors().iterator();
+            it.next();
+            it.remove();
+            assertTrue(false);
+        } catch (UnsupportedOperationException e) {
+            // ok
+        }
+        assertEquals(2, ca.successors().size());
+    }
 
     public void test_topLevelClassData() {
         final PackageData defaultP = new PackageData();
@@ -124,28 +160,28 @@ public class ClassDataTest extends TestCase {
     public void test_ClassData_AbstractCodeData_String_ClassData() {
         final PackageData defaultP = new PackageData();
 
-        final ClassData c1 = new ClassData(defaultP, "c1", null, null);
+        final ClassData c1 = new ClassData(defaultP, "c1", null, null, false);
 
         /*
          * Exceptions.
          */
         
         try {
-            new ClassData(null, "good", null, null);
+            new ClassData(null, "good", null, null, false);
             assertTrue(false);
         } catch (NullPointerException e) {
             // ok
         }
         
         try {
-            new ClassData(defaultP, null, null, null);
+            new ClassData(defaultP, null, null, null, false);
             assertTrue(false);
         } catch (NullPointerException e) {
             // ok
         }
         
         try {
-            new ClassData(c1, "good", null, null);
+            new ClassData(c1, "good", null, null, false);
             assertTrue(false);
         } catch (IllegalArgumentException e) {
             // ok
@@ -153,7 +189,7 @@ public class ClassDataTest extends TestCase {
         
         for (String bad : NameTestUtils.newBadNames()) {
             try {
-                new ClassData(defaultP, bad, null, null);
+                new ClassData(defaultP, bad, null, null, false);
                 assertTrue(false);
             } catch (IllegalArgumentException e) {
                 // ok
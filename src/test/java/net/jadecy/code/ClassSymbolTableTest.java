@@ -0,0 +1,150 @@
+/*
+ * Copyright 2026 Jeff Hain
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.jadecy.code;
+
+import junit.framework.TestCase;
+
+public class ClassSymbolTableTest extends TestCase {
+    
+    //--------------------------------------------------------------------------
+    // PUBLIC METHODS
+    //--------------------------------------------------------------------------
+    
+    public void test_intern_String() {
+        final ClassSymbolTable table = new ClassSymbolTable();
+        
+        try {
+            table.intern(null);
+            assertTrue(false);
+        } catch (NullPointerException e) {
+            // ok
+        }
+        
+        for (String bad : new String[]{
+                "",
+                "bad..dots",
+                ".bad",
+                "bad.",
+        }) {
+            try {
+                table.intern(bad);
+                assertTrue(false);
+            } catch (IllegalArgumentException e) {
+                // ok
+            }
+        }
+        assertEquals(0, table.size());
+        
+        final ClassSymbol c = table.intern("foo.bar.A$B$C");
+        assertSame(c, table.intern("foo.bar.A$B$C"));
+        assertSame(c, table.intern(new String("foo.bar.A$B$C")));
+        assertEquals("foo.bar.A$B$C", c.name());
+        assertEquals("foo.bar.A$B$C", c.toString());
+        assertEquals("foo.bar", c.packageName());
+        assertEquals("A$B$C", c.fileNameNoExt());
+        assertEquals(2, c.dirNames().length);
+        assertEquals("foo", c.dirNames()[0]);
+        assertEquals("bar", c.dirNames()[1]);
+        
+        // Outer and top level symbols created as well.
+        assertEquals(3, table.size());
+        final ClassSymbol b = c.outerClassSymbol();
+        final ClassSymbol a = c.topLevelClassSymbol();
+        assertSame(b, table.getSymbol("foo.bar.A$B"));
+        assertSame(a, table.getSymbol("foo.bar.A"));
+        assertSame(a, b.outerClassSymbol());
+        assertSame(a, b.topLevelClassSymbol());
+        assertNull(a.outerClassSymbol());
+        assertSame(a, a.topLevelClassSymbol());
+        
+        // Package parts shared.
+        assertSame(c.packageName(), a.packageName());
+        assertSame(c.dirNames(), a.dirNames());
+        
+        // Directory names shared across packages.
+        final ClassSymbol d = table.intern("foo.D");
+        assertSame(c.dirNames()[0], d.dirNames()[0]);
+        
+        // Default package.
+        final ClassSymbol e = table.intern("E");
+        assertEquals("", e.packageName());
+        assertEquals("E", e.fileNameNoExt());
+        assertEquals(0, e.dirNames().length);
+        assertNull(e.outerClassSymbol());
+        assertSame(e, e.topLevelClassSymbol());
+    }
+    
+    public void test_getSymbol_String() {
+        final ClassSymbolTable table = new ClassSymbolTable();
+        
+        try {
+            table.getSymbol(null);
+            assertTrue(false);
+        } catch (NullPointerException e) {
+            // ok
+        }
+        
+        assertNull(table.getSymbol("a.B"));
+        final ClassSymbol symbol = table.intern("a.B");
+        assertSame(symbol, table.getSymbol("a.B"));
+    }
+    
+    public void test_remove_String() {
+        final ClassSymbolTable table = new ClassSymbolTable();
+        
+        try {
+            table.remove(null);
+            assertTrue(false);
+        } catch (NullPointerException e) {
+            // ok
+        }
+        
+        final ClassSymbol symbol = table.intern("a.B$C");
+        final ClassSymbol outerSymbol = symbol.outerClassSymbol();
+        assertEquals(2, table.size());
+        
+        assertTrue(table.remove("a.B$C"));
+        assertFalse(table.remove("a.B$C"));
+        assertEquals(1, table.size());
+        assertNull(table.getSymbol("a.B$C"));
+        assertSame(outerSymbol, table.getSymbol("a.B"));
+        
+        // Old symbol still valid.
+        assertEquals("a.B$C", symbol.name());
+        assertSame(outerSymbol, symbol.outerClassSymbol());
+        
+        final ClassSymbol newSymbol = table.intern("a.B$C");
+        assertNotSame(symbol, newSymbol);
+        assertSame(outerSymbol, newSymbol.outerClassSymbol());
+    }
+    
+    public void test_clear() {
+        final ClassSymbolTable table = new ClassSymbolTable();
+        
+        final ClassSymbol symbol = table.intern("a.B$C");
+        assertEquals(2, table.size());
+        
+        table.clear();
+        assertEquals(0, table.size());
+        assertNull(table.getSymbol("a.B$C"));
+        
+        // Old symbol still valid.
+        assertEquals("a.B$C", symbol.name());
+        assertEquals("a.B", symbol.outerClassSymbol().name());
+        
+        assertNotSame(symbol, table.intern("a.B$C"));
+    }
+}
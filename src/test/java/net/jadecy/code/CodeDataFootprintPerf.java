@@ -0,0 +1,161 @@
+/*
+ * Copyright 2026 Jeff Hain
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.jadecy.code;
+
+import java.util.Random;
+
+/**
+ * Measures heap footprint of trees of PackageData and ClassData,
+ * with default and compact storage, and with each cause tracking,
+ * in bytes per class and per dependency.
+ */
+public class CodeDataFootprintPerf {
+    
+    //--------------------------------------------------------------------------
+    // CONFIGURATION
+    //--------------------------------------------------------------------------
+    
+    private static final int NBR_OF_RUNS = 2;
+    
+    private static final int NBR_OF_PACKAGES = 1000;
+    
+    private static final int NBR_OF_CLASSES_PER_PACKAGE = 100;
+    
+    private static final int NBR_OF_SUCCESSORS_PER_CLASS = 10;
+    
+    /**
+     * Probability for a successor to be in the same package.
+     */
+    private static final double SAME_PACKAGE_SUCCESSOR_PROBA = 0.5;
+    
+    private static final int NBR_OF_GC = 4;
+    
+    //--------------------------------------------------------------------------
+    // PUBLIC METHODS
+    //--------------------------------------------------------------------------
+    
+    public static void main(String[] args) {
+        newRun(args);
+    }
+    
+    public static void newRun(String[] args) {
+        new CodeDataFootprintPerf().run(args);
+    }
+    
+    public CodeDataFootprintPerf() {
+    }
+    
+    //--------------------------------------------------------------------------
+    // PRIVATE METHODS
+    //--------------------------------------------------------------------------
+    
+    private void run(String[] args) {
+        System.out.println("--- " + CodeDataFootprintPerf.class.getSimpleName() + "... ---");
+        System.out.println("number of packages = " + NBR_OF_PACKAGES);
+        System.out.println("number of classes per package = " + NBR_OF_CLASSES_PER_PACKAGE);
+        System.out.println("number of successors per class = " + NBR_OF_SUCCESSORS_PER_CLASS);
+        
+        for (int k = 0; k < NBR_OF_RUNS; k++) {
+            for (boolean mustUseCompactStorage : new boolean[]{false,true}) {
+                for (CauseTracking causeTracking : CauseTracking.values()) {
+                    this.bench_footprint(mustUseCompactStorage, causeTracking);
+                }
+            }
+        }
+        
+        System.out.println("--- ..." + CodeDataFootprintPerf.class.getSimpleName() + " ---");
+    }
+    
+    private void bench_footprint(
+            boolean mustUseCompactStorage,
+            CauseTracking causeTracking) {
+        final long usedBefore = usedHeap();
+        
+        final PackageData defaultP = new PackageData(mustUseCompactStorage, causeTracking);
+        final ClassData[] classDataArr = createClasses(defaultP);
+        
+        final long usedWithClasses = usedHeap();
+        
+        final long depCount = createDependencies(classDataArr);
+        
+        final long usedWithDeps = usedHeap();
+        
+        final long classCount = classDataArr.length;
+        final double bytesPerClass = (usedWithClasses - usedBefore) / (double) classCount;
+        final double bytesPerDep = (usedWithDeps - usedWithClasses) / (double) depCount;
+        System.out.println(
+                (mustUseCompactStorage ? "compact storage" : "default storage")
+                + ", " + causeTracking + " cause tracking"
+                + ": " + (long) bytesPerClass + " bytes per class"
+                + ", " + (long) bytesPerDep + " bytes per dependency"
+                + " (" + classCount + " classes, " + depCount + " dependencies"
+                + ", " + ((usedWithDeps - usedBefore) / (1024 * 1024)) + " MiB)");
+        
+        // Check to keep tree reachable until measures are done.
+        if (defaultP.getSubtreeClassCount() != classCount) {
+            throw new AssertionError();
+        }
+    }
+    
+    /**
+     * @return Created classes, with byte sizes set as done when parsing.
+     */
+    private static ClassData[] createClasses(PackageData defaultP) {
+        final ClassData[] classDataArr = new ClassData[NBR_OF_PACKAGES * NBR_OF_CLASSES_PER_PACKAGE];
+        int i = 0;
+        for (int p = 0; p < NBR_OF_PACKAGES; p++) {
+            final PackageData packageData = defaultP.getOrCreatePackageData("p" + (p / 100) + ".p" + p);
+            for (int c = 0; c < NBR_OF_CLASSES_PER_PACKAGE; c++) {
+                final ClassData classData = packageData.getOrCreateClassData("C" + c);
+                PackageData.setByteSizeForClassOrNested(classData, classData.fileNameNoExt(), 1000L);
+                classDataArr[i++] = classData;
+            }
+        }
+        return classDataArr;
+    }
+    
+    /**
+     * @return The number of created dependencies between classes.
+     */
+    private static long createDependencies(ClassData[] classDataArr) {
+        final Random random = new Random(123456789L);
+        long depCount = 0;
+        for (int i = 0; i < classDataArr.length; i++) {
+            final int packageFirstIndex = i - (i % NBR_OF_CLASSES_PER_PACKAGE);
+            for (int s = 0; s < NBR_OF_SUCCESSORS_PER_CLASS; s++) {
+                final int j;
+                if (random.nextDouble() < SAME_PACKAGE_SUCCESSOR_PROBA) {
+                    j = packageFirstIndex + random.nextInt(NBR_OF_CLASSES_PER_PACKAGE);
+                } else {
+                    j = random.nextInt(classDataArr.length);
+                }
+                if ((j != i)
+                        && PackageData.ensureDependency(classDataArr[i], classDataArr[j])) {
+                    depCount++;
+                }
+            }
+        }
+        return depCount;
+    }
+    
+    private static long usedHeap() {
+        final Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < NBR_OF_GC; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
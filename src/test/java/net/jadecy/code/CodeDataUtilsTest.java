@@ -21,6 +21,7 @@ import java.util.List;
 
 import junit.framework.TestCase;
 import net.jadecy.graph.InterfaceVertex;
+import net.jadecy.names.InterfaceNameFilter;
 import net.jadecy.names.NameFilters;
 
 public class CodeDataUtilsTest extends TestCase {
@@ -238,6 +239,190 @@ public class CodeDataUtilsTest extends TestCase {
         }
     }
     
+    public void test_newClassDataList_PackageData_InterfaceNameFilter_boolean() {
+        final PackageData defaultP = newInverseTestTree();
+        
+        /*
+         * Exceptions.
+         */
+        
+        for (boolean mustReverseDeps : new boolean[]{false,true}) {
+            try {
+                CodeDataUtils.newClassDataList(
+                        null,
+                        NameFilters.any(),
+                        mustReverseDeps);
+                assertTrue(false);
+            } catch (NullPointerException e) {
+                // ok
+            }
+            
+            try {
+                CodeDataUtils.newClassDataList(
+                        defaultP,
+                        null,
+                        mustReverseDeps);
+                assertTrue(false);
+            } catch (NullPointerException e) {
+                // ok
+            }
+        }
+        
+        /*
+         * Not reversing.
+         */
+        
+        assertEquals(
+                CodeDataUtils.newClassDataList(defaultP, NameFilters.any()),
+                CodeDataUtils.newClassDataList(defaultP, NameFilters.any(), false));
+        
+        /*
+         * Reversing: same as with derived tree.
+         */
+        
+        final PackageData derDefaultP = DerivedTreeComputer.computeDerivedTree(
+                defaultP,
+                true,
+                NameFilters.any());
+        
+        for (InterfaceNameFilter filter : new InterfaceNameFilter[]{
+                NameFilters.any(),
+                NameFilters.startsWith("a"),
+        }) {
+            final List<InterfaceVertex> viewList =
+                    CodeDataUtils.newClassDataList(defaultP, filter, true);
+            final List<InterfaceVertex> derList =
+                    CodeDataUtils.newClassDataList(derDefaultP, filter);
+            
+            for (InterfaceVertex vertex : viewList) {
+                assertTrue(vertex instanceof InverseCodeData);
+            }
+            
+            assertEquals(toDepsString(derList), toDepsString(viewList));
+        }
+    }
+    
+    public void test_newPackageDataList_PackageData_InterfaceNameFilter_boolean() {
+        final PackageData defaultP = newInverseTestTree();
+        
+        /*
+         * Exceptions.
+         */
+        
+        for (boolean mustReverseDeps : new boolean[]{false,true}) {
+            try {
+                CodeDataUtils.newPackageDataList(
+                        null,
+                        NameFilters.any(),
+                        mustReverseDeps);
+                assertTrue(false);
+            } catch (NullPointerException e) {
+                // ok
+            }
+            
+            try {
+                CodeDataUtils.newPackageDataList(
+                        defaultP,
+                        null,
+                        mustReverseDeps);
+                assertTrue(false);
+            } catch (NullPointerException e) {
+                // ok
+            }
+        }
+        
+        /*
+         * Not reversing: class-empty packages are kept.
+         */
+        
+        final List<InterfaceVertex> list =
+                CodeDataUtils.newPackageDataList(defaultP, NameFilters.any(), false);
+        assertEquals(
+                CodeDataUtils.newPackageDataList(defaultP, NameFilters.any()),
+                list);
+        assertTrue(list.contains(defaultP.getPackageData("c.empty")));
+        
+        /*
+         * Reversing: same as with derived tree,
+         * which has no class-empty package.
+         */
+        
+        final PackageData derDefaultP = DerivedTreeComputer.computeDerivedTree(
+                defaultP,
+                true,
+                NameFilters.any());
+        
+        for (InterfaceNameFilter filter : new InterfaceNameFilter[]{
+                NameFilters.any(),
+                NameFilters.startsWith("a"),
+        }) {
+            final List<InterfaceVertex> viewList =
+                    CodeDataUtils.newPackageDataList(defaultP, filter, true);
+            final List<InterfaceVertex> derList =
+                    CodeDataUtils.newPackageDataList(derDefaultP, filter);
+            
+            for (InterfaceVertex vertex : viewList) {
+                assertTrue(vertex instanceof InverseCodeData);
+            }
+            
+            assertEquals(toDepsString(derList), toDepsString(viewList));
+        }
+        
+        // Default package is kept even if there is no class.
+        final List<InterfaceVertex> emptyViewList =
+                CodeDataUtils.newPackageDataList(new PackageData(), NameFilters.any(), true);
+        assertEquals(1, emptyViewList.size());
+    }
+    
+    public void test_toCodeData_InterfaceVertex() {
+        final PackageData defaultP = new PackageData();
+        final ClassData classData = defaultP.getOrCreateClassData("a.A");
+        
+        try {
+            CodeDataUtils.toCodeData(null);
+            assertTrue(false);
+        } catch (NullPointerException e) {
+            // ok
+        }
+        
+        assertSame(classData, CodeDataUtils.toCodeData(classData));
+        assertSame(defaultP, CodeDataUtils.toCodeData(defaultP));
+        assertSame(classData, CodeDataUtils.toCodeData(new InverseCodeData(classData)));
+    }
+    
+    public void test_getCauseSet_2InterfaceVertex() {
+        final PackageData defaultP = newInverseTestTree();
+        final PackageData pA = defaultP.getPackageData("a");
+        final PackageData pB = defaultP.getPackageData("b");
+        
+        try {
+            CodeDataUtils.getCauseSet(null, pB);
+            assertTrue(false);
+        } catch (NullPointerException e) {
+            // ok
+        }
+        try {
+            CodeDataUtils.getCauseSet(pA, null);
+            assertTrue(false);
+        } catch (NullPointerException e) {
+            // ok
+        }
+        
+        assertSame(
+                pA.causeSetBySuccessor().get(pB),
+                CodeDataUtils.getCauseSet(pA, pB));
+        assertNull(CodeDataUtils.getCauseSet(pB, pA));
+        
+        assertSame(
+                pB.causeSetByPredecessor().get(pA),
+                CodeDataUtils.getCauseSet(
+                        new InverseCodeData(pB),
+                        new InverseCodeData(pA)));
+        assertNull(CodeDataUtils.getCauseSet(
+                new InverseCodeData(pA),
+                new InverseCodeData(pB)));
+    }
+    
     public void test_haveSameTopLevelClass_CollectionOfClassData() {
         final PackageData defaultP = new PackageData();
         
@@ -321,4 +506,148 @@ public class CodeDataUtilsTest extends TestCase {
             assertTrue(CodeDataUtils.haveSameTopLevelClass(coll));
         }
     }
+    
+    public void test_haveSameTopLevelClassVertex_Collection() {
+        final PackageData defaultP = new PackageData();
+        
+        /*
+         * Exceptions.
+         */
+        
+        try {
+            CodeDataUtils.haveSameTopLevelClassVertex(null);
+            assertTrue(false);
+        } catch (NullPointerException e) {
+            // ok
+        }
+        
+        /*
+         * Classes data for test.
+         */
+        
+        final ClassData classDataA = defaultP.getOrCreateClassData("foo.bar.A");
+        final ClassData classDataB = defaultP.getOrCreateClassData("foo.bar.B");
+        final ClassData classDataAB = defaultP.getOrCreateClassData("foo.bar.A$B");
+        final FrozenCodeGraph graph = FrozenCodeGraph.freeze(defaultP, false);
+        
+        /*
+         * Data.
+         */
+        
+        {
+            final Collection<InterfaceVertex> coll = new ArrayList<InterfaceVertex>();
+            assertTrue(CodeDataUtils.haveSameTopLevelClassVertex(coll));
+            coll.add(classDataA);
+            coll.add(classDataAB);
+            assertTrue(CodeDataUtils.haveSameTopLevelClassVertex(coll));
+            coll.add(classDataB);
+            assertFalse(CodeDataUtils.haveSameTopLevelClassVertex(coll));
+        }
+        
+        /*
+         * Views.
+         */
+        
+        {
+            final Collection<InterfaceVertex> coll = new ArrayList<InterfaceVertex>();
+            coll.add(new InverseCodeData(classDataA));
+            coll.add(new InverseCodeData(classDataAB));
+            assertTrue(CodeDataUtils.haveSameTopLevelClassVertex(coll));
+            coll.add(new InverseCodeData(classDataB));
+            assertFalse(CodeDataUtils.haveSameTopLevelClassVertex(coll));
+        }
+        
+        /*
+         * Frozen vertices.
+         */
+        
+        {
+            final Collection<InterfaceVertex> coll = new ArrayList<InterfaceVertex>();
+            coll.add(graph.getClassVertex("foo.bar.A"));
+            coll.add(graph.getClassVertex("foo.bar.A$B"));
+            assertTrue(CodeDataUtils.haveSameTopLevelClassVertex(coll));
+            coll.add(graph.getClassVertex("foo.bar.B"));
+            assertFalse(CodeDataUtils.haveSameTopLevelClassVertex(coll));
+        }
+        
+        /*
+         * Not classes.
+         */
+        
+        for (InterfaceVertex packageVertex : new InterfaceVertex[]{
+                defaultP.getPackageData("foo.bar"),
+                new InverseCodeData(defaultP.getPackageData("foo.bar")),
+                graph.getPackageVertex("foo.bar")}) {
+            final Collection<InterfaceVertex> coll = new ArrayList<InterfaceVertex>();
+            coll.add(classDataA);
+            coll.add(packageVertex);
+            try {
+                CodeDataUtils.haveSameTopLevelClassVertex(coll);
+                assertTrue(false);
+            } catch (IllegalArgumentException e) {
+                // ok
+            }
+        }
+    }
+
+    //--------------------------------------------------------------------------
+    // PRIVATE METHODS
+    //--------------------------------------------------------------------------
+    
+    /**
+     * @return A tree with dependencies within and across packages,
+     *         and a class-empty package.
+     */
+    private static PackageData newInverseTestTree() {
+        final PackageData defaultP = new PackageData();
+        final ClassData a1 = defaultP.getOrCreateClassData("a.A1");
+        final ClassData a2 = defaultP.getOrCreateClassData("a.A2");
+        final ClassData b1 = defaultP.getOrCreateClassData("b.B1");
+        final ClassData c1 = defaultP.getOrCreateClassData("c.C1");
+        final ClassData d = defaultP.getOrCreateClassData("D");
+        defaultP.getOrCreatePackageData("c.empty");
+        PackageData.ensureDependency(a1, a2);
+        PackageData.ensureDependency(a1, b1);
+        PackageData.ensureDependency(a2, b1);
+        PackageData.ensureDependency(b1, c1);
+        PackageData.ensureDependency(c1, a1);
+        PackageData.ensureDependency(d, a2);
+        // Inverse dependency.
+        PackageData.ensureDependency(a2, c1, true);
+        return defaultP;
+    }
+    
+    /**
+     * @param vertexList List of ClassData, PackageData, or views of them.
+     * @return A String with vertices names, byte sizes, successors names,
+     *         and for packages, dependencies causes names.
+     */
+    private static String toDepsString(List<InterfaceVertex> vertexList) {
+        final StringBuilder sb = new StringBuilder();
+        for (InterfaceVertex vertex : vertexList) {
+            final AbstractCodeData data = CodeDataUtils.toCodeData(vertex);
+            sb.append(data.name());
+            sb.append(" (");
+            sb.append(data.byteSize());
+            sb.append(") ->");
+            final List<InterfaceVertex> succList = new ArrayList<InterfaceVertex>();
+            for (Object succ : vertex.successors()) {
+                succList.add((InterfaceVertex) succ);
+            }
+            for (InterfaceVertex succ : succList) {
+                sb.append(" ");
+                sb.append(CodeDataUtils.toCodeData(succ).name());
+                if (data instanceof PackageData) {
+                    sb.append(" [");
+                    for (ClassData cause : CodeDataUtils.getCauseSet(vertex, succ)) {
+                        sb.append(" ");
+                        sb.append(cause.name());
+                    }
+                    sb.append(" ]");
+                }
+            }
+            sb.append("\n");
+        }
+        return sb.toString();
+    }
 }
@@ -15,6 +15,7 @@
  */
 package net.jadecy.code;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import junit.framework.TestCase;
@@ -102,6 +103,64 @@ public class DerivedTreeComputerTest extends TestCase {
             assertSame(p1_bd.displayName(), der_p1_bd.displayName());
         }
     }
+    
+    public void test_computeDerivedTree_storage() {
+        for (boolean mustUseCompactStorage : new boolean[]{false,true}) {
+            final PackageData defaultP = new PackageData(mustUseCompactStorage);
+            final ClassData a = defaultP.getOrCreateClassData("p1.A");
+            final ClassData b = defaultP.getOrCreateClassData("p2.B$C");
+            PackageData.ensureDependency(a, b);
+            
+            final PackageData derDefaultP = DerivedTreeComputer.computeDerivedTree(
+                    defaultP,
+                    true,
+                    NameFilters.any());
+            assertEquals(mustUseCompactStorage, derDefaultP.getMustUseCompactStorage());
+            assertEquals("[p2.B$C]", derDefaultP.getClassData("p1.A").predecessors().toString());
+            
+            final PackageData mergedDefaultP = DerivedTreeComputer.computeMergedNestedTree(defaultP);
+            assertEquals(mustUseCompactStorage, mergedDefaultP.getMustUseCompactStorage());
+            assertEquals("[p2.B]", mergedDefaultP.getClassData("p1.A").successors().toString());
+        }
+    }
+
+    public void test_computeDerivedTree_causeTracking() {
+        final List<String> expectedLines = new ArrayList<String>();
+        for (CauseTracking causeTracking : CauseTracking.values()) {
+            final PackageData defaultP = new PackageData(false, causeTracking);
+            final ClassData a = defaultP.getOrCreateClassData("p1.A");
+            final ClassData a2 = defaultP.getOrCreateClassData("p1.A2");
+            final ClassData b = defaultP.getOrCreateClassData("p2.B$C");
+            PackageData.ensureDependency(a, b);
+            PackageData.ensureDependency(a2, b);
+
+            final PackageData derDefaultP = DerivedTreeComputer.computeDerivedTree(
+                    defaultP,
+                    false,
+                    NameFilters.any());
+            assertEquals(causeTracking, derDefaultP.getCauseTracking());
+            assertEquals("{p2=2}", derDefaultP.getPackageData("p1").causeCountBySuccessor().toString());
+
+            // Reversed trees contain inverse dependencies, so need full tracking.
+            final PackageData revDefaultP = DerivedTreeComputer.computeDerivedTree(
+                    defaultP,
+                    true,
+                    NameFilters.any());
+            assertEquals(CauseTracking.FULL, revDefaultP.getCauseTracking());
+            final MemPrintStream stream = new MemPrintStream();
+            revDefaultP.printSubtree(stream, true);
+            if (causeTracking == CauseTracking.FULL) {
+                expectedLines.addAll(stream.getLines());
+            } else {
+                // Same reversed tree whatever the source tracking.
+                assertEquals(expectedLines, stream.getLines());
+            }
+
+            final PackageData mergedDefaultP = DerivedTreeComputer.computeMergedNestedTree(defaultP);
+            assertEquals(causeTracking, mergedDefaultP.getCauseTracking());
+            assertEquals("[p2.B]", mergedDefaultP.getClassData("p1.A").successors().toString());
+        }
+    }
 
     public void test_computeDerivedTree_emptyPackage() {
 
@@ -406,6 +465,84 @@ public class DerivedTreeComputerTest extends TestCase {
         checkEqual(expectedLines, toStringTab(stream.getLines()));
     }
 
+    /*
+     * 
+     */
+    
+    public void test_computeMergedNestedTree_exceptions() {
+        
+        try {
+            DerivedTreeComputer.computeMergedNestedTree(null);
+            assertTrue(false);
+        } catch (NullPointerException e) {
+            // ok
+        }
+        
+        final PackageData p1 = new PackageData().getOrCreatePackageData("p1");
+        
+        // Not default package.
+        try {
+            DerivedTreeComputer.computeMergedNestedTree(p1);
+            assertTrue(false);
+        } catch (IllegalArgumentException e) {
+            // ok
+        }
+    }
+    
+    public void test_computeMergedNestedTree() {
+        
+        final PackageData defaultP = newInputTree();
+        
+        // Dependency within a same top level class, to be dropped.
+        PackageData.ensureDependency(
+                defaultP.getClassData("p1.b$c"),
+                defaultP.getClassData("p1.b$d"));
+        // Dependency to a nested class, to be replaced with its top level class.
+        PackageData.ensureDependency(
+                defaultP.getClassData("p2.a"),
+                defaultP.getClassData("p2.b$d$e"));
+        PackageData.setByteSizeForClassOrNested(defaultP.getClassData("p2.b$c"), "b$c", 19);
+        
+        final PackageData derDefaultP = DerivedTreeComputer.computeMergedNestedTree(defaultP);
+        
+        final MemPrintStream stream = new MemPrintStream();
+        
+        derDefaultP.printSubtree(stream, true);
+        
+        final String[] expectedLines = new String[]{
+                "[default package] (11 bytes)",
+                " causeSetBySuccessor = {p1=[a], p2=[b]}",
+                " causeSetByPredecessor = {p1=[a]}",
+                " a (11 bytes: {a=11})",
+                "   -> p1.b", // non-inverse (has opposite)
+                " b (0 bytes: {})",
+                "   -> p2.b", // non-inverse
+                "p1 (30 bytes)",
+                " causeSetBySuccessor = {[default package]=[a], p2=[p1.a, p2.b]}",
+                " causeSetByPredecessor = {[default package]=[a]}",
+                " p1.a (0 bytes: {})",
+                "   -> p1.b", // non-inverse
+                "   -> p2.b", // inverse
+                " p1.b (30 bytes: {b$d=13, b$d$e=17})",
+                "   -> a", // inverse (has opposite)
+                "p2 (19 bytes)",
+                " causeSetBySuccessor = {}",
+                " causeSetByPredecessor = {[default package]=[b], p1=[p1.a, p2.b]}",
+                " p2.a (0 bytes: {})",
+                "   -> p2.b", // non-inverse
+                " p2.b (19 bytes: {b$c=19})"
+        };
+        checkEqual(expectedLines, toStringTab(stream.getLines()));
+        
+        // Must reuse String instances.
+        {
+            final ClassData p1_b = defaultP.getClassData("p1.b");
+            final ClassData der_p1_b = derDefaultP.getClassData("p1.b");
+            assertSame(p1_b.fileNameNoExt(), der_p1_b.fileNameNoExt());
+            assertSame(p1_b.name(), der_p1_b.name());
+        }
+    }
+    
     //--------------------------------------------------------------------------
     // PRIVATE METHODS
     //--------------------------------------------------------------------------
@@ -0,0 +1,414 @@
+/*
+ * Copyright 2026 Jeff Hain
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.jadecy.code;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.SortedSet;
+
+import junit.framework.TestCase;
+import net.jadecy.code.FrozenCodeGraph.FrozenVertex;
+import net.jadecy.graph.InterfaceVertex;
+import net.jadecy.names.InterfaceNameFilter;
+import net.jadecy.names.NameFilters;
+import net.jadecy.names.NameUtils;
+
+public class FrozenCodeGraphTest extends TestCase {
+    
+    //--------------------------------------------------------------------------
+    // PUBLIC METHODS
+    //--------------------------------------------------------------------------
+    
+    public void test_freeze_PackageData_boolean() {
+        try {
+            FrozenCodeGraph.freeze(null, false);
+            assertTrue(false);
+        } catch (NullPointerException e) {
+            // ok
+        }
+        
+        final PackageData defaultP = newTestTree();
+        
+        for (boolean mustReverseDeps : new boolean[]{false,true}) {
+            final FrozenCodeGraph graph = FrozenCodeGraph.freeze(defaultP, mustReverseDeps);
+            assertEquals(mustReverseDeps, graph.isReversed());
+            
+            /*
+             * Classes.
+             */
+            
+            final List<InterfaceVertex> classDataList =
+                    CodeDataUtils.newClassDataList(defaultP, NameFilters.any(), mustReverseDeps);
+            assertEquals(classDataList.size(), graph.classCount());
+            int classDepCount = 0;
+            for (InterfaceVertex vertex : classDataList) {
+                final ClassData classData = (ClassData) CodeDataUtils.toCodeData(vertex);
+                final FrozenVertex fv = graph.getClassVertex(classData.name());
+                assertEquals(classData.byteSize(), fv.byteSize());
+                assertEquals(toNames(vertex.successors()), toNames(fv.successors()));
+                classDepCount += fv.successors().size();
+            }
+            assertEquals(classDepCount, graph.classDepCount());
+            
+            /*
+             * Packages.
+             */
+            
+            final List<InterfaceVertex> packageDataList =
+                    CodeDataUtils.newPackageDataList(defaultP, NameFilters.any(), mustReverseDeps);
+            assertEquals(packageDataList.size(), graph.packageCount());
+            int packageDepCount = 0;
+            for (InterfaceVertex vertex : packageDataList) {
+                final PackageData packageData = (PackageData) CodeDataUtils.toCodeData(vertex);
+                final FrozenVertex fv = graph.getPackageVertex(packageData.name());
+                assertEquals(packageData.byteSize(), fv.byteSize());
+                assertEquals(toNames(vertex.successors()), toNames(fv.successors()));
+                for (Object succ : vertex.successors()) {
+                    final String succName = CodeDataUtils.toCodeData((InterfaceVertex) succ).name();
+                    final String[] expectedCauses = toCauseNames(CodeDataUtils.getCauseSet(
+                            vertex,
+                            (InterfaceVertex) succ));
+                    assertEquals(
+                            Arrays.toString(expectedCauses),
+                            Arrays.toString(fv.causeNamesForSuccessor(graph.getPackageVertex(succName))));
+                }
+                packageDepCount += fv.successors().size();
+            }
+            assertEquals(packageDepCount, graph.packageDepCount());
+            
+            // Class-empty package only ignored when reversing.
+            assertEquals(!mustReverseDeps, graph.getPackageVertex("c.empty") != null);
+        }
+    }
+    
+    public void test_freeze_subtree() {
+        final PackageData defaultP = newTestTree();
+        
+        final FrozenCodeGraph graph = FrozenCodeGraph.freeze(
+                defaultP.getPackageData("a"),
+                false);
+        
+        assertEquals("[a.A1, a.A2]", toNames(graph.newClassVertexList(NameFilters.any())));
+        assertEquals("[a]", toNames(graph.newPackageVertexList(NameFilters.any())));
+        // Dependencies towards outside of the subtree are not kept.
+        assertEquals("[a.A2]", toNames(graph.getClassVertex("a.A1").successors()));
+        assertEquals(0, graph.getPackageVertex("a").successors().size());
+    }
+    
+    public void test_getClassVertex_int_and_getPackageVertex_int() {
+        final FrozenCodeGraph graph = FrozenCodeGraph.freeze(newTestTree(), false);
+        
+        for (int i = 0; i < graph.classCount(); i++) {
+            final FrozenVertex fv = graph.getClassVertex(i);
+            assertTrue(fv.isClass());
+            assertEquals(i, fv.index());
+            assertSame(fv, graph.getClassVertex(fv.name()));
+        }
+        for (int i = 0; i < graph.packageCount(); i++) {
+            final FrozenVertex fv = graph.getPackageVertex(i);
+            assertFalse(fv.isClass());
+            assertEquals(i, fv.index());
+            assertSame(fv, graph.getPackageVertex(fv.name()));
+        }
+        
+        try {
+            graph.getClassVertex(graph.classCount());
+            assertTrue(false);
+        } catch (ArrayIndexOutOfBoundsException e) {
+            // ok
+        }
+        try {
+            graph.getPackageVertex(-1);
+            assertTrue(false);
+        } catch (ArrayIndexOutOfBoundsException e) {
+            // ok
+        }
+    }
+    
+    public void test_getClassVertex_String_and_getPackageVertex_String() {
+        final FrozenCodeGraph graph = FrozenCodeGraph.freeze(newTestTree(), false);
+        
+        try {
+            graph.getClassVertex(null);
+            assertTrue(false);
+        } catch (NullPointerException e) {
+            // ok
+        }
+        try {
+            graph.getPackageVertex(null);
+            assertTrue(false);
+        } catch (NullPointerException e) {
+            // ok
+        }
+        
+        assertEquals("b.B1", graph.getClassVertex("b.B1").name());
+        assertNull(graph.getClassVertex("b.B2"));
+        assertNull(graph.getClassVertex("b"));
+        
+        assertEquals("", graph.getPackageVertex("").name());
+        assertEquals("c.empty", graph.getPackageVertex("c.empty").name());
+        assertNull(graph.getPackageVertex("d"));
+    }
+    
+    public void test_newClassVertexList_and_newPackageVertexList() {
+        final PackageData defaultP = newTestTree();
+        final FrozenCodeGraph graph = FrozenCodeGraph.freeze(defaultP, false);
+        
+        try {
+            graph.newClassVertexList(null);
+            assertTrue(false);
+        } catch (NullPointerException e) {
+            // ok
+        }
+        try {
+            graph.newPackageVertexList(null);
+            assertTrue(false);
+        } catch (NullPointerException e) {
+            // ok
+        }
+        
+        for (InterfaceNameFilter filter : new InterfaceNameFilter[]{
+                NameFilters.any(),
+                NameFilters.none(),
+                NameFilters.startsWithName("a"),
+                NameFilters.startsWith("c"),
+                NameFilters.equalsName("D"),
+        }) {
+            assertEquals(
+                    toNames(CodeDataUtils.newClassDataList(defaultP, filter)),
+                    toNames(graph.newClassVertexList(filter)));
+            assertEquals(
+                    toNames(CodeDataUtils.newPackageDataList(defaultP, filter)),
+                    toNames(graph.newPackageVertexList(filter)));
+        }
+    }
+    
+    /*
+     * FrozenVertex.
+     */
+    
+    public void test_names_and_byteSize() {
+        final PackageData defaultP = new PackageData();
+        final ClassData classData = defaultP.getOrCreateClassData("a.A");
+        PackageData.setByteSizeForClassOrNested(classData, classData.fileNameNoExt(), 5L);
+        
+        final FrozenCodeGraph graph = FrozenCodeGraph.freeze(defaultP, false);
+        
+        final FrozenVertex cv = graph.getClassVertex("a.A");
+        assertSame(graph, cv.graph());
+        assertEquals("a.A", cv.name());
+        assertEquals("a.A", cv.displayName());
+        assertEquals("a.A", cv.toString());
+        assertEquals(5L, cv.byteSize());
+        
+        final FrozenVertex dpv = graph.getPackageVertex("");
+        assertEquals("", dpv.name());
+        assertEquals(NameUtils.DEFAULT_PACKAGE_DISPLAY_NAME, dpv.displayName());
+        assertEquals(0L, dpv.byteSize());
+        
+        assertEquals(5L, graph.getPackageVertex("a").byteSize());
+    }
+    
+    public void test_compareTo_InterfaceVertex() {
+        final PackageData defaultP = new PackageData();
+        defaultP.getOrCreateClassData("a.B");
+        defaultP.getOrCreateClassData("a.A");
+        
+        final FrozenCodeGraph graph = FrozenCodeGraph.freeze(defaultP, false);
+        final FrozenVertex va = graph.getClassVertex("a.A");
+        final FrozenVertex vb = graph.getClassVertex("a.B");
+        
+        assertEquals(0, va.compareTo(va));
+        assertTrue(va.compareTo(vb) < 0);
+        assertTrue(vb.compareTo(va) > 0);
+    }
+    
+    public void test_topLevelClassVertex() {
+        final PackageData defaultP = new PackageData();
+        defaultP.getOrCreateClassData("a.A$B$C");
+        
+        final FrozenCodeGraph graph = FrozenCodeGraph.freeze(defaultP, false);
+        final FrozenVertex va = graph.getClassVertex("a.A");
+        
+        assertSame(va, va.topLevelClassVertex());
+        assertSame(va, graph.getClassVertex("a.A$B").topLevelClassVertex());
+        assertSame(va, graph.getClassVertex("a.A$B$C").topLevelClassVertex());
+        
+        try {
+            graph.getPackageVertex("a").topLevelClassVertex();
+            assertTrue(false);
+        } catch (UnsupportedOperationException e) {
+            // ok
+        }
+    }
+    
+    public void test_successors() {
+        final PackageData defaultP = new PackageData();
+        final ClassData a = defaultP.getOrCreateClassData("a.A");
+        final ClassData b = defaultP.getOrCreateClassData("a.B");
+        final ClassData c = defaultP.getOrCreateClassData("b.C");
+        PackageData.ensureDependency(a, c);
+        PackageData.ensureDependency(a, b);
+        
+        final FrozenCodeGraph graph = FrozenCodeGraph.freeze(defaultP, false);
+        final FrozenVertex va = graph.getClassVertex("a.A");
+        final FrozenVertex vb = graph.getClassVertex("a.B");
+        final FrozenVertex vc = graph.getClassVertex("b.C");
+        
+        final Collection<FrozenVertex> succColl = va.successors();
+        assertEquals(2, succColl.size());
+        assertEquals(Arrays.asList(vb, vc).toString(), succColl.toString());
+        assertTrue(succColl.contains(vb));
+        assertTrue(succColl.contains(vc));
+        assertFalse(succColl.contains(va));
+        assertFalse(succColl.contains(b));
+        // Package vertex with same index as a successor.
+        assertFalse(succColl.contains(graph.getPackageVertex(vb.index())));
+        // Vertex of another snapshot.
+        assertFalse(succColl.contains(FrozenCodeGraph.freeze(defaultP, false).getClassVertex("a.B")));
+        
+        assertEquals(0, vc.successors().size());
+        
+        /*
+         * Read-only.
+         */
+        
+        try {
+            succColl.add(va);
+            assertTrue(false);
+        } catch (UnsupportedOperationException e) {
+            // ok
+        }
+        final Iterator<FrozenVertex> it = succColl.iterator();
+        it.next();
+        try {
+            it.remove();
+            assertTrue(false);
+        } catch (UnsupportedOperationException e) {
+            // ok
+        }
+        it.next();
+        try {
+            it.next();
+            assertTrue(false);
+        } catch (NoSuchElementException e) {
+            // ok
+        }
+        
+        /*
+         * Not reflecting modifications.
+         */
+        
+        PackageData.deleteDependency(a, b);
+        assertEquals(2, va.successors().size());
+    }
+    
+    public void test_causeNamesForSuccessor_FrozenVertex() {
+        final PackageData defaultP = new PackageData();
+        final ClassData a1 = defaultP.getOrCreateClassData("a.A1");
+        final ClassData a2 = defaultP.getOrCreateClassData("a.A2");
+        final ClassData b = defaultP.getOrCreateClassData("b.B");
+        PackageData.ensureDependency(a2, b);
+        PackageData.ensureDependency(a1, b);
+        
+        for (boolean mustReverseDeps : new boolean[]{false,true}) {
+            final FrozenCodeGraph graph = FrozenCodeGraph.freeze(defaultP, mustReverseDeps);
+            final FrozenVertex pa = graph.getPackageVertex("a");
+            final FrozenVertex pb = graph.getPackageVertex("b");
+            
+            final FrozenVertex from = (mustReverseDeps ? pb : pa);
+            final FrozenVertex to = (mustReverseDeps ? pa : pb);
+            assertEquals("[a.A1, a.A2]", Arrays.toString(from.causeNamesForSuccessor(to)));
+            assertNull(to.causeNamesForSuccessor(from));
+            
+            try {
+                graph.getClassVertex("a.A1").causeNamesForSuccessor(to);
+                assertTrue(false);
+            } catch (UnsupportedOperationException e) {
+                // ok
+            }
+            try {
+                from.causeNamesForSuccessor(graph.getClassVertex("b.B"));
+                assertTrue(false);
+            } catch (IllegalArgumentException e) {
+                // ok
+            }
+        }
+    }
+
+    //--------------------------------------------------------------------------
+    // PRIVATE METHODS
+    //--------------------------------------------------------------------------
+    
+    /**
+     * @return A tree with dependencies within and across packages,
+     *         byte sizes, and a class-empty package.
+     */
+    private static PackageData newTestTree() {
+        final PackageData defaultP = new PackageData();
+        final ClassData a1 = defaultP.getOrCreateClassData("a.A1");
+        final ClassData a2 = defaultP.getOrCreateClassData("a.A2");
+        final ClassData b1 = defaultP.getOrCreateClassData("b.B1");
+        final ClassData c1 = defaultP.getOrCreateClassData("c.C1");
+        final ClassData d = defaultP.getOrCreateClassData("D");
+        defaultP.getOrCreatePackageData("c.empty");
+        PackageData.setByteSizeForClassOrNested(a1, a1.fileNameNoExt(), 11L);
+        PackageData.setByteSizeForClassOrNested(b1, b1.fileNameNoExt(), 17L);
+        PackageData.ensureDependency(a1, a2);
+        PackageData.ensureDependency(a1, b1);
+        PackageData.ensureDependency(a2, b1);
+        PackageData.ensureDependency(b1, c1);
+        PackageData.ensureDependency(c1, a1);
+        PackageData.ensureDependency(d, a2);
+        // Inverse dependency.
+        PackageData.ensureDependency(a2, c1, true);
+        return defaultP;
+    }
+    
+    /**
+     * @param coll Collection of ClassData, PackageData, or views or frozen
+     *        vertices of them.
+     */
+    private static String toNames(Iterable<?> coll) {
+        final StringBuilder sb = new StringBuilder("[");
+        boolean first = true;
+        for (Object obj : coll) {
+            if (!first) {
+                sb.append(", ");
+            }
+            first = false;
+            if (obj instanceof FrozenVertex) {
+                sb.append(((FrozenVertex) obj).name());
+            } else {
+                sb.append(CodeDataUtils.toCodeData((InterfaceVertex) obj).name());
+            }
+        }
+        sb.append("]");
+        return sb.toString();
+    }
+    
+    private static String[] toCauseNames(SortedSet<ClassData> causes) {
+        final String[] names = new String[causes.size()];
+        int i = 0;
+        for (ClassData cause : causes) {
+            names[i++] = cause.name();
+        }
+        return names;
+    }
+}
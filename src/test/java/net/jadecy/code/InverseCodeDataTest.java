@@ -0,0 +1,171 @@
+/*
+ * Copyright 2026 Jeff Hain
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.jadecy.code;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+public class InverseCodeDataTest extends TestCase {
+    
+    //--------------------------------------------------------------------------
+    // PUBLIC METHODS
+    //--------------------------------------------------------------------------
+    
+    public void test_InverseCodeData_AbstractCodeData() {
+        try {
+            new InverseCodeData(null);
+            assertTrue(false);
+        } catch (NullPointerException e) {
+            // ok
+        }
+        
+        final PackageData defaultP = new PackageData();
+        final ClassData classData = defaultP.getOrCreateClassData("a.A");
+        
+        assertSame(classData, new InverseCodeData(classData).data());
+        assertSame(defaultP, new InverseCodeData(defaultP).data());
+    }
+    
+    public void test_toString() {
+        final PackageData defaultP = new PackageData();
+        final ClassData classData = defaultP.getOrCreateClassData("a.A");
+        
+        assertEquals(classData.toString(), new InverseCodeData(classData).toString());
+    }
+    
+    public void test_equals_Object_and_hashCode() {
+        final PackageData defaultP = new PackageData();
+        final ClassData classDataA = defaultP.getOrCreateClassData("a.A");
+        final ClassData classDataB = defaultP.getOrCreateClassData("a.B");
+        
+        final InverseCodeData viewA1 = new InverseCodeData(classDataA);
+        final InverseCodeData viewA2 = new InverseCodeData(classDataA);
+        final InverseCodeData viewB = new InverseCodeData(classDataB);
+        
+        assertTrue(viewA1.equals(viewA2));
+        assertEquals(viewA1.hashCode(), viewA2.hashCode());
+        
+        assertFalse(viewA1.equals(viewB));
+        assertFalse(viewA1.equals(null));
+        assertFalse(viewA1.equals(classDataA));
+    }
+    
+    public void test_compareTo_InterfaceVertex() {
+        final PackageData defaultP = new PackageData();
+        final ClassData classDataA = defaultP.getOrCreateClassData("a.A");
+        final ClassData classDataB = defaultP.getOrCreateClassData("a.B");
+        
+        final InverseCodeData viewA = new InverseCodeData(classDataA);
+        final InverseCodeData viewB = new InverseCodeData(classDataB);
+        
+        assertEquals(0, viewA.compareTo(new InverseCodeData(classDataA)));
+        assertTrue(viewA.compareTo(viewB) < 0);
+        assertTrue(viewB.compareTo(viewA) > 0);
+    }
+    
+    public void test_successors_and_predecessors() {
+        final PackageData defaultP = new PackageData();
+        final ClassData classDataA = defaultP.getOrCreateClassData("a.A");
+        final ClassData classDataB = defaultP.getOrCreateClassData("a.B");
+        final ClassData classDataC = defaultP.getOrCreateClassData("a.C");
+        PackageData.ensureDependency(classDataA, classDataC);
+        PackageData.ensureDependency(classDataB, classDataC);
+        
+        final InverseCodeData viewA = new InverseCodeData(classDataA);
+        final InverseCodeData viewB = new InverseCodeData(classDataB);
+        final InverseCodeData viewC = new InverseCodeData(classDataC);
+        
+        assertEquals(0, viewA.successors().size());
+        assertEquals(1, viewA.predecessors().size());
+        assertTrue(viewA.predecessors().contains(viewC));
+        
+        final Collection<InverseCodeData> succColl = viewC.successors();
+        assertEquals(2, succColl.size());
+        assertTrue(succColl.contains(viewA));
+        assertTrue(succColl.contains(viewB));
+        assertFalse(succColl.contains(viewC));
+        assertFalse(succColl.contains(classDataA));
+        assertEquals(0, viewC.predecessors().size());
+        
+        // Ordered as viewed data.
+        final List<InverseCodeData> succList = new ArrayList<InverseCodeData>(succColl);
+        assertEquals(viewA, succList.get(0));
+        assertEquals(viewB, succList.get(1));
+        
+        /*
+         * Read-only.
+         */
+        
+        try {
+            succColl.add(viewC);
+            assertTrue(false);
+        } catch (UnsupportedOperationException e) {
+            // ok
+        }
+        try {
+            succColl.remove(viewA);
+            assertTrue(false);
+        } catch (UnsupportedOperationException e) {
+            // ok
+        }
+        try {
+            final Iterator<InverseCodeData> it = succColl.iterator();
+            it.next();
+            it.remove();
+            assertTrue(false);
+        } catch (UnsupportedOperationException e) {
+            // ok
+        }
+        assertEquals(2, classDataC.predecessors().size());
+        
+        /*
+         * Reflecting modifications.
+         */
+        
+        PackageData.deleteDependency(classDataA, classDataC);
+        assertEquals(1, succColl.size());
+        assertFalse(succColl.contains(viewA));
+    }
+    
+    public void test_causeSetForSuccessor_InverseCodeData() {
+        final PackageData defaultP = new PackageData();
+        final ClassData classDataA = defaultP.getOrCreateClassData("a.A");
+        final ClassData classDataB = defaultP.getOrCreateClassData("b.B");
+        PackageData.ensureDependency(classDataA, classDataB);
+        
+        final PackageData packageDataA = defaultP.getPackageData("a");
+        final PackageData packageDataB = defaultP.getPackageData("b");
+        final InverseCodeData viewA = new InverseCodeData(packageDataA);
+        final InverseCodeData viewB = new InverseCodeData(packageDataB);
+        
+        assertSame(
+                packageDataB.causeSetByPredecessor().get(packageDataA),
+                viewB.causeSetForSuccessor(viewA));
+        assertTrue(viewB.causeSetForSuccessor(viewA).contains(classDataA));
+        assertNull(viewA.causeSetForSuccessor(viewB));
+        
+        try {
+            new InverseCodeData(classDataA).causeSetForSuccessor(viewB);
+            assertTrue(false);
+        } catch (ClassCastException e) {
+            // ok
+        }
+    }
+}
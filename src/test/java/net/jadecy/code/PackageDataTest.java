@@ -16,6 +16,8 @@
 package net.jadecy.code;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
 import java.util.SortedSet;
 
 import net.jadecy.names.NameUtils;
@@ -48,6 +50,204 @@ public class PackageDataTest extends TestCase {
         assertEquals("", defaultP.name());
         assertEquals(NameUtils.DEFAULT_PACKAGE_DISPLAY_NAME, defaultP.displayName());
     }
+    
+    public void test_PackageData_boolean_and_getMustUseCompactStorage() {
+        assertFalse(new PackageData().getMustUseCompactStorage());
+        
+        for (boolean mustUseCompactStorage : new boolean[]{false,true}) {
+            final PackageData defaultP = new PackageData(mustUseCompactStorage);
+            assertEquals(null, defaultP.parent());
+            assertEquals("", defaultP.name());
+            assertEquals(mustUseCompactStorage, defaultP.getMustUseCompactStorage());
+            
+            // Inherited by child packages.
+            final PackageData p1 = defaultP.getOrCreatePackageData("p1.p11");
+            assertEquals(mustUseCompactStorage, p1.getMustUseCompactStorage());
+        }
+    }
+    
+    public void test_compactStorage_sameBehaviorAsDefaultStorage() {
+        final Random random = new Random(123456789L);
+        final String[] classNames = new String[]{
+                "A", "B", "p1.C", "p1.D", "p1.D$E", "p1.p11.F", "p2.G", "p2.H",
+        };
+        
+        final PackageData defaultP = new PackageData(false);
+        final PackageData compactP = new PackageData(true);
+        for (int i = 0; i < 2000; i++) {
+            final String nameA = classNames[random.nextInt(classNames.length)];
+            final String nameB = classNames[random.nextInt(classNames.length)];
+            final int op = random.nextInt(10);
+            final boolean asInverseDep = random.nextBoolean();
+            for (PackageData root : new PackageData[]{defaultP,compactP}) {
+                final ClassData classA = root.getOrCreateClassData(nameA);
+                final ClassData classB = root.getOrCreateClassData(nameB);
+                if (op == 0) {
+                    PackageData.deleteClassData(classA);
+                } else if ((op < 4) || (classA == classB)) {
+                    PackageData.deleteDependency(classA, classB);
+                } else {
+                    PackageData.ensureDependency(classA, classB, asInverseDep);
+                }
+            }
+            
+            assertEquals(toVerboseString(defaultP), toVerboseString(compactP));
+            for (String className : classNames) {
+                final ClassData classData = defaultP.getClassData(className);
+                final ClassData compactClassData = compactP.getClassData(className);
+                if (classData == null) {
+                    assertNull(compactClassData);
+                } else {
+                    assertEquals(
+                            classData.predecessors().toString(),
+                            compactClassData.predecessors().toString());
+                }
+            }
+        }
+    }
+    
+    public void test_PackageData_boolean_CauseTracking_and_getCauseTracking() {
+        assertEquals(CauseTracking.FULL, new PackageData().getCauseTracking());
+        assertEquals(CauseTracking.FULL, new PackageData(true).getCauseTracking());
+        
+        try {
+            new PackageData(false, null);
+            assertTrue(false);
+        } catch (NullPointerException e) {
+            // ok
+        }
+        
+        for (CauseTracking causeTracking : CauseTracking.values()) {
+            final PackageData defaultP = new PackageData(true, causeTracking);
+            assertEquals(null, defaultP.parent());
+            assertTrue(defaultP.getMustUseCompactStorage());
+            assertEquals(causeTracking, defaultP.getCauseTracking());
+            
+            // Inherited by child packages.
+            final PackageData p1 = defaultP.getOrCreatePackageData("p1.p11");
+            assertEquals(causeTracking, p1.getCauseTracking());
+        }
+    }
+    
+    public void test_causeTracking_sameDependenciesAsFullTracking() {
+        final Random random = new Random(123456789L);
+        final String[] classNames = new String[]{
+                "A", "B", "p1.C", "p1.D", "p1.D$E", "p1.p11.F", "p2.G", "p2.H",
+        };
+        
+        final PackageData fullP = new PackageData(false, CauseTracking.FULL);
+        final PackageData countP = new PackageData(false, CauseTracking.COUNT);
+        final PackageData lazyP = new PackageData(true, CauseTracking.LAZY);
+        for (int i = 0; i < 2000; i++) {
+            final String nameA = classNames[random.nextInt(classNames.length)];
+            final String nameB = classNames[random.nextInt(classNames.length)];
+            final int op = random.nextInt(10);
+            for (PackageData root : new PackageData[]{fullP,countP,lazyP}) {
+                final ClassData classA = root.getOrCreateClassData(nameA);
+                final ClassData classB = root.getOrCreateClassData(nameB);
+                if (op == 0) {
+                    PackageData.deleteClassData(classA);
+                } else if ((op < 4) || (classA == classB)) {
+                    PackageData.deleteDependency(classA, classB);
+                } else {
+                    PackageData.ensureDependency(classA, classB);
+                }
+            }
+            
+            for (String className : classNames) {
+                final ClassData classData = fullP.getClassData(className);
+                if (classData == null) {
+                    continue;
+                }
+                final PackageData packageData = (PackageData) classData.parent();
+                for (PackageData root : new PackageData[]{countP,lazyP}) {
+                    final PackageData otherPackageData = root.getPackageData(packageData.name());
+                    assertEquals(
+                            packageData.successors().toString(),
+                            otherPackageData.successors().toString());
+                    assertEquals(
+                            packageData.predecessors().toString(),
+                            otherPackageData.predecessors().toString());
+                    assertEquals(
+                            packageData.causeCountBySuccessor().toString(),
+                            otherPackageData.causeCountBySuccessor().toString());
+                    assertEquals(
+                            packageData.causeCountByPredecessor().toString(),
+                            otherPackageData.causeCountByPredecessor().toString());
+                    if (root == lazyP) {
+                        assertEquals(
+                                packageData.causeSetBySuccessor().toString(),
+                                otherPackageData.causeSetBySuccessor().toString());
+                        assertEquals(
+                                packageData.causeSetByPredecessor().toString(),
+                                otherPackageData.causeSetByPredecessor().toString());
+                    } else {
+                        assertEquals(
+                                packageData.causeSetBySuccessor().keySet().toString(),
+                                otherPackageData.causeSetBySuccessor().keySet().toString());
+                        for (SortedSet<ClassData> causeSet : otherPackageData.causeSetBySuccessor().values()) {
+                            assertEquals(0, causeSet.size());
+                        }
+                    }
+                }
+            }
+        }
+    }
+    
+    public void test_causeTracking_inverseDependencies() {
+        for (CauseTracking causeTracking : new CauseTracking[]{CauseTracking.COUNT,CauseTracking.LAZY}) {
+            final PackageData defaultP = new PackageData(false, causeTracking);
+            final ClassData a = defaultP.getOrCreateClassData("a.A");
+            final ClassData a2 = defaultP.getOrCreateClassData("a.A2");
+            final ClassData b = defaultP.getOrCreateClassData("b.B");
+            
+            // Allowed within a same package, where there is no cause.
+            assertTrue(PackageData.ensureDependency(a, a2, true));
+            
+            try {
+                PackageData.ensureDependency(a, b, true);
+                assertTrue(false);
+            } catch (IllegalArgumentException e) {
+                // ok
+            }
+            assertEquals(1, a.successors().size());
+            assertEquals(0, ((PackageData) a.parent()).successors().size());
+        }
+    }
+    
+    public void test_causeCountBySuccessor_and_causeCountByPredecessor() {
+        for (CauseTracking causeTracking : CauseTracking.values()) {
+            final PackageData defaultP = new PackageData(false, causeTracking);
+            final ClassData c1 = defaultP.getOrCreateClassData("c1");
+            final ClassData c2 = defaultP.getOrCreateClassData("c2");
+            final ClassData c11 = defaultP.getOrCreateClassData("p1.c11");
+            final ClassData c12 = defaultP.getOrCreateClassData("p1.c12");
+            PackageData.ensureDependency(c2, c11);
+            PackageData.ensureDependency(c1, c11);
+            PackageData.ensureDependency(c1, c12);
+            
+            final PackageData p1 = defaultP.getPackageData("p1");
+            // Number of causes, not of classes dependencies.
+            assertEquals("{p1=2}", defaultP.causeCountBySuccessor().toString());
+            assertEquals("{" + NameUtils.DEFAULT_PACKAGE_DISPLAY_NAME + "=2}", p1.causeCountByPredecessor().toString());
+            assertEquals("{}", p1.causeCountBySuccessor().toString());
+            
+            try {
+                defaultP.causeCountBySuccessor().clear();
+                assertTrue(false);
+            } catch (UnsupportedOperationException e) {
+                // ok
+            }
+            
+            PackageData.deleteDependency(c1, c11);
+            assertEquals("{p1=2}", defaultP.causeCountBySuccessor().toString());
+            PackageData.deleteDependency(c1, c12);
+            assertEquals("{p1=1}", defaultP.causeCountBySuccessor().toString());
+            PackageData.deleteClassData(c11);
+            assertEquals("{}", defaultP.causeCountBySuccessor().toString());
+            assertEquals("{}", p1.causeCountByPredecessor().toString());
+        }
+    }
 
     /*
      * 
@@ -118,6 +318,76 @@ public class PackageDataTest extends TestCase {
         }
     }
     
+    public void test_causeSetBySuccessor_and_causeSetByPredecessor_compactStorage() {
+        
+        final PackageData[] roots = new PackageData[]{new PackageData(false), new PackageData(true)};
+        for (PackageData defaultP : roots) {
+            final ClassData c1 = defaultP.getOrCreateClassData("c1");
+            final ClassData c2 = defaultP.getOrCreateClassData("c2");
+            final ClassData c11 = defaultP.getOrCreateClassData("p1.c11");
+            final ClassData c21 = defaultP.getOrCreateClassData("p2.c21");
+            PackageData.ensureDependency(c2, c11);
+            PackageData.ensureDependency(c1, c11);
+            PackageData.ensureDependency(c1, c21);
+        }
+        final PackageData defaultP = roots[0];
+        final PackageData compactP = roots[1];
+        final PackageData p1 = compactP.getPackageData("p1");
+        
+        for (boolean bySucc : new boolean[]{false,true}) {
+            final Map<PackageData,SortedSet<ClassData>> expectedMap =
+                    (bySucc ? defaultP.causeSetBySuccessor() : defaultP.getPackageData("p1").causeSetByPredecessor());
+            final Map<PackageData,SortedSet<ClassData>> map =
+                    (bySucc ? compactP.causeSetBySuccessor() : p1.causeSetByPredecessor());
+            assertEquals(expectedMap.toString(), map.toString());
+            assertEquals(expectedMap.size(), map.size());
+            assertEquals(expectedMap.keySet().toString(), map.keySet().toString());
+            
+            final PackageData key = (bySucc ? p1 : compactP);
+            assertTrue(map.containsKey(key));
+            assertEquals("[c1, c2]", map.get(key).toString());
+            assertNull(map.get(compactP.getPackageData("p2").getOrCreatePackageData("p3")));
+            
+            // Unmodifiable.
+            try {
+                map.clear();
+                assertTrue(false);
+            } catch (UnsupportedOperationException e) {
+                // ok
+            }
+            try {
+                map.remove(key);
+                assertTrue(false);
+            } catch (UnsupportedOperationException e) {
+                // ok
+            }
+            try {
+                map.get(key).clear();
+                assertTrue(false);
+            } catch (UnsupportedOperationException e) {
+                // ok
+            }
+            final Map.Entry<PackageData,SortedSet<ClassData>> entry = map.entrySet().iterator().next();
+            try {
+                entry.setValue(null);
+                assertTrue(false);
+            } catch (UnsupportedOperationException e) {
+                // ok
+            }
+            try {
+                entry.getValue().clear();
+                assertTrue(false);
+            } catch (UnsupportedOperationException e) {
+                // ok
+            }
+        }
+        
+        // Reflecting modifications.
+        final Map<PackageData,SortedSet<ClassData>> map = compactP.causeSetBySuccessor();
+        PackageData.deleteDependency(compactP.getClassData("c1"), compactP.getClassData("p2.c21"));
+        assertEquals("{p1=[c1, c2]}", map.toString());
+    }
+    
     public void test_successors() {
         
         final PackageData defaultP = new PackageData();
@@ -358,6 +628,111 @@ public class PackageDataTest extends TestCase {
         }
     }
     
+    public void test_getOrCreateClassDataForSymbol_ClassSymbol() {
+        
+        final PackageData defaultP = new PackageData();
+        
+        try {
+            defaultP.getOrCreateClassDataForSymbol(null);
+            assertTrue(false);
+        } catch (NullPointerException e) {
+            // ok
+        }
+        
+        final ClassSymbolTable table = new ClassSymbolTable();
+        final PackageData refP = new PackageData();
+        for (String className : new String[]{
+                "c1",
+                "p1.c11",
+                "p1.p11.c111$n1$n2",
+                "p1.p11.c111",
+                "p1.p11.c111$n3",
+                "foo.bar.$",
+                "foo.bar.A$",
+                "foo.bar.A$$B",
+                "a.$.$",
+        }) {
+            final ClassSymbol symbol = table.intern(className);
+            final ClassData classData = defaultP.getOrCreateClassDataForSymbol(symbol);
+            assertSame(classData, defaultP.getOrCreateClassDataForSymbol(symbol));
+            assertSame(classData, defaultP.getClassData(className));
+            assertSame(symbol.name(), classData.name());
+            assertSame(symbol.fileNameNoExt(), classData.fileNameNoExt());
+            
+            final ClassData refClassData = refP.getOrCreateClassData(className);
+            assertEquals(refClassData.parent().name(), classData.parent().name());
+            assertEquals(
+                    refClassData.topLevelClassData().name(),
+                    classData.topLevelClassData().name());
+            assertEquals(
+                    (refClassData.outerClassData() == null) ? null : refClassData.outerClassData().name(),
+                    (classData.outerClassData() == null) ? null : classData.outerClassData().name());
+        }
+        assertEquals(refP.getSubtreeClassCount(), defaultP.getSubtreeClassCount());
+        
+        /*
+         * Non-root package: same as with name.
+         */
+        
+        final PackageData p1 = defaultP.getPackageData("p1");
+        final ClassData c111 = p1.getOrCreateClassDataForSymbol(table.intern("p11.c111"));
+        assertSame(c111, defaultP.getClassData("p1.p11.c111"));
+        
+        final ClassData c121n = p1.getOrCreateClassDataForSymbol(table.intern("p12.c121$n"));
+        assertSame(c121n, defaultP.getClassData("p1.p12.c121$n"));
+        assertEquals("p1.p12.c121$n", c121n.name());
+        assertSame(defaultP.getClassData("p1.p12.c121"), c121n.outerClassData());
+    }
+    
+    public void test_getClassSymbolTable() {
+        
+        final PackageData defaultP = new PackageData();
+        final ClassSymbolTable table = defaultP.getClassSymbolTable();
+        assertNotNull(table);
+        
+        final ClassData c11 = defaultP.getOrCreateClassDataForSymbol(table.intern("p1.c11"));
+        final ClassSymbol c12Symbol = table.intern("p1.c12");
+        defaultP.getOrCreateClassDataForSymbol(c12Symbol);
+        assertSame(table, defaultP.getPackageData("p1").getClassSymbolTable());
+        assertEquals(2, table.size());
+        
+        /*
+         * Only symbol of deleted class removed on class deletion.
+         */
+        
+        PackageData.deleteClassData(c11);
+        assertEquals(1, table.size());
+        assertNull(table.getSymbol("p1.c11"));
+        assertSame(c12Symbol, table.getSymbol("p1.c12"));
+        
+        /*
+         * Only symbols of deleted classes removed on clear of non-default
+         * package.
+         */
+        
+        defaultP.getOrCreateClassDataForSymbol(table.intern("p2.c21"));
+        assertEquals(2, table.size());
+        defaultP.getPackageData("p1").clear();
+        assertEquals(1, table.size());
+        assertNotNull(table.getSymbol("p2.c21"));
+        
+        /*
+         * Cleared on clear of default package, including symbols
+         * not used by any class.
+         */
+        
+        table.intern("p3.c31");
+        assertEquals(2, table.size());
+        defaultP.clear();
+        assertEquals(0, table.size());
+        
+        /*
+         * Each tree has its own table.
+         */
+        
+        assertNotSame(table, new PackageData().getClassSymbolTable());
+    }
+    
     public void test_getOrCreatePackageData_String() {
         
         final PackageData defaultP = new PackageData();
@@ -1231,6 +1606,12 @@ public class PackageDataTest extends TestCase {
      * 
      */
     
+    private static String toVerboseString(PackageData packageData) {
+        final MemPrintStream stream = new MemPrintStream();
+        packageData.printSubtree(stream, true);
+        return stream.getLines().toString();
+    }
+    
     private static String[] toStringTab(List<String> lineList) {
         return PrintTestUtils.toStringTab(lineList);
     }
@@ -0,0 +1,174 @@
+/*
+ * Copyright 2026 Jeff Hain
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.jadecy.parsing;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import net.jadecy.names.NameFilters;
+import net.jadecy.tests.JdcTestConfig;
+
+public class ClassDepsParserPerf {
+    
+    //--------------------------------------------------------------------------
+    // CONFIGURATION
+    //--------------------------------------------------------------------------
+    
+    private static final int NBR_OF_RUNS = 4;
+    
+    private static final String RT_JAR_FILE_PATH = JdcTestConfig.getJdk8Home() + "/jre/lib/rt.jar";
+    
+    //--------------------------------------------------------------------------
+    // PUBLIC METHODS
+    //--------------------------------------------------------------------------
+    
+    public static void main(String[] args) {
+        newRun(args);
+    }
+    
+    public static void newRun(String[] args) {
+        new ClassDepsParserPerf().run(args);
+    }
+    
+    public ClassDepsParserPerf() {
+    }
+    
+    //--------------------------------------------------------------------------
+    // PRIVATE METHODS
+    //--------------------------------------------------------------------------
+    
+    private void run(String[] args) {
+        System.out.println("--- " + ClassDepsParserPerf.class.getSimpleName() + "... ---");
+        
+        final String filePath = ((args.length != 0) ? args[0] : RT_JAR_FILE_PATH);
+        
+        this.bench_computeDependencies(filePath);
+        
+        System.out.println("--- ..." + ClassDepsParserPerf.class.getSimpleName() + " ---");
+    }
+    
+    /**
+     * Class files are read in memory first, for only parsing to be measured.
+     */
+    private void bench_computeDependencies(String filePath) {
+        
+        final File file = new File(filePath);
+        final List<byte[]> classBytesList = readClassFiles(file);
+        
+        for (boolean doted : new boolean[]{false,true}) {
+            for (boolean apiOnly : new boolean[]{false,true}) {
+                bench_computeDependencies(
+                        file,
+                        classBytesList,
+                        doted,
+                        apiOnly);
+            }
+        }
+    }
+    
+    private void bench_computeDependencies(
+            File file,
+            List<byte[]> classBytesList,
+            boolean doted,
+            boolean apiOnly) {
+        
+        System.out.println();
+        
+        final Set<String> depSet = new HashSet<String>();
+        for (int k = 0; k < NBR_OF_RUNS; k++) {
+            long a = System.nanoTime();
+            long depCount = 0;
+            for (byte[] classBytes : classBytesList) {
+                final ByteBuffer buffer = ByteBuffer.wrap(classBytes);
+                if (doted) {
+                    ClassDepsParser.computeDotedDependencies(
+                            buffer,
+                            apiOnly,
+                            NameFilters.any(),
+                            depSet);
+                } else {
+                    ClassDepsParser.computeDependencies(
+                            buffer,
+                            apiOnly,
+                            depSet);
+                }
+                depCount += depSet.size();
+                depSet.clear();
+            }
+            long b = System.nanoTime();
+            System.out.println(
+                    "parsing "
+                            + classBytesList.size()
+                            + " classes of "
+                            + file.getAbsolutePath()
+                            + " ("
+                            + depCount
+                            + " deps) (doted = "
+                            + doted
+                            + ", apiOnly = "
+                            + apiOnly
+                            + ") took "
+                            + ((b-a)/1000/1e6)
+                            + " s");
+        }
+    }
+    
+    private static List<byte[]> readClassFiles(File jar) {
+        final List<byte[]> classBytesList = new ArrayList<byte[]>();
+        try {
+            final ZipFile zipFile = new ZipFile(jar);
+            try {
+                final Enumeration<? extends ZipEntry> entries = zipFile.entries();
+                while (entries.hasMoreElements()) {
+                    final ZipEntry entry = entries.nextElement();
+                    if (entry.getName().endsWith(".class")) {
+                        final InputStream is = zipFile.getInputStream(entry);
+                        try {
+                            classBytesList.add(readBytes(is));
+                        } finally {
+                            is.close();
+                        }
+                    }
+                }
+            } finally {
+                zipFile.close();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return classBytesList;
+    }
+    
+    private static byte[] readBytes(InputStream is) throws IOException {
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        final byte[] tmp = new byte[8192];
+        int n;
+        while ((n = is.read(tmp)) >= 0) {
+            baos.write(tmp, 0, n);
+        }
+        return baos.toByteArray();
+    }
+}
@@ -15,9 +15,14 @@
  */
 package net.jadecy.parsing;
 
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UTFDataFormatException;
 import java.lang.annotation.Annotation;
 import java.lang.annotation.Documented;
 import java.lang.annotation.ElementType;
@@ -29,11 +34,14 @@ import java.lang.invoke.MethodHandles;
 import java.lang.invoke.TypeDescriptor;
 import java.lang.runtime.ObjectMethods;
 import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Enumeration;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.SortedSet;
 import java.util.TreeSet;
@@ -42,6 +50,7 @@ import java.util.zip.ZipFile;
 
 import junit.framework.TestCase;
 import net.jadecy.comp.JdcFsUtils;
+import net.jadecy.names.NameFilters;
 import net.jadecy.parsing.test$.$;
 import net.jadecy.parsing.test$.$$;
 import net.jadecy.parsing.test$.$A;
@@ -2759,6 +2768,197 @@ public class ClassDepsParserTest extends TestCase {
         }
     }
     
+    /*
+     * ByteBuffer.
+     */
+    
+    public void test_computeDependencies_ByteBuffer_empty() {
+        final ByteBuffer buffer = ByteBuffer.allocate(0);
+        for (boolean apiOnly : FALSE_TRUE) {
+            final SortedSet<String> actual = new TreeSet<String>();
+            assertEquals(null, ClassDepsParser.computeDependencies(buffer, apiOnly, actual));
+            assertEquals(0, actual.size());
+        }
+    }
+    
+    public void test_computeDependencies_ByteBuffer_bufferNotModified() {
+        final byte[] bytes = readBytes(new File(getClassFilePath(MyBlackHole.class.getName())));
+        final ByteBuffer buffer = newLittleEndianBufferWithOffset(bytes);
+        final int position = buffer.position();
+        final int limit = buffer.limit();
+        
+        final SortedSet<String> actual = new TreeSet<String>();
+        final String className = ClassDepsParser.computeDependencies(buffer, false, actual);
+        assertEquals(slashed(MyBlackHole.class.getName()), className);
+        assertTrue(actual.contains(slashed(StrictMath.class.getName())));
+        
+        assertEquals(position, buffer.position());
+        assertEquals(limit, buffer.limit());
+        assertEquals(ByteOrder.LITTLE_ENDIAN, buffer.order());
+    }
+    
+    public void test_computeDependencies_ByteBuffer_truncated() {
+        final byte[] bytes = readBytes(new File(getClassFilePath(MyBlackHole.class.getName())));
+        final ByteBuffer buffer = newLittleEndianBufferWithOffset(bytes);
+        // Removing last byte.
+        buffer.limit(buffer.limit() - 1);
+        try {
+            ClassDepsParser.computeDependencies(buffer, false, new ArrayList<String>());
+            fail();
+        } catch (RuntimeException e) {
+            assertTrue(e.getCause() instanceof EOFException);
+        }
+    }
+    
+    public void test_computeDotedDependencies_classNameFilter() {
+        final String className = MyBlackHole.class.getName();
+        final ByteBuffer buffer = ByteBuffer.wrap(readBytes(new File(getClassFilePath(className))));
+        for (boolean apiOnly : FALSE_TRUE) {
+            {
+                final SortedSet<String> actual = new TreeSet<String>();
+                assertEquals(className, ClassDepsParser.computeDotedDependencies(
+                        buffer,
+                        apiOnly,
+                        NameFilters.equalsName(className),
+                        actual));
+                if (!apiOnly) {
+                    assertTrue(actual.contains(StrictMath.class.getName()));
+                }
+            }
+            {
+                final SortedSet<String> actual = new TreeSet<String>();
+                assertEquals(null, ClassDepsParser.computeDotedDependencies(
+                        buffer,
+                        apiOnly,
+                        NameFilters.not(NameFilters.equalsName(className)),
+                        actual));
+                assertEquals(0, actual.size());
+            }
+        }
+    }
+    
+    /**
+     * Tests that parsing stops once the class name is rejected,
+     * by cutting the class file just after this_class.
+     */
+    public void test_computeDotedDependencies_classNameFilter_earlyStop() {
+        final String className = MyBlackHole.class.getName();
+        final byte[] bytes = readBytes(new File(getClassFilePath(className)));
+        final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        // Increasing input size until parsing doesn't fail due to EOF,
+        // which must happen way before the end of the class file.
+        boolean foundEnd = false;
+        for (int limit = 10; limit <= bytes.length; limit++) {
+            buffer.limit(limit);
+            try {
+                final String res = ClassDepsParser.computeDotedDependencies(
+                        buffer,
+                        false,
+                        NameFilters.none(),
+                        new ArrayList<String>());
+                assertEquals(null, res);
+                foundEnd = true;
+                // Way before end of class file.
+                assertTrue(limit < bytes.length - 10);
+                break;
+            } catch (RuntimeException e) {
+                // Truncated before this_class.
+                assertTrue(e.getCause() instanceof EOFException);
+            }
+        }
+        assertTrue(foundEnd);
+    }
+    
+    /*
+     * Dependencies and API dependencies in a single pass.
+     */
+    
+    /**
+     * Tests on all compiled main and test classes (which cover many cases
+     * of APIness), and on classes of a jar file.
+     */
+    public void test_computeDependencies_ByteBuffer_withApiDeps_sameAsSeparate() {
+        final List<byte[]> bytesList = new ArrayList<byte[]>();
+        addClassFilesBytes(new File(COMPILATION_OUTPUT_DIR_PATH), bytesList);
+        try {
+            final ZipFile zipFile = new ZipFile("lib/junit.jar");
+            try {
+                final Enumeration<? extends ZipEntry> entries = zipFile.entries();
+                while (entries.hasMoreElements()) {
+                    final ZipEntry entry = entries.nextElement();
+                    if (entry.getName().endsWith(".class")) {
+                        final InputStream is = zipFile.getInputStream(entry);
+                        try {
+                            bytesList.add(readBytes(is));
+                        } finally {
+                            is.close();
+                        }
+                    }
+                }
+            } finally {
+                zipFile.close();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        assertTrue(bytesList.size() > 100);
+        
+        for (byte[] bytes : bytesList) {
+            final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            
+            final SortedSet<String> expectedAll = new TreeSet<String>();
+            final SortedSet<String> expectedApi = new TreeSet<String>();
+            final String expectedName = ClassDepsParser.computeDependencies(buffer, false, expectedAll);
+            assertEquals(expectedName, ClassDepsParser.computeDependencies(buffer, true, expectedApi));
+            
+            final SortedSet<String> actualAll = new TreeSet<String>();
+            final SortedSet<String> actualApi = new TreeSet<String>();
+            assertEquals(expectedName, ClassDepsParser.computeDependencies(buffer, actualAll, actualApi));
+            assertEquals(expectedAll, actualAll);
+            assertEquals(expectedApi, actualApi);
+            
+            final SortedSet<String> expectedDotedApi = new TreeSet<String>();
+            ClassDepsParser.computeDotedDependencies(buffer, true, null, expectedDotedApi);
+            final SortedSet<String> actualDotedAll = new TreeSet<String>();
+            final SortedSet<String> actualDotedApi = new TreeSet<String>();
+            ClassDepsParser.computeDotedDependencies(buffer, null, actualDotedAll, actualDotedApi);
+            assertEquals(expectedDotedApi, actualDotedApi);
+            assertEquals(expectedAll.size(), actualDotedAll.size());
+        }
+    }
+    
+    /*
+     * Reuse of parsing data.
+     */
+    
+    /**
+     * Tests parsing from the collection filled by the parsing,
+     * which must not mess up with data being used.
+     */
+    public void test_computeDependencies_reentrant() {
+        final File classFile = new File(getClassFilePath(MyBlackHole.class.getName()));
+        
+        final SortedSet<String> expected = new TreeSet<String>();
+        ClassDepsParser.computeDependencies(classFile, false, expected);
+        
+        final SortedSet<String> innerDeps = new TreeSet<String>();
+        final SortedSet<String> actual = new TreeSet<String>() {
+            private static final long serialVersionUID = 1L;
+            @Override
+            public boolean addAll(Collection<? extends String> c) {
+                if (innerDeps.size() == 0) {
+                    ClassDepsParser.computeDependencies(classFile, false, innerDeps);
+                }
+                return super.addAll(c);
+            }
+        };
+        final String className = ClassDepsParser.computeDependencies(classFile, false, actual);
+        
+        assertEquals(slashed(MyBlackHole.class.getName()), className);
+        assertEquals(expected, actual);
+        assertEquals(expected, innerDeps);
+    }
+    
     /*
      * Internal treatments.
      */
@@ -2828,6 +3028,59 @@ public class ClassDepsParserTest extends TestCase {
             assertTrue(classNameList.contains(className));
         }
     }
+    
+    public void test_decodeModifiedUtf8() {
+        for (String string : new String[]{
+                "",
+                "java/lang/Object",
+                "\u0000",
+                "caf\u00E9/\u00FF\u0100",
+                "\u20AC\uFFFF",
+                // Surrogate pair: encoded as two 3-bytes sequences.
+                "a\uD83D\uDE00b",
+        }) {
+            final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            final DataOutputStream dos = new DataOutputStream(baos);
+            try {
+                dos.writeByte(0xFF);
+                dos.writeUTF(string);
+                dos.close();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+            final ByteBuffer buffer = ByteBuffer.wrap(baos.toByteArray());
+            // Skipping garbage byte and u2 length.
+            final int from = 3;
+            for (boolean slashesToDots : FALSE_TRUE) {
+                final String decoded = ClassDepsParser.decodeModifiedUtf8(buffer, from, buffer.limit() - from, slashesToDots);
+                if (slashesToDots) {
+                    assertEquals(string.replace('/', '.'), decoded);
+                } else {
+                    assertEquals(string, decoded);
+                }
+            }
+        }
+        
+        for (byte[] bytes : new byte[][]{
+                // Continuation byte first.
+                {(byte) 0x80},
+                // Partial 2-bytes sequence.
+                {(byte) 0xC3},
+                // Partial 3-bytes sequence.
+                {(byte) 0xE2, (byte) 0x82},
+                // Bad continuation byte.
+                {(byte) 0xC3, (byte) 0x41},
+                // 4-bytes sequence (not in modified UTF-8).
+                {(byte) 0xF0, (byte) 0x9F, (byte) 0x98, (byte) 0x80},
+        }) {
+            try {
+                ClassDepsParser.decodeModifiedUtf8(ByteBuffer.wrap(bytes), 0, bytes.length, false);
+                fail();
+            } catch (RuntimeException e) {
+                assertTrue(e.getCause() instanceof UTFDataFormatException);
+            }
+        }
+    }
 
     public void test_addClassNamesFromSignatureInto() {
 
@@ -2966,6 +3219,24 @@ public class ClassDepsParserTest extends TestCase {
         }
     }
 
+    /**
+     * This method is recursive.
+     * 
+     * @param bytesList (in,out) Where to add contents of class files
+     *        of the specified directory and its sub directories.
+     */
+    private static void addClassFilesBytes(File dir, List<byte[]> bytesList) {
+        final File[] children = dir.listFiles();
+        Arrays.sort(children);
+        for (File child : children) {
+            if (child.isDirectory()) {
+                addClassFilesBytes(child, bytesList);
+            } else if (child.getName().endsWith(".class")) {
+                bytesList.add(readBytes(child));
+            }
+        }
+    }
+    
     private static String getClassFilePath(String className) {
         return COMPILATION_OUTPUT_DIR_PATH + "/" + slashed(className) + ".class";
     }
@@ -2974,6 +3245,10 @@ public class ClassDepsParserTest extends TestCase {
         return className.replace('.','/');
     }
 
+    private static String doted(String className) {
+        return (className == null) ? null : className.replace('/','.');
+    }
+    
     private static void addSlashedName(Collection<String> coll, String className) {
         coll.add(slashed(className));
     }
@@ -3090,6 +3365,29 @@ public class ClassDepsParserTest extends TestCase {
                 classFileToParse,
                 apiOnly,
                 jadecyDeps);
+            
+            // Checking that ByteBuffer parsing gives the same result.
+            final SortedSet<String> bufferDeps = new TreeSet<String>();
+            final String bufferClassName = ClassDepsParser.computeDependencies(
+                newLittleEndianBufferWithOffset(readBytes(classFileToParse)),
+                apiOnly,
+                bufferDeps);
+            assertEquals(jadecyClassName, bufferClassName);
+            assertEquals(new TreeSet<String>(jadecyDeps), bufferDeps);
+            
+            // Checking that doted parsing gives the same result, but doted.
+            final SortedSet<String> dotedDeps = new TreeSet<String>();
+            final String dotedClassName = ClassDepsParser.computeDotedDependencies(
+                newLittleEndianBufferWithOffset(readBytes(classFileToParse)),
+                apiOnly,
+                NameFilters.any(),
+                dotedDeps);
+            assertEquals(doted(jadecyClassName), dotedClassName);
+            final SortedSet<String> expectedDotedDeps = new TreeSet<String>();
+            for (String dep : jadecyDeps) {
+                expectedDotedDeps.add(doted(dep));
+            }
+            assertEquals(expectedDotedDeps, dotedDeps);
         }
 
         if (DEBUG) {
@@ -3139,6 +3437,58 @@ public class ClassDepsParserTest extends TestCase {
         return jadecyClassName;
     }
 
+    /**
+     * @return A buffer containing the specified bytes from position to limit,
+     *         with some garbage before and after, and little endian order,
+     *         to check that parsing only uses bytes from position to limit,
+     *         and doesn't depend on buffer order.
+     */
+    private static ByteBuffer newLittleEndianBufferWithOffset(byte[] bytes) {
+        final int offset = 3;
+        final ByteBuffer buffer = ByteBuffer.allocate(offset + bytes.length + 5);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            buffer.put((byte) 0xFF);
+        }
+        buffer.position(offset);
+        buffer.put(bytes);
+        buffer.flip();
+        buffer.position(offset);
+        return buffer;
+    }
+    
+    private static byte[] readBytes(File file) {
+        try {
+            final FileInputStream fis = new FileInputStream(file);
+            try {
+                final byte[] bytes = new byte[(int) file.length()];
+                int offset = 0;
+                while (offset < bytes.length) {
+                    final int n = fis.read(bytes, offset, bytes.length - offset);
+                    if (n < 0) {
+                        throw new EOFException();
+                    }
+                    offset += n;
+                }
+                return bytes;
+            } finally {
+                fis.close();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+    
+    private static byte[] readBytes(InputStream is) throws IOException {
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        final byte[] tmp = new byte[4096];
+        int n;
+        while ((n = is.read(tmp)) >= 0) {
+            baos.write(tmp, 0, n);
+        }
+        return baos.toByteArray();
+    }
+    
     private static void printDiff(
             Collection<String> expected,
             Collection<String> actual) {
@@ -53,6 +53,8 @@ public class FsDepsParserPerf {
 
         this.bench_accumulateDependencies(RT_JAR_FILE_PATH);
 
+        this.bench_accumulateDependencies_parallel(RT_JAR_FILE_PATH);
+
         System.out.println("--- ..." + FsDepsParserPerf.class.getSimpleName() + " ---");
     }
 
@@ -104,4 +106,70 @@ public class FsDepsParserPerf {
                             + " s");
         }
     }
+
+    /**
+     * Parallelism doubled up to the number of available processors.
+     */
+    private void bench_accumulateDependencies_parallel(String filePath) {
+
+        final File file = new File(filePath);
+
+        final int maxParallelism = Runtime.getRuntime().availableProcessors();
+
+        final boolean mustMergeNestedClasses = false;
+        final boolean apiOnly = false;
+
+        int parallelism = 1;
+        while (true) {
+            bench_accumulateDependencies_parallel(
+                    file,
+                    mustMergeNestedClasses,
+                    apiOnly,
+                    parallelism);
+            if (parallelism == maxParallelism) {
+                break;
+            }
+            parallelism = Math.min(maxParallelism, 2 * parallelism);
+        }
+    }
+
+    private void bench_accumulateDependencies_parallel(
+            File file,
+            boolean mustMergeNestedClasses,
+            boolean apiOnly,
+            int parallelism) {
+
+        System.out.println();
+
+        for (int k = 0; k < NBR_OF_RUNS; k++) {
+            long a = System.nanoTime();
+            final long count;
+            {
+                final FsDepsParser parser = new FsDepsParser(
+                        mustMergeNestedClasses,
+                        apiOnly,
+                        FsDepsParserConfig.defaultInstance()
+                                .withParallelism(parallelism));
+                parser.accumulateDependencies(
+                        file,
+                        ParsingFilters.defaultInstance());
+                count = parser.getDefaultPackageData().getSubtreeClassCount();
+            }
+            long b = System.nanoTime();
+            System.out.println(
+                    "parsing "
+                            + file.getAbsolutePath()
+                            + " ("
+                            + count
+                            + " classes) (merge = "
+                            + mustMergeNestedClasses
+                            + ", apiOnly = "
+                            + apiOnly
+                            + ", parallelism = "
+                            + parallelism
+                            + ") took "
+                            + ((b-a)/1000/1e6)
+                            + " s");
+        }
+    }
 }
@@ -15,15 +15,40 @@
  */
 package net.jadecy.parsing;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
 import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 import junit.framework.TestCase;
+import net.jadecy.code.CauseTracking;
 import net.jadecy.code.ClassData;
+import net.jadecy.code.ClassSymbol;
+import net.jadecy.code.ClassSymbolTable;
+import net.jadecy.code.DerivedTreeComputer;
 import net.jadecy.code.PackageData;
+import net.jadecy.names.InterfaceNameFilter;
 import net.jadecy.names.NameFilters;
 import net.jadecy.names.NameUtils;
 import net.jadecy.parsing.test$.$X;
@@ -31,6 +56,8 @@ import net.jadecy.parsing.test$.X$Y;
 import net.jadecy.parsing.test1.A;
 import net.jadecy.parsing.test2.B;
 import net.jadecy.tests.JdcTestCompHelper;
+import net.jadecy.tests.PrintTestUtils;
+import net.jadecy.utils.MemPrintStream;
 
 public class FsDepsParserTest extends TestCase {
 
@@ -63,6 +90,16 @@ public class FsDepsParserTest extends TestCase {
     private static final File NON_EXISTING_CLASS = new File(COMPILATION_OUTPUT_DIR_PATH + "/" + "nonexisting.class");
     private static final File NON_EXISTING_JAR = new File(COMPILATION_OUTPUT_DIR_PATH + "/" + "nonexisting.jar");
     private static final File NON_EXISTING_DIR = new File(COMPILATION_OUTPUT_DIR_PATH + "/" + "nonexisting");
+    
+    private static final File CACHE_DIR = new File(COMPILATION_OUTPUT_DIR_PATH + "/" + "fsdepsparsertest_cache");
+    private static final File CACHED_JAR = new File(COMPILATION_OUTPUT_DIR_PATH + "/" + "fsdepsparsertest_cached.jar");
+    
+    private static final File NESTING_JAR = new File(COMPILATION_OUTPUT_DIR_PATH + "/" + "fsdepsparsertest_nesting.jar");
+    
+    private static final File DUPLICATED_JAR_1 = new File(COMPILATION_OUTPUT_DIR_PATH + "/" + "fsdepsparsertest_duplicated1.jar");
+    private static final File DUPLICATED_JAR_2 = new File(COMPILATION_OUTPUT_DIR_PATH + "/" + "fsdepsparsertest_duplicated2.jar");
+    
+    private static final File UPDATED_DIR = new File(COMPILATION_OUTPUT_DIR_PATH + "/" + "fsdepsparsertest_updated");
 
     private static final String CLASS_A_NAME = A.class.getName();
     private static final String PACKAGE_TEST1_NAME = CLASS_A_NAME.substring(0,CLASS_A_NAME.lastIndexOf('.'));
@@ -100,6 +137,194 @@ public class FsDepsParserTest extends TestCase {
         }
     }
 
+    public void test_getConfig() {
+        assertSame(FsDepsParserConfig.defaultInstance(), newDepsParser().getConfig());
+        
+        final FsDepsParserConfig config = FsDepsParserConfig.defaultInstance()
+                .withParallelism(2)
+                .withIoParallelism(3)
+                .withCacheDir(CACHE_DIR)
+                .withApiDeps(true)
+                .withMustUseCompactStorage(true)
+                .withCauseTracking(CauseTracking.LAZY)
+                .withMustRecordParsedFiles(true);
+        final FsDepsParser parser = new FsDepsParser(false, false, config);
+        assertSame(config, parser.getConfig());
+        assertEquals(2, parser.getParallelism());
+        assertEquals(3, parser.getIoParallelism());
+        assertEquals(CACHE_DIR, parser.getCacheDir());
+        assertTrue(parser.getWithApiDeps());
+        assertTrue(parser.getMustUseCompactStorage());
+        assertEquals(CauseTracking.LAZY, parser.getCauseTracking());
+        assertTrue(parser.getMustRecordParsedFiles());
+        
+        // Defaults unchanged.
+        assertEquals(1, FsDepsParserConfig.defaultInstance().getParallelism());
+        assertEquals(0, FsDepsParserConfig.defaultInstance().getIoParallelism());
+        assertEquals(null, FsDepsParserConfig.defaultInstance().getCacheDir());
+        assertFalse(FsDepsParserConfig.defaultInstance().getWithApiDeps());
+        assertFalse(FsDepsParserConfig.defaultInstance().getMustUseCompactStorage());
+        assertEquals(CauseTracking.FULL, FsDepsParserConfig.defaultInstance().getCauseTracking());
+        assertFalse(FsDepsParserConfig.defaultInstance().getMustRecordParsedFiles());
+        assertFalse(newDepsParser().getMustRecordParsedFiles());
+        
+        try {
+            new FsDepsParser(false, false, null);
+            assertTrue(false);
+        } catch (NullPointerException e) {
+            // ok
+        }
+        
+        /*
+         * Factory.
+         */
+        
+        final FsDepsParserFactory factory = new FsDepsParserFactory(config);
+        assertSame(config, factory.getConfig());
+        assertSame(config, ((FsDepsParser) factory.newInstance(false, false)).getConfig());
+        // API dependencies not computed for API only parsers.
+        assertFalse(((FsDepsParser) factory.newInstance(false, true)).getWithApiDeps());
+        
+        assertSame(
+                FsDepsParserConfig.defaultInstance(),
+                factory.withConfig(FsDepsParserConfig.defaultInstance()).getConfig());
+    }
+
+    public void test_getParallelism() {
+        for (int parallelism : new int[]{1,2,7}) {
+            final FsDepsParser parser = new FsDepsParser(
+                    false,
+                    false,
+                    FsDepsParserConfig.defaultInstance()
+                            .withParallelism(parallelism));
+            
+            assertEquals(parallelism, parser.getParallelism());
+        }
+        
+        assertEquals(1, newDepsParser().getParallelism());
+        
+        for (int badParallelism : new int[]{Integer.MIN_VALUE,-1,0}) {
+            try {
+                new FsDepsParser(false, false, FsDepsParserConfig.defaultInstance().withParallelism(badParallelism));
+                assertTrue(false);
+            } catch (IllegalArgumentException e) {
+                // ok
+            }
+        }
+    }
+    
+    public void test_getIoParallelism() {
+        for (int ioParallelism : new int[]{0,1,7}) {
+            final FsDepsParser parser = new FsDepsParser(
+                    false,
+                    false,
+                    FsDepsParserConfig.defaultInstance()
+                            .withIoParallelism(ioParallelism));
+            
+            assertEquals(ioParallelism, parser.getIoParallelism());
+        }
+        
+        assertEquals(0, newDepsParser().getIoParallelism());
+        assertEquals(0, new FsDepsParser(false, false, FsDepsParserConfig.defaultInstance().withParallelism(2)).getIoParallelism());
+        
+        for (int badIoParallelism : new int[]{Integer.MIN_VALUE,-1}) {
+            try {
+                new FsDepsParser(false, false, FsDepsParserConfig.defaultInstance().withIoParallelism(badIoParallelism));
+                assertTrue(false);
+            } catch (IllegalArgumentException e) {
+                // ok
+            }
+        }
+    }
+    
+    public void test_getCacheDir() {
+        assertEquals(null, newDepsParser().getCacheDir());
+        assertEquals(null, new FsDepsParser(false, false, FsDepsParserConfig.defaultInstance().withParallelism(2)).getCacheDir());
+        
+        final FsDepsParser parser = new FsDepsParser(false, false, FsDepsParserConfig.defaultInstance().withCacheDir(CACHE_DIR));
+        assertEquals(CACHE_DIR, parser.getCacheDir());
+    }
+    
+    public void test_getWithApiDeps_and_getApiDefaultPackageData() {
+        assertFalse(newDepsParser().getWithApiDeps());
+        assertEquals(null, newDepsParser().getApiDefaultPackageData());
+        
+        for (boolean withApiDeps : FALSE_TRUE) {
+            final FsDepsParser parser = new FsDepsParser(false, false, FsDepsParserConfig.defaultInstance().withApiDeps(withApiDeps));
+            assertEquals(withApiDeps, parser.getWithApiDeps());
+            if (withApiDeps) {
+                final PackageData apiDefaultP = parser.getApiDefaultPackageData();
+                assertEquals(null, apiDefaultP.parent());
+                assertNotSame(parser.getDefaultPackageData(), apiDefaultP);
+                
+                parser.accumulateDependencies(
+                        PACKAGE_TEST1_FILE,
+                        ParsingFilters.defaultInstance());
+                
+                // Instance must not change on parsing.
+                assertSame(apiDefaultP, parser.getApiDefaultPackageData());
+            } else {
+                assertEquals(null, parser.getApiDefaultPackageData());
+            }
+        }
+        
+        try {
+            new FsDepsParser(false, true, FsDepsParserConfig.defaultInstance().withApiDeps(true));
+            assertTrue(false);
+        } catch (IllegalArgumentException e) {
+            // ok
+        }
+    }
+    
+    public void test_getMustUseCompactStorage() {
+        assertFalse(newDepsParser().getMustUseCompactStorage());
+        
+        final List<String> expectedLines = new ArrayList<String>();
+        for (boolean mustUseCompactStorage : FALSE_TRUE) {
+            final FsDepsParser parser = new FsDepsParser(false, false, FsDepsParserConfig.defaultInstance().withApiDeps(true).withMustUseCompactStorage(mustUseCompactStorage));
+            assertEquals(mustUseCompactStorage, parser.getMustUseCompactStorage());
+            assertEquals(mustUseCompactStorage, parser.getDefaultPackageData().getMustUseCompactStorage());
+            assertEquals(mustUseCompactStorage, parser.getApiDefaultPackageData().getMustUseCompactStorage());
+            
+            parser.accumulateDependencies(
+                    PACKAGE_TEST1_FILE,
+                    ParsingFilters.defaultInstance());
+            
+            // Same content whatever the storage.
+            final MemPrintStream stream = new MemPrintStream();
+            parser.getDefaultPackageData().printSubtree(stream, true);
+            parser.getApiDefaultPackageData().printSubtree(stream, true);
+            if (mustUseCompactStorage) {
+                assertEquals(expectedLines, stream.getLines());
+            } else {
+                expectedLines.addAll(stream.getLines());
+            }
+        }
+    }
+    
+    public void test_getCauseTracking() {
+        assertEquals(CauseTracking.FULL, newDepsParser().getCauseTracking());
+        
+        try {
+            new FsDepsParser(false, false, FsDepsParserConfig.defaultInstance().withApiDeps(true).withCauseTracking(null));
+            assertTrue(false);
+        } catch (NullPointerException e) {
+            // ok
+        }
+        
+        for (CauseTracking causeTracking : CauseTracking.values()) {
+            final FsDepsParser parser = new FsDepsParser(false, false, FsDepsParserConfig.defaultInstance().withApiDeps(true).withCauseTracking(causeTracking));
+            assertEquals(causeTracking, parser.getCauseTracking());
+            assertEquals(causeTracking, parser.getDefaultPackageData().getCauseTracking());
+            assertEquals(causeTracking, parser.getApiDefaultPackageData().getCauseTracking());
+            
+            final FsDepsParser factoryParser =
+                    (FsDepsParser) new FsDepsParserFactory(
+                            FsDepsParserConfig.defaultInstance().withCauseTracking(causeTracking)).newInstance(false, false);
+            assertEquals(causeTracking, factoryParser.getCauseTracking());
+        }
+    }
+
     public void test_getDefaultPackageData() {
         final FsDepsParser parser = newDepsParser();
         final ParsingFilters filters = ParsingFilters.defaultInstance();
@@ -315,6 +540,30 @@ public class FsDepsParserTest extends TestCase {
      * Filters usage.
      */
     
+    public void test_accumulateDependencies_mergedNestedTreeDerivedFromUnmerged() {
+        final File[] toParseArr = new File[]{
+                new File(DUMMY_JAR_PATH),
+                new File(COMPILATION_OUTPUT_DIR_PATH),
+        };
+        for (boolean apiOnly : FALSE_TRUE) {
+            final FsDepsParser refParser = new FsDepsParser(
+                    true, // mustMergeNestedClasses
+                    apiOnly);
+            final FsDepsParser parser = new FsDepsParser(
+                    false, // mustMergeNestedClasses
+                    apiOnly);
+            final ParsingFilters filters = ParsingFilters.defaultInstance();
+            for (File toParse : toParseArr) {
+                refParser.accumulateDependencies(toParse, filters);
+                parser.accumulateDependencies(toParse, filters);
+            }
+            
+            PrintTestUtils.checkEqual(
+                    toSubtreeLines(refParser.getDefaultPackageData()),
+                    toSubtreeLines(DerivedTreeComputer.computeMergedNestedTree(parser.getDefaultPackageData())));
+        }
+    }
+    
     public void test_accumulateDependencies_useOf_dirFilenameFilter() {
         final FsDepsParser parser = newDepsParser();
         final PackageData defaultP = parser.getDefaultPackageData();
@@ -624,106 +873,1611 @@ public class FsDepsParserTest extends TestCase {
     }
     
     /*
-     * 
+     * Parallelism.
      */
 
-    public void test_dollarSign_$X_Y() {
-        if (!HANDLE_WEIRD_DOLLAR_SIGN_USAGES) {
-            return;
-        }
-
-        for (boolean apiOnly : new boolean[]{false,true}) {
-            
-            if (DEBUG) {
-                System.out.println("apiOnly = " + apiOnly);
+    public void test_accumulateDependencies_parallel_sameAsSequential() {
+        final File[] toParseArr = new File[]{
+                CLASS_C_FILE,
+                new File(DUMMY_JAR_PATH),
+                new File(COMPILATION_OUTPUT_DIR_PATH),
+        };
+        for (boolean mustMergeNestedClasses : FALSE_TRUE) {
+            for (boolean apiOnly : FALSE_TRUE) {
+                final FsDepsParser refParser = new FsDepsParser(
+                        mustMergeNestedClasses,
+                        apiOnly);
+                final ParsingFilters filters = ParsingFilters.defaultInstance();
+                
+                for (int parallelism : new int[]{2,5}) {
+                    final FsDepsParser parser = new FsDepsParser(
+                            mustMergeNestedClasses,
+                            apiOnly,
+                            FsDepsParserConfig.defaultInstance()
+                                    .withParallelism(parallelism));
+                    
+                    for (File toParse : toParseArr) {
+                        if (parallelism == 2) {
+                            assertTrue(refParser.accumulateDependencies(toParse, filters));
+                        }
+                        assertTrue(parser.accumulateDependencies(toParse, filters));
+                        
+                        // Nothing new parsed.
+                        assertFalse(parser.accumulateDependencies(toParse, filters));
+                    }
+                    
+                    PrintTestUtils.checkEqual(
+                            toSubtreeLines(refParser.getDefaultPackageData()),
+                            toSubtreeLines(parser.getDefaultPackageData()));
+                }
             }
-            
-            // Else ClassData for "$X" is created due to non-API dependency
-            // from "$X$Y" to its outer class "$X".
-
-            final FsDepsParser parser = newDepsParser(apiOnly);
-            final PackageData defaultP = parser.getDefaultPackageData();
-            final ParsingFilters filters = ParsingFilters.defaultInstance();
-
-            /*
-             * Parsing $X$Y.class.
-             */
-
-            assertTrue(parser.accumulateDependencies(CLASS_$X_Y_FILE, filters));
+        }
+    }
 
-            if (DEBUG) {
-                defaultP.printSubtree();
+    public void test_accumulateDependencies_readAhead_sameAsSequential() {
+        final File[] toParseArr = new File[]{
+                CLASS_C_FILE,
+                new File(DUMMY_JAR_PATH),
+                new File(COMPILATION_OUTPUT_DIR_PATH),
+        };
+        for (boolean mustMergeNestedClasses : FALSE_TRUE) {
+            for (boolean apiOnly : FALSE_TRUE) {
+                final FsDepsParser refParser = new FsDepsParser(
+                        mustMergeNestedClasses,
+                        apiOnly);
+                final ParsingFilters filters = ParsingFilters.defaultInstance();
+                for (File toParse : toParseArr) {
+                    assertTrue(refParser.accumulateDependencies(toParse, filters));
+                }
+                
+                for (int parallelism : new int[]{1,3}) {
+                    for (int ioParallelism : new int[]{1,4}) {
+                        final FsDepsParser parser = new FsDepsParser(
+                                mustMergeNestedClasses,
+                                apiOnly,
+                                FsDepsParserConfig.defaultInstance()
+                                        .withParallelism(parallelism)
+                                        .withIoParallelism(ioParallelism));
+                        
+                        for (File toParse : toParseArr) {
+                            assertTrue(parser.accumulateDependencies(toParse, filters));
+                            
+                            // Nothing new parsed.
+                            assertFalse(parser.accumulateDependencies(toParse, filters));
+                        }
+                        
+                        PrintTestUtils.checkEqual(
+                                toSubtreeLines(refParser.getDefaultPackageData()),
+                                toSubtreeLines(parser.getDefaultPackageData()));
+                    }
+                }
             }
+        }
+    }
+    
+    public void test_accumulateDependencies_readAhead_fileNotExisting() {
+        final FsDepsParser parser = new FsDepsParser(false, false, FsDepsParserConfig.defaultInstance().withIoParallelism(2));
+        final ParsingFilters filters = ParsingFilters.defaultInstance();
+        
+        checkThrowsIAEFileNotFound(parser, NON_EXISTING_CLASS, filters);
+        checkThrowsIAEFileNotFound(parser, NON_EXISTING_JAR, filters);
+        checkThrowsIAEFileNotFound(parser, NON_EXISTING_DIR, filters);
+    }
+    
+    public void test_accumulateDependencies_parallel_fileNotExisting() {
+        final FsDepsParser parser = new FsDepsParser(false, false, FsDepsParserConfig.defaultInstance().withParallelism(2));
+        final ParsingFilters filters = ParsingFilters.defaultInstance();
 
-            final ClassData x_y = defaultP.getClassData(CLASS_$X_Y_NAME);
-            assertEquals(CLASS_$X_Y_NAME, x_y.name());
-
-            // "$X$Y" interpreted as a top level class,
-            // due to having a weird class file name,
-            // even though it's actually a nested class.
-            assertEquals(null, x_y.outerClassData());
-
-            if (apiOnly) {
-                // No ClassData created for actual top level class "$X".
-                assertEquals(null, defaultP.getClassData(CLASS_$X_NAME));
-            } else {
-                // ClassData created due to non-API dependency
-                // to actual outer class.
-                final ClassData x = defaultP.getClassData(CLASS_$X_NAME);
-                assertNotNull(x);
-            }
+        checkThrowsIAEFileNotFound(parser, NON_EXISTING_CLASS, filters);
+        checkThrowsIAEFileNotFound(parser, NON_EXISTING_JAR, filters);
+        checkThrowsIAEFileNotFound(parser, NON_EXISTING_DIR, filters);
+    }
 
-            // Dependencies.
-            final ClassData cObject = defaultP.getClassData(Object.class.getName());
-            final ClassData cString = defaultP.getClassData(String.class.getName());
-            assertEquals(apiOnly ? 2 : 3, x_y.successors().size());
-            assertTrue(x_y.successors().contains(cObject));
-            assertTrue(x_y.successors().contains(cString));
-            if (apiOnly) {
-            } else {
-                assertTrue(x_y.successors().contains(defaultP.getClassData(CLASS_$X_NAME)));
+    public void test_accumulateDependencies_withApiDeps_sameAsSeparate() {
+        final File[] toParseArr = new File[]{
+                CLASS_C_FILE,
+                new File(DUMMY_JAR_PATH),
+                new File(COMPILATION_OUTPUT_DIR_PATH),
+        };
+        // {parallelism, ioParallelism}
+        final int[][] parallelismsArr = new int[][]{{1,0},{3,0},{1,2}};
+        try {
+            for (boolean mustMergeNestedClasses : FALSE_TRUE) {
+                final FsDepsParser refParser = new FsDepsParser(
+                        mustMergeNestedClasses,
+                        false);
+                final FsDepsParser apiRefParser = new FsDepsParser(
+                        mustMergeNestedClasses,
+                        true);
+                final ParsingFilters filters = ParsingFilters.defaultInstance();
+                for (File toParse : toParseArr) {
+                    assertTrue(refParser.accumulateDependencies(toParse, filters));
+                    assertTrue(apiRefParser.accumulateDependencies(toParse, filters));
+                }
+                
+                for (int[] parallelisms : parallelismsArr) {
+                    deleteCache();
+                    // Without cache, then with cache miss, then with cache hit.
+                    for (int k = 0; k < 3; k++) {
+                        final FsDepsParser parser = new FsDepsParser(
+                                mustMergeNestedClasses,
+                                false,
+                                FsDepsParserConfig.defaultInstance()
+                                        .withParallelism(parallelisms[0])
+                                        .withCacheDir(((k == 0) ? null : CACHE_DIR))
+                                        .withIoParallelism(parallelisms[1])
+                                        .withApiDeps(true));
+                        
+                        for (File toParse : toParseArr) {
+                            assertTrue(parser.accumulateDependencies(toParse, filters));
+                            
+                            // Nothing new parsed.
+                            assertFalse(parser.accumulateDependencies(toParse, filters));
+                        }
+                        
+                        PrintTestUtils.checkEqual(
+                                toSubtreeLines(refParser.getDefaultPackageData()),
+                                toSubtreeLines(parser.getDefaultPackageData()));
+                        PrintTestUtils.checkEqual(
+                                toSubtreeLines(apiRefParser.getDefaultPackageData()),
+                                toSubtreeLines(parser.getApiDefaultPackageData()));
+                    }
+                    
+                    // Both API dependencies and all dependencies cached.
+                    assertEquals(2, CACHE_DIR.list().length);
+                }
             }
-
-            /*
-             * Parsing $X.class.
-             */
-
-            assertTrue(parser.accumulateDependencies(CLASS_$X_FILE, filters));
-
-            if (DEBUG) {
-                defaultP.printSubtree();
+        } finally {
+            deleteCache();
+        }
+    }
+    
+    /*
+     * Cache.
+     */
+    
+    public void test_accumulateDependencies_cache_sameAsNoCache() {
+        final InterfaceNameFilter[] classNameFilterArr = new InterfaceNameFilter[]{
+                NameFilters.any(),
+                NameFilters.startsWithName("junit.framework"),
+        };
+        try {
+            for (int parallelism : new int[]{1,2}) {
+                for (boolean mustMergeNestedClasses : FALSE_TRUE) {
+                    for (boolean apiOnly : FALSE_TRUE) {
+                        deleteCache();
+                        // First cache miss, then cache hits,
+                        // for filters stricter than when cached.
+                        for (InterfaceNameFilter classNameFilter : classNameFilterArr) {
+                            for (int k = 0; k < 2; k++) {
+                                final ParsingFilters filters =
+                                        ParsingFilters.defaultInstance().withClassNameFilter(classNameFilter);
+                                
+                                final FsDepsParser refParser = new FsDepsParser(
+                                        mustMergeNestedClasses,
+                                        apiOnly);
+                                final FsDepsParser parser = new FsDepsParser(
+                                        mustMergeNestedClasses,
+                                        apiOnly,
+                                        FsDepsParserConfig.defaultInstance()
+                                                .withParallelism(parallelism)
+                                                .withCacheDir(CACHE_DIR));
+                                
+                                final File toParse = new File(DUMMY_JAR_PATH);
+                                assertTrue(refParser.accumulateDependencies(toParse, filters));
+                                assertTrue(parser.accumulateDependencies(toParse, filters));
+                                
+                                // Nothing new parsed.
+                                assertFalse(parser.accumulateDependencies(toParse, filters));
+                                
+                                PrintTestUtils.checkEqual(
+                                        toSubtreeLines(refParser.getDefaultPackageData()),
+                                        toSubtreeLines(parser.getDefaultPackageData()));
+                                
+                                assertEquals(1, CACHE_DIR.list().length);
+                            }
+                        }
+                    }
+                }
             }
-
-            final ClassData x = defaultP.getClassData(CLASS_$X_NAME);
-            assertEquals(CLASS_$X_NAME, x.name());
-
-            // "$X$Y" still interpreted as a top level class.
-            assertEquals(null, x_y.outerClassData());
-
-            // Dependencies.
-            assertEquals(apiOnly ? 1 : 2, x.successors().size());
-            assertTrue(x.successors().contains(cObject));
-            if (apiOnly) {
-            } else {
-                // Non-API dependency to actual nested class.
-                assertTrue(x.successors().contains(x_y));
+        } finally {
+            deleteCache();
+        }
+    }
+    
+    public void test_accumulateDependencies_cache_jarEntryFilenameFilter() {
+        try {
+            deleteCache();
+            
+            ParsingFilters filters = ParsingFilters.defaultInstance();
+            // Only parsing top level classes when caching.
+            filters = filters.withJarEntryFilenameFilter(new FilenameFilter() {
+                public boolean accept(File dir, String name) {
+                    return name.endsWith(".class")
+                            && (name.indexOf('$') < 0);
+                }
+            });
+            
+            final File toParse = new File(DUMMY_JAR_PATH);
+            final FsDepsParser cachingParser = new FsDepsParser(false, false, FsDepsParserConfig.defaultInstance().withCacheDir(CACHE_DIR));
+            assertTrue(cachingParser.accumulateDependencies(toParse, filters));
+            
+            // Accepting more entries than when cached:
+            // cache must not be used.
+            filters = ParsingFilters.defaultInstance();
+            
+            final FsDepsParser refParser = newDepsParser();
+            final FsDepsParser parser = new FsDepsParser(false, false, FsDepsParserConfig.defaultInstance().withCacheDir(CACHE_DIR));
+            assertTrue(refParser.accumulateDependencies(toParse, filters));
+            assertTrue(parser.accumulateDependencies(toParse, filters));
+            
+            PrintTestUtils.checkEqual(
+                    toSubtreeLines(refParser.getDefaultPackageData()),
+                    toSubtreeLines(parser.getDefaultPackageData()));
+        } finally {
+            deleteCache();
+        }
+    }
+    
+    public void test_accumulateDependencies_cache_jarNotOpenedOnHit() {
+        try {
+            deleteCache();
+            copyFile(new File(DUMMY_JAR_PATH), CACHED_JAR);
+            
+            final ParsingFilters filters = ParsingFilters.defaultInstance();
+            
+            final FsDepsParser refParser = newDepsParser();
+            assertTrue(refParser.accumulateDependencies(CACHED_JAR, filters));
+            
+            for (int parallelism : new int[]{1,2}) {
+                final FsDepsParser cachingParser = new FsDepsParser(false, false, FsDepsParserConfig.defaultInstance().withParallelism(parallelism).withCacheDir(CACHE_DIR));
+                assertTrue(cachingParser.accumulateDependencies(CACHED_JAR, filters));
             }
-            assertEquals(apiOnly ? 2 : 3, x_y.successors().size());
-            assertTrue(x_y.successors().contains(cObject));
-            assertTrue(x_y.successors().contains(cString));
-            if (apiOnly) {
-            } else {
-                assertTrue(x_y.successors().contains(x));
+            
+            // Corrupting the jar, with same size and last modification time.
+            final long lastModified = CACHED_JAR.lastModified();
+            corruptFile(CACHED_JAR);
+            assertTrue(CACHED_JAR.setLastModified(lastModified));
+            
+            for (int parallelism : new int[]{1,2}) {
+                final FsDepsParser parser = new FsDepsParser(false, false, FsDepsParserConfig.defaultInstance().withParallelism(parallelism).withCacheDir(CACHE_DIR));
+                assertTrue(parser.accumulateDependencies(CACHED_JAR, filters));
+                
+                PrintTestUtils.checkEqual(
+                        toSubtreeLines(refParser.getDefaultPackageData()),
+                        toSubtreeLines(parser.getDefaultPackageData()));
             }
+        } finally {
+            deleteCache();
+            CACHED_JAR.delete();
         }
     }
-
-    public void test_dollarSign_X$Y() {
-        if (!HANDLE_WEIRD_DOLLAR_SIGN_USAGES) {
-            return;
+    
+    public void test_accumulateDependencies_cache_staleOnJarModification() {
+        try {
+            deleteCache();
+            copyFile(new File(DUMMY_JAR_PATH), CACHED_JAR);
+            
+            final ParsingFilters filters = ParsingFilters.defaultInstance();
+            
+            final FsDepsParser cachingParser = new FsDepsParser(false, false, FsDepsParserConfig.defaultInstance().withCacheDir(CACHE_DIR));
+            assertTrue(cachingParser.accumulateDependencies(CACHED_JAR, filters));
+            
+            // Corrupting the jar, and changing its last modification time.
+            corruptFile(CACHED_JAR);
+            assertTrue(CACHED_JAR.setLastModified(CACHED_JAR.lastModified() - 10 * 1000L));
+            
+            for (int parallelism : new int[]{1,2}) {
+                final FsDepsParser parser = new FsDepsParser(false, false, FsDepsParserConfig.defaultInstance().withParallelism(parallelism).withCacheDir(CACHE_DIR));
+                try {
+                    // Parsing the corrupted jar.
+                    parser.accumulateDependencies(CACHED_JAR, filters);
+                    assertTrue(false);
+                } catch (IllegalArgumentException e) {
+                    // ok
+                }
+            }
+        } finally {
+            deleteCache();
+            CACHED_JAR.delete();
         }
-
-        final FsDepsParser parser = newDepsParser();
+    }
+    
+    public void test_accumulateDependencies_cache_corruptedCacheFile() {
+        try {
+            deleteCache();
+            
+            final File toParse = new File(DUMMY_JAR_PATH);
+            final ParsingFilters filters = ParsingFilters.defaultInstance();
+            
+            final FsDepsParser cachingParser = new FsDepsParser(false, false, FsDepsParserConfig.defaultInstance().withCacheDir(CACHE_DIR));
+            assertTrue(cachingParser.accumulateDependencies(toParse, filters));
+            
+            final File[] cacheFiles = CACHE_DIR.listFiles();
+            assertEquals(1, cacheFiles.length);
+            corruptFile(cacheFiles[0]);
+            
+            // Corrupted cache file must be considered as a miss.
+            final FsDepsParser refParser = newDepsParser();
+            final FsDepsParser parser = new FsDepsParser(false, false, FsDepsParserConfig.defaultInstance().withCacheDir(CACHE_DIR));
+            assertTrue(refParser.accumulateDependencies(toParse, filters));
+            assertTrue(parser.accumulateDependencies(toParse, filters));
+            
+            PrintTestUtils.checkEqual(
+                    toSubtreeLines(refParser.getDefaultPackageData()),
+                    toSubtreeLines(parser.getDefaultPackageData()));
+        } finally {
+            deleteCache();
+        }
+    }
+    
+    public void test_accumulateDependencies_cache_badCountsInCacheFile() {
+        try {
+            final File toParse = new File(DUMMY_JAR_PATH);
+            final ParsingFilters filters = ParsingFilters.defaultInstance();
+            
+            final FsDepsParser refParser = newDepsParser();
+            assertTrue(refParser.accumulateDependencies(toParse, filters));
+            
+            final String entryName = "a/A.class";
+            final String className = "a.A";
+            final List<JarDepsCache.EntryDeps> entryDepsList = new ArrayList<JarDepsCache.EntryDeps>();
+            entryDepsList.add(new JarDepsCache.EntryDeps(
+                    entryName,
+                    JarDepsCache.ENTRY_PARSED,
+                    123L,
+                    className,
+                    Arrays.asList("b.B")));
+            
+            final int entryCountOffset =
+                    8 + 4 + 1 // magic, version, apiOnly
+                    + 2 + utf8Length(toParse.getAbsolutePath())
+                    + 8 + 8; // jar byte size and last modified
+            final int depCountOffset =
+                    entryCountOffset + 4
+                    + 2 + utf8Length(entryName)
+                    + 1 + 8 + 1 // status, byte size, isClass
+                    + 2 + utf8Length(className);
+            
+            for (int countOffset : new int[]{entryCountOffset, depCountOffset}) {
+                for (int badCount : new int[]{-1, 2, Integer.MAX_VALUE}) {
+                    deleteCache();
+                    final JarDepsCache cache = new JarDepsCache(CACHE_DIR);
+                    cache.write(toParse, toParse.length(), toParse.lastModified(), false, entryDepsList);
+                    assertEquals(1, cache.read(toParse, toParse.length(), toParse.lastModified(), false).size());
+                    
+                    final File[] cacheFiles = CACHE_DIR.listFiles();
+                    assertEquals(1, cacheFiles.length);
+                    assertEquals(1, overwriteInt(cacheFiles[0], countOffset, badCount));
+                    
+                    // Bad count must be considered as a miss.
+                    assertNull(cache.read(toParse, toParse.length(), toParse.lastModified(), false));
+                    final FsDepsParser parser = new FsDepsParser(false, false, FsDepsParserConfig.defaultInstance().withCacheDir(CACHE_DIR));
+                    assertTrue(parser.accumulateDependencies(toParse, filters));
+                    
+                    PrintTestUtils.checkEqual(
+                            toSubtreeLines(refParser.getDefaultPackageData()),
+                            toSubtreeLines(parser.getDefaultPackageData()));
+                }
+            }
+        } finally {
+            deleteCache();
+        }
+    }
+    
+    /*
+     * Nested jars.
+     */
+    
+    public void test_accumulateDependencies_nestedJars() {
+        final List<File> classFileList = new ArrayList<File>();
+        createNestingJar(classFileList);
+        try {
+            final ParsingFilters filters = ParsingFilters.defaultInstance();
+            for (boolean mustMergeNestedClasses : FALSE_TRUE) {
+                for (boolean apiOnly : FALSE_TRUE) {
+                    final FsDepsParser refParser = new FsDepsParser(
+                            mustMergeNestedClasses,
+                            apiOnly);
+                    for (File classFile : classFileList) {
+                        assertTrue(refParser.accumulateDependencies(classFile, filters));
+                    }
+                    
+                    for (int parallelism : new int[]{1,2}) {
+                        for (File cacheDir : new File[]{null, CACHE_DIR}) {
+                            deleteCache();
+                            // If using cache, first cache miss, then cache hit.
+                            for (int k = 0; k < 2; k++) {
+                                final FsDepsParser parser = new FsDepsParser(
+                                        mustMergeNestedClasses,
+                                        apiOnly,
+                                        FsDepsParserConfig.defaultInstance()
+                                                .withParallelism(parallelism)
+                                                .withCacheDir(cacheDir)
+                                                .withIoParallelism(k));
+                                assertTrue(parser.accumulateDependencies(NESTING_JAR, filters));
+                                
+                                // Nothing new parsed.
+                                assertFalse(parser.accumulateDependencies(NESTING_JAR, filters));
+                                
+                                PrintTestUtils.checkEqual(
+                                        toSubtreeLines(refParser.getDefaultPackageData()),
+                                        toSubtreeLines(parser.getDefaultPackageData()));
+                            }
+                        }
+                    }
+                }
+            }
+        } finally {
+            NESTING_JAR.delete();
+            deleteCache();
+        }
+    }
+    
+    public void test_accumulateDependencies_nestedJars_useOf_jarFilenameFilter() {
+        final List<File> classFileList = new ArrayList<File>();
+        createNestingJar(classFileList);
+        try {
+            final List<File> jarList = new ArrayList<File>();
+            final ParsingFilters defaultFilters = ParsingFilters.defaultInstance();
+            // Not exploring most nested jar.
+            final ParsingFilters filters = defaultFilters.withJarFilenameFilter(
+                    new FilenameFilter() {
+                        @Override
+                        public boolean accept(File dir, String name) {
+                            jarList.add(new File(dir, name));
+                            return name.endsWith(".jar")
+                                    && (!name.equals("inner2.jar"));
+                        }
+                    });
+            
+            final FsDepsParser refParser = new FsDepsParser(false, false);
+            for (File classFile : classFileList) {
+                if (!classFile.getParentFile().equals(CLASS_$X_FILE.getParentFile())) {
+                    assertTrue(refParser.accumulateDependencies(classFile, defaultFilters));
+                }
+            }
+            
+            for (File cacheDir : new File[]{null, CACHE_DIR}) {
+                deleteCache();
+                if (cacheDir != null) {
+                    // Cache containing entries of most nested jar,
+                    // which must be ignored.
+                    new FsDepsParser(false, false, FsDepsParserConfig.defaultInstance().withCacheDir(cacheDir)).accumulateDependencies(NESTING_JAR, defaultFilters);
+                }
+                
+                jarList.clear();
+                final FsDepsParser parser = new FsDepsParser(false, false, FsDepsParserConfig.defaultInstance().withCacheDir(cacheDir));
+                assertTrue(parser.accumulateDependencies(NESTING_JAR, filters));
+                
+                PrintTestUtils.checkEqual(
+                        toSubtreeLines(refParser.getDefaultPackageData()),
+                        toSubtreeLines(parser.getDefaultPackageData()));
+                
+                // Nested jars within their containing jar, as if extracted.
+                assertTrue(jarList.contains(new File(NESTING_JAR, "BOOT-INF/lib/inner.jar")));
+                assertTrue(jarList.contains(new File(NESTING_JAR, "BOOT-INF/lib/inner.jar/lib/inner2.jar")));
+            }
+            
+            // Cache not containing entries of most nested jar:
+            // must not be used with filters accepting it.
+            final FsDepsParser fullRefParser = new FsDepsParser(false, false);
+            for (File classFile : classFileList) {
+                assertTrue(fullRefParser.accumulateDependencies(classFile, defaultFilters));
+            }
+            final FsDepsParser parser = new FsDepsParser(false, false, FsDepsParserConfig.defaultInstance().withCacheDir(CACHE_DIR));
+            assertTrue(parser.accumulateDependencies(NESTING_JAR, defaultFilters));
+            PrintTestUtils.checkEqual(
+                    toSubtreeLines(fullRefParser.getDefaultPackageData()),
+                    toSubtreeLines(parser.getDefaultPackageData()));
+        } finally {
+            NESTING_JAR.delete();
+            deleteCache();
+        }
+    }
+    
+    /*
+     * Duplicated jars.
+     */
+    
+    public void test_accumulateDependencies_duplicatedJars() {
+        final File dummyJar = new File(DUMMY_JAR_PATH);
+        copyFile(dummyJar, DUPLICATED_JAR_1);
+        copyFile(dummyJar, DUPLICATED_JAR_2);
+        try {
+            final ParsingFilters defaultFilters = ParsingFilters.defaultInstance();
+            final ParsingFilters frameworkFilters = defaultFilters.withClassNameFilter(
+                    NameFilters.startsWithName("junit.framework"));
+            for (boolean mustMergeNestedClasses : FALSE_TRUE) {
+                for (boolean apiOnly : FALSE_TRUE) {
+                    final FsDepsParser refParser = new FsDepsParser(
+                            mustMergeNestedClasses,
+                            apiOnly);
+                    assertTrue(refParser.accumulateDependencies(dummyJar, defaultFilters));
+                    
+                    final FsDepsParser frameworkRefParser = new FsDepsParser(
+                            mustMergeNestedClasses,
+                            apiOnly);
+                    assertTrue(frameworkRefParser.accumulateDependencies(dummyJar, frameworkFilters));
+                    
+                    for (int parallelism : new int[]{1,2}) {
+                        for (File cacheDir : new File[]{null, CACHE_DIR}) {
+                            deleteCache();
+                            
+                            /*
+                             * Copy parsed with same filters:
+                             * nothing new.
+                             */
+                            
+                            FsDepsParser parser = new FsDepsParser(
+                                    mustMergeNestedClasses,
+                                    apiOnly,
+                                    FsDepsParserConfig.defaultInstance()
+                                            .withParallelism(parallelism)
+                                            .withCacheDir(cacheDir)
+                                            .withMustRecordParsedFiles(true));
+                            assertTrue(parser.accumulateDependencies(DUPLICATED_JAR_1, defaultFilters));
+                            assertFalse(parser.accumulateDependencies(DUPLICATED_JAR_2, defaultFilters));
+                            PrintTestUtils.checkEqual(
+                                    toSubtreeLines(refParser.getDefaultPackageData()),
+                                    toSubtreeLines(parser.getDefaultPackageData()));
+                            
+                            // Classes of first copy still there,
+                            // due to being parsed again from second copy.
+                            assertTrue(DUPLICATED_JAR_1.delete());
+                            parser.updateDependencies();
+                            PrintTestUtils.checkEqual(
+                                    toSubtreeLines(refParser.getDefaultPackageData()),
+                                    toSubtreeLines(parser.getDefaultPackageData()));
+                            copyFile(dummyJar, DUPLICATED_JAR_1);
+                            
+                            /*
+                             * Copy parsed with less classes accepted:
+                             * nothing new.
+                             */
+                            
+                            deleteCache();
+                            parser = new FsDepsParser(
+                                    mustMergeNestedClasses,
+                                    apiOnly,
+                                    FsDepsParserConfig.defaultInstance()
+                                            .withParallelism(parallelism)
+                                            .withCacheDir(cacheDir));
+                            assertTrue(parser.accumulateDependencies(DUPLICATED_JAR_1, defaultFilters));
+                            assertFalse(parser.accumulateDependencies(DUPLICATED_JAR_2, frameworkFilters));
+                            PrintTestUtils.checkEqual(
+                                    toSubtreeLines(refParser.getDefaultPackageData()),
+                                    toSubtreeLines(parser.getDefaultPackageData()));
+                            
+                            /*
+                             * Copy parsed with more classes accepted:
+                             * classes not accepted for first copy parsed.
+                             */
+                            
+                            deleteCache();
+                            parser = new FsDepsParser(
+                                    mustMergeNestedClasses,
+                                    apiOnly,
+                                    FsDepsParserConfig.defaultInstance()
+                                            .withParallelism(parallelism)
+                                            .withCacheDir(cacheDir));
+                            assertTrue(parser.accumulateDependencies(DUPLICATED_JAR_1, frameworkFilters));
+                            PrintTestUtils.checkEqual(
+                                    toSubtreeLines(frameworkRefParser.getDefaultPackageData()),
+                                    toSubtreeLines(parser.getDefaultPackageData()));
+                            assertTrue(parser.accumulateDependencies(DUPLICATED_JAR_2, defaultFilters));
+                            PrintTestUtils.checkEqual(
+                                    toSubtreeLines(refParser.getDefaultPackageData()),
+                                    toSubtreeLines(parser.getDefaultPackageData()));
+                        }
+                    }
+                }
+            }
+        } finally {
+            DUPLICATED_JAR_1.delete();
+            DUPLICATED_JAR_2.delete();
+            deleteCache();
+        }
+    }
+
+    public void test_accumulateDependencies_duplicatedJars_reuse() {
+        final File dummyJar = new File(DUMMY_JAR_PATH);
+        final File jar1 = new File(UPDATED_DIR + "/" + "duplicated1.jar");
+        final File jar2 = new File(UPDATED_DIR + "/" + "duplicated2.jar");
+        try {
+            deleteRecursively(UPDATED_DIR);
+            copyFile(dummyJar, jar1);
+            copyFile(dummyJar, jar2);
+            final ParsingFilters filters = ParsingFilters.defaultInstance();
+            for (boolean mustMergeNestedClasses : FALSE_TRUE) {
+                final FsDepsParser refParser = new FsDepsParser(
+                        mustMergeNestedClasses,
+                        false);
+                assertTrue(refParser.accumulateDependencies(dummyJar, filters));
+                
+                for (int parallelism : new int[]{1,2}) {
+                    final FsDepsParser parser = new FsDepsParser(
+                            mustMergeNestedClasses,
+                            false,
+                            FsDepsParserConfig.defaultInstance()
+                                    .withParallelism(parallelism));
+                    ParsingStats stats = new ParsingStats();
+                    parser.setParsingListener(stats);
+                    
+                    // Both copies parsed in a same call: entries of the
+                    // second one possibly submitted while entries of the
+                    // first one are still being parsed.
+                    assertTrue(parser.accumulateDependencies(UPDATED_DIR, filters));
+                    final long classFileCount = stats.getClassFileCount() / 2;
+                    assertEquals(classFileCount, stats.getParsedCount());
+                    assertEquals(classFileCount, stats.getReusedCount());
+                    assertEquals(classFileCount, stats.getDuplicateCount());
+                    PrintTestUtils.checkEqual(
+                            toSubtreeLines(refParser.getDefaultPackageData()),
+                            toSubtreeLines(parser.getDefaultPackageData()));
+                    
+                    // Same contents, in another call.
+                    stats = new ParsingStats();
+                    parser.setParsingListener(stats);
+                    assertFalse(parser.accumulateDependencies(jar1, filters));
+                    assertEquals(classFileCount, stats.getReusedCount());
+                    assertEquals(classFileCount, stats.getDuplicateCount());
+                    
+                    // Tree cleared: contents parsed again.
+                    parser.getDefaultPackageData().clear();
+                    stats = new ParsingStats();
+                    parser.setParsingListener(stats);
+                    assertTrue(parser.accumulateDependencies(jar2, filters));
+                    assertEquals(classFileCount, stats.getParsedCount());
+                    PrintTestUtils.checkEqual(
+                            toSubtreeLines(refParser.getDefaultPackageData()),
+                            toSubtreeLines(parser.getDefaultPackageData()));
+                }
+            }
+        } finally {
+            deleteRecursively(UPDATED_DIR);
+        }
+    }
+    
+    /*
+     * Runtime image.
+     */
+    
+    public void test_accumulateDependencies_image() {
+        final File image = getRuntimeImageOrNull();
+        if (image == null) {
+            // Running on Java 8 or below.
+            return;
+        }
+        
+        final String objectClassName = Object.class.getName();
+        
+        // Expected dependencies, from class file given by class loader.
+        final SortedSet<String> expectedDepClassNameSet = new TreeSet<String>();
+        final InputStream is = Object.class.getResourceAsStream("/" + slashed(objectClassName) + ".class");
+        int expectedByteSize = 0;
+        try {
+            try {
+                while (is.read() >= 0) {
+                    expectedByteSize++;
+                }
+            } finally {
+                is.close();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        ClassDepsParser.computeDependencies(
+                Object.class.getResourceAsStream("/" + slashed(objectClassName) + ".class"),
+                false, // apiOnly
+                expectedDepClassNameSet);
+        
+        // Only walking java.base/java/lang.
+        final ParsingFilters filters = ParsingFilters.defaultInstance().withDirFilenameFilter(
+                new FilenameFilter() {
+                    @Override
+                    public boolean accept(File dir, String name) {
+                        return name.equals("java.base")
+                                || name.equals("java")
+                                || name.equals("lang");
+                    }
+                }).withClassNameFilter(NameFilters.equalsName(objectClassName));
+        
+        for (int parallelism : new int[]{1,2}) {
+            // With parallelism 2, also reading ahead.
+            final FsDepsParser parser = new FsDepsParser(false, false, FsDepsParserConfig.defaultInstance().withParallelism(parallelism).withIoParallelism(parallelism - 1));
+            
+            assertTrue(parser.accumulateDependencies(image, filters));
+            
+            final ClassData classData = parser.getDefaultPackageData().getClassData(objectClassName);
+            assertNotNull(classData);
+            assertEquals(expectedByteSize, classData.byteSize());
+            
+            final SortedSet<String> depClassNameSet = new TreeSet<String>();
+            for (ClassData depClassData : classData.successors()) {
+                depClassNameSet.add(slashed(depClassData.name()));
+            }
+            expectedDepClassNameSet.remove(slashed(objectClassName));
+            assertEquals(expectedDepClassNameSet, depClassNameSet);
+            
+            // Nothing new parsed.
+            assertFalse(parser.accumulateDependencies(image, filters));
+        }
+    }
+    
+    public void test_accumulateDependencies_image_useOf_dirFilenameFilter() {
+        final File image = getRuntimeImageOrNull();
+        if (image == null) {
+            // Running on Java 8 or below.
+            return;
+        }
+        
+        final List<File> dirList = new ArrayList<File>();
+        final ParsingFilters filters = ParsingFilters.defaultInstance().withDirFilenameFilter(
+                new FilenameFilter() {
+                    @Override
+                    public boolean accept(File dir, String name) {
+                        dirList.add(new File(dir, name));
+                        return false;
+                    }
+                });
+        
+        final FsDepsParser parser = new FsDepsParser(false, false);
+        assertFalse(parser.accumulateDependencies(image, filters));
+        assertEquals(0, parser.getDefaultPackageData().getSubtreeClassCount());
+        
+        // Module directories, as if within the image file.
+        assertTrue(dirList.contains(new File(image, "java.base")));
+    }
+    
+    /*
+     * Streaming.
+     */
+    
+    public void test_parseDependencies_exceptions() {
+        final FsDepsParser parser = newDepsParser();
+        final ParsingFilters filters = ParsingFilters.defaultInstance();
+        final InterfaceClassDepsProcessor classDepsProcessor = new InterfaceClassDepsProcessor() {
+            public boolean processClassDeps(String className, long byteSize, List<String> depClassNameList) {
+                return false;
+            }
+        };
+        
+        try {
+            parser.parseDependencies(null, filters, classDepsProcessor);
+            assertTrue(false);
+        } catch (NullPointerException e) {
+            // ok
+        }
+        try {
+            parser.parseDependencies(CLASS_C_FILE, null, classDepsProcessor);
+            assertTrue(false);
+        } catch (NullPointerException e) {
+            // ok
+        }
+        try {
+            parser.parseDependencies(CLASS_C_FILE, filters, null);
+            assertTrue(false);
+        } catch (NullPointerException e) {
+            // ok
+        }
+        
+        try {
+            parser.parseDependencies(NON_EXISTING_JAR, filters, classDepsProcessor);
+            assertTrue(false);
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getCause() instanceof FileNotFoundException);
+        }
+    }
+    
+    public void test_parseDependencies_sameAsAccumulated() {
+        final File[] toParseArr = new File[]{
+                CLASS_C_FILE,
+                new File(DUMMY_JAR_PATH),
+                PACKAGE_TEST2_FILE,
+        };
+        for (File toParse : toParseArr) {
+            for (boolean apiOnly : FALSE_TRUE) {
+                // Not merging, since processed classes are not merged.
+                final FsDepsParser refParser = new FsDepsParser(false, apiOnly);
+                final ParsingFilters filters = ParsingFilters.defaultInstance().withClassNameFilter(
+                        NameFilters.not(NameFilters.startsWithName("junit.framework")));
+                refParser.accumulateDependencies(toParse, filters);
+                final PackageData refDefaultP = refParser.getDefaultPackageData();
+                
+                for (int parallelism : new int[]{1,2}) {
+                    for (boolean mustMergeNestedClasses : FALSE_TRUE) {
+                        final FsDepsParser parser = new FsDepsParser(
+                                mustMergeNestedClasses,
+                                apiOnly,
+                                FsDepsParserConfig.defaultInstance()
+                                        .withParallelism(parallelism));
+                        final List<String> classNameList = new ArrayList<String>();
+                        final boolean stopped = parser.parseDependencies(
+                                toParse,
+                                filters,
+                                new InterfaceClassDepsProcessor() {
+                                    public boolean processClassDeps(
+                                            String className,
+                                            long byteSize,
+                                            List<String> depClassNameList) {
+                                        classNameList.add(className);
+                                        
+                                        final ClassData refClassData = refDefaultP.getClassData(className);
+                                        assertNotNull(refClassData);
+                                        assertEquals(refClassData.byteSize(), byteSize);
+                                        
+                                        final SortedSet<String> refDepClassNameSet = new TreeSet<String>();
+                                        for (ClassData succ : refClassData.successors()) {
+                                            refDepClassNameSet.add(succ.name());
+                                        }
+                                        assertEquals(refDepClassNameSet, new TreeSet<String>(depClassNameList));
+                                        assertEquals(refDepClassNameSet.size(), depClassNameList.size());
+                                        return false;
+                                    }
+                                });
+                        assertFalse(stopped);
+                        
+                        // All parsed classes processed, once.
+                        assertTrue(classNameList.size() != 0);
+                        assertEquals(countParsedClasses(refDefaultP), classNameList.size());
+                        assertEquals(classNameList.size(), new HashSet<String>(classNameList).size());
+                        
+                        // Default package data not used.
+                        assertEquals(0, parser.getDefaultPackageData().getSubtreeClassCount());
+                    }
+                }
+            }
+        }
+    }
+    
+    public void test_parseDependencies_stop() {
+        for (int parallelism : new int[]{1,2}) {
+            final FsDepsParser parser = new FsDepsParser(false, false, FsDepsParserConfig.defaultInstance().withParallelism(parallelism));
+            final ParsingFilters filters = ParsingFilters.defaultInstance();
+            final int[] count = new int[1];
+            final boolean stopped = parser.parseDependencies(
+                    new File(DUMMY_JAR_PATH),
+                    filters,
+                    new InterfaceClassDepsProcessor() {
+                        public boolean processClassDeps(
+                                String className,
+                                long byteSize,
+                                List<String> depClassNameList) {
+                            return (++count[0] == 2);
+                        }
+                    });
+            assertTrue(stopped);
+            assertEquals(2, count[0]);
+        }
+    }
+    
+    /*
+     * In-memory class bytes and jar streams.
+     */
+    
+    public void test_accumulateClassBytesDependencies_exceptions() {
+        final FsDepsParser parser = newDepsParser();
+        final ParsingFilters filters = ParsingFilters.defaultInstance();
+        
+        try {
+            parser.accumulateClassBytesDependencies(null, filters);
+            fail();
+        } catch (NullPointerException e) {
+            // ok
+        }
+        try {
+            parser.accumulateClassBytesDependencies(new HashMap<String,byte[]>(), null);
+            fail();
+        } catch (NullPointerException e) {
+            // ok
+        }
+        
+        final Map<String,byte[]> classBytesByEntryName = new HashMap<String,byte[]>();
+        classBytesByEntryName.put("A.class", null);
+        try {
+            parser.accumulateClassBytesDependencies(classBytesByEntryName, filters);
+            fail();
+        } catch (NullPointerException e) {
+            // ok
+        }
+    }
+    
+    public void test_accumulateClassBytesDependencies_sameAsClassFiles() {
+        final File[] dirArr = new File[]{
+                PACKAGE_TEST1_FILE,
+                PACKAGE_TEST2_FILE,
+        };
+        final File outputDir = new File(COMPILATION_OUTPUT_DIR_PATH);
+        final InterfaceNameFilter[] classNameFilterArr = new InterfaceNameFilter[]{
+                NameFilters.any(),
+                NameFilters.equalsName(CLASS_A_NAME),
+        };
+        for (boolean mustMergeNestedClasses : FALSE_TRUE) {
+            for (boolean apiOnly : FALSE_TRUE) {
+                for (InterfaceNameFilter classNameFilter : classNameFilterArr) {
+                    final ParsingFilters filters =
+                            ParsingFilters.defaultInstance().withClassNameFilter(classNameFilter);
+                    final FsDepsParser refParser = new FsDepsParser(
+                            mustMergeNestedClasses,
+                            apiOnly);
+                    final Map<String,byte[]> classBytesByEntryName = new LinkedHashMap<String,byte[]>();
+                    for (File dir : dirArr) {
+                        final String[] fileNameArr = dir.list();
+                        Arrays.sort(fileNameArr);
+                        for (String fileName : fileNameArr) {
+                            final File file = new File(dir, fileName);
+                            if (fileName.endsWith(".class")) {
+                                refParser.accumulateDependencies(file, filters);
+                                classBytesByEntryName.put(
+                                        file.getAbsolutePath().substring(outputDir.getAbsolutePath().length() + 1),
+                                        readFile(file));
+                            }
+                        }
+                    }
+                    // Not accepted by filters.
+                    classBytesByEntryName.put("readme.txt", new byte[]{1,2,3});
+                    
+                    for (int parallelism : new int[]{1,2}) {
+                        final FsDepsParser parser = new FsDepsParser(
+                                mustMergeNestedClasses,
+                                apiOnly,
+                                FsDepsParserConfig.defaultInstance()
+                                        .withParallelism(parallelism)
+                                        .withMustRecordParsedFiles(true));
+                        final ParsingStats stats = new ParsingStats();
+                        parser.setParsingListener(stats);
+                        assertTrue(parser.accumulateClassBytesDependencies(classBytesByEntryName, filters));
+                        
+                        // Nothing new parsed.
+                        assertFalse(parser.accumulateClassBytesDependencies(classBytesByEntryName, filters));
+                        
+                        PrintTestUtils.checkEqual(
+                                toSubtreeLines(refParser.getDefaultPackageData()),
+                                toSubtreeLines(parser.getDefaultPackageData()));
+                        
+                        assertEquals(2, stats.getFileNotAcceptedCount());
+                        assertEquals(2 * (classBytesByEntryName.size() - 1), stats.getClassFileCount());
+                        
+                        // Not recorded, so not updated.
+                        assertFalse(parser.updateDependencies());
+                    }
+                }
+            }
+        }
+    }
+    
+    public void test_accumulateClassBytesDependencies_nestedJar() {
+        final File jar = new File(DUMMY_JAR_PATH);
+        final ParsingFilters filters = ParsingFilters.defaultInstance();
+        for (boolean mustMergeNestedClasses : FALSE_TRUE) {
+            final FsDepsParser refParser = new FsDepsParser(
+                    mustMergeNestedClasses,
+                    false);
+            assertTrue(refParser.accumulateDependencies(jar, filters));
+            
+            final FsDepsParser parser = new FsDepsParser(
+                    mustMergeNestedClasses,
+                    false);
+            final Map<String,byte[]> classBytesByEntryName = new HashMap<String,byte[]>();
+            classBytesByEntryName.put("lib/" + DUMMY_JAR_NAME, readFile(jar));
+            assertTrue(parser.accumulateClassBytesDependencies(classBytesByEntryName, filters));
+            
+            PrintTestUtils.checkEqual(
+                    toSubtreeLines(refParser.getDefaultPackageData()),
+                    toSubtreeLines(parser.getDefaultPackageData()));
+        }
+    }
+    
+    public void test_accumulateJarStreamDependencies_exceptions() {
+        final FsDepsParser parser = newDepsParser();
+        
+        try {
+            parser.accumulateJarStreamDependencies(null, ParsingFilters.defaultInstance());
+            fail();
+        } catch (NullPointerException e) {
+            // ok
+        }
+        try {
+            parser.accumulateJarStreamDependencies(new ByteArrayInputStream(new byte[0]), null);
+            fail();
+        } catch (NullPointerException e) {
+            // ok
+        }
+    }
+    
+    public void test_accumulateJarStreamDependencies_sameAsJarFile() {
+        final File jar = new File(DUMMY_JAR_PATH);
+        final InterfaceNameFilter[] classNameFilterArr = new InterfaceNameFilter[]{
+                NameFilters.any(),
+                NameFilters.startsWithName("junit.framework"),
+        };
+        for (boolean mustMergeNestedClasses : FALSE_TRUE) {
+            for (boolean apiOnly : FALSE_TRUE) {
+                for (InterfaceNameFilter classNameFilter : classNameFilterArr) {
+                    final ParsingFilters filters =
+                            ParsingFilters.defaultInstance().withClassNameFilter(classNameFilter);
+                    final FsDepsParser refParser = new FsDepsParser(
+                            mustMergeNestedClasses,
+                            apiOnly);
+                    assertTrue(refParser.accumulateDependencies(jar, filters));
+                    
+                    final FsDepsParser parser = new FsDepsParser(
+                            mustMergeNestedClasses,
+                            apiOnly,
+                            FsDepsParserConfig.defaultInstance()
+                                    .withParallelism(2));
+                    final InputStream is = new ByteArrayInputStream(readFile(jar));
+                    assertTrue(parser.accumulateJarStreamDependencies(is, filters));
+                    
+                    PrintTestUtils.checkEqual(
+                            toSubtreeLines(refParser.getDefaultPackageData()),
+                            toSubtreeLines(parser.getDefaultPackageData()));
+                }
+            }
+        }
+    }
+    
+    /*
+     * Update.
+     */
+    
+    public void test_updateDependencies_notRecording() {
+        final FsDepsParser parser = newDepsParser();
+        assertTrue(parser.accumulateDependencies(new File(DUMMY_JAR_PATH), ParsingFilters.defaultInstance()));
+        
+        try {
+            parser.updateDependencies();
+            assertTrue(false);
+        } catch (IllegalStateException e) {
+            // ok
+        }
+    }
+    
+    public void test_updateDependencies_noRoot() {
+        final FsDepsParser parser = newRecordingDepsParser();
+        
+        assertFalse(parser.updateDependencies());
+    }
+    
+    public void test_updateDependencies_equalFilters() {
+        final File jarFile = new File(UPDATED_DIR + "/" + DUMMY_JAR_NAME);
+        try {
+            deleteRecursively(UPDATED_DIR);
+            copyFile(new File(DUMMY_JAR_PATH), jarFile);
+            
+            final InterfaceNameFilter classNameFilter = NameFilters.startsWithName("junit.framework");
+            final FsDepsParser parser = newRecordingDepsParser();
+            final ParsingStats stats = new ParsingStats();
+            parser.setParsingListener(stats);
+            final ParsingFilters filters1 = ParsingFilters.defaultInstance().withClassNameFilter(classNameFilter);
+            final ParsingFilters filters2 = ParsingFilters.defaultInstance().withClassNameFilter(classNameFilter);
+            assertNotSame(filters1, filters2);
+            assertEquals(filters1, filters2);
+            assertEquals(filters1.hashCode(), filters2.hashCode());
+            assertFalse(filters1.equals(ParsingFilters.defaultInstance()));
+            
+            assertTrue(parser.accumulateDependencies(UPDATED_DIR, filters1));
+            final long classFileCount = stats.getClassFileCount();
+            assertTrue(classFileCount > 0);
+            
+            // Equal filters, but not same instance: same root.
+            assertFalse(parser.accumulateDependencies(UPDATED_DIR, filters2));
+            
+            // Jar modified: parsed again only once.
+            assertTrue(jarFile.setLastModified(jarFile.lastModified() - 1000L));
+            final ParsingStats updateStats = new ParsingStats();
+            parser.setParsingListener(updateStats);
+            assertTrue(parser.updateDependencies());
+            assertEquals(classFileCount, updateStats.getClassFileCount());
+        } finally {
+            deleteRecursively(UPDATED_DIR);
+        }
+    }
+    
+    public void test_updateDependencies_symbolsReused() {
+        final File classAFile = new File(UPDATED_DIR + "/" + slashed(CLASS_A_NAME) + ".class");
+        final File classCFile = new File(UPDATED_DIR + "/" + slashed(CLASS_C_NAME) + ".class");
+        final File jarFile = new File(UPDATED_DIR + "/" + DUMMY_JAR_NAME);
+        final String jarClassName = "junit.framework.TestCase";
+        try {
+            for (boolean mustMergeNestedClasses : FALSE_TRUE) {
+                deleteRecursively(UPDATED_DIR);
+                copyFile(new File(COMPILATION_OUTPUT_DIR_PATH + "/" + slashed(CLASS_A_NAME) + ".class"), classAFile);
+                copyFile(CLASS_C_FILE, classCFile);
+                copyFile(new File(DUMMY_JAR_PATH), jarFile);
+                
+                final FsDepsParser parser = new FsDepsParser(
+                        mustMergeNestedClasses,
+                        false,
+                        FsDepsParserConfig.defaultInstance()
+                                .withMustRecordParsedFiles(true));
+                final PackageData defaultP = parser.getDefaultPackageData();
+                final ClassSymbolTable table = defaultP.getClassSymbolTable();
+                
+                assertTrue(parser.accumulateDependencies(UPDATED_DIR, ParsingFilters.defaultInstance()));
+                final int initialSize = table.size();
+                final ClassSymbol classASymbol = table.getSymbol(CLASS_A_NAME);
+                final ClassSymbol jarClassSymbol = table.getSymbol(jarClassName);
+                assertNotNull(classASymbol);
+                assertNotNull(jarClassSymbol);
+                
+                // Nested class deleted: its symbol removed, others kept.
+                assertTrue(classCFile.delete());
+                assertTrue(parser.updateDependencies());
+                assertNull(table.getSymbol(CLASS_C_NAME));
+                assertTrue(table.size() < initialSize);
+                assertSame(classASymbol, table.getSymbol(CLASS_A_NAME));
+                assertSame(jarClassSymbol, table.getSymbol(jarClassName));
+                
+                // Nested class added back.
+                copyFile(CLASS_C_FILE, classCFile);
+                assertTrue(parser.updateDependencies());
+                assertEquals(initialSize, table.size());
+                assertSame(classASymbol, table.getSymbol(CLASS_A_NAME));
+                assertSame(jarClassSymbol, table.getSymbol(jarClassName));
+                
+                // Data of untouched classes still use symbols names.
+                assertSame(jarClassSymbol.name(), defaultP.getClassData(jarClassName).name());
+            }
+        } finally {
+            deleteRecursively(UPDATED_DIR);
+        }
+    }
+    
+    public void test_updateDependencies_sameAsFreshParsing() {
+        final File classAFile = new File(UPDATED_DIR + "/" + slashed(CLASS_A_NAME) + ".class");
+        final File classBFile = new File(UPDATED_DIR + "/" + slashed(CLASS_B_NAME) + ".class");
+        final File classCFile = new File(UPDATED_DIR + "/" + slashed(CLASS_C_NAME) + ".class");
+        final File jarFile = new File(UPDATED_DIR + "/" + DUMMY_JAR_NAME);
+        try {
+            for (int parallelism : new int[]{1,2}) {
+                for (boolean mustMergeNestedClasses : FALSE_TRUE) {
+                    for (boolean withApiDeps : FALSE_TRUE) {
+                        deleteRecursively(UPDATED_DIR);
+                        copyFile(new File(COMPILATION_OUTPUT_DIR_PATH + "/" + slashed(CLASS_A_NAME) + ".class"), classAFile);
+                        copyFile(new File(COMPILATION_OUTPUT_DIR_PATH + "/" + slashed(CLASS_B_NAME) + ".class"), classBFile);
+                        copyFile(CLASS_C_FILE, classCFile);
+                        copyFile(new File(DUMMY_JAR_PATH), jarFile);
+                    
+                        final FsDepsParser parser = new FsDepsParser(
+                                mustMergeNestedClasses,
+                                false,
+                                FsDepsParserConfig.defaultInstance()
+                                        .withParallelism(parallelism)
+                                        .withApiDeps(withApiDeps)
+                                        .withMustRecordParsedFiles(true));
+                        final ParsingFilters filters = ParsingFilters.defaultInstance();
+                    
+                        assertTrue(parser.accumulateDependencies(UPDATED_DIR, filters));
+                    
+                        // Nothing changed.
+                        assertFalse(parser.updateDependencies());
+                    
+                        // Nested class deleted.
+                        assertTrue(classCFile.delete());
+                        assertTrue(parser.updateDependencies());
+                        checkSameAsFreshParsing(parser, UPDATED_DIR, filters);
+                    
+                        // Nested class added.
+                        copyFile(CLASS_C_FILE, classCFile);
+                        assertTrue(parser.updateDependencies());
+                        checkSameAsFreshParsing(parser, UPDATED_DIR, filters);
+                    
+                        // Class depended on deleted.
+                        assertTrue(classAFile.delete());
+                        assertTrue(parser.updateDependencies());
+                        checkSameAsFreshParsing(parser, UPDATED_DIR, filters);
+                    
+                        // Class modified (content of another class).
+                        copyFile(CLASS_C_FILE, classBFile);
+                        assertTrue(parser.updateDependencies());
+                        checkSameAsFreshParsing(parser, UPDATED_DIR, filters);
+                    
+                        // Jar deleted.
+                        assertTrue(jarFile.delete());
+                        assertTrue(parser.updateDependencies());
+                        checkSameAsFreshParsing(parser, UPDATED_DIR, filters);
+                    
+                        // Nothing changed.
+                        assertFalse(parser.updateDependencies());
+                    }
+                }
+            }
+        } finally {
+            deleteRecursively(UPDATED_DIR);
+        }
+    }
+    
+    /*
+     * Reachable dependencies.
+     */
+    
+    public void test_accumulateReachableDependencies_exceptions() {
+        final FsDepsParser parser = newDepsParser();
+        final List<File> fileList = Arrays.asList(new File(DUMMY_JAR_PATH));
+        final ParsingFilters filters = ParsingFilters.defaultInstance();
+        final InterfaceNameFilter beginNameFilter = NameFilters.any();
+        
+        try {
+            parser.accumulateReachableDependencies(null, filters, beginNameFilter, false);
+            assertTrue(false);
+        } catch (NullPointerException e) {
+            // ok
+        }
+        try {
+            parser.accumulateReachableDependencies(fileList, null, beginNameFilter, false);
+            assertTrue(false);
+        } catch (NullPointerException e) {
+            // ok
+        }
+        try {
+            parser.accumulateReachableDependencies(fileList, filters, null, false);
+            assertTrue(false);
+        } catch (NullPointerException e) {
+            // ok
+        }
+        
+        for (File badFile : new File[]{NON_EXISTING_CLASS, NON_EXISTING_JAR, NON_EXISTING_DIR}) {
+            try {
+                parser.accumulateReachableDependencies(
+                        Arrays.asList(new File(DUMMY_JAR_PATH), badFile),
+                        filters,
+                        beginNameFilter,
+                        false);
+                assertTrue(false);
+            } catch (IllegalArgumentException e) {
+                assertTrue(e.getCause() instanceof FileNotFoundException);
+            }
+        }
+        
+        // Nothing parsed before checking files existence.
+        assertEquals(0, parser.getDefaultPackageData().getSubtreeClassCount());
+    }
+    
+    public void test_accumulateReachableDependencies_noBegin() {
+        final FsDepsParser parser = newDepsParser();
+        
+        assertFalse(parser.accumulateReachableDependencies(
+                Arrays.asList(new File(DUMMY_JAR_PATH)),
+                ParsingFilters.defaultInstance(),
+                NameFilters.none(),
+                false));
+        assertEquals(0, parser.getDefaultPackageData().getSubtreeClassCount());
+    }
+    
+    /**
+     * Checks that parsed classes are parsed as with a full parsing,
+     * that the begin classes are parsed, that classes parsed in full parsing
+     * and depended on by parsed classes are parsed too, and that not all
+     * classes are parsed.
+     */
+    public void test_accumulateReachableDependencies_closure() {
+        final List<File> fileList = Arrays.asList(
+                new File(DUMMY_JAR_PATH),
+                new File(COMPILATION_OUTPUT_DIR_PATH));
+        final String beginClassName = "junit.textui.TestRunner";
+        for (boolean mustMergeNestedClasses : FALSE_TRUE) {
+            for (boolean apiOnly : FALSE_TRUE) {
+                final FsDepsParser refParser = new FsDepsParser(
+                        mustMergeNestedClasses,
+                        apiOnly);
+                final ParsingFilters filters = ParsingFilters.defaultInstance();
+                for (File toParse : fileList) {
+                    refParser.accumulateDependencies(toParse, filters);
+                }
+                final PackageData refDefaultP = refParser.getDefaultPackageData();
+                
+                for (boolean forPackages : FALSE_TRUE) {
+                    final FsDepsParser parser = new FsDepsParser(
+                            mustMergeNestedClasses,
+                            apiOnly);
+                    final InterfaceNameFilter beginNameFilter;
+                    if (forPackages) {
+                        beginNameFilter = NameFilters.equalsName(NameUtils.getPackageName(beginClassName));
+                    } else {
+                        beginNameFilter = NameFilters.equalsName(beginClassName);
+                    }
+                    
+                    assertTrue(parser.accumulateReachableDependencies(
+                            fileList,
+                            filters,
+                            beginNameFilter,
+                            forPackages));
+                    
+                    final PackageData defaultP = parser.getDefaultPackageData();
+                    assertTrue(defaultP.getClassData(beginClassName).byteSize() > 0);
+                    
+                    final List<ClassData> parsedList = new ArrayList<ClassData>();
+                    addParsedClasses(defaultP, parsedList);
+                    for (ClassData classData : parsedList) {
+                        final ClassData refClassData = refDefaultP.getClassData(classData.name());
+                        assertEquals(refClassData.byteSize(), classData.byteSize());
+                        assertEquals(toNameSet(refClassData.successors()), toNameSet(classData.successors()));
+                        for (ClassData succ : classData.successors()) {
+                            final ClassData refSucc = refDefaultP.getClassData(succ.name());
+                            if (refSucc.byteSize() > 0) {
+                                assertTrue(succ.byteSize() > 0);
+                            }
+                        }
+                    }
+                    
+                    final List<ClassData> refParsedList = new ArrayList<ClassData>();
+                    addParsedClasses(refDefaultP, refParsedList);
+                    assertTrue(parsedList.size() < refParsedList.size());
+                    
+                    // Nothing new parsed.
+                    assertFalse(parser.accumulateReachableDependencies(
+                            fileList,
+                            filters,
+                            beginNameFilter,
+                            forPackages));
+                }
+            }
+        }
+    }
+    
+    /*
+     * Parsing listener.
+     */
+    
+    public void test_setParsingListener_getParsingListener() {
+        final FsDepsParser parser = newDepsParser();
+        assertNull(parser.getParsingListener());
+        
+        final ParsingStats stats = new ParsingStats();
+        parser.setParsingListener(stats);
+        assertSame(stats, parser.getParsingListener());
+        
+        parser.setParsingListener(null);
+        assertNull(parser.getParsingListener());
+    }
+    
+    public void test_parsingListener_counts() {
+        final File jar = new File(DUMMY_JAR_PATH);
+        final FsDepsParser parser = newDepsParser();
+        final ParsingStats stats = new ParsingStats();
+        parser.setParsingListener(stats);
+        
+        assertTrue(parser.accumulateDependencies(jar, ParsingFilters.defaultInstance()));
+        
+        assertEquals(1, stats.getRootCount());
+        assertEquals(countParsedClasses(parser.getDefaultPackageData()), stats.getClassFileCount());
+        assertEquals(stats.getClassFileCount(), stats.getParsedCount());
+        assertEquals(0, stats.getReusedCount());
+        assertEquals(0, stats.getClassNotAcceptedCount());
+        assertEquals(0, stats.getDuplicateCount());
+        // At least the manifest.
+        assertTrue(stats.getFileNotAcceptedCount() > 0);
+        assertTrue(stats.getByteCount() > 0);
+        assertTrue(stats.getParseNsSum() >= 0);
+        assertEquals(10, stats.getSlowestClassNames().size());
+        
+        /*
+         * Parsing again: all classes already there.
+         */
+        
+        final long classFileCount = stats.getClassFileCount();
+        assertFalse(parser.accumulateDependencies(jar, ParsingFilters.defaultInstance()));
+        assertEquals(2, stats.getRootCount());
+        assertEquals(2 * classFileCount, stats.getClassFileCount());
+        assertEquals(classFileCount, stats.getDuplicateCount());
+    }
+    
+    public void test_parsingListener_classNameFilter() {
+        final File jar = new File(DUMMY_JAR_PATH);
+        final FsDepsParser parser = newDepsParser();
+        final ParsingStats stats = new ParsingStats();
+        parser.setParsingListener(stats);
+        
+        final ParsingFilters filters = ParsingFilters.defaultInstance().withClassNameFilter(
+                NameFilters.startsWithName("junit.framework"));
+        assertTrue(parser.accumulateDependencies(jar, filters));
+        
+        final long acceptedCount = stats.getClassFileCount() - stats.getClassNotAcceptedCount();
+        assertEquals(countParsedClasses(parser.getDefaultPackageData()), acceptedCount);
+        assertTrue(stats.getClassNotAcceptedCount() > 0);
+        for (String className : stats.getSlowestClassNames()) {
+            assertTrue(className.startsWith("junit.framework."));
+        }
+    }
+    
+    public void test_parsingListener_parallel_sameAsSequential() {
+        final File[] toParseArr = new File[]{
+                CLASS_C_FILE,
+                new File(DUMMY_JAR_PATH),
+                new File(COMPILATION_OUTPUT_DIR_PATH),
+        };
+        final ParsingFilters filters = ParsingFilters.defaultInstance();
+        
+        List<String> refEventList = null;
+        for (int parallelism : new int[]{1,3}) {
+            for (int ioParallelism : new int[]{0,4}) {
+                final FsDepsParser parser = new FsDepsParser(
+                        false,
+                        false,
+                        FsDepsParserConfig.defaultInstance()
+                                .withParallelism(parallelism)
+                                .withIoParallelism(ioParallelism));
+                final List<String> eventList = new ArrayList<String>();
+                parser.setParsingListener(newRecordingListener(eventList));
+                for (File toParse : toParseArr) {
+                    parser.accumulateDependencies(toParse, filters);
+                }
+                // Not accepted files possibly notified earlier
+                // when parsing in parallel.
+                final List<String> sortedEventList = new ArrayList<String>();
+                for (String prefix : new String[]{"root", "classFile", "fileNotAccepted"}) {
+                    for (String event : eventList) {
+                        if (event.startsWith(prefix)) {
+                            sortedEventList.add(event);
+                        }
+                    }
+                }
+                assertEquals(eventList.size(), sortedEventList.size());
+                if (refEventList == null) {
+                    refEventList = sortedEventList;
+                } else {
+                    assertEquals(refEventList, sortedEventList);
+                }
+            }
+        }
+    }
+    
+    public void test_parsingListener_cache() {
+        final File jar = new File(DUMMY_JAR_PATH);
+        try {
+            deleteCache();
+            for (int k = 0; k < 2; k++) {
+                final FsDepsParser parser = new FsDepsParser(
+                        false,
+                        false,
+                        FsDepsParserConfig.defaultInstance()
+                                .withCacheDir(CACHE_DIR));
+                final ParsingStats stats = new ParsingStats();
+                parser.setParsingListener(stats);
+                assertTrue(parser.accumulateDependencies(jar, ParsingFilters.defaultInstance()));
+                
+                assertTrue(stats.getClassFileCount() > 0);
+                if (k == 0) {
+                    // Cache miss.
+                    assertEquals(stats.getClassFileCount(), stats.getParsedCount());
+                } else {
+                    // Cache hit.
+                    assertEquals(stats.getClassFileCount(), stats.getReusedCount());
+                    assertEquals(0, stats.getSlowestClassNames().size());
+                }
+            }
+        } finally {
+            deleteCache();
+        }
+    }
+    
+    public void test_parsingListener_parseDependencies() {
+        final FsDepsParser parser = newDepsParser();
+        final ParsingStats stats = new ParsingStats();
+        parser.setParsingListener(stats);
+        
+        final List<String> classNameList = new ArrayList<String>();
+        assertFalse(parser.parseDependencies(
+                new File(DUMMY_JAR_PATH),
+                ParsingFilters.defaultInstance(),
+                new InterfaceClassDepsProcessor() {
+                    public boolean processClassDeps(
+                            String className,
+                            long byteSize,
+                            List<String> depClassNameList) {
+                        classNameList.add(className);
+                        return false;
+                    }
+                }));
+        
+        assertEquals(1, stats.getRootCount());
+        assertEquals(classNameList.size(), stats.getClassFileCount());
+        assertEquals(0, stats.getDuplicateCount());
+    }
+    
+    /*
+     * 
+     */
+
+    public void test_dollarSign_$X_Y() {
+        if (!HANDLE_WEIRD_DOLLAR_SIGN_USAGES) {
+            return;
+        }
+
+        for (boolean apiOnly : new boolean[]{false,true}) {
+            
+            if (DEBUG) {
+                System.out.println("apiOnly = " + apiOnly);
+            }
+            
+            // Else ClassData for "$X" is created due to non-API dependency
+            // from "$X$Y" to its outer class "$X".
+
+            final FsDepsParser parser = newDepsParser(apiOnly);
+            final PackageData defaultP = parser.getDefaultPackageData();
+            final ParsingFilters filters = ParsingFilters.defaultInstance();
+
+            /*
+             * Parsing $X$Y.class.
+             */
+
+            assertTrue(parser.accumulateDependencies(CLASS_$X_Y_FILE, filters));
+
+            if (DEBUG) {
+                defaultP.printSubtree();
+            }
+
+            final ClassData x_y = defaultP.getClassData(CLASS_$X_Y_NAME);
+            assertEquals(CLASS_$X_Y_NAME, x_y.name());
+
+            // "$X$Y" interpreted as a top level class,
+            // due to having a weird class file name,
+            // even though it's actually a nested class.
+            assertEquals(null, x_y.outerClassData());
+
+            if (apiOnly) {
+                // No ClassData created for actual top level class "$X".
+                assertEquals(null, defaultP.getClassData(CLASS_$X_NAME));
+            } else {
+                // ClassData created due to non-API dependency
+                // to actual outer class.
+                final ClassData x = defaultP.getClassData(CLASS_$X_NAME);
+                assertNotNull(x);
+            }
+
+            // Dependencies.
+            final ClassData cObject = defaultP.getClassData(Object.class.getName());
+            final ClassData cString = defaultP.getClassData(String.class.getName());
+            assertEquals(apiOnly ? 2 : 3, x_y.successors().size());
+            assertTrue(x_y.successors().contains(cObject));
+            assertTrue(x_y.successors().contains(cString));
+            if (apiOnly) {
+            } else {
+                assertTrue(x_y.successors().contains(defaultP.getClassData(CLASS_$X_NAME)));
+            }
+
+            /*
+             * Parsing $X.class.
+             */
+
+            assertTrue(parser.accumulateDependencies(CLASS_$X_FILE, filters));
+
+            if (DEBUG) {
+                defaultP.printSubtree();
+            }
+
+            final ClassData x = defaultP.getClassData(CLASS_$X_NAME);
+            assertEquals(CLASS_$X_NAME, x.name());
+
+            // "$X$Y" still interpreted as a top level class.
+            assertEquals(null, x_y.outerClassData());
+
+            // Dependencies.
+            assertEquals(apiOnly ? 1 : 2, x.successors().size());
+            assertTrue(x.successors().contains(cObject));
+            if (apiOnly) {
+            } else {
+                // Non-API dependency to actual nested class.
+                assertTrue(x.successors().contains(x_y));
+            }
+            assertEquals(apiOnly ? 2 : 3, x_y.successors().size());
+            assertTrue(x_y.successors().contains(cObject));
+            assertTrue(x_y.successors().contains(cString));
+            if (apiOnly) {
+            } else {
+                assertTrue(x_y.successors().contains(x));
+            }
+        }
+    }
+
+    public void test_dollarSign_X$Y() {
+        if (!HANDLE_WEIRD_DOLLAR_SIGN_USAGES) {
+            return;
+        }
+
+        final FsDepsParser parser = newDepsParser();
         final PackageData defaultP = parser.getDefaultPackageData();
         final ParsingFilters filters = ParsingFilters.defaultInstance();
 
@@ -769,15 +2523,332 @@ public class FsDepsParserTest extends TestCase {
     private static FsDepsParser newDepsParser(boolean apiOnly) {
         return new FsDepsParser(false, apiOnly);
     }
+
+    private static FsDepsParser newRecordingDepsParser() {
+        return new FsDepsParser(
+                false,
+                false,
+                FsDepsParserConfig.defaultInstance()
+                        .withMustRecordParsedFiles(true));
+    }
+    
+    /**
+     * @param eventList (out) Events, without times, which depend on runs.
+     * @return A listener recording events into the specified list.
+     */
+    private static InterfaceParsingListener newRecordingListener(final List<String> eventList) {
+        return new InterfaceParsingListener() {
+            @Override
+            public void onRootBegin(File root) {
+                eventList.add("rootBegin " + root);
+            }
+            @Override
+            public void onRootEnd(File root, long durationNs) {
+                eventList.add("rootEnd " + root);
+            }
+            @Override
+            public void onFileNotAccepted(File file) {
+                eventList.add("fileNotAccepted " + file);
+            }
+            @Override
+            public void onClassFile(
+                    File container,
+                    String className,
+                    long byteSize,
+                    long parseNs,
+                    boolean duplicate) {
+                eventList.add(
+                        "classFile " + container
+                        + " " + className
+                        + " " + byteSize
+                        + " " + (parseNs < 0)
+                        + " " + duplicate);
+            }
+        };
+    }
     
     private static String slashed(String name) {
         return NameUtils.slashed(name);
     }
     
+    private static String[] toSubtreeLines(PackageData packageData) {
+        final MemPrintStream stream = new MemPrintStream();
+        packageData.printSubtree(stream, true);
+        final List<String> lineList = stream.getLines();
+        return PrintTestUtils.toStringTab(lineList);
+    }
+    
+    /**
+     * @param parsedList (out) Classes of the specified subtree
+     *        with a byte size.
+     */
+    private static void addParsedClasses(
+            PackageData packageData,
+            List<ClassData> parsedList) {
+        for (ClassData classData : packageData.childClassDataByFileNameNoExt().values()) {
+            if (classData.byteSize() > 0) {
+                parsedList.add(classData);
+            }
+        }
+        for (PackageData childP : packageData.childPackageDataByDirName().values()) {
+            addParsedClasses(childP, parsedList);
+        }
+    }
+    
+    private static SortedSet<String> toNameSet(Set<ClassData> classDataSet) {
+        final SortedSet<String> nameSet = new TreeSet<String>();
+        for (ClassData classData : classDataSet) {
+            nameSet.add(classData.name());
+        }
+        return nameSet;
+    }
+    
     /*
      * 
      */
     
+    /**
+     * @return Runtime image of the running JDK, or null if none.
+     */
+    private static File getRuntimeImageOrNull() {
+        final File image = new File(System.getProperty("java.home") + "/lib/modules");
+        return (image.isFile() ? image : null);
+    }
+    
+    /**
+     * Creates a jar containing class files of test1 package, and a nested
+     * jar (stored, as done by Spring Boot) containing class files of test2
+     * package, and itself a nested jar (deflated) containing class files
+     * of test$ package.
+     * 
+     * @param classFileList (out) Class files put into the jar.
+     */
+    private static void createNestingJar(List<File> classFileList) {
+        final File[] dirArr = new File[]{
+                PACKAGE_TEST1_FILE,
+                PACKAGE_TEST2_FILE,
+                CLASS_$X_FILE.getParentFile(),
+        };
+        final List<Map<String,byte[]>> contentByEntryNameList = new ArrayList<Map<String,byte[]>>();
+        for (File dir : dirArr) {
+            final Map<String,byte[]> contentByEntryName = new LinkedHashMap<String,byte[]>();
+            final String[] fileNameArr = dir.list();
+            Arrays.sort(fileNameArr);
+            for (String fileName : fileNameArr) {
+                final File file = new File(dir, fileName);
+                if (fileName.endsWith(".class")) {
+                    classFileList.add(file);
+                    contentByEntryName.put(
+                            file.getAbsolutePath().substring(new File(COMPILATION_OUTPUT_DIR_PATH).getAbsolutePath().length() + 1),
+                            readFile(file));
+                }
+            }
+            contentByEntryNameList.add(contentByEntryName);
+        }
+        contentByEntryNameList.get(1).put("lib/inner2.jar", newJarBytes(contentByEntryNameList.get(2), false));
+        contentByEntryNameList.get(0).put("BOOT-INF/lib/inner.jar", newJarBytes(contentByEntryNameList.get(1), true));
+        final byte[] bytes = newJarBytes(contentByEntryNameList.get(0), false);
+        try {
+            final OutputStream os = new FileOutputStream(NESTING_JAR);
+            try {
+                os.write(bytes);
+            } finally {
+                os.close();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+    
+    private static byte[] newJarBytes(
+            Map<String,byte[]> contentByEntryName,
+            boolean stored) {
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try {
+            final ZipOutputStream zos = new ZipOutputStream(baos);
+            try {
+                for (Map.Entry<String,byte[]> mapEntry : contentByEntryName.entrySet()) {
+                    final byte[] content = mapEntry.getValue();
+                    final ZipEntry entry = new ZipEntry(mapEntry.getKey());
+                    if (stored) {
+                        final CRC32 crc = new CRC32();
+                        crc.update(content);
+                        entry.setMethod(ZipEntry.STORED);
+                        entry.setSize(content.length);
+                        entry.setCompressedSize(content.length);
+                        entry.setCrc(crc.getValue());
+                    }
+                    zos.putNextEntry(entry);
+                    zos.write(content);
+                    zos.closeEntry();
+                }
+            } finally {
+                zos.close();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return baos.toByteArray();
+    }
+    
+    private static byte[] readFile(File file) {
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try {
+            final InputStream is = new FileInputStream(file);
+            try {
+                final byte[] buffer = new byte[8192];
+                int n;
+                while ((n = is.read(buffer)) >= 0) {
+                    baos.write(buffer, 0, n);
+                }
+            } finally {
+                is.close();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return baos.toByteArray();
+    }
+    
+    private static void deleteCache() {
+        final File[] files = CACHE_DIR.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        CACHE_DIR.delete();
+    }
+    
+    /**
+     * @return The number of classes which class file has been parsed,
+     *         among the specified package and its subpackages,
+     *         when not merging nested classes.
+     */
+    private static long countParsedClasses(PackageData packageData) {
+        long count = 0;
+        // Also contains nested classes.
+        for (ClassData classData : packageData.childClassDataByFileNameNoExt().values()) {
+            if (classData.byteSizeByClassFileNameNoExt().containsKey(classData.fileNameNoExt())) {
+                count++;
+            }
+        }
+        for (PackageData childPackageData : packageData.childPackageDataByDirName().values()) {
+            count += countParsedClasses(childPackageData);
+        }
+        return count;
+    }
+    
+    private static void checkSameAsFreshParsing(
+            FsDepsParser parser,
+            File toParse,
+            ParsingFilters filters) {
+        final FsDepsParser refParser = new FsDepsParser(
+                parser.getMustMergeNestedClasses(),
+                parser.getApiOnly());
+        refParser.accumulateDependencies(toParse, filters);
+        
+        PrintTestUtils.checkEqual(
+                toSubtreeLines(refParser.getDefaultPackageData()),
+                toSubtreeLines(parser.getDefaultPackageData()));
+        
+        if (parser.getApiDefaultPackageData() != null) {
+            final FsDepsParser apiRefParser = new FsDepsParser(
+                    parser.getMustMergeNestedClasses(),
+                    true);
+            apiRefParser.accumulateDependencies(toParse, filters);
+            
+            PrintTestUtils.checkEqual(
+                    toSubtreeLines(apiRefParser.getDefaultPackageData()),
+                    toSubtreeLines(parser.getApiDefaultPackageData()));
+        }
+    }
+    
+    private static void deleteRecursively(File file) {
+        final File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                deleteRecursively(child);
+            }
+        }
+        file.delete();
+    }
+    
+    /**
+     * Creates parent directories if needed.
+     */
+    private static void copyFile(File from, File to) {
+        to.getParentFile().mkdirs();
+        try {
+            final InputStream is = new FileInputStream(from);
+            try {
+                final OutputStream os = new FileOutputStream(to);
+                try {
+                    final byte[] buffer = new byte[8192];
+                    int n;
+                    while ((n = is.read(buffer)) >= 0) {
+                        os.write(buffer, 0, n);
+                    }
+                } finally {
+                    os.close();
+                }
+            } finally {
+                is.close();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+    
+    /**
+     * Overwrites the first and last bytes of the specified file,
+     * without changing its size.
+     */
+    private static void corruptFile(File file) {
+        try {
+            final RandomAccessFile raf = new RandomAccessFile(file, "rw");
+            try {
+                final int n = (int) Math.min(64, raf.length());
+                raf.seek(0);
+                raf.write(new byte[n]);
+                raf.seek(raf.length() - n);
+                raf.write(new byte[n]);
+            } finally {
+                raf.close();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+    
+    private static int utf8Length(String str) {
+        try {
+            return str.getBytes("UTF-8").length;
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+    
+    /**
+     * @return The overwritten int.
+     */
+    private static int overwriteInt(File file, long offset, int value) {
+        try {
+            final RandomAccessFile raf = new RandomAccessFile(file, "rw");
+            try {
+                raf.seek(offset);
+                final int previous = raf.readInt();
+                raf.seek(offset);
+                raf.writeInt(value);
+                return previous;
+            } finally {
+                raf.close();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+    
     private static void checkThrowsIAEFileNotFound(
             FsDepsParser parser,
             File badFile,
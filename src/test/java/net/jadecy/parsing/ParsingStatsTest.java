@@ -0,0 +1,130 @@
+/*
+ * Copyright 2026 Jeff Hain
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.jadecy.parsing;
+
+import java.io.File;
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+import net.jadecy.tests.PrintTestUtils;
+import net.jadecy.utils.MemPrintStream;
+
+public class ParsingStatsTest extends TestCase {
+    
+    //--------------------------------------------------------------------------
+    // MEMBERS
+    //--------------------------------------------------------------------------
+    
+    private static final File ROOT = new File("root");
+    private static final File JAR = new File("root/a.jar");
+    
+    //--------------------------------------------------------------------------
+    // PUBLIC METHODS
+    //--------------------------------------------------------------------------
+    
+    public void test_ParsingStats_int() {
+        try {
+            new ParsingStats(-1);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // ok
+        }
+        
+        final ParsingStats stats = new ParsingStats(0);
+        stats.onClassFile(null, "a.A", 10, 100, false);
+        assertEquals(1, stats.getClassFileCount());
+        assertEquals(0, stats.getSlowestClassNames().size());
+    }
+    
+    public void test_counts() {
+        final ParsingStats stats = new ParsingStats();
+        
+        stats.onRootBegin(ROOT);
+        stats.onFileNotAccepted(new File(ROOT, "readme.txt"));
+        stats.onClassFile(null, "a.A", 10, 100, false);
+        stats.onClassFile(JAR, "a.B", 20, -1, false);
+        stats.onClassFile(JAR, null, 30, 300, false);
+        stats.onClassFile(JAR, "a.A", 40, 400, true);
+        stats.onRootEnd(ROOT, 1000);
+        
+        assertEquals(1, stats.getRootCount());
+        assertEquals(1, stats.getFileNotAcceptedCount());
+        assertEquals(4, stats.getClassFileCount());
+        assertEquals(3, stats.getParsedCount());
+        assertEquals(1, stats.getReusedCount());
+        assertEquals(1, stats.getClassNotAcceptedCount());
+        assertEquals(1, stats.getDuplicateCount());
+        assertEquals(100, stats.getByteCount());
+        assertEquals(800, stats.getParseNsSum());
+        
+        stats.clear();
+        
+        assertEquals(0, stats.getRootCount());
+        assertEquals(0, stats.getFileNotAcceptedCount());
+        assertEquals(0, stats.getClassFileCount());
+        assertEquals(0, stats.getParsedCount());
+        assertEquals(0, stats.getReusedCount());
+        assertEquals(0, stats.getClassNotAcceptedCount());
+        assertEquals(0, stats.getDuplicateCount());
+        assertEquals(0, stats.getByteCount());
+        assertEquals(0, stats.getParseNsSum());
+        assertEquals(0, stats.getSlowestClassNames().size());
+    }
+    
+    public void test_getSlowestClassNames() {
+        final ParsingStats stats = new ParsingStats(3);
+        
+        final long[] parseNsArr = new long[]{5, 1, 7, 3, 9, 2};
+        for (int i = 0; i < parseNsArr.length; i++) {
+            stats.onClassFile(null, "C" + parseNsArr[i], 1, parseNsArr[i], false);
+        }
+        // Reused and not accepted ones are ignored.
+        stats.onClassFile(null, "R", 1, -1, false);
+        stats.onClassFile(null, null, 1, 100, false);
+        
+        assertEquals(Arrays.asList("C9", "C7", "C5"), stats.getSlowestClassNames());
+    }
+    
+    public void test_printSummary() {
+        final ParsingStats stats = new ParsingStats(1);
+        
+        stats.onRootBegin(ROOT);
+        stats.onFileNotAccepted(new File(ROOT, "readme.txt"));
+        stats.onClassFile(JAR, "a.A", 10, 1234567, false);
+        stats.onClassFile(JAR, "a.B", 20, 1000, false);
+        stats.onRootEnd(ROOT, 2000000);
+        
+        final MemPrintStream stream = new MemPrintStream();
+        stats.printSummary(stream);
+        
+        final String[] expectedLines = new String[]{
+                "parsing stats:",
+                "roots: 1 (2.000 ms)",
+                "  " + ROOT.getPath() + ": 2.000 ms, 2 class files, 30 bytes, parse time 1.235 ms",
+                "files not accepted: 1",
+                "class files: 2 (parsed: 2, reused: 0, not accepted: 0, duplicates: 0)",
+                "bytes read: 30",
+                "parse time (all threads): 1.235 ms",
+                "slowest jar or image files:",
+                "  " + JAR.getPath() + ": 1.235 ms, 2 class files, 30 bytes",
+                "slowest class files:",
+                "  a.A (in " + JAR.getPath() + "): 1.234 ms, 10 bytes",
+        };
+        PrintTestUtils.checkEqual(
+                expectedLines,
+                PrintTestUtils.toStringTab(stream.getLines()));
+    }
+}
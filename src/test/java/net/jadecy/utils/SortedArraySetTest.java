@@ -0,0 +1,201 @@
+/*
+ * Copyright 2026 Jeff Hain
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.jadecy.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.TreeSet;
+
+import junit.framework.TestCase;
+
+public class SortedArraySetTest extends TestCase {
+    
+    //--------------------------------------------------------------------------
+    // PUBLIC METHODS
+    //--------------------------------------------------------------------------
+    
+    public void test_SortedArraySet() {
+        final SortedArraySet<Integer> set = new SortedArraySet<Integer>();
+        assertEquals(0, set.size());
+        assertTrue(set.isEmpty());
+        assertEquals(null, set.comparator());
+    }
+    
+    public void test_SortedArraySet_Collection() {
+        try {
+            new SortedArraySet<Integer>(null);
+            assertTrue(false);
+        } catch (NullPointerException e) {
+            // ok
+        }
+        try {
+            new SortedArraySet<Integer>(Arrays.asList(1, null));
+            assertTrue(false);
+        } catch (NullPointerException e) {
+            // ok
+        }
+        
+        final SortedArraySet<Integer> set = new SortedArraySet<Integer>(Arrays.asList(3, 1, 2, 1));
+        assertEquals("[1, 2, 3]", set.toString());
+    }
+    
+    public void test_add_and_remove_and_contains() {
+        final SortedArraySet<Integer> set = new SortedArraySet<Integer>();
+        
+        try {
+            set.add(null);
+            assertTrue(false);
+        } catch (NullPointerException e) {
+            // ok
+        }
+        try {
+            set.contains(null);
+            assertTrue(false);
+        } catch (NullPointerException e) {
+            // ok
+        }
+        
+        assertTrue(set.add(2));
+        assertTrue(set.add(5));
+        assertTrue(set.add(0));
+        assertTrue(set.add(3));
+        assertFalse(set.add(3));
+        assertEquals("[0, 2, 3, 5]", set.toString());
+        
+        assertTrue(set.contains(0));
+        assertTrue(set.contains(5));
+        assertFalse(set.contains(1));
+        assertFalse(set.contains(6));
+        
+        assertTrue(set.remove(0));
+        assertFalse(set.remove(0));
+        assertTrue(set.remove(5));
+        assertEquals("[2, 3]", set.toString());
+        
+        set.clear();
+        assertTrue(set.isEmpty());
+        assertEquals("[]", set.toString());
+    }
+    
+    public void test_consistencyWithTreeSet() {
+        final Random random = new Random(123456789L);
+        final SortedArraySet<Integer> set = new SortedArraySet<Integer>();
+        final TreeSet<Integer> ref = new TreeSet<Integer>();
+        for (int i = 0; i < 10 * 1000; i++) {
+            final Integer value = random.nextInt(100);
+            if (random.nextBoolean()) {
+                assertEquals(ref.add(value), set.add(value));
+            } else {
+                assertEquals(ref.remove(value), set.remove(value));
+            }
+            assertEquals(ref.size(), set.size());
+            assertEquals(ref.contains(value), set.contains(value));
+        }
+        assertEquals(ref.toString(), set.toString());
+        assertEquals(ref, set);
+        assertEquals(set, ref);
+        assertEquals(ref.hashCode(), set.hashCode());
+        assertEquals(Arrays.toString(ref.toArray()), Arrays.toString(set.toArray()));
+    }
+    
+    public void test_iterator() {
+        final SortedArraySet<Integer> set = new SortedArraySet<Integer>(Arrays.asList(1, 2, 3, 4));
+        
+        final List<Integer> iterated = new ArrayList<Integer>();
+        final Iterator<Integer> it = set.iterator();
+        try {
+            it.remove();
+            assertTrue(false);
+        } catch (IllegalStateException e) {
+            // ok
+        }
+        while (it.hasNext()) {
+            final Integer value = it.next();
+            iterated.add(value);
+            if ((value.intValue() % 2) == 0) {
+                it.remove();
+            }
+        }
+        assertEquals("[1, 2, 3, 4]", iterated.toString());
+        assertEquals("[1, 3]", set.toString());
+        try {
+            it.next();
+            assertTrue(false);
+        } catch (NoSuchElementException e) {
+            // ok
+        }
+        
+        final Iterator<Integer> it2 = set.iterator();
+        it2.next();
+        set.add(0);
+        try {
+            it2.next();
+            assertTrue(false);
+        } catch (ConcurrentModificationException e) {
+            // ok
+        }
+    }
+    
+    public void test_first_and_last() {
+        final SortedArraySet<Integer> set = new SortedArraySet<Integer>();
+        try {
+            set.first();
+            assertTrue(false);
+        } catch (NoSuchElementException e) {
+            // ok
+        }
+        try {
+            set.last();
+            assertTrue(false);
+        } catch (NoSuchElementException e) {
+            // ok
+        }
+        
+        set.add(7);
+        set.add(3);
+        set.add(5);
+        assertEquals(3, set.first().intValue());
+        assertEquals(7, set.last().intValue());
+    }
+    
+    public void test_subSet_and_headSet_and_tailSet() {
+        final SortedArraySet<Integer> set = new SortedArraySet<Integer>(Arrays.asList(1, 3, 5, 7));
+        
+        try {
+            set.subSet(5, 3);
+            assertTrue(false);
+        } catch (IllegalArgumentException e) {
+            // ok
+        }
+        
+        assertEquals("[3, 5]", set.subSet(2, 7).toString());
+        assertEquals("[3, 5]", set.subSet(3, 6).toString());
+        assertEquals("[]", set.subSet(4, 4).toString());
+        assertEquals("[1, 3]", set.headSet(5).toString());
+        assertEquals("[]", set.headSet(0).toString());
+        assertEquals("[5, 7]", set.tailSet(4).toString());
+        assertEquals("[]", set.tailSet(8).toString());
+        
+        // Copies, not views.
+        set.headSet(5).clear();
+        assertEquals(4, set.size());
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2026 Jeff Hain
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.jadecy.utils;
+
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import junit.framework.TestCase;
+
+public class SortedSetUtilsTest extends TestCase {
+    
+    //--------------------------------------------------------------------------
+    // PUBLIC METHODS
+    //--------------------------------------------------------------------------
+
+    public void test_newSortedSet_boolean() {
+        for (boolean mustUseCompactStorage : new boolean[]{false,true}) {
+            final SortedSet<String> set = SortedSetUtils.newSortedSet(mustUseCompactStorage);
+            if (mustUseCompactStorage) {
+                assertEquals(SortedArraySet.class, set.getClass());
+            } else {
+                assertEquals(TreeSet.class, set.getClass());
+            }
+            assertEquals(0, set.size());
+            
+            set.add("b");
+            set.add("a");
+            assertEquals("[a, b]", set.toString());
+        }
+    }
+}